@@ -1,14 +1,20 @@
 package com.outbrain.swinfra.metrics;
 
 import com.outbrain.swinfra.metrics.children.ChildMetricRepo;
+import com.outbrain.swinfra.metrics.children.DenseChildrenRepo;
+import com.outbrain.swinfra.metrics.children.FrozenChildrenRepo;
+import com.outbrain.swinfra.metrics.children.LabeledChildrenOptions;
 import com.outbrain.swinfra.metrics.children.LabeledChildrenRepo;
 import com.outbrain.swinfra.metrics.children.MetricData;
+import com.outbrain.swinfra.metrics.children.ThreadLocalCachingChildRepo;
 import com.outbrain.swinfra.metrics.children.UnlabeledChildRepo;
+import com.outbrain.swinfra.metrics.exports.LabelCardinalityMetric;
 import com.outbrain.swinfra.metrics.utils.NameUtils;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * A base class for all the metrics.
@@ -20,6 +26,9 @@ abstract class AbstractMetric<T> implements Metric {
   private final String name;
   private final String help;
   private final List<String> labelNames;
+  private LabeledChildrenOptions childrenOptions = LabeledChildrenOptions.DEFAULT;
+  private String[][] labelDomains;
+  private List<String[]> fixedLabelValues;
   private ChildMetricRepo<T> childMetricRepo;
 
   AbstractMetric(final String name,
@@ -28,18 +37,47 @@ abstract class AbstractMetric<T> implements Metric {
     this.name = name;
     this.help = help;
     this.labelNames = Arrays.asList(labelNames);
+    this.labelDomains = new String[labelNames.length][];
   }
 
   ChildMetricRepo<T> createChildMetricRepo() {
     if (getLabelNames().isEmpty()) {
       return new UnlabeledChildRepo<>(getName(), new MetricData<>(createMetric()));
+    } else if (fixedLabelValues != null) {
+      return new FrozenChildrenRepo<>(
+              fixedLabelValues,
+              labelValues -> new MetricData<>(createMetric(), labelValues),
+              this::validateLabelValuesAndDomains);
+    } else if (DenseChildrenRepo.canIndex(labelDomains)) {
+      return new DenseChildrenRepo<>(
+              labelDomains,
+              labelValues -> new MetricData<>(createMetric(), labelValues),
+              this::validateLabelValuesAndDomains,
+              childrenOptions);
     } else {
-      return new LabeledChildrenRepo<>(
+      final ChildMetricRepo<T> repo = new LabeledChildrenRepo<>(
               labelValues -> new MetricData<>(createMetric(), labelValues),
-              labels -> {
-                NameUtils.validateLabelsCount(getName(), getLabelNames(), labels);
-                NameUtils.validateLabelValuesContainText(labels);
-              });
+              this::validateLabelValuesAndDomains,
+              childrenOptions,
+              () -> LabelCardinalityMetric.recordOverflow(getName()));
+      return childrenOptions.isThreadLocalCache() ? new ThreadLocalCachingChildRepo<>(repo) : repo;
+    }
+  }
+
+  void validateLabelValues(final String... labelValues) {
+    NameUtils.validateLabelsCount(getName(), getLabelNames(), labelValues);
+    NameUtils.validateLabelValuesContainText(labelValues);
+  }
+
+  private void validateLabelValuesAndDomains(final String... labelValues) {
+    validateLabelValues(labelValues);
+    for (int i = 0; i < labelDomains.length; i++) {
+      final String[] domain = labelDomains[i];
+      if (domain != null && !Arrays.asList(domain).contains(labelValues[i])) {
+        throw new IllegalArgumentException(String.format("%s allows the values %s for the label %s but got: %s",
+                                                         getName(), Arrays.toString(domain), labelNames.get(i),
+                                                         labelValues[i]));
+      }
     }
   }
 
@@ -62,7 +100,12 @@ abstract class AbstractMetric<T> implements Metric {
     return labelNames;
   }
 
-  void initChildMetricRepo() {
+  void initChildMetricRepo(final LabeledChildrenOptions childrenOptions,
+                           final String[][] labelDomains,
+                           final List<String[]> fixedLabelValues) {
+    this.childrenOptions = childrenOptions;
+    this.labelDomains = labelDomains;
+    this.fixedLabelValues = fixedLabelValues;
     this.childMetricRepo = createChildMetricRepo();
   }
 
@@ -70,6 +113,34 @@ abstract class AbstractMetric<T> implements Metric {
     return childMetricRepo.metricForLabels(labelValues);
   }
 
+  T metricForLabels(final String labelValue1) {
+    return childMetricRepo.metricForLabels(labelValue1);
+  }
+
+  T metricForLabels(final String labelValue1, final String labelValue2) {
+    return childMetricRepo.metricForLabels(labelValue1, labelValue2);
+  }
+
+  T metricForLabels(final String labelValue1, final String labelValue2, final String labelValue3) {
+    return childMetricRepo.metricForLabels(labelValue1, labelValue2, labelValue3);
+  }
+
+  MetricData<T> metricDataForLabels(final String... labelValues) {
+    return childMetricRepo.metricDataForLabels(labelValues);
+  }
+
+  boolean removeChild(final String... labelValues) {
+    return childMetricRepo.remove(labelValues);
+  }
+
+  void removeChildren(final Predicate<List<String>> labelValuesPredicate) {
+    childMetricRepo.removeIf(labelValuesPredicate);
+  }
+
+  void clearChildren() {
+    childMetricRepo.clear();
+  }
+
   void forEachChild(final Consumer<MetricData<T>> consumer) {
     childMetricRepo.forEachMetricData(consumer);
   }
@@ -1,12 +1,24 @@
 package com.outbrain.swinfra.metrics;
 
+import com.outbrain.swinfra.metrics.children.DenseChildrenRepo;
+import com.outbrain.swinfra.metrics.children.LabeledChildrenOptions;
+import com.outbrain.swinfra.metrics.children.LabeledChildrenRepo;
 import org.apache.commons.lang3.Validate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
 import static com.outbrain.swinfra.metrics.utils.NameUtils.validateLabelNames;
+import static com.outbrain.swinfra.metrics.utils.NameUtils.validateLabelValuesContainText;
 import static com.outbrain.swinfra.metrics.utils.NameUtils.validateMetricName;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
-public abstract class AbstractMetricBuilder<T extends AbstractMetric, B extends AbstractMetricBuilder<T, B>> {
+public abstract class AbstractMetricBuilder<T extends AbstractMetric<?>, B extends AbstractMetricBuilder<T, B>> {
 
   private final String name;
   private final String help;
@@ -14,6 +26,9 @@ public abstract class AbstractMetricBuilder<T extends AbstractMetric, B extends
   private String namespace = "";
   private String subsystem = "";
   String[] labelNames = new String[] {};
+  private LabeledChildrenOptions childrenOptions = LabeledChildrenOptions.DEFAULT;
+  private final Map<String, String[]> labelDomains = new HashMap<>();
+  private List<String[]> fixedLabelValues;
 
   AbstractMetricBuilder(final String name, final String help) {
     this.name = name;
@@ -35,12 +50,102 @@ public abstract class AbstractMetricBuilder<T extends AbstractMetric, B extends
     return getThis();
   }
 
+  /**
+   * Declares the only values the given label may have, so that updates with other values are rejected.
+   * <p>
+   * When every label of the metric has a domain, and the combinations of their values are at most
+   * {@value DenseChildrenRepo#MAX_SLOTS}, each child is kept in a fixed slot of an array and found without hashing
+   * the label values. Passing the same String instances that were declared, e.g. constants or the names of enum
+   * constants, makes finding the child the cheapest.
+   * </p>
+   */
+  public B withLabelDomain(final String labelName, final String... labelValues) {
+    this.labelDomains.put(labelName, labelValues.clone());
+    return getThis();
+  }
+
+  /**
+   * Declares the names of the constants of the given enum as the only values the given label may have.
+   * @see #withLabelDomain(String, String...)
+   */
+  public B withLabelDomain(final String labelName, final Class<? extends Enum<?>> enumClass) {
+    final String[] labelValues = Arrays.stream(enumClass.getEnumConstants())
+                                       .map(constant -> constant.name())
+                                       .toArray(String[]::new);
+    return withLabelDomain(labelName, labelValues);
+  }
+
+  /**
+   * Declares all the label value combinations this metric will ever have. Their children are created when the metric
+   * is built and found without locking, while updates with other label values are rejected.
+   * <p>
+   * Since the children are fixed, they can neither be removed nor expire, and the other options that control the
+   * children of the metric do not apply.
+   * </p>
+   */
+  public B withFixedLabelValues(final List<String[]> fixedLabelValues) {
+    this.fixedLabelValues = new ArrayList<>(fixedLabelValues);
+    return getThis();
+  }
+
+  /**
+   * Limits the number of label value combinations this metric may have. Once the limit is reached, updates with new
+   * label values are recorded in a single overflow child whose label values are all
+   * {@value LabeledChildrenRepo#OVERFLOW_LABEL_VALUE}, and counted by
+   * {@link com.outbrain.swinfra.metrics.exports.LabelCardinalityMetric}.
+   * <p>
+   * This protects the process from running out of memory when a label is given unbounded values by mistake,
+   * e.g. a request id. Updates of existing children are not affected by the limit.
+   * </p>
+   */
+  public B withMaxCardinality(final int maxCardinality) {
+    this.childrenOptions = childrenOptions.withMaxCardinality(maxCardinality);
+    return getThis();
+  }
+
+  /**
+   * Removes children that were not updated for the given time, so that label values which are no longer in use,
+   * e.g. the id of a host that was decommissioned, do not keep their children forever.
+   * <p>
+   * Expired children are removed when the metric is exported, so a child is exported for at least the given time
+   * after its last update. A removed child is created again, starting from zero, by its next update - counters
+   * stay monotonic for as long as a child lives, and Prometheus treats the new child as a counter reset.
+   * </p>
+   */
+  public B withChildExpiry(final Duration childExpiry) {
+    this.childrenOptions = childrenOptions.withChildExpiry(childExpiry);
+    return getThis();
+  }
+
+  /**
+   * Keeps a single instance of every label value in this metric, rather than the instance given by the first update
+   * of each child. This saves memory when many children share label values that are not constants, e.g. values
+   * parsed from requests, and should be avoided for labels with unbounded values since the values are kept for
+   * the life of the metric.
+   */
+  public B withInternedLabelValues() {
+    this.childrenOptions = childrenOptions.withInternedLabelValues();
+    return getThis();
+  }
+
+  /**
+   * Makes every thread remember the child it updated last, so that a thread that updates the same label values
+   * many times in a row finds the child without looking it up. Metrics whose labels all have domains do not use
+   * the cache, since they find their children by index.
+   *
+   * @see com.outbrain.swinfra.metrics.children.ThreadLocalCachingChildRepo
+   */
+  public B withThreadLocalChildCache() {
+    this.childrenOptions = childrenOptions.withThreadLocalCache();
+    return getThis();
+  }
+
   protected abstract T create(final String fullName, final String help, final String[] labelNames);
 
   public T build() {
     validateParams();
     final T metric = create(createFullName(), help, labelNames);
-    metric.initChildMetricRepo();
+    metric.initChildMetricRepo(childrenOptions, labelDomainsByPosition(), fixedLabelValues);
     return metric;
   }
 
@@ -48,6 +153,28 @@ public abstract class AbstractMetricBuilder<T extends AbstractMetric, B extends
     Validate.notBlank(help, "The metric's help must contain text");
     validateMetricName(name);
     validateLabelNames(labelNames);
+    if (fixedLabelValues != null) {
+      Validate.isTrue(labelNames.length > 0, "Fixed label values require labels");
+      Validate.notEmpty(fixedLabelValues, "At least one combination of fixed label values must be given");
+    }
+    labelDomains.forEach((labelName, labelValues) -> {
+      Validate.isTrue(Arrays.asList(labelNames).contains(labelName),
+                      "The label %s has a domain but is not one of the labels %s",
+                      labelName, Arrays.toString(labelNames));
+      Validate.isTrue(labelValues.length > 0, "The domain of the label %s must not be empty", labelName);
+      validateLabelValuesContainText(labelValues);
+      Validate.isTrue(new HashSet<>(Arrays.asList(labelValues)).size() == labelValues.length,
+                      "The domain of the label %s contains duplicate values %s",
+                      labelName, Arrays.toString(labelValues));
+    });
+  }
+
+  private String[][] labelDomainsByPosition() {
+    final String[][] result = new String[labelNames.length][];
+    for (int i = 0; i < labelNames.length; i++) {
+      result[i] = labelDomains.get(labelNames[i]);
+    }
+    return result;
   }
 
   private String createFullName() {
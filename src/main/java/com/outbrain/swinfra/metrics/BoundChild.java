@@ -0,0 +1,32 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.children.MetricData;
+
+/**
+ * The base of the handles returned by the <i>labels</i> methods of the metrics.
+ * A handle keeps the child it was bound to, and binds itself to a new child of the same label values when its child
+ * was removed from the metric, e.g. because it expired.
+ * @param <T> the type of the wrapped metric
+ */
+abstract class BoundChild<T> {
+
+  private final AbstractMetric<T> metric;
+  private final String[] labelValues;
+  // Racy but benign - every thread that finds the child removed binds the handle to the same new child
+  private MetricData<T> metricData;
+
+  BoundChild(final AbstractMetric<T> metric, final String[] labelValues) {
+    this.metric = metric;
+    this.labelValues = labelValues.clone();
+    this.metricData = metric.metricDataForLabels(this.labelValues);
+  }
+
+  final T child() {
+    MetricData<T> metricData = this.metricData;
+    if (!metricData.markUpdated()) {
+      metricData = metric.metricDataForLabels(labelValues);
+      this.metricData = metricData;
+    }
+    return metricData.getMetric();
+  }
+}
@@ -0,0 +1,398 @@
+package com.outbrain.swinfra.metrics;
+
+import org.HdrHistogram.WriterReaderPhaser;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the count of every bucket of a histogram child, and the sum of its observations.
+ * <p>
+ * The implementation is chosen when the histogram is built, and trades the throughput of the observations for the
+ * consistency of the snapshots.
+ * </p>
+ */
+interface BucketCounters {
+
+  /**
+   * @param bucket the index of the bucket of the value, or -1 if the value belongs to no bucket
+   */
+  void add(int bucket, double value);
+
+  /**
+   * Adds an observation that is a whole number of units. The sum of these observations is kept apart from the sum of
+   * the other observations, as a long, so it stays exact until a snapshot converts it.
+   *
+   * @param bucket the index of the bucket of the value
+   */
+  void add(int bucket, long value);
+
+  /**
+   * Adds a batch of observations that were already counted by bucket, with a single update of every bucket that
+   * the batch touched
+   *
+   * @param counts the number of observations of every bucket
+   * @param sum the sum of the observations
+   */
+  void addAll(long[] counts, double sum);
+
+  /**
+   * Fills the given array with the count of every bucket
+   *
+   * @param unit the value of a single unit of the observations that were added as longs
+   * @return the sum of the observations
+   */
+  double snapshot(long[] counts, double unit);
+
+  /**
+   * Drops all the observations, so the counters can be reused. Observations that are added concurrently may be
+   * either dropped or kept.
+   */
+  void reset();
+
+  /**
+   * The fastest counters, where the count of every bucket and the sum are read one after the other while observations
+   * go on. The snapshot may therefore include some of the concurrent observations in some buckets but not in
+   * the sum.
+   */
+  class Adders implements BucketCounters {
+
+    private final LongAdder[] buckets;
+    private final DoubleAdder sum = new DoubleAdder();
+    private final LongAdder longSum = new LongAdder();
+
+    Adders(final int bucketsCount) {
+      this.buckets = new LongAdder[bucketsCount];
+      for (int i = 0; i < bucketsCount; i++) {
+        buckets[i] = new LongAdder();
+      }
+    }
+
+    @Override
+    public void add(final int bucket, final double value) {
+      if (bucket >= 0) {
+        buckets[bucket].add(1);
+      }
+      sum.add(value);
+    }
+
+    @Override
+    public void add(final int bucket, final long value) {
+      buckets[bucket].add(1);
+      longSum.add(value);
+    }
+
+    @Override
+    public void addAll(final long[] counts, final double sum) {
+      for (int i = 0; i < buckets.length; i++) {
+        if (counts[i] != 0) {
+          buckets[i].add(counts[i]);
+        }
+      }
+      this.sum.add(sum);
+    }
+
+    @Override
+    public double snapshot(final long[] counts, final double unit) {
+      //Saving a snapshot of the sum so it will not be affected by values added while the buckets are calculated
+      final double sumSnapshot = sum.sum() + longSum.sum() * unit;
+      for (int i = 0; i < buckets.length; i++) {
+        counts[i] = buckets[i].sum();
+      }
+      return sumSnapshot;
+    }
+
+    @Override
+    public void reset() {
+      for (final LongAdder bucket : buckets) {
+        bucket.reset();
+      }
+      sum.reset();
+      longSum.reset();
+    }
+  }
+
+  /**
+   * Compact counters that keep all the buckets and the sum of a child in a single array, instead of an adder object
+   * per bucket.
+   * <p>
+   * Observations are added to a base row, whose last two slots hold the bits of the sum and the sum of the
+   * observations that were added as longs. The first time an update of the
+   * base row fails because of contention, a matrix of one row per stripe is allocated, and from then on an
+   * observation that fails to update the base row is added to the row of its thread. Every row is padded to whole
+   * cache lines, so threads that add to different rows do not share a cache line. Unlike the cells of a
+   * {@link LongAdder}, which are allocated per bucket, the rows are shared by all the buckets of the child.
+   * </p>
+   * <p>
+   * Snapshots are not atomic, same as those of {@link Adders}.
+   * </p>
+   */
+  class Striped implements BucketCounters {
+
+    private static final int CACHE_LINE_LONGS = 8;
+    private static final int MAX_STRIPES = stripesFor(Runtime.getRuntime().availableProcessors());
+
+    private final int sumIndex;
+    private final int longSumIndex;
+    private final AtomicLongArray base;
+    private volatile AtomicLongArray stripes;
+
+    Striped(final int bucketsCount) {
+      this.sumIndex = bucketsCount;
+      this.longSumIndex = bucketsCount + 1;
+      this.base = new AtomicLongArray(bucketsCount + 2);
+    }
+
+    @Override
+    public void add(final int bucket, final double value) {
+      if (bucket >= 0 && !tryIncrement(base, bucket)) {
+        increment(stripeOffset(), bucket);
+      }
+      if (!tryAdd(base, sumIndex, value)) {
+        addToStripe(stripeOffset(), value);
+      }
+    }
+
+    @Override
+    public void add(final int bucket, final long value) {
+      if (!tryIncrement(base, bucket)) {
+        increment(stripeOffset(), bucket);
+      }
+      if (!tryAdd(base, longSumIndex, value)) {
+        stripes().getAndAdd(stripeOffset() + longSumIndex, value);
+      }
+    }
+
+    @Override
+    public void addAll(final long[] counts, final double sum) {
+      for (int i = 0; i < sumIndex; i++) {
+        if (counts[i] != 0 && !tryAdd(base, i, counts[i])) {
+          stripes().getAndAdd(stripeOffset() + i, counts[i]);
+        }
+      }
+      if (!tryAdd(base, sumIndex, sum)) {
+        addToStripe(stripeOffset(), sum);
+      }
+    }
+
+    @Override
+    public double snapshot(final long[] counts, final double unit) {
+      final AtomicLongArray stripes = this.stripes;
+      double sum = Double.longBitsToDouble(base.get(sumIndex));
+      long longSum = base.get(longSumIndex);
+      for (int i = 0; i < sumIndex; i++) {
+        counts[i] = base.get(i);
+      }
+      if (stripes != null) {
+        final int stride = stride();
+        for (int offset = CACHE_LINE_LONGS; offset < stripes.length(); offset += stride) {
+          sum += Double.longBitsToDouble(stripes.get(offset + sumIndex));
+          longSum += stripes.get(offset + longSumIndex);
+          for (int i = 0; i < sumIndex; i++) {
+            counts[i] += stripes.get(offset + i);
+          }
+        }
+      }
+      return sum + longSum * unit;
+    }
+
+    @Override
+    public void reset() {
+      for (int i = 0; i < base.length(); i++) {
+        base.lazySet(i, 0);
+      }
+      final AtomicLongArray stripes = this.stripes;
+      if (stripes != null) {
+        for (int i = 0; i < stripes.length(); i++) {
+          stripes.lazySet(i, 0);
+        }
+      }
+    }
+
+    private void increment(final int offset, final int bucket) {
+      stripes().getAndIncrement(offset + bucket);
+    }
+
+    private void addToStripe(final int offset, final double value) {
+      final AtomicLongArray stripes = stripes();
+      boolean added;
+      do {
+        added = tryAdd(stripes, offset + sumIndex, value);
+      } while (!added);
+    }
+
+    private AtomicLongArray stripes() {
+      AtomicLongArray stripes = this.stripes;
+      if (stripes == null) {
+        synchronized (this) {
+          stripes = this.stripes;
+          if (stripes == null) {
+            // The rows are preceded by a cache line, so the first row does not share a line with the array header
+            stripes = new AtomicLongArray(CACHE_LINE_LONGS + MAX_STRIPES * stride());
+            this.stripes = stripes;
+          }
+        }
+      }
+      return stripes;
+    }
+
+    // The offset of the row of the current thread
+    private int stripeOffset() {
+      final long id = Thread.currentThread().getId();
+      final int stripe = (int) ((id * 0x9e3779b97f4a7c15L) >>> 32) & (MAX_STRIPES - 1);
+      return CACHE_LINE_LONGS + stripe * stride();
+    }
+
+    private int stride() {
+      return (longSumIndex + CACHE_LINE_LONGS) & -CACHE_LINE_LONGS;
+    }
+
+    private static boolean tryIncrement(final AtomicLongArray counters, final int index) {
+      final long count = counters.get(index);
+      return counters.compareAndSet(index, count, count + 1);
+    }
+
+    private static boolean tryAdd(final AtomicLongArray counters, final int index, final long value) {
+      final long sum = counters.get(index);
+      return counters.compareAndSet(index, sum, sum + value);
+    }
+
+    private static boolean tryAdd(final AtomicLongArray counters, final int index, final double value) {
+      final long bits = counters.get(index);
+      return counters.compareAndSet(index, bits,
+                                    Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + value));
+    }
+
+    private static int stripesFor(final int processors) {
+      return processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+    }
+  }
+
+  /**
+   * Counters whose snapshots are atomic - every observation is either in all of the buckets and the sum of a
+   * snapshot, or in none of them.
+   * <p>
+   * As in HdrHistogram's Recorder, observations are added to the active one of two intervals, within the critical
+   * section of a {@link WriterReaderPhaser}. A snapshot makes the other interval active, waits for the observations
+   * that are still adding to the previous one, and only then adds that interval to the totals. Observations never
+   * wait for a snapshot, they only pay for entering and leaving the critical section, which are two atomic increments
+   * of the same counter.
+   * </p>
+   */
+  class Phased implements BucketCounters {
+
+    private final WriterReaderPhaser phaser = new WriterReaderPhaser();
+    private volatile Interval active;
+
+    // Guarded by the reader lock of the phaser
+    private Interval inactive;
+    private final long[] totalCounts;
+    private double totalSum;
+    private long totalLongSum;
+
+    Phased(final int bucketsCount) {
+      this.active = new Interval(bucketsCount);
+      this.inactive = new Interval(bucketsCount);
+      this.totalCounts = new long[bucketsCount];
+    }
+
+    @Override
+    public void add(final int bucket, final double value) {
+      final long criticalValue = phaser.writerCriticalSectionEnter();
+      try {
+        final Interval interval = active;
+        if (bucket >= 0) {
+          interval.counts.getAndIncrement(bucket);
+        }
+        interval.sum.add(value);
+      } finally {
+        phaser.writerCriticalSectionExit(criticalValue);
+      }
+    }
+
+    @Override
+    public void add(final int bucket, final long value) {
+      final long criticalValue = phaser.writerCriticalSectionEnter();
+      try {
+        final Interval interval = active;
+        interval.counts.getAndIncrement(bucket);
+        interval.longSum.add(value);
+      } finally {
+        phaser.writerCriticalSectionExit(criticalValue);
+      }
+    }
+
+    @Override
+    public void addAll(final long[] counts, final double sum) {
+      final long criticalValue = phaser.writerCriticalSectionEnter();
+      try {
+        final Interval interval = active;
+        for (int i = 0; i < counts.length; i++) {
+          if (counts[i] != 0) {
+            interval.counts.getAndAdd(i, counts[i]);
+          }
+        }
+        interval.sum.add(sum);
+      } finally {
+        phaser.writerCriticalSectionExit(criticalValue);
+      }
+    }
+
+    @Override
+    public double snapshot(final long[] counts, final double unit) {
+      phaser.readerLock();
+      try {
+        final Interval previous = active;
+        inactive.reset();
+        active = inactive;
+        phaser.flipPhase();
+        // No observation is adding to the previous interval anymore
+        inactive = previous;
+        for (int i = 0; i < totalCounts.length; i++) {
+          totalCounts[i] += previous.counts.get(i);
+        }
+        totalSum += previous.sum.sum();
+        totalLongSum += previous.longSum.sum();
+        System.arraycopy(totalCounts, 0, counts, 0, totalCounts.length);
+        return totalSum + totalLongSum * unit;
+      } finally {
+        phaser.readerUnlock();
+      }
+    }
+
+    @Override
+    public void reset() {
+      phaser.readerLock();
+      try {
+        active.reset();
+        inactive.reset();
+        Arrays.fill(totalCounts, 0);
+        totalSum = 0;
+        totalLongSum = 0;
+      } finally {
+        phaser.readerUnlock();
+      }
+    }
+
+    private static class Interval {
+
+      private final AtomicLongArray counts;
+      private final DoubleAdder sum = new DoubleAdder();
+      private final LongAdder longSum = new LongAdder();
+
+      private Interval(final int bucketsCount) {
+        this.counts = new AtomicLongArray(bucketsCount);
+      }
+
+      private void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+          counts.lazySet(i, 0);
+        }
+        sum.reset();
+        longSum.reset();
+      }
+    }
+  }
+}
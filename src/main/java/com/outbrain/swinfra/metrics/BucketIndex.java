@@ -0,0 +1,231 @@
+package com.outbrain.swinfra.metrics;
+
+/**
+ * Finds the bucket a histogram observation belongs to - the index of the first bucket bound that is larger than or
+ * equal to the value. The last bound is always <i>+Inf</i>, and NaN belongs to no bucket.
+ * <p>
+ * The strategy is chosen once, when the histogram is created, from the layout of its buckets. Layouts that are
+ * computed from a formula use the formula to estimate the index and then correct the estimate against the actual
+ * bounds, so the result is always the same as that of a scan over the bounds, in spite of rounding errors.
+ * </p>
+ */
+interface BucketIndex {
+
+  /**
+   * Up to this number of bounds a scan is at least as fast as a binary search
+   */
+  int MAX_LINEAR_SCAN_BOUNDS = 8;
+
+  /**
+   * @return the index of the bucket of the given value, or -1 if the value is NaN
+   */
+  int indexOf(double value);
+
+  /**
+   * Returns a binary search over the given bounds, or a scan if there are only a few bounds or they are not sorted
+   */
+  static BucketIndex search(final double[] bounds) {
+    return bounds.length <= MAX_LINEAR_SCAN_BOUNDS || !isStrictlyIncreasing(bounds) ?
+           new LinearScan(bounds) :
+           new BinarySearch(bounds);
+  }
+
+  /**
+   * @param bounds the bounds <i>start + i * width</i>, followed by <i>+Inf</i>
+   */
+  static BucketIndex equalWidth(final double[] bounds, final double start, final double width) {
+    return new EqualWidth(bounds, start, width);
+  }
+
+  /**
+   * @param bounds the bounds <i>start * factor<sup>i</sup></i>, followed by <i>+Inf</i>
+   */
+  static BucketIndex exponential(final double[] bounds, final double start, final double factor) {
+    return new Exponential(bounds, start, factor);
+  }
+
+  /**
+   * @param bounds the bounds <i>2<sup>minExponent</sup></i> followed by <i>2<sup>subBucketsBits</sup></i> equal width
+   *               bounds for every following power of two, followed by <i>+Inf</i>
+   */
+  static BucketIndex logLinear(final double[] bounds, final int minExponent, final int subBucketsBits) {
+    return new LogLinear(bounds, minExponent, subBucketsBits);
+  }
+
+  static boolean isStrictlyIncreasing(final double[] bounds) {
+    for (int i = 1; i < bounds.length; i++) {
+      if (!(bounds[i - 1] < bounds[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  class LinearScan implements BucketIndex {
+
+    private final double[] bounds;
+
+    LinearScan(final double[] bounds) {
+      this.bounds = bounds;
+    }
+
+    @Override
+    public int indexOf(final double value) {
+      for (int i = 0; i < bounds.length; i++) {
+        if (value <= bounds[i]) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  class BinarySearch implements BucketIndex {
+
+    private final double[] bounds;
+
+    BinarySearch(final double[] bounds) {
+      this.bounds = bounds;
+    }
+
+    @Override
+    public int indexOf(final double value) {
+      if (value != value) {
+        return -1;
+      }
+      // The number of iterations depends only on the number of bounds and the loop body has no data dependent
+      // branch, so the search does not suffer the branch mispredictions of a textbook binary search
+      int low = 0;
+      int length = bounds.length;
+      while (length > 1) {
+        final int half = length >>> 1;
+        low = bounds[low + half - 1] < value ? low + half : low;
+        length -= half;
+      }
+      return low;
+    }
+  }
+
+  /**
+   * Estimates the index from the distance of the value from the first bound
+   */
+  class EqualWidth implements BucketIndex {
+
+    private final double[] bounds;
+    private final double start;
+    private final double inverseWidth;
+
+    EqualWidth(final double[] bounds, final double start, final double width) {
+      this.bounds = bounds;
+      this.start = start;
+      this.inverseWidth = 1 / width;
+    }
+
+    @Override
+    public int indexOf(final double value) {
+      if (value != value) {
+        return -1;
+      }
+      if (value <= start) {
+        return 0;
+      }
+      return correct(bounds, value, (int) Math.min(Math.ceil((value - start) * inverseWidth), bounds.length - 1));
+    }
+  }
+
+  /**
+   * Estimates the index from the logarithm of the ratio between the value and the first bound. The logarithm is
+   * approximated from the exponent and the mantissa of the value, which is cheaper than {@link Math#log(double)},
+   * and is accurate enough to be corrected by a step at most for factors down to about 1.01.
+   */
+  class Exponential implements BucketIndex {
+
+    private static final long MANTISSA_MASK = (1L << 52) - 1;
+    private static final long ONE_BITS = Double.doubleToRawLongBits(1);
+
+    private final double[] bounds;
+    private final double start;
+    private final double log2Start;
+    private final double inverseLog2Factor;
+
+    Exponential(final double[] bounds, final double start, final double factor) {
+      this.bounds = bounds;
+      this.start = start;
+      this.log2Start = approximateLog2(start);
+      this.inverseLog2Factor = 1 / (Math.log(factor) / Math.log(2));
+    }
+
+    @Override
+    public int indexOf(final double value) {
+      if (value != value) {
+        return -1;
+      }
+      if (value <= start) {
+        return 0;
+      }
+      final double estimate = Math.ceil((approximateLog2(value) - log2Start) * inverseLog2Factor);
+      return correct(bounds, value, (int) Math.max(0, Math.min(estimate, bounds.length - 1)));
+    }
+
+    // The exponent plus a quadratic fit of log2(1 + mantissa), whose error is below 0.008
+    static double approximateLog2(final double value) {
+      final long bits = Double.doubleToRawLongBits(value);
+      final double mantissa = Double.longBitsToDouble((bits & MANTISSA_MASK) | ONE_BITS) - 1;
+      return Math.getExponent(value) + mantissa * (1.3466 - 0.3466 * mantissa);
+    }
+  }
+
+  /**
+   * Reads the index from the bits of the value - its exponent selects the power of two, and the top bits of its
+   * mantissa select the sub bucket. The bounds are exact powers of two and their binary fractions, so no
+   * comparison is needed to correct the index.
+   */
+  class LogLinear implements BucketIndex {
+
+    private final double[] bounds;
+    private final double minBound;
+    private final double maxBound;
+    private final int minExponent;
+    private final int subBucketsBits;
+
+    LogLinear(final double[] bounds, final int minExponent, final int subBucketsBits) {
+      this.bounds = bounds;
+      this.minBound = bounds[0];
+      this.maxBound = bounds[bounds.length - 2];
+      this.minExponent = minExponent;
+      this.subBucketsBits = subBucketsBits;
+    }
+
+    @Override
+    public int indexOf(final double value) {
+      if (value != value) {
+        return -1;
+      }
+      if (value <= minBound) {
+        return 0;
+      }
+      if (value > maxBound) {
+        return bounds.length - 1;
+      }
+      // The bounds are inclusive, so a value that is equal to a bound has to be read as the value just below it.
+      // Both values are positive and normal, so the bits of the value just below it are the bits minus one.
+      final long bits = Double.doubleToRawLongBits(value) - 1;
+      final int exponent = (int) (bits >>> 52) - 1023;
+      final int subBucket = (int) (bits >>> (52 - subBucketsBits)) & ((1 << subBucketsBits) - 1);
+      return ((exponent - minExponent) << subBucketsBits) + subBucket + 1;
+    }
+  }
+
+  // Moves an estimated index, which may be off by one because of rounding, to the first bound that is larger than
+  // or equal to the value
+  static int correct(final double[] bounds, final double value, final int estimate) {
+    int index = estimate;
+    while (index > 0 && value <= bounds[index - 1]) {
+      index--;
+    }
+    while (value > bounds[index]) {
+      index++;
+    }
+    return index;
+  }
+}
@@ -0,0 +1,64 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.utils.LabelUtils;
+
+/**
+ * The buckets of a histogram, which are the same for all of its children - the bounds, the indexes that find the
+ * bucket of an observation, and the bounds formatted as the values of the <i>le</i> label.
+ * <p>
+ * A layout is built once per histogram and is immutable, so every child only keeps a reference to it next to its
+ * counters, and exporters reuse the same formatted bounds for every child on every scrape.
+ * </p>
+ */
+class BucketLayout {
+
+  private final double[] bounds;
+  private final String[] boundLabels;
+  private final BucketIndex bucketIndex;
+  private final LongBucketIndex longBucketIndex;
+  private final boolean cummulativeBuckets;
+
+  /**
+   * @param bounds the bounds of the buckets, ending with <i>+Inf</i>
+   * @param bucketIndex the index of the bounds, or null to search them
+   * @param longBucketIndex the index of the bounds for long observations, or null for observations in the unit of
+   *                        the bounds
+   */
+  BucketLayout(final double[] bounds,
+               final BucketIndex bucketIndex,
+               final LongBucketIndex longBucketIndex,
+               final boolean cummulativeBuckets) {
+    this.bounds = bounds;
+    this.boundLabels = new String[bounds.length];
+    for (int i = 0; i < bounds.length; i++) {
+      boundLabels[i] = LabelUtils.doubleToGoString(bounds[i]);
+    }
+    this.bucketIndex = bucketIndex == null ? BucketIndex.search(bounds) : bucketIndex;
+    this.longBucketIndex = longBucketIndex == null ? new LongBucketIndex(bounds, 1) : longBucketIndex;
+    this.cummulativeBuckets = cummulativeBuckets;
+  }
+
+  int getBucketsCount() {
+    return bounds.length;
+  }
+
+  double[] getBounds() {
+    return bounds;
+  }
+
+  String getBoundLabel(final int bucket) {
+    return boundLabels[bucket];
+  }
+
+  BucketIndex getBucketIndex() {
+    return bucketIndex;
+  }
+
+  LongBucketIndex getLongBucketIndex() {
+    return longBucketIndex;
+  }
+
+  boolean isCummulativeBuckets() {
+    return cummulativeBuckets;
+  }
+}
@@ -0,0 +1,135 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.timing.Clock;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the observations of a histogram child over a sliding window of time, in a ring of intervals that each have
+ * their own bucket counters.
+ * <p>
+ * There is no background thread - the interval of an observation is the current tick of the clock divided by the
+ * length of an interval, and the first observation of a new interval replaces the oldest interval of the ring with a
+ * new one. The replacement is a single compare and set, so observations never wait for it. An observation that
+ * read the clock just before the replacement may still be added to the replaced interval, and is then dropped with
+ * it, along with the rest of the observations that are leaving the window.
+ * </p>
+ * <p>
+ * The counters of a replaced interval are reset by the next snapshot, and then reused by the next replacement, so
+ * observations never reset counters and a window that is read regularly allocates no counters as it moves. An
+ * observation that was still adding to the replaced interval when its counters were reset may be counted in the
+ * interval that reuses them.
+ * </p>
+ * <p>
+ * A snapshot merges the intervals that are still in the window, without changing them, so it can be taken any
+ * number of times. The window covers the current interval, which is partial, and all the previous intervals of the
+ * ring.
+ * </p>
+ */
+class BucketWindow {
+
+  private final int bucketsCount;
+  private final IntFunction<BucketCounters> countersFactory;
+  private final long intervalNanos;
+  private final Clock clock;
+  private final AtomicReferenceArray<Interval> intervals;
+
+  // The counters of the last replaced interval, which are yet to be reset, and reset counters for the next interval
+  private final AtomicReference<BucketCounters> replacedCounters = new AtomicReference<>();
+  private final AtomicReference<BucketCounters> spareCounters = new AtomicReference<>();
+
+  BucketWindow(final int bucketsCount,
+               final IntFunction<BucketCounters> countersFactory,
+               final long intervalNanos,
+               final int intervalsCount,
+               final Clock clock) {
+    this.bucketsCount = bucketsCount;
+    this.countersFactory = countersFactory;
+    this.intervalNanos = intervalNanos;
+    this.clock = clock;
+    this.intervals = new AtomicReferenceArray<>(intervalsCount);
+  }
+
+  void add(final int bucket, final double value) {
+    currentCounters().add(bucket, value);
+  }
+
+  void add(final int bucket, final long value) {
+    currentCounters().add(bucket, value);
+  }
+
+  void addAll(final long[] counts, final double sum) {
+    currentCounters().addAll(counts, sum);
+  }
+
+  /**
+   * Fills the given array with the count of every bucket within the window
+   *
+   * @return the sum of the observations within the window
+   */
+  double snapshot(final long[] counts, final double unit) {
+    final BucketCounters replaced = replacedCounters.getAndSet(null);
+    if (replaced != null) {
+      replaced.reset();
+      spareCounters.set(replaced);
+    }
+    final long epoch = currentEpoch();
+    final long[] intervalCounts = new long[bucketsCount];
+    Arrays.fill(counts, 0);
+    double sum = 0;
+    for (int i = 0; i < intervals.length(); i++) {
+      final Interval interval = intervals.get(i);
+      if (interval != null && interval.epoch <= epoch && interval.epoch > epoch - intervals.length()) {
+        sum += interval.counters.snapshot(intervalCounts, unit);
+        for (int bucket = 0; bucket < bucketsCount; bucket++) {
+          counts[bucket] += intervalCounts[bucket];
+        }
+      }
+    }
+    return sum;
+  }
+
+  private BucketCounters currentCounters() {
+    final long epoch = currentEpoch();
+    final int index = (int) Math.floorMod(epoch, (long) intervals.length());
+    Interval interval = intervals.get(index);
+    // An interval that is newer than the clock that was read belongs to the window as well
+    while (interval == null || interval.epoch < epoch) {
+      final Interval next = new Interval(epoch, nextCounters());
+      if (intervals.compareAndSet(index, interval, next)) {
+        if (interval != null) {
+          replacedCounters.set(interval.counters);
+        }
+        return next.counters;
+      }
+      // Another observation replaced the interval, so the counters are kept, still reset, for the next replacement
+      spareCounters.set(next.counters);
+      interval = intervals.get(index);
+    }
+    return interval.counters;
+  }
+
+  private BucketCounters nextCounters() {
+    final BucketCounters spare = spareCounters.getAndSet(null);
+    return spare != null ? spare : countersFactory.apply(bucketsCount);
+  }
+
+  private long currentEpoch() {
+    return Math.floorDiv(clock.getTick(TimeUnit.NANOSECONDS), intervalNanos);
+  }
+
+  private static class Interval {
+
+    private final long epoch;
+    private final BucketCounters counters;
+
+    private Interval(final long epoch, final BucketCounters counters) {
+      this.epoch = epoch;
+      this.counters = counters;
+    }
+  }
+}
@@ -1,10 +1,16 @@
 package com.outbrain.swinfra.metrics;
 
 
+import com.outbrain.swinfra.metrics.data.Exemplar;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
 import com.outbrain.swinfra.metrics.utils.MetricType;
+import org.apache.commons.lang3.Validate;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
 import static com.outbrain.swinfra.metrics.utils.MetricType.COUNTER;
 
@@ -13,13 +19,23 @@ import static com.outbrain.swinfra.metrics.utils.MetricType.COUNTER;
  * <p>
  * The counter exposes a single time-series with its value and labels.
  * </p>
+ * <p>
+ * Increments can carry exemplar labels, e.g. the id of the trace they were made in. Every child keeps one exemplar,
+ * which is exported along with its value, and is replaced at most once per sample interval.
+ * </p>
  *
  * @see <a href="https://prometheus.io/docs/concepts/metric_types/#counter">Prometheus counter metric</a>
  */
 public class Counter extends AbstractMetric<LongAdder> {
 
-  private Counter(final String name, final String help, final String[] labelNames) {
+  private final ExemplarSampler exemplarSampler;
+
+  private Counter(final String name,
+                  final String help,
+                  final String[] labelNames,
+                  final ExemplarSampler exemplarSampler) {
     super(name, help, labelNames);
+    this.exemplarSampler = exemplarSampler;
   }
 
   public void inc(final String... labelValues) {
@@ -30,13 +46,90 @@ public class Counter extends AbstractMetric<LongAdder> {
     metricForLabels(labelValues).add(n);
   }
 
+  // Fixed arity overloads for metrics with one to three labels, these do not allocate a varargs array
+
+  public void inc(final String labelValue1) {
+    metricForLabels(labelValue1).increment();
+  }
+
+  public void inc(final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).increment();
+  }
+
+  public void inc(final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).increment();
+  }
+
+  public void inc(final long n, final String labelValue1) {
+    metricForLabels(labelValue1).add(n);
+  }
+
+  public void inc(final long n, final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).add(n);
+  }
+
+  public void inc(final long n, final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).add(n);
+  }
+
+  /**
+   * Increments the counter by the given amount, and offers the increment as the exemplar of the child
+   *
+   * @param exemplarLabels the names and the values of the labels of the exemplar, one after the other
+   */
+  public void incWithExemplar(final long n, final String[] exemplarLabels, final String... labelValues) {
+    Exemplar.validateLabels(exemplarLabels);
+    add(metricForLabels(labelValues), n, exemplarLabels);
+  }
+
   public long getValue(final String... labelValues) {
     return metricForLabels(labelValues).longValue();
   }
 
+  /**
+   * Resolves the child of the given label values once and returns a handle to it.
+   * Incrementing the returned handle does not look up the labels again, so it should be kept
+   * and reused in hot code paths that always update the same child.
+   */
+  public Child labels(final String... labelValues) {
+    return new Child(this, labelValues);
+  }
+
+  private void add(final LongAdder adder, final long n, final String[] exemplarLabels) {
+    adder.add(n);
+    exemplarSampler.offer(((ExemplarAdder) adder).exemplar(), 0, n, exemplarLabels);
+  }
+
+  /**
+   * Removes the child of the given label values, e.g. when the entity it measures is gone, so that it is no longer
+   * kept in memory and exported. An increment that races with the removal is either counted before the child is
+   * removed, or counted in a new child. Child handles of a removed child keep working, on a new child.
+   *
+   * @return true if the child existed
+   */
+  public boolean remove(final String... labelValues) {
+    return removeChild(labelValues);
+  }
+
+  /**
+   * Removes all the children whose label values, given in the order of the label names, match the predicate.
+   * @see #remove(String...)
+   */
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    removeChildren(labelValuesPredicate);
+  }
+
+  /**
+   * Removes all the children.
+   * @see #remove(String...)
+   */
+  public void clear() {
+    clearChildren();
+  }
+
   @Override
   LongAdder createMetric() {
-    return new LongAdder();
+    return new ExemplarAdder();
   }
 
   @Override
@@ -47,20 +140,97 @@ public class Counter extends AbstractMetric<LongAdder> {
   @Override
   public void forEachMetricData(final MetricDataConsumer consumer) {
     forEachChild(metricData -> {
-      final long value = metricData.getMetric().longValue();
-      consumer.consumeCounter(this, metricData.getLabelValues(), value);
+      final ExemplarAdder adder = (ExemplarAdder) metricData.getMetric();
+      final long value = adder.longValue();
+      final AtomicReferenceArray<Exemplar> exemplar = adder.exemplar;
+      if (exemplar == null) {
+        consumer.consumeCounter(this, metricData.getLabelValues(), value);
+      } else {
+        consumer.consumeCounter(this, metricData.getLabelValues(), value, exemplar.get(0));
+      }
     });
   }
 
+  /**
+   * A handle to a single child of a counter, as returned by {@link #labels(String...)}.
+   * This handle is thread-safe.
+   */
+  public static final class Child extends BoundChild<LongAdder> {
+
+    private final Counter counter;
+
+    private Child(final Counter counter, final String[] labelValues) {
+      super(counter, labelValues);
+      this.counter = counter;
+    }
+
+    public void inc() {
+      child().increment();
+    }
+
+    public void inc(final long n) {
+      child().add(n);
+    }
+
+    /**
+     * @see Counter#incWithExemplar(long, String[], String...)
+     */
+    public void incWithExemplar(final long n, final String... exemplarLabels) {
+      Exemplar.validateLabels(exemplarLabels);
+      counter.add(child(), n, exemplarLabels);
+    }
+
+    public long getValue() {
+      return child().longValue();
+    }
+  }
+
+  /**
+   * The value of a child, along with its exemplar, which is allocated by the first increment with an exemplar so
+   * that children that have none do not pay for it
+   */
+  private static final class ExemplarAdder extends LongAdder {
+
+    private static final long serialVersionUID = 1L;
+
+    // LongAdder serializes as its proxy, which keeps only the value
+    private transient volatile AtomicReferenceArray<Exemplar> exemplar;
+
+    private AtomicReferenceArray<Exemplar> exemplar() {
+      AtomicReferenceArray<Exemplar> exemplar = this.exemplar;
+      if (exemplar == null) {
+        synchronized (this) {
+          exemplar = this.exemplar;
+          if (exemplar == null) {
+            exemplar = new AtomicReferenceArray<>(1);
+            this.exemplar = exemplar;
+          }
+        }
+      }
+      return exemplar;
+    }
+  }
+
   public static class CounterBuilder extends AbstractMetricBuilder<Counter, CounterBuilder> {
 
+    private long exemplarSampleIntervalMillis = ExemplarSampler.DEFAULT_INTERVAL_MILLIS;
+
     public CounterBuilder(final String name, final String help) {
       super(name, help);
     }
 
+    /**
+     * Sets the minimal time between two replacements of the exemplar of a child, one second by default
+     */
+    public CounterBuilder withExemplarSampleInterval(final Duration interval) {
+      Validate.isTrue(!interval.isNegative(), "The exemplar sample interval may not be negative but got %s", interval);
+      this.exemplarSampleIntervalMillis = interval.toMillis();
+      return this;
+    }
+
     @Override
     protected Counter create(final String fullName, final String help, final String[] labelNames) {
-      return new Counter(fullName, help, labelNames);
+      return new Counter(fullName, help, labelNames, new ExemplarSampler(exemplarSampleIntervalMillis));
     }
   }
 
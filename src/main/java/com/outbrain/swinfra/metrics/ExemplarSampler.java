@@ -0,0 +1,39 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.data.Exemplar;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Decides when an observation with exemplar labels replaces the exemplar of its counter or bucket - at most once
+ * per interval. An observation that finds the exemplar of its slot recent enough does not even allocate, so hot
+ * buckets do not pay for exemplars on every observation, and their exemplars stay around long enough to be scraped.
+ * <p>
+ * The exemplars are kept in lock free slots, and a replacement is a single compare and set. When observations
+ * race to replace the same exemplar, one of them wins and the others are dropped.
+ * </p>
+ */
+class ExemplarSampler {
+
+  static final long DEFAULT_INTERVAL_MILLIS = 1000;
+
+  private final long intervalMillis;
+
+  ExemplarSampler(final long intervalMillis) {
+    this.intervalMillis = intervalMillis;
+  }
+
+  /**
+   * Offers an observation to the given slot, whose exemplar it replaces if the exemplar is old enough
+   */
+  void offer(final AtomicReferenceArray<Exemplar> slots,
+             final int slot,
+             final double value,
+             final String[] labels) {
+    final Exemplar current = slots.get(slot);
+    final long now = System.currentTimeMillis();
+    if (current == null || now - current.getTimestampMillis() >= intervalMillis) {
+      slots.compareAndSet(slot, current, new Exemplar(value, now, labels));
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package com.outbrain.swinfra.metrics;
 
 import com.outbrain.swinfra.metrics.children.ChildMetricRepo;
-import com.outbrain.swinfra.metrics.children.LabeledChildrenRepo;
+import com.outbrain.swinfra.metrics.children.FrozenChildrenRepo;
 import com.outbrain.swinfra.metrics.children.MetricData;
 import com.outbrain.swinfra.metrics.children.UnlabeledChildRepo;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.DoubleSupplier;
+import java.util.stream.Collectors;
 
 import static com.outbrain.swinfra.metrics.utils.MetricType.GAUGE;
 import static java.util.Objects.requireNonNull;
@@ -58,15 +59,13 @@ public class Gauge extends AbstractMetric<DoubleSupplier> {
       final DoubleSupplier supplier = valueSuppliers.values().iterator().next();
       return new UnlabeledChildRepo<>(getName(), new MetricData<>(supplier));
     } else {
-      final ChildMetricRepo<DoubleSupplier> result = new LabeledChildrenRepo<>(
-              labelValues ->
-                      new MetricData<>(
-                              valueSuppliers.get(labelValues),
-                              labelValues), labelValues -> {
-      });
-
-      valueSuppliers.keySet().forEach(result::metricForLabels);
-      return result;
+      final List<String[]> labelValues = valueSuppliers.keySet().stream().
+              map(values -> values.toArray(new String[0])).
+              collect(Collectors.toList());
+      return new FrozenChildrenRepo<>(
+              labelValues,
+              values -> new MetricData<>(valueSuppliers.get(values), values),
+              values -> {});
     }
   }
 
@@ -1,5 +1,6 @@
 package com.outbrain.swinfra.metrics;
 
+import com.outbrain.swinfra.metrics.data.Exemplar;
 import com.outbrain.swinfra.metrics.data.HistogramBucketsConsumer;
 import com.outbrain.swinfra.metrics.data.HistogramData;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
@@ -9,17 +10,19 @@ import com.outbrain.swinfra.metrics.timing.TimingMetric;
 import com.outbrain.swinfra.metrics.utils.MetricType;
 import org.apache.commons.lang3.Validate;
 
+import java.time.Duration;
 import java.util.Arrays;
-import java.util.concurrent.atomic.DoubleAdder;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.DoubleStream;
 
 import static com.outbrain.swinfra.metrics.timing.Clock.DEFAULT_CLOCK;
 import static com.outbrain.swinfra.metrics.utils.MetricType.HISTOGRAM;
 import static java.util.Arrays.stream;
 
-//todo document the fact that I favored throughput over consistency
-
 /**
  * An implementation of a bucket-based histogram. For this type of histogram measurements are assigned to all the buckets
  * that have a value that is equal to or bigger than the measurements. All histograms have a bucket marked <i>+Inf</i>
@@ -45,31 +48,72 @@ import static java.util.Arrays.stream;
  * If no buckets are provided the histogram will be initialized with the default values
  * {.005, .01, .025, .05, .075, .1, .25, .5, .75, 1, 2.5, 5, 7.5, 10}
  * </p>
+ * <p>
+ * By default the histogram favors the throughput of observations over the consistency of the exported values - the
+ * buckets and the sum are read one after the other, so observations that are made while they are read may be
+ * exported in some of them only. Histograms that are built with consistent snapshots export every observation in
+ * all of the values or in none of them, for a small cost to the observations.
+ * </p>
+ * <p>
+ * Observations that are whole numbers, such as the ticks of a timer, can be made as longs. These are compared to the
+ * bounds and summed as longs, and are converted only when the histogram is exported, so they are faster and keep
+ * their precision beyond 2<sup>53</sup>. By default a long observation is a number of the units of the buckets, and
+ * a histogram can be built with another unit, e.g. to observe nanoseconds into buckets of seconds.
+ * </p>
+ * <p>
+ * A histogram can also keep its observations over a sliding window of time, e.g. for health checks or load shedding
+ * that look at the latencies of the last minute. The window is read in process with
+ * {@link #getWindowSnapshot(String...)}, and is not exported - the export is always cumulative, as Prometheus expects.
+ * </p>
+ * <p>
+ * Observations can carry exemplar labels, e.g. the id of the trace they were made in. Every bucket keeps one exemplar,
+ * which is exported along with the bucket, and is replaced at most once per sample interval.
+ * </p>
  *
  * @see <a href="https://prometheus.io/docs/concepts/metric_types/#histogram">Prometheus summary metric</a>
  * @see <a href="https://prometheus.io/docs/practices/histograms/">Prometheus summary vs. histogram</a>
  */
 public class Histogram extends AbstractMetric<Histogram.Buckets> implements TimingMetric {
 
-  private final double[] buckets;
+  private final BucketLayout layout;
+  private final IntFunction<BucketCounters> bucketCountersFactory;
   private final Clock clock;
-  private final boolean cummulativeBuckets;
+  private final long windowIntervalNanos;
+  private final int windowIntervalsCount;
+  private final ExemplarSampler exemplarSampler;
 
   private Histogram(final String name,
                     final String help,
                     final String[] labelNames,
                     final double[] buckets,
+                    final Function<double[], BucketIndex> bucketIndexFactory,
+                    final double longObservationUnit,
+                    final IntFunction<BucketCounters> bucketCountersFactory,
                     final Clock clock,
-                    final boolean cummulativeBuckets) {
+                    final boolean cummulativeBuckets,
+                    final long windowIntervalNanos,
+                    final int windowIntervalsCount,
+                    final ExemplarSampler exemplarSampler) {
     super(name, help, labelNames);
-    this.buckets = buckets;
+    final double[] bucketBounds = Buckets.withInfinity(buckets);
+    this.layout = new BucketLayout(bucketBounds,
+                                   bucketIndexFactory.apply(bucketBounds),
+                                   new LongBucketIndex(bucketBounds, longObservationUnit),
+                                   cummulativeBuckets);
+    this.bucketCountersFactory = bucketCountersFactory;
     this.clock = clock;
-    this.cummulativeBuckets = cummulativeBuckets;
+    this.windowIntervalNanos = windowIntervalNanos;
+    this.windowIntervalsCount = windowIntervalsCount;
+    this.exemplarSampler = exemplarSampler;
   }
 
   @Override
   Buckets createMetric() {
-    return new Buckets(cummulativeBuckets, buckets);
+    final BucketWindow window = windowIntervalsCount == 0 ? null :
+                                new BucketWindow(layout.getBucketsCount(), bucketCountersFactory, windowIntervalNanos,
+                                                 windowIntervalsCount, clock);
+    // All the children share the layout of the histogram, and only have counters of their own
+    return new Buckets(layout, bucketCountersFactory.apply(layout.getBucketsCount()), window);
   }
 
   @Override
@@ -89,12 +133,158 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
     metricForLabels(labelValues).add(value);
   }
 
+  public void observe(final double value, final String labelValue1) {
+    metricForLabels(labelValue1).add(value);
+  }
+
+  public void observe(final double value, final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).add(value);
+  }
+
+  public void observe(final double value, final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).add(value);
+  }
+
+  /**
+   * Observes a whole number of units, see {@link HistogramBuilder#withLongObservationUnit(double)}
+   */
+  public void observe(final long value, final String... labelValues) {
+    metricForLabels(labelValues).add(value);
+  }
+
+  public void observe(final long value, final String labelValue1) {
+    metricForLabels(labelValue1).add(value);
+  }
+
+  public void observe(final long value, final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).add(value);
+  }
+
+  public void observe(final long value, final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).add(value);
+  }
+
+  /**
+   * Observes the values of the given range of the array, all of them in the child of the given label values. The child
+   * is looked up once and the values are counted locally, so every bucket they fall into is updated once for the
+   * whole batch, rather than once per value.
+   *
+   * @param from the index of the first value to observe
+   * @param to   the index after the last value to observe
+   */
+  public void observeAll(final double[] values, final int from, final int to, final String... labelValues) {
+    metricForLabels(labelValues).addAll(values, from, to);
+  }
+
+  /**
+   * Observes the given value, and offers it as the exemplar of its bucket
+   *
+   * @param exemplarLabels the names and the values of the labels of the exemplar, one after the other
+   */
+  public void observeWithExemplar(final double value, final String[] exemplarLabels, final String... labelValues) {
+    Exemplar.validateLabels(exemplarLabels);
+    metricForLabels(labelValues).add(value, exemplarLabels, exemplarSampler);
+  }
+
+  /**
+   * Returns the observations of the child of the given label values within the sliding window of the histogram,
+   * see {@link HistogramBuilder#withSlidingWindow(Duration, int)}. Unlike an export, this can be called any number
+   * of times and by any number of readers.
+   *
+   * @throws IllegalStateException if the histogram was built without a sliding window
+   */
+  public HistogramData getWindowSnapshot(final String... labelValues) {
+    return metricForLabels(labelValues).getWindowValues();
+  }
+
   @Override
   public Timer startTimer(final String... labelValues) {
     final Buckets buckets = metricForLabels(labelValues);
     return new Timer(clock, buckets::add);
   }
 
+  /**
+   * Returns a handle to the child of the given label values, so that repeated observations
+   * on the same child do not pay for resolving the labels each time.
+   */
+  public Child labels(final String... labelValues) {
+    return new Child(this, labelValues, clock, exemplarSampler);
+  }
+
+  /**
+   * @see Counter#remove(String...)
+   */
+  public boolean remove(final String... labelValues) {
+    return removeChild(labelValues);
+  }
+
+  /**
+   * @see Counter#removeIf(Predicate)
+   */
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    removeChildren(labelValuesPredicate);
+  }
+
+  /**
+   * @see Counter#clear()
+   */
+  public void clear() {
+    clearChildren();
+  }
+
+  /**
+   * A handle to a single child of a histogram, as returned by {@link #labels(String...)}.
+   * This handle is thread-safe.
+   */
+  public static final class Child extends BoundChild<Buckets> {
+
+    private final Clock clock;
+    private final ExemplarSampler exemplarSampler;
+
+    private Child(final Histogram histogram,
+                  final String[] labelValues,
+                  final Clock clock,
+                  final ExemplarSampler exemplarSampler) {
+      super(histogram, labelValues);
+      this.clock = clock;
+      this.exemplarSampler = exemplarSampler;
+    }
+
+    public void observe(final double value) {
+      child().add(value);
+    }
+
+    public void observe(final long value) {
+      child().add(value);
+    }
+
+    /**
+     * @see Histogram#observeAll(double[], int, int, String...)
+     */
+    public void observeAll(final double[] values, final int from, final int to) {
+      child().addAll(values, from, to);
+    }
+
+    /**
+     * @see Histogram#observeWithExemplar(double, String[], String...)
+     */
+    public void observeWithExemplar(final double value, final String... exemplarLabels) {
+      Exemplar.validateLabels(exemplarLabels);
+      child().add(value, exemplarLabels, exemplarSampler);
+    }
+
+    /**
+     * @see Histogram#getWindowSnapshot(String...)
+     */
+    public HistogramData getWindowSnapshot() {
+      return child().getWindowValues();
+    }
+
+    public Timer startTimer() {
+      return new Timer(clock, value -> child().add(value));
+    }
+  }
+
   /**
    * Contains bucket-related logic for the histogram.
    * When adding a value, only a single bucket is incremented, which is the first bucket in the array
@@ -110,65 +300,132 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
    */
   static class Buckets {
 
-    private final boolean cummulativeBuckets;
-    private final double[] bucketBounds;
-    private final LongAdder[] buckets;
-    private final DoubleAdder sum = new DoubleAdder();
+    private final BucketLayout layout;
+    private final BucketCounters counters;
+    private final BucketWindow window;
+    private volatile AtomicReferenceArray<Exemplar> exemplars;
 
     Buckets(final boolean cummulativeBuckets, final double... bucketBounds) {
-      this.cummulativeBuckets = cummulativeBuckets;
-      this.bucketBounds = Arrays.copyOf(bucketBounds, bucketBounds.length + 1);
-      this.bucketBounds[this.bucketBounds.length - 1] = Double.POSITIVE_INFINITY;
-      this.buckets = new LongAdder[this.bucketBounds.length];
-      for (int i = 0; i < this.bucketBounds.length; i++) {
-        buckets[i] = new LongAdder();
-      }
+      this(new BucketLayout(withInfinity(bucketBounds), null, null, cummulativeBuckets), null, null);
+    }
+
+    Buckets(final boolean cummulativeBuckets,
+            final double[] bucketBounds,
+            final BucketIndex bucketIndex,
+            final BucketCounters counters) {
+      this(new BucketLayout(bucketBounds, bucketIndex, null, cummulativeBuckets), counters, null);
+    }
+
+    /**
+     * @param layout the layout of the buckets, which is shared by all the children of the histogram
+     * @param counters the counters of the buckets, or null for the default counters
+     * @param window the sliding window of the observations, or null to keep no window
+     */
+    Buckets(final BucketLayout layout, final BucketCounters counters, final BucketWindow window) {
+      this.layout = layout;
+      this.counters = counters == null ? new BucketCounters.Adders(layout.getBucketsCount()) : counters;
+      this.window = window;
+    }
+
+    static double[] withInfinity(final double[] bucketBounds) {
+      final double[] result = Arrays.copyOf(bucketBounds, bucketBounds.length + 1);
+      result[result.length - 1] = Double.POSITIVE_INFINITY;
+      return result;
     }
 
     void add(final double value) {
-      for (int i = 0; i < buckets.length; i++) {
-        if (value <= bucketBounds[i]) {
-          buckets[i].add(1);
-          break;
-        }
+      final int bucket = layout.getBucketIndex().indexOf(value);
+      counters.add(bucket, value);
+      if (window != null) {
+        window.add(bucket, value);
       }
-      sum.add(value);
     }
 
-    BucketValues getValues() {
-      //Saving a snapshot of the sum so it will not be affected by values added while the buckets are calculated
-      final double sumSnapshot = sum.sum();
-      final long[] buckets;
-
-      if (cummulativeBuckets) {
-        buckets = calculateCummulativeBuckets();
-      } else {
-        buckets = calculateNonCummulativeBuckets();
+    void add(final long value) {
+      final int bucket = layout.getLongBucketIndex().indexOf(value);
+      counters.add(bucket, value);
+      if (window != null) {
+        window.add(bucket, value);
       }
+    }
 
-      return new BucketValues(sumSnapshot, buckets, bucketBounds, cummulativeBuckets);
+    void addAll(final double[] values, final int from, final int to) {
+      Validate.isTrue(0 <= from && from <= to && to <= values.length,
+                      "Invalid range [%s, %s) of %s values", from, to, values.length);
+      final BucketIndex bucketIndex = layout.getBucketIndex();
+      final long[] counts = new long[layout.getBucketsCount()];
+      double sum = 0;
+      for (int i = from; i < to; i++) {
+        final int bucket = bucketIndex.indexOf(values[i]);
+        if (bucket >= 0) {
+          counts[bucket]++;
+        }
+        sum += values[i];
+      }
+      counters.addAll(counts, sum);
+      if (window != null) {
+        window.addAll(counts, sum);
+      }
     }
 
-    private long[] calculateCummulativeBuckets() {
-      final long[] cummulativeBuckets = new long[this.buckets.length];
-      long accumulator = 0;
+    void add(final double value, final String[] exemplarLabels, final ExemplarSampler exemplarSampler) {
+      final int bucket = layout.getBucketIndex().indexOf(value);
+      counters.add(bucket, value);
+      if (window != null) {
+        window.add(bucket, value);
+      }
+      if (bucket >= 0) {
+        exemplarSampler.offer(exemplars(), bucket, value, exemplarLabels);
+      }
+    }
 
-      for (int i = 0; i < buckets.length; i++) {
-        accumulator += buckets[i].sum();
-        cummulativeBuckets[i] = accumulator;
+    // The exemplars are allocated by the first observation with an exemplar, so children that have none do not
+    // pay for them
+    private AtomicReferenceArray<Exemplar> exemplars() {
+      AtomicReferenceArray<Exemplar> exemplars = this.exemplars;
+      if (exemplars == null) {
+        synchronized (this) {
+          exemplars = this.exemplars;
+          if (exemplars == null) {
+            exemplars = new AtomicReferenceArray<>(layout.getBucketsCount());
+            this.exemplars = exemplars;
+          }
+        }
       }
+      return exemplars;
+    }
 
-      return cummulativeBuckets;
+    BucketValues getValues() {
+      final long[] buckets = new long[layout.getBucketsCount()];
+      return toValues(counters.snapshot(buckets, layout.getLongBucketIndex().getUnit()), buckets);
     }
 
-    private long[] calculateNonCummulativeBuckets() {
-      final long[] nonCummulativeBuckets = new long[this.buckets.length];
+    BucketValues getWindowValues() {
+      Validate.validState(window != null, "The histogram has no sliding window");
+      final long[] buckets = new long[layout.getBucketsCount()];
+      return toValues(window.snapshot(buckets, layout.getLongBucketIndex().getUnit()), buckets);
+    }
 
-      for (int i = 0; i < buckets.length; i++) {
-        nonCummulativeBuckets[i] = buckets[i].sum();
+    private BucketValues toValues(final double sumSnapshot, final long[] buckets) {
+      if (layout.isCummulativeBuckets()) {
+        for (int i = 1; i < buckets.length; i++) {
+          buckets[i] += buckets[i - 1];
+        }
       }
 
-      return nonCummulativeBuckets;
+      return new BucketValues(sumSnapshot, buckets, layout, exemplarsSnapshot());
+    }
+
+    private Exemplar[] exemplarsSnapshot() {
+      final AtomicReferenceArray<Exemplar> exemplars = this.exemplars;
+      if (exemplars == null) {
+        return null;
+      }
+      final Exemplar[] snapshot = new Exemplar[exemplars.length()];
+      for (int i = 0; i < snapshot.length; i++) {
+        snapshot[i] = exemplars.get(i);
+      }
+      return snapshot;
     }
   }
 
@@ -176,17 +433,14 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
 
     private final double sum;
     private final long[] buckets;
-    private final double[] bucketBounds;
-    private boolean cummulativeBuckets;
+    private final BucketLayout layout;
+    private final Exemplar[] exemplars;
 
-    BucketValues(final double sum,
-                 final long[] buckets,
-                 final double[] bucketBounds,
-                 final boolean cummulativeBuckets) {
+    BucketValues(final double sum, final long[] buckets, final BucketLayout layout, final Exemplar[] exemplars) {
       this.sum = sum;
       this.buckets = buckets;
-      this.bucketBounds = bucketBounds;
-      this.cummulativeBuckets = cummulativeBuckets;
+      this.layout = layout;
+      this.exemplars = exemplars;
     }
 
     @Override
@@ -196,13 +450,14 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
 
     @Override
     public long getCount() {
-      return cummulativeBuckets ? buckets[buckets.length - 1] : stream(buckets).sum();
+      return layout.isCummulativeBuckets() ? buckets[buckets.length - 1] : stream(buckets).sum();
     }
 
     @Override
     public void consumeBuckets(final HistogramBucketsConsumer consumer) {
+      final double[] bucketBounds = layout.getBounds();
       for (int i = 0; i < buckets.length; i++) {
-        consumer.apply(bucketBounds[i], buckets[i]);
+        consumer.apply(bucketBounds[i], layout.getBoundLabel(i), buckets[i], exemplars == null ? null : exemplars[i]);
       }
     }
 
@@ -211,7 +466,7 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
     }
 
     public double[] getBucketUpperBounds() {
-      return bucketBounds;
+      return layout.getBounds();
     }
 
     @Override
@@ -219,7 +474,7 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
       return "BucketValues{" +
               "sum=" + sum +
               ", buckets=" + Arrays.toString(buckets) +
-              ", bucketBounds=" + Arrays.toString(bucketBounds) +
+              ", bucketBounds=" + Arrays.toString(layout.getBounds()) +
               '}';
     }
   }
@@ -227,8 +482,14 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
   public static class HistogramBuilder extends AbstractMetricBuilder<Histogram, HistogramBuilder> {
 
     private double[] buckets = new double[]{.005, .01, .025, .05, .075, .1, .25, .5, .75, 1, 2.5, 5, 7.5, 10};
+    private Function<double[], BucketIndex> bucketIndexFactory = BucketIndex::search;
+    private double longObservationUnit = 1;
+    private IntFunction<BucketCounters> bucketCountersFactory = BucketCounters.Adders::new;
     private Clock clock = DEFAULT_CLOCK;
     private boolean cummulativeBuckets = true;
+    private long windowIntervalNanos;
+    private int windowIntervalsCount;
+    private long exemplarSampleIntervalMillis = ExemplarSampler.DEFAULT_INTERVAL_MILLIS;
 
     public HistogramBuilder(final String name, final String help) {
       super(name, help);
@@ -257,6 +518,7 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
      */
     public HistogramBuilder withBuckets(final double... buckets) {
       this.buckets = buckets;
+      this.bucketIndexFactory = BucketIndex::search;
       return this;
     }
 
@@ -282,7 +544,73 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
      * @param count the number of buckets to create
      */
     public HistogramBuilder withEqualWidthBuckets(final double start, final double width, final int count) {
-      return withBuckets(DoubleStream.iterate(start, d -> d + width).limit(count).toArray());
+      withBuckets(DoubleStream.iterate(start, d -> d + width).limit(count).toArray());
+      if (width > 0) {
+        // Observations find their bucket with arithmetic rather than a search
+        this.bucketIndexFactory = bounds -> BucketIndex.equalWidth(bounds, start, width);
+      }
+      return this;
+    }
+
+    /**
+     * Creates exponential buckets for the histogram, where every bucket is <i>factor</i> times larger than the previous
+     * one, e.g. withExponentialBuckets(0.001, 2, 4) - [0.001, 0.002, 0.004, 0.008, +Inf].
+     * This suits latencies, where the same relative error is usually acceptable for every bucket.
+     * If another method that also sets the buckets for the histogram will be called, like <i>withBuckets</i>,
+     * it will overwrite this method's buckets
+     *
+     * @param start the first bucket to create, must be positive
+     * @param factor the ratio between two consecutive buckets, must be larger than 1
+     * @param count the number of buckets to create
+     */
+    public HistogramBuilder withExponentialBuckets(final double start, final double factor, final int count) {
+      Validate.isTrue(start > 0, "The first exponential bucket must be positive but got %s", start);
+      Validate.isTrue(factor > 1, "The factor of exponential buckets must be larger than 1 but got %s", factor);
+      final double[] buckets = new double[Math.max(count, 0)];
+      for (int i = 0; i < buckets.length; i++) {
+        buckets[i] = start * Math.pow(factor, i);
+      }
+      withBuckets(buckets);
+      this.bucketIndexFactory = bounds -> BucketIndex.exponential(bounds, start, factor);
+      return this;
+    }
+
+    /**
+     * Creates log-linear buckets for the histogram, like those of HdrHistogram - every power of two is split into
+     * <i>subBucketsCount</i> equal width buckets, e.g. withLogLinearBuckets(1, 4, 2) - [1, 1.5, 2, 3, 4, +Inf].
+     * The relative error of every bucket is at most 1 / <i>subBucketsCount</i>, and an observation reads its bucket
+     * from the bits of the value, so the number of buckets does not slow it down.
+     * If another method that also sets the buckets for the histogram will be called, like <i>withBuckets</i>,
+     * it will overwrite this method's buckets
+     *
+     * @param lowest the lowest value to tell apart from smaller values, rounded down to a power of two
+     * @param highest the highest value to tell apart from larger values, rounded up to a power of two
+     * @param subBucketsCount the number of buckets in every power of two, must be a power of two
+     */
+    public HistogramBuilder withLogLinearBuckets(final double lowest, final double highest, final int subBucketsCount) {
+      Validate.isTrue(lowest >= Double.MIN_NORMAL,
+                      "The lowest log-linear bucket must be at least %s but got %s", Double.MIN_NORMAL, lowest);
+      Validate.isTrue(highest > lowest && Double.isFinite(highest),
+                      "The highest log-linear bucket must be larger than %s but got %s", lowest, highest);
+      Validate.isTrue(subBucketsCount > 0 && Integer.bitCount(subBucketsCount) == 1 && subBucketsCount <= 1 << 20,
+                      "The number of log-linear sub buckets must be a power of two but got %s", subBucketsCount);
+      final int minExponent = Math.getExponent(lowest);
+      final int maxExponent = Math.getExponent(Math.nextDown(highest));
+      final int subBucketsBits = Integer.numberOfTrailingZeros(subBucketsCount);
+      Validate.isTrue((long) (maxExponent - minExponent + 1) * subBucketsCount < 1 << 20,
+                      "Too many log-linear buckets between %s and %s", lowest, highest);
+
+      final double[] buckets = new double[(maxExponent - minExponent + 1) * subBucketsCount + 1];
+      buckets[0] = Math.scalb(1d, minExponent);
+      for (int exponent = minExponent; exponent <= maxExponent; exponent++) {
+        for (int subBucket = 1; subBucket <= subBucketsCount; subBucket++) {
+          buckets[((exponent - minExponent) << subBucketsBits) + subBucket] =
+              Math.scalb(1 + (double) subBucket / subBucketsCount, exponent);
+        }
+      }
+      withBuckets(buckets);
+      this.bucketIndexFactory = bounds -> BucketIndex.logLinear(bounds, minExponent, subBucketsBits);
+      return this;
     }
 
     public HistogramBuilder withClock(final Clock clock) {
@@ -290,14 +618,88 @@ public class Histogram extends AbstractMetric<Histogram.Buckets> implements Timi
       return this;
     }
 
+    /**
+     * Sets the value of a single unit of the observations that are made as longs, including those of the timers of
+     * the histogram, in the unit of the buckets. e.g. a histogram whose buckets are in seconds and whose clock ticks
+     * in nanoseconds should use 1e-9.
+     * <p>
+     * The bounds of the buckets are converted to units once, and the sum of the long observations is kept in units,
+     * so they are converted only when the histogram is exported.
+     * </p>
+     *
+     * @param unit the value of a single unit, must be positive
+     */
+    public HistogramBuilder withLongObservationUnit(final double unit) {
+      Validate.isTrue(unit > 0 && Double.isFinite(unit),
+                      "The unit of long observations must be positive but got %s", unit);
+      this.longObservationUnit = unit;
+      return this;
+    }
+
     public HistogramBuilder nonCummulativeBuckets() {
       this.cummulativeBuckets = false;
       return this;
     }
 
+    /**
+     * Makes every export of the histogram consistent, so that the buckets, the count and the sum all include the
+     * same observations. Observations pay for two more atomic increments, which are shared by all the threads that
+     * observe the same child, but never wait for an export.
+     */
+    public HistogramBuilder withConsistentSnapshots() {
+      this.bucketCountersFactory = BucketCounters.Phased::new;
+      return this;
+    }
+
+    /**
+     * Keeps the buckets and the sum of every child in a single array, which is striped between threads only once
+     * they contend on it. This takes a fraction of the memory of the default counters, which allocate a separate
+     * adder per bucket, and suits histograms with many label values or many buckets.
+     * <p>
+     * This and {@link #withConsistentSnapshots()} are alternatives, the last one that is called is used.
+     * </p>
+     */
+    public HistogramBuilder withCompactBuckets() {
+      this.bucketCountersFactory = BucketCounters.Striped::new;
+      return this;
+    }
+
+    /**
+     * Keeps the observations of every child over a sliding window of the given length as well, to be read with
+     * {@link Histogram#getWindowSnapshot(String...)}. The window is split into the given number of intervals, and
+     * moves by a whole interval at a time, so more intervals make it more accurate and take more memory - every
+     * interval has its own counters, of the same kind as those of the histogram.
+     * <p>
+     * The window is moved by the observations and the snapshots themselves, as the clock of the histogram ticks.
+     * </p>
+     *
+     * @param window the length of the window
+     * @param intervalsCount the number of intervals in the window, must be positive
+     */
+    public HistogramBuilder withSlidingWindow(final Duration window, final int intervalsCount) {
+      Validate.isTrue(intervalsCount > 0, "The number of intervals in a window must be positive but got %s",
+                      intervalsCount);
+      Validate.isTrue(window.toNanos() >= intervalsCount,
+                      "The window must be at least a nanosecond per interval but got %s", window);
+      this.windowIntervalNanos = window.toNanos() / intervalsCount;
+      this.windowIntervalsCount = intervalsCount;
+      return this;
+    }
+
+    /**
+     * Sets the minimal time between two replacements of the exemplar of a bucket, one second by default
+     */
+    public HistogramBuilder withExemplarSampleInterval(final Duration interval) {
+      Validate.isTrue(!interval.isNegative(), "The exemplar sample interval may not be negative but got %s", interval);
+      this.exemplarSampleIntervalMillis = interval.toMillis();
+      return this;
+    }
+
     @Override
     protected Histogram create(final String fullName, final String help, final String[] labelNames) {
-      return new Histogram(fullName, help, labelNames, buckets, clock, cummulativeBuckets);
+      return new Histogram(fullName, help, labelNames, buckets, bucketIndexFactory, longObservationUnit,
+                           bucketCountersFactory, clock, cummulativeBuckets, windowIntervalNanos,
+                           windowIntervalsCount, new ExemplarSampler(exemplarSampleIntervalMillis));
     }
 
   }
@@ -0,0 +1,70 @@
+package com.outbrain.swinfra.metrics;
+
+/**
+ * Finds the bucket of a histogram observation that is a whole number of units, such as the ticks of a timer.
+ * <p>
+ * The bounds are converted to units once, when the histogram is created - every bound is rounded down to the largest
+ * whole number of units that is still within it, so an observation belongs to the same bucket as the same
+ * observation made in the unit of the bounds. Observations are then compared as longs, which are exact for any
+ * number of units, unlike doubles which are exact only below 2<sup>53</sup>.
+ * </p>
+ */
+class LongBucketIndex {
+
+  private final long[] bounds;
+  private final double unit;
+
+  /**
+   * @param bounds the bounds of the buckets, ending with <i>+Inf</i>
+   * @param unit   the value of a single unit of the observations, in the unit of the bounds
+   */
+  LongBucketIndex(final double[] bounds, final double unit) {
+    this.bounds = new long[bounds.length];
+    this.unit = unit;
+    for (int i = 0; i < bounds.length; i++) {
+      this.bounds[i] = toUnits(bounds[i], unit);
+    }
+  }
+
+  double getUnit() {
+    return unit;
+  }
+
+  /**
+   * @return the index of the bucket of the given number of units
+   */
+  int indexOf(final long value) {
+    // The same branch free search as that of BucketIndex.BinarySearch. The bounds in units may repeat, when several
+    // bounds are within the same unit, and the search still finds the first of them.
+    int low = 0;
+    int length = bounds.length;
+    while (length > 1) {
+      final int half = length >>> 1;
+      low = bounds[low + half - 1] < value ? low + half : low;
+      length -= half;
+    }
+    return low;
+  }
+
+  static long toUnits(final double bound, final double unit) {
+    final double units = Math.floor(bound / unit);
+    if (units >= 0x1p63) {
+      return Long.MAX_VALUE;
+    }
+    if (units < -0x1p63) {
+      return Long.MIN_VALUE;
+    }
+    long result = (long) units;
+    if (Math.abs(units) < 0x1p53) {
+      // The division may round across a whole number, so the result is corrected against the bound itself.
+      // Larger numbers of units are not exact as doubles anyway, so they are taken as they are.
+      while (result * unit > bound) {
+        result--;
+      }
+      while ((result + 1) * unit <= bound) {
+        result++;
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,627 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
+import com.outbrain.swinfra.metrics.data.NativeHistogramBucketsConsumer;
+import com.outbrain.swinfra.metrics.data.NativeHistogramData;
+import com.outbrain.swinfra.metrics.timing.Clock;
+import com.outbrain.swinfra.metrics.timing.Timer;
+import com.outbrain.swinfra.metrics.timing.TimingMetric;
+import com.outbrain.swinfra.metrics.utils.MetricType;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static com.outbrain.swinfra.metrics.timing.Clock.DEFAULT_CLOCK;
+import static com.outbrain.swinfra.metrics.utils.MetricType.HISTOGRAM;
+
+/**
+ * An implementation of a Prometheus native histogram, also known as a sparse histogram.
+ * <p>
+ * Unlike {@link Histogram} the buckets are not given, but defined by a schema - every power of two is split into
+ * <i>2<sup>schema</sup></i> buckets, each <i>2<sup>2<sup>-schema</sup></sup></i> times larger than the previous one,
+ * so the relative error is the same at any scale. Only the buckets that were observed are kept and exported,
+ * which makes a native histogram a single series that is both more accurate and cheaper than the <i>_bucket</i>
+ * series of a classic histogram.
+ * </p>
+ * <p>
+ * Values whose absolute value is at most the zero threshold are counted in the zero bucket. When the number of
+ * buckets exceeds the max number of buckets, the schema is reduced by merging every two adjacent buckets.
+ * </p>
+ * <p>
+ * The buckets can only be exported in the protobuf format. The text format exports a classic histogram whose only
+ * bucket is the <i>+Inf</i> bucket, along with the count and the sum.
+ * </p>
+ *
+ * @see <a href="https://prometheus.io/docs/specs/native_histograms/">Prometheus native histograms</a>
+ */
+public class NativeHistogram extends AbstractMetric<NativeHistogram.Buckets> implements TimingMetric {
+
+  public static final int MIN_SCHEMA = -4;
+  public static final int MAX_SCHEMA = 8;
+
+  private final int schema;
+  private final double zeroThreshold;
+  private final int maxBucketsCount;
+  private final Clock clock;
+
+  private NativeHistogram(final String name,
+                          final String help,
+                          final String[] labelNames,
+                          final int schema,
+                          final double zeroThreshold,
+                          final int maxBucketsCount,
+                          final Clock clock) {
+    super(name, help, labelNames);
+    this.schema = schema;
+    this.zeroThreshold = zeroThreshold;
+    this.maxBucketsCount = maxBucketsCount;
+    this.clock = clock;
+  }
+
+  @Override
+  Buckets createMetric() {
+    return new Buckets(schema, zeroThreshold, maxBucketsCount);
+  }
+
+  @Override
+  public void forEachMetricData(final MetricDataConsumer consumer) {
+    forEachChild(metricData -> {
+      final NativeHistogramData snapshot = metricData.getMetric().getValues();
+      consumer.consumeNativeHistogram(this, metricData.getLabelValues(), snapshot);
+    });
+  }
+
+  @Override
+  public MetricType getType() {
+    return HISTOGRAM;
+  }
+
+  public void observe(final double value, final String... labelValues) {
+    metricForLabels(labelValues).add(value);
+  }
+
+  public void observe(final double value, final String labelValue1) {
+    metricForLabels(labelValue1).add(value);
+  }
+
+  public void observe(final double value, final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).add(value);
+  }
+
+  public void observe(final double value, final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).add(value);
+  }
+
+  @Override
+  public Timer startTimer(final String... labelValues) {
+    final Buckets buckets = metricForLabels(labelValues);
+    return new Timer(clock, buckets::add);
+  }
+
+  /**
+   * Returns a handle to the child of the given label values, so that repeated observations
+   * on the same child do not pay for resolving the labels each time.
+   */
+  public Child labels(final String... labelValues) {
+    return new Child(this, labelValues, clock);
+  }
+
+  /**
+   * @see Counter#remove(String...)
+   */
+  public boolean remove(final String... labelValues) {
+    return removeChild(labelValues);
+  }
+
+  /**
+   * @see Counter#removeIf(Predicate)
+   */
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    removeChildren(labelValuesPredicate);
+  }
+
+  /**
+   * @see Counter#clear()
+   */
+  public void clear() {
+    clearChildren();
+  }
+
+  /**
+   * A handle to a single child of a native histogram, as returned by {@link #labels(String...)}.
+   * This handle is thread-safe.
+   */
+  public static final class Child extends BoundChild<Buckets> {
+
+    private final Clock clock;
+
+    private Child(final NativeHistogram histogram, final String[] labelValues, final Clock clock) {
+      super(histogram, labelValues);
+      this.clock = clock;
+    }
+
+    public void observe(final double value) {
+      child().add(value);
+    }
+
+    public Timer startTimer() {
+      return new Timer(clock, value -> child().add(value));
+    }
+  }
+
+  /**
+   * The buckets of a single child.
+   * <p>
+   * The counters of the buckets are kept in windows over the indexes observed so far, one for the positive and one
+   * for the negative values. An observation reads the current layout, computes its index and increments the
+   * counter in that index without locking. Only an observation whose bucket has no counter yet takes the lock, to
+   * create the counter, widen the window or reduce the schema, and publishes a new layout.
+   * </p>
+   * <p>
+   * Widening a window moves the same counters to a larger window, so an observation that still holds the previous
+   * layout increments the right counter. Reducing the schema merges the counters into new ones, so the previous
+   * counters are kept, with the counts they had when they were merged, and whatever was added to them later is
+   * exported with the new counters.
+   * </p>
+   */
+  static class Buckets {
+
+    // A window wider than this factor times the max number of buckets reduces the schema too, to bound its memory
+    private static final int MAX_WINDOW_FACTOR = 8;
+    private static final int WINDOW_PADDING = 8;
+    private static final long MANTISSA_MASK = (1L << 52) - 1;
+    private static final long ONE_BITS = Double.doubleToRawLongBits(1);
+    private static final double[][] FRACTION_BOUNDS = createFractionBounds();
+
+    private final double zeroThreshold;
+    private final int maxBucketsCount;
+    // The count of the histogram is the sum of these counts and those of the buckets, so that an observation
+    // increments a single counter
+    private final DoubleAdder sum = new DoubleAdder();
+    private final LongAdder zeroCount = new LongAdder();
+    private final LongAdder nanCount = new LongAdder();
+    private final LongAdder positiveInfinityCount = new LongAdder();
+    private final LongAdder negativeInfinityCount = new LongAdder();
+    private volatile Layout layout;
+
+    // Guarded by this
+    private int bucketsCount;
+    private final List<MergedCounter> mergedCounters = new ArrayList<>();
+
+    Buckets(final int schema, final double zeroThreshold, final int maxBucketsCount) {
+      this.zeroThreshold = zeroThreshold;
+      this.maxBucketsCount = maxBucketsCount;
+      this.layout = new Layout(schema, Window.EMPTY, Window.EMPTY);
+    }
+
+    void add(final double value) {
+      final double absoluteValue = Math.abs(value);
+      if (absoluteValue <= zeroThreshold) {
+        zeroCount.increment();
+      } else if (absoluteValue == Double.POSITIVE_INFINITY) {
+        (value > 0 ? positiveInfinityCount : negativeInfinityCount).increment();
+      } else if (value != value) {
+        // NaN is counted, but belongs to no bucket
+        nanCount.increment();
+      } else {
+        final Layout layout = this.layout;
+        final int index = indexOf(absoluteValue, layout.schema);
+        final LongAdder counter = (value > 0 ? layout.positive : layout.negative).counterOf(index);
+        if (counter != null) {
+          counter.increment();
+        } else {
+          createCounter(value > 0, absoluteValue).increment();
+        }
+      }
+      sum.add(value);
+    }
+
+    int getSchema() {
+      return layout.schema;
+    }
+
+    synchronized NativeHistogramData getValues() {
+      final Layout layout = this.layout;
+      final long[] positiveCounts = layout.positive.counts();
+      final long[] negativeCounts = layout.negative.counts();
+      for (final MergedCounter merged : mergedCounters) {
+        final long lateCount = merged.counter.sum() - merged.mergedCount;
+        if (lateCount > 0) {
+          final int index = reduceIndex(merged.index, merged.schema - layout.schema);
+          final Window window = merged.positive ? layout.positive : layout.negative;
+          (merged.positive ? positiveCounts : negativeCounts)[index - window.offset] += lateCount;
+        }
+      }
+      // Infinite values are counted in the bucket past the largest finite value
+      final int infinityIndex = indexOf(Double.MAX_VALUE, layout.schema) + 1;
+      final SparseBuckets positiveBuckets =
+          new SparseBuckets(layout.positive.offset, positiveCounts, infinityIndex, positiveInfinityCount.sum());
+      final SparseBuckets negativeBuckets =
+          new SparseBuckets(layout.negative.offset, negativeCounts, infinityIndex, negativeInfinityCount.sum());
+      final long zeroCount = this.zeroCount.sum();
+      final long count = zeroCount + nanCount.sum() + positiveBuckets.count() + negativeBuckets.count();
+      return new NativeBucketValues(count, sum.sum(), layout.schema, zeroThreshold, zeroCount,
+                                    positiveBuckets, negativeBuckets);
+    }
+
+    private synchronized LongAdder createCounter(final boolean positive, final double absoluteValue) {
+      // The layout may have changed since the caller read it
+      int index = indexOf(absoluteValue, layout.schema);
+      LongAdder counter = (positive ? layout.positive : layout.negative).counterOf(index);
+      if (counter != null) {
+        return counter;
+      }
+      Window window = positive ? layout.positive : layout.negative;
+      if (!window.contains(index)) {
+        window = window.widenTo(index);
+        layout = positive ? new Layout(layout.schema, window, layout.negative) :
+                            new Layout(layout.schema, layout.positive, window);
+      }
+      counter = new LongAdder();
+      window.counters.set(index - window.offset, counter);
+      bucketsCount++;
+
+      while (layout.schema > MIN_SCHEMA &&
+             (bucketsCount > maxBucketsCount || layout.widestWindow() > maxBucketsCount * MAX_WINDOW_FACTOR)) {
+        reduceSchema();
+      }
+      // The counter may have been merged into another one, which is then the counter of the value
+      index = indexOf(absoluteValue, layout.schema);
+      return (positive ? layout.positive : layout.negative).counterOf(index);
+    }
+
+    // Merges every two adjacent buckets into one, by reducing the schema by one
+    private void reduceSchema() {
+      final Layout reduced = new Layout(layout.schema - 1, reduce(layout.positive, true), reduce(layout.negative, false));
+      bucketsCount = reduced.positive.nonEmptyCount() + reduced.negative.nonEmptyCount();
+      layout = reduced;
+    }
+
+    private Window reduce(final Window window, final boolean positive) {
+      if (window.counters.length() == 0) {
+        return window;
+      }
+      final int offset = reduceIndex(window.offset, 1);
+      final Window reduced = new Window(offset, reduceIndex(window.offset + window.counters.length() - 1, 1) - offset + 1);
+      for (int i = 0; i < window.counters.length(); i++) {
+        final LongAdder counter = window.counters.get(i);
+        if (counter != null) {
+          final long mergedCount = counter.sum();
+          final int index = reduceIndex(window.offset + i, 1) - offset;
+          LongAdder reducedCounter = reduced.counters.get(index);
+          if (reducedCounter == null) {
+            reducedCounter = new LongAdder();
+            reduced.counters.set(index, reducedCounter);
+          }
+          reducedCounter.add(mergedCount);
+          mergedCounters.add(new MergedCounter(counter, mergedCount, window.offset + i, layout.schema, positive));
+        }
+      }
+      return reduced;
+    }
+
+    /**
+     * @return the index of the bucket of the given positive and finite value, which is the <i>i</i> for which
+     * <i>2<sup>(i - 1) * 2<sup>-schema</sup></sup> &lt; value &lt;= 2<sup>i * 2<sup>-schema</sup></sup></i>
+     */
+    static int indexOf(final double absoluteValue, final int schema) {
+      int exponent = Math.getExponent(absoluteValue);
+      double normalized = absoluteValue;
+      if (exponent < Double.MIN_EXPONENT) {
+        // Subnormal values are scaled up to read their exponent and mantissa
+        normalized = absoluteValue * 0x1p54;
+        exponent = Math.getExponent(normalized) - 54;
+      }
+      // The value is fraction * 2^exponent, where 1 <= fraction < 2
+      final long bits = Double.doubleToRawLongBits(normalized);
+      if (schema > 0) {
+        final double fraction = Double.longBitsToDouble((bits & MANTISSA_MASK) | ONE_BITS);
+        // The approximate logarithm of the fraction is off by a few buckets at most, which the bounds correct
+        final double[] bounds = FRACTION_BOUNDS[schema];
+        final int estimate = (int) Math.ceil(BucketIndex.Exponential.approximateLog2(fraction) * (1 << schema));
+        return (exponent << schema) + BucketIndex.correct(bounds, fraction, Math.max(0, Math.min(estimate, 1 << schema)));
+      }
+      // The ceiling of log2 of the value, divided by 2^-schema and rounded up
+      final int log2Ceiling = (bits & MANTISSA_MASK) == 0 ? exponent : exponent + 1;
+      return reduceIndex(log2Ceiling, -schema);
+    }
+
+    // The index of the bucket that contains the given bucket once the schema is reduced by the given difference
+    static int reduceIndex(final int index, final int schemaDifference) {
+      return (index + (1 << schemaDifference) - 1) >> schemaDifference;
+    }
+
+    // For every positive schema, the bounds of the buckets of a power of two, scaled to be between 1 and 2
+    private static double[][] createFractionBounds() {
+      final double[][] fractionBounds = new double[MAX_SCHEMA + 1][];
+      for (int schema = 1; schema <= MAX_SCHEMA; schema++) {
+        final int bucketsPerPowerOfTwo = 1 << schema;
+        fractionBounds[schema] = new double[bucketsPerPowerOfTwo + 1];
+        for (int i = 0; i <= bucketsPerPowerOfTwo; i++) {
+          fractionBounds[schema][i] = Math.pow(2, (double) i / bucketsPerPowerOfTwo);
+        }
+      }
+      return fractionBounds;
+    }
+
+    private static final class Layout {
+
+      private final int schema;
+      private final Window positive;
+      private final Window negative;
+
+      private Layout(final int schema, final Window positive, final Window negative) {
+        this.schema = schema;
+        this.positive = positive;
+        this.negative = negative;
+      }
+
+      private int widestWindow() {
+        return Math.max(positive.counters.length(), negative.counters.length());
+      }
+    }
+
+    /**
+     * The counters of the bucket indexes from <i>offset</i>, a null counter for buckets that were never observed
+     */
+    private static final class Window {
+
+      private static final Window EMPTY = new Window(0, 0);
+
+      private final int offset;
+      private final AtomicReferenceArray<LongAdder> counters;
+
+      private Window(final int offset, final int length) {
+        this.offset = offset;
+        this.counters = new AtomicReferenceArray<>(length);
+      }
+
+      private boolean contains(final int index) {
+        return index >= offset && index - offset < counters.length();
+      }
+
+      private LongAdder counterOf(final int index) {
+        return contains(index) ? counters.get(index - offset) : null;
+      }
+
+      // Leaves some room beyond the index, where the next indexes are likely to be
+      private Window widenTo(final int index) {
+        final int end = offset + counters.length();
+        final int widenedOffset = counters.length() == 0 || index < offset ? index - WINDOW_PADDING : offset;
+        final int widenedEnd = counters.length() == 0 || index >= end ? index + 1 + WINDOW_PADDING : end;
+        final Window widened = new Window(widenedOffset, widenedEnd - widenedOffset);
+        for (int i = 0; i < counters.length(); i++) {
+          widened.counters.set(offset + i - widenedOffset, counters.get(i));
+        }
+        return widened;
+      }
+
+      private int nonEmptyCount() {
+        int nonEmptyCount = 0;
+        for (int i = 0; i < counters.length(); i++) {
+          if (counters.get(i) != null) {
+            nonEmptyCount++;
+          }
+        }
+        return nonEmptyCount;
+      }
+
+      private long[] counts() {
+        final long[] counts = new long[counters.length()];
+        for (int i = 0; i < counts.length; i++) {
+          final LongAdder counter = counters.get(i);
+          counts[i] = counter == null ? 0 : counter.sum();
+        }
+        return counts;
+      }
+    }
+
+    private static final class MergedCounter {
+
+      private final LongAdder counter;
+      private final long mergedCount;
+      private final int index;
+      private final int schema;
+      private final boolean positive;
+
+      private MergedCounter(final LongAdder counter,
+                            final long mergedCount,
+                            final int index,
+                            final int schema,
+                            final boolean positive) {
+        this.counter = counter;
+        this.mergedCount = mergedCount;
+        this.index = index;
+        this.schema = schema;
+        this.positive = positive;
+      }
+    }
+  }
+
+  private static class SparseBuckets {
+
+    private final int offset;
+    private final long[] counts;
+    private final int infinityIndex;
+    private final long infinityCount;
+
+    private SparseBuckets(final int offset, final long[] counts, final int infinityIndex, final long infinityCount) {
+      this.offset = offset;
+      this.counts = counts;
+      this.infinityIndex = infinityIndex;
+      this.infinityCount = infinityCount;
+    }
+
+    private long count() {
+      long count = infinityCount;
+      for (final long bucketCount : counts) {
+        count += bucketCount;
+      }
+      return count;
+    }
+
+    private void consume(final NativeHistogramBucketsConsumer consumer) {
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          consumer.apply(offset + i, counts[i]);
+        }
+      }
+      if (infinityCount > 0) {
+        consumer.apply(infinityIndex, infinityCount);
+      }
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder builder = new StringBuilder("{");
+      consume((index, count) -> builder.append(builder.length() > 1 ? ", " : "").append(index).append('=').append(count));
+      return builder.append('}').toString();
+    }
+  }
+
+  private static class NativeBucketValues implements NativeHistogramData {
+
+    private final long count;
+    private final double sum;
+    private final int schema;
+    private final double zeroThreshold;
+    private final long zeroCount;
+    private final SparseBuckets positiveBuckets;
+    private final SparseBuckets negativeBuckets;
+
+    private NativeBucketValues(final long count,
+                               final double sum,
+                               final int schema,
+                               final double zeroThreshold,
+                               final long zeroCount,
+                               final SparseBuckets positiveBuckets,
+                               final SparseBuckets negativeBuckets) {
+      this.count = count;
+      this.sum = sum;
+      this.schema = schema;
+      this.zeroThreshold = zeroThreshold;
+      this.zeroCount = zeroCount;
+      this.positiveBuckets = positiveBuckets;
+      this.negativeBuckets = negativeBuckets;
+    }
+
+    @Override
+    public long getCount() {
+      return count;
+    }
+
+    @Override
+    public double getSum() {
+      return sum;
+    }
+
+    @Override
+    public int getSchema() {
+      return schema;
+    }
+
+    @Override
+    public double getZeroThreshold() {
+      return zeroThreshold;
+    }
+
+    @Override
+    public long getZeroCount() {
+      return zeroCount;
+    }
+
+    @Override
+    public void consumePositiveBuckets(final NativeHistogramBucketsConsumer consumer) {
+      positiveBuckets.consume(consumer);
+    }
+
+    @Override
+    public void consumeNegativeBuckets(final NativeHistogramBucketsConsumer consumer) {
+      negativeBuckets.consume(consumer);
+    }
+
+    @Override
+    public String toString() {
+      return "NativeBucketValues{" +
+             "count=" + count +
+             ", sum=" + sum +
+             ", schema=" + schema +
+             ", zeroThreshold=" + zeroThreshold +
+             ", zeroCount=" + zeroCount +
+             ", positiveBuckets=" + positiveBuckets +
+             ", negativeBuckets=" + negativeBuckets +
+             '}';
+    }
+  }
+
+  public static class NativeHistogramBuilder extends AbstractMetricBuilder<NativeHistogram, NativeHistogramBuilder> {
+
+    /**
+     * The default zero threshold, as in the other Prometheus clients, which only counts values that are almost zero
+     * in the zero bucket
+     */
+    public static final double DEFAULT_ZERO_THRESHOLD = 0x1p-128;
+
+    private int schema = 5;
+    private double zeroThreshold = DEFAULT_ZERO_THRESHOLD;
+    private int maxBucketsCount = 160;
+    private Clock clock = DEFAULT_CLOCK;
+
+    public NativeHistogramBuilder(final String name, final String help) {
+      super(name, help);
+    }
+
+    @Override
+    void validateParams() {
+      super.validateParams();
+      Validate.isTrue(schema >= MIN_SCHEMA && schema <= MAX_SCHEMA,
+                      "The schema must be between %s and %s but got %s", MIN_SCHEMA, MAX_SCHEMA, schema);
+      Validate.isTrue(zeroThreshold >= 0 && Double.isFinite(zeroThreshold),
+                      "The zero threshold must be a non negative number but got %s", zeroThreshold);
+      Validate.isTrue(maxBucketsCount > 0, "The max number of buckets must be positive but got %s", maxBucketsCount);
+    }
+
+    /**
+     * Sets the initial schema of the histogram, between -4 and 8, the default is 5. Every power of two is split
+     * into <i>2<sup>schema</sup></i> buckets, so the default schema has a relative error of about 1%.
+     * The schema is reduced when the histogram has more buckets than the max number of buckets.
+     */
+    public NativeHistogramBuilder withSchema(final int schema) {
+      this.schema = schema;
+      return this;
+    }
+
+    /**
+     * Sets the largest absolute value that is counted in the zero bucket, the default is
+     * {@link #DEFAULT_ZERO_THRESHOLD}
+     */
+    public NativeHistogramBuilder withZeroThreshold(final double zeroThreshold) {
+      this.zeroThreshold = zeroThreshold;
+      return this;
+    }
+
+    /**
+     * Sets the max number of positive and negative buckets of every child, beyond which the schema is reduced.
+     * The default is 160.
+     */
+    public NativeHistogramBuilder withMaxBucketsCount(final int maxBucketsCount) {
+      this.maxBucketsCount = maxBucketsCount;
+      return this;
+    }
+
+    public NativeHistogramBuilder withClock(final Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    @Override
+    protected NativeHistogram create(final String fullName, final String help, final String[] labelNames) {
+      return new NativeHistogram(fullName, help, labelNames, schema, zeroThreshold, maxBucketsCount, clock);
+    }
+  }
+}
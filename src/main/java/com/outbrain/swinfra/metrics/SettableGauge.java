@@ -1,15 +1,13 @@
 package com.outbrain.swinfra.metrics;
 
 import com.outbrain.swinfra.metrics.SettableGauge.SettableDoubleSupplier;
-import com.outbrain.swinfra.metrics.children.ChildMetricRepo;
-import com.outbrain.swinfra.metrics.children.LabeledChildrenRepo;
-import com.outbrain.swinfra.metrics.children.MetricData;
-import com.outbrain.swinfra.metrics.children.UnlabeledChildRepo;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
 import com.outbrain.swinfra.metrics.utils.MetricType;
 import com.outbrain.swinfra.metrics.utils.NameUtils;
 
+import java.util.List;
 import java.util.function.DoubleSupplier;
+import java.util.function.Predicate;
 
 /**
  * An implementation of a Gauge metric. A gauge is a decimal value that can increase or decrease.
@@ -44,16 +42,10 @@ public class SettableGauge extends AbstractMetric<SettableDoubleSupplier> {
     return MetricType.GAUGE;
   }
 
-  ChildMetricRepo<SettableDoubleSupplier> createChildMetricRepo() {
-    if (getLabelNames().isEmpty()) {
-      return new UnlabeledChildRepo<>(getName(), new MetricData<>(createMetric()));
-    } else {
-      return new LabeledChildrenRepo<>(
-              labelValues -> new MetricData<>(createMetric(), labelValues),
-              // Not validating that labels contain text for backward compatibility
-              labelValues -> NameUtils.validateLabelsCount(getName(), getLabelNames(), labelValues)
-      );
-    }
+  @Override
+  void validateLabelValues(final String... labelValues) {
+    // Not validating that labels contain text for backward compatibility
+    NameUtils.validateLabelsCount(getName(), getLabelNames(), labelValues);
   }
 
   @Override
@@ -68,6 +60,66 @@ public class SettableGauge extends AbstractMetric<SettableDoubleSupplier> {
     metricForLabels(labelValues).set(value);
   }
 
+  public void set(final double value, final String labelValue1) {
+    metricForLabels(labelValue1).set(value);
+  }
+
+  public void set(final double value, final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).set(value);
+  }
+
+  public void set(final double value, final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).set(value);
+  }
+
+  /**
+   * Returns a handle to the child of the given label values. The labels are resolved only once, when the
+   * handle is created, and not on every call to {@link Child#set(double)}.
+   */
+  public Child labels(final String... labelValues) {
+    return new Child(this, labelValues);
+  }
+
+  /**
+   * @see Counter#remove(String...)
+   */
+  public boolean remove(final String... labelValues) {
+    return removeChild(labelValues);
+  }
+
+  /**
+   * @see Counter#removeIf(Predicate)
+   */
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    removeChildren(labelValuesPredicate);
+  }
+
+  /**
+   * @see Counter#clear()
+   */
+  public void clear() {
+    clearChildren();
+  }
+
+  /**
+   * A handle to a single child of a settable gauge, as returned by {@link #labels(String...)}.
+   * This handle is thread-safe.
+   */
+  public static final class Child extends BoundChild<SettableDoubleSupplier> {
+
+    private Child(final SettableGauge gauge, final String[] labelValues) {
+      super(gauge, labelValues);
+    }
+
+    public void set(final double value) {
+      child().set(value);
+    }
+
+    public double getValue() {
+      return child().getAsDouble();
+    }
+  }
+
   public static class SettableGaugeBuilder extends AbstractMetricBuilder<SettableGauge, SettableGauge.SettableGaugeBuilder> {
 
     public SettableGaugeBuilder(final String name, final String help) {
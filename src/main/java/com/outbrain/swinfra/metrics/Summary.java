@@ -2,10 +2,24 @@ package com.outbrain.swinfra.metrics;
 
 import com.outbrain.swinfra.metrics.data.HistogramWithRunningCountAndSum;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
+import com.outbrain.swinfra.metrics.data.SummaryData;
 import com.outbrain.swinfra.metrics.timing.Clock;
 import com.outbrain.swinfra.metrics.timing.Timer;
 import com.outbrain.swinfra.metrics.timing.TimingMetric;
 import com.outbrain.swinfra.metrics.utils.MetricType;
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.DoubleStream;
 
 import static com.outbrain.swinfra.metrics.timing.Clock.DEFAULT_CLOCK;
 import static com.outbrain.swinfra.metrics.utils.MetricType.SUMMARY;
@@ -24,37 +38,88 @@ import static com.outbrain.swinfra.metrics.utils.MetricType.SUMMARY;
  * Count - the number of measurements taken.
  * The name of this metric will consist of the original metric name with a '_count' suffix
  * <li>
- * Quantiles - the 0.5, 0.75, 0.95, 0.98, 0.99 and 0.999 quantiles.
+ * Quantiles - the 0.5, 0.75, 0.95, 0.98, 0.99 and 0.999 quantiles, unless other quantiles are given to the builder.
  * Each of these will have the same name as the original metric, but with a 'quantile' label added
  * </li>
  * </ul>
  * </p>
+ * <p>
+ * By default the quantiles are those of the measurements since the previous export. A summary can be built with a
+ * max age instead, in which case its quantiles are those of the measurements within a sliding window of that age, no
+ * matter how often the summary is exported and by how many readers.
+ * </p>
+ * <p>
+ * The quantiles are computed by the export itself, unless the summary is built with background snapshots, in which
+ * case they are computed on a schedule by a given executor, and an export only reads the latest snapshot of every
+ * child.
+ * </p>
  *
  * @see <a href="https://prometheus.io/docs/concepts/metric_types/#summary">Prometheus summary metric</a>
  * @see <a href="https://prometheus.io/docs/practices/histograms/">Prometheus summary vs. histogram</a>
  */
 public class Summary extends AbstractMetric<HistogramWithRunningCountAndSum> implements TimingMetric {
 
+  // The number of children whose snapshots are taken by a single task of the snapshot executor
+  private static final int CHILDREN_PER_SNAPSHOT_TASK = 256;
+
   private final Clock clock;
   private final int numberOfSignificantValueDigits;
+  private final double[] quantiles;
+  private final long windowIntervalNanos;
+  private final int windowIntervalsCount;
+  // The period of the background snapshots, or 0 when there are none
+  private volatile long snapshotPeriodNanos;
+  private volatile ScheduledFuture<?> snapshots;
+  private final AtomicInteger pendingSnapshotTasks = new AtomicInteger();
 
   private Summary(final String name,
                   final String help,
                   final String[] labelNames,
                   final Clock clock,
-                  final int numberOfSignificantValueDigits) {
+                  final int numberOfSignificantValueDigits,
+                  final double[] quantiles,
+                  final long windowIntervalNanos,
+                  final int windowIntervalsCount) {
     super(name, help, labelNames);
     this.clock = clock;
     this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+    this.quantiles = quantiles;
+    this.windowIntervalNanos = windowIntervalNanos;
+    this.windowIntervalsCount = windowIntervalsCount;
   }
 
   public void observe(final long value, final String... labelValues) {
     metricForLabels(labelValues).recordValue(value);
   }
 
+  public void observe(final long value, final String labelValue1) {
+    metricForLabels(labelValue1).recordValue(value);
+  }
+
+  public void observe(final long value, final String labelValue1, final String labelValue2) {
+    metricForLabels(labelValue1, labelValue2).recordValue(value);
+  }
+
+  public void observe(final long value, final String labelValue1, final String labelValue2, final String labelValue3) {
+    metricForLabels(labelValue1, labelValue2, labelValue3).recordValue(value);
+  }
+
+  /**
+   * Observes the values of the given range of the array, all of them in the child of the given label values, which
+   * is looked up once for the whole batch.
+   *
+   * @param from the index of the first value to observe
+   * @param to   the index after the last value to observe
+   */
+  public void observeAll(final long[] values, final int from, final int to, final String... labelValues) {
+    metricForLabels(labelValues).recordValues(values, from, to);
+  }
+
   @Override
   HistogramWithRunningCountAndSum createMetric() {
-    return new HistogramWithRunningCountAndSum(numberOfSignificantValueDigits);
+    // All the children share the quantiles of the summary
+    return new HistogramWithRunningCountAndSum(numberOfSignificantValueDigits, quantiles, clock, windowIntervalNanos,
+                                               windowIntervalsCount);
   }
 
   @Override
@@ -64,7 +129,76 @@ public class Summary extends AbstractMetric<HistogramWithRunningCountAndSum> imp
 
   @Override
   public void forEachMetricData(final MetricDataConsumer consumer) {
-    forEachChild(metricData -> consumer.consumeSummary(this, metricData.getLabelValues(), metricData.getMetric().summary()));
+    final long snapshotPeriodNanos = this.snapshotPeriodNanos;
+    // A child whose snapshots stopped, e.g. since the executor was shut down, falls back to computing its quantiles
+    final long minSnapshotTick = clock.getTick(TimeUnit.NANOSECONDS) - 2 * snapshotPeriodNanos;
+    forEachChild(metricData -> {
+      final HistogramWithRunningCountAndSum histogram = metricData.getMetric();
+      final SummaryData summary = snapshotPeriodNanos == 0 ?
+                                  histogram.summary() :
+                                  histogram.latestSummary(minSnapshotTick);
+      consumer.consumeSummary(this, metricData.getLabelValues(), summary);
+    });
+  }
+
+  /**
+   * Stops the background snapshots of this summary, if it was built with them, after which every export computes the
+   * quantiles of the children itself. A snapshot that is being taken is not interrupted.
+   *
+   * @see SummaryBuilder#withBackgroundSnapshots(ScheduledExecutorService, Duration)
+   */
+  public void stopBackgroundSnapshots() {
+    final ScheduledFuture<?> snapshots = this.snapshots;
+    if (snapshots != null) {
+      snapshots.cancel(false);
+    }
+    snapshotPeriodNanos = 0;
+  }
+
+  private void startBackgroundSnapshots(final ScheduledExecutorService executor, final long periodNanos) {
+    snapshotPeriodNanos = periodNanos;
+    snapshots = executor.scheduleAtFixedRate(() -> snapshotChildren(executor), periodNanos, periodNanos,
+                                             TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Refreshes the snapshots of all the children, in tasks of a bounded number of children that are spread over the
+   * threads of the given executor. A period whose tasks would start while tasks of the previous period are still
+   * running is skipped, so a slow executor does not pile them up.
+   * <p>
+   * Failures are not thrown, since an exception would silently cancel the schedule of the snapshots. The children
+   * whose snapshots failed are not refreshed, so their exports fall back to computing their quantiles.
+   * </p>
+   */
+  void snapshotChildren(final Executor executor) {
+    if (pendingSnapshotTasks.get() > 0) {
+      return;
+    }
+    final List<HistogramWithRunningCountAndSum> children = new ArrayList<>();
+    forEachChild(metricData -> children.add(metricData.getMetric()));
+    for (int from = 0; from < children.size(); from += CHILDREN_PER_SNAPSHOT_TASK) {
+      final List<HistogramWithRunningCountAndSum> task =
+          children.subList(from, Math.min(from + CHILDREN_PER_SNAPSHOT_TASK, children.size()));
+      pendingSnapshotTasks.incrementAndGet();
+      try {
+        executor.execute(() -> refreshSummaries(task));
+      } catch (final RejectedExecutionException e) {
+        pendingSnapshotTasks.decrementAndGet();
+        return;
+      }
+    }
+  }
+
+  private void refreshSummaries(final List<HistogramWithRunningCountAndSum> children) {
+    try {
+      for (final HistogramWithRunningCountAndSum child : children) {
+        child.refreshSummary(clock.getTick(TimeUnit.NANOSECONDS));
+      }
+    } catch (final RuntimeException e) {
+      // The rest of the children are left to fall back to computing their quantiles
+    } finally {
+      pendingSnapshotTasks.decrementAndGet();
+    }
   }
 
   @Override
@@ -73,10 +207,73 @@ public class Summary extends AbstractMetric<HistogramWithRunningCountAndSum> imp
     return new Timer(clock, histogram::recordValue);
   }
 
+  /**
+   * Returns a handle to the child of the given label values.
+   * @see Histogram#labels(String...)
+   */
+  public Child labels(final String... labelValues) {
+    return new Child(this, labelValues, clock);
+  }
+
+  /**
+   * @see Counter#remove(String...)
+   */
+  public boolean remove(final String... labelValues) {
+    return removeChild(labelValues);
+  }
+
+  /**
+   * @see Counter#removeIf(Predicate)
+   */
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    removeChildren(labelValuesPredicate);
+  }
+
+  /**
+   * @see Counter#clear()
+   */
+  public void clear() {
+    clearChildren();
+  }
+
+  /**
+   * A handle to a single child of a summary, as returned by {@link #labels(String...)}.
+   * This handle is thread-safe.
+   */
+  public static final class Child extends BoundChild<HistogramWithRunningCountAndSum> {
+
+    private final Clock clock;
+
+    private Child(final Summary summary, final String[] labelValues, final Clock clock) {
+      super(summary, labelValues);
+      this.clock = clock;
+    }
+
+    public void observe(final long value) {
+      child().recordValue(value);
+    }
+
+    /**
+     * @see Summary#observeAll(long[], int, int, String...)
+     */
+    public void observeAll(final long[] values, final int from, final int to) {
+      child().recordValues(values, from, to);
+    }
+
+    public Timer startTimer() {
+      return new Timer(clock, value -> child().recordValue(value));
+    }
+  }
+
   public static class SummaryBuilder extends AbstractMetricBuilder<Summary, SummaryBuilder> {
 
     private Clock clock = DEFAULT_CLOCK;
     private int numberOfSignificantValueDigits = 2;
+    private double[] quantiles = HistogramWithRunningCountAndSum.DEFAULT_QUANTILES;
+    private long windowIntervalNanos;
+    private int windowIntervalsCount;
+    private ScheduledExecutorService snapshotExecutor;
+    private long snapshotPeriodNanos;
 
     public SummaryBuilder(final String name, final String help) {
       super(name, help);
@@ -92,9 +289,81 @@ public class Summary extends AbstractMetric<HistogramWithRunningCountAndSum> imp
       return this;
     }
 
+    /**
+     * Sets the quantiles that are exported by the summary, instead of the default 0.5, 0.75, 0.95, 0.98, 0.99 and
+     * 0.999 quantiles. All the quantiles are extracted in a single pass over the observations, so every additional
+     * quantile costs little at scrape time, but it is another exported series.
+     *
+     * @param quantiles the quantiles, each between 0 and 1, or none to export only the count and the sum
+     */
+    public SummaryBuilder withQuantiles(final double... quantiles) {
+      for (final double quantile : quantiles) {
+        Validate.isTrue(quantile >= 0 && quantile <= 1, "A quantile must be between 0 and 1 but got %s", quantile);
+      }
+      this.quantiles = DoubleStream.of(quantiles).sorted().distinct().toArray();
+      return this;
+    }
+
+    /**
+     * Computes the quantiles of every child over the measurements of the given max age, rather than over the
+     * measurements since the previous export. The window is split into the given number of age buckets, and moves by
+     * a whole bucket at a time, so more buckets make it more accurate and take more memory - every bucket has its own
+     * HdrHistogram recorder.
+     * <p>
+     * The window is moved by the measurements and the exports themselves, as the clock of the summary ticks. The
+     * count and the sum of the summary still cover all of its measurements.
+     * </p>
+     *
+     * @param maxAge the length of the window
+     * @param ageBuckets the number of buckets in the window, must be positive
+     */
+    public SummaryBuilder withMaxAge(final Duration maxAge, final int ageBuckets) {
+      Validate.isTrue(ageBuckets > 0, "The number of age buckets must be positive but got %s", ageBuckets);
+      Validate.isTrue(maxAge.toNanos() >= ageBuckets,
+                      "The max age must be at least a nanosecond per age bucket but got %s", maxAge);
+      this.windowIntervalNanos = maxAge.toNanos() / ageBuckets;
+      this.windowIntervalsCount = ageBuckets;
+      return this;
+    }
+
+    /**
+     * Takes the snapshots of all the children in the background, every given period, so an export only reads the
+     * latest snapshot of every child instead of computing its quantiles. The snapshots are taken by tasks of the given
+     * executor, each of a bounded number of children, so the snapshots of a summary with many children are spread
+     * over the threads of the executor.
+     * <p>
+     * The executor is owned by the caller, and the snapshots are taken until it is shut down, or until
+     * {@link Summary#stopBackgroundSnapshots()} is called. The quantiles of a summary without a max age are then those
+     * of the measurements of a single period, rather than those since the previous export.
+     * </p>
+     * <p>
+     * The count and the sum are always read by the export itself. An export computes the quantiles of a child that
+     * was not snapshotted within the last two periods itself, so that a summary whose executor was shut down, or
+     * rejected the snapshots, keeps being exported.
+     * </p>
+     */
+    public SummaryBuilder withBackgroundSnapshots(final ScheduledExecutorService executor, final Duration period) {
+      Validate.notNull(executor, "The snapshot executor must not be null");
+      Validate.isTrue(period.toNanos() > 0, "The snapshot period must be positive but got %s", period);
+      this.snapshotExecutor = executor;
+      this.snapshotPeriodNanos = period.toNanos();
+      return this;
+    }
+
+    @Override
+    public Summary build() {
+      final Summary summary = super.build();
+      // The snapshots are scheduled only once the summary is fully built
+      if (snapshotExecutor != null) {
+        summary.startBackgroundSnapshots(snapshotExecutor, snapshotPeriodNanos);
+      }
+      return summary;
+    }
+
     @Override
     protected Summary create(final String fullName, final String help, final String[] labelNames) {
-      return new Summary(fullName, help, labelNames, clock, numberOfSignificantValueDigits);
+      return new Summary(fullName, help, labelNames, clock, numberOfSignificantValueDigits, quantiles,
+                         windowIntervalNanos, windowIntervalsCount);
     }
   }
 
@@ -2,6 +2,7 @@ package com.outbrain.swinfra.metrics.children;
 
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * A container for children metrics for a specific metric name.
@@ -12,4 +13,60 @@ public interface ChildMetricRepo<T> {
   T metricForLabels(final String... labelValues);
   T metricForLabels(final List<String> labelValues);
   void forEachMetricData(Consumer<MetricData<T>> consumer);
+
+  /**
+   * Returns the child of the given label values along with its label values, for callers that keep a reference
+   * to the child and need to know when it was removed from this repo.
+   *
+   * @see MetricData#markUpdated()
+   */
+  MetricData<T> metricDataForLabels(final String... labelValues);
+
+  /**
+   * Removes the child of the given label values. An update that races with the removal either happens before it,
+   * or finds the child removed and creates it again.
+   *
+   * @return true if the child existed
+   */
+  boolean remove(final String... labelValues);
+
+  /**
+   * Removes all the children whose label values match the given predicate.
+   * @see #remove(String...)
+   */
+  void removeIf(final Predicate<List<String>> labelValuesPredicate);
+
+  /**
+   * Removes all the children.
+   * @see #remove(String...)
+   */
+  void clear();
+
+  // Fixed arity lookups for the common cases of one to three labels, these allow an implementation to find
+  // an existing child without creating a varargs array
+  default T metricForLabels(final String labelValue1) {
+    return metricDataForLabels(labelValue1).getMetric();
+  }
+
+  default T metricForLabels(final String labelValue1, final String labelValue2) {
+    return metricDataForLabels(labelValue1, labelValue2).getMetric();
+  }
+
+  default T metricForLabels(final String labelValue1, final String labelValue2, final String labelValue3) {
+    return metricDataForLabels(labelValue1, labelValue2, labelValue3).getMetric();
+  }
+
+  default MetricData<T> metricDataForLabels(final String labelValue1) {
+    return metricDataForLabels(new String[]{labelValue1});
+  }
+
+  default MetricData<T> metricDataForLabels(final String labelValue1, final String labelValue2) {
+    return metricDataForLabels(new String[]{labelValue1, labelValue2});
+  }
+
+  default MetricData<T> metricDataForLabels(final String labelValue1,
+                                            final String labelValue2,
+                                            final String labelValue3) {
+    return metricDataForLabels(new String[]{labelValue1, labelValue2, labelValue3});
+  }
 }
@@ -0,0 +1,293 @@
+package com.outbrain.swinfra.metrics.children;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An open-addressed hash table of children, keyed by their label values.
+ * <p>
+ * Looking up an existing child neither allocates nor locks - the table is probed directly with the label values
+ * given by the caller, comparing them element by element with the label values of each child.
+ * Insertions are serialized and the label values are copied only when a new child is inserted, so callers may
+ * reuse their arrays.
+ * </p>
+ * <p>
+ * Children of one to three label values can also be looked up with the values themselves, without an array.
+ * </p>
+ * <p>
+ * Removed children leave a tombstone behind, which is reused by a later insertion or dropped when the table is
+ * rehashed.
+ * </p>
+ */
+class ChildrenTable<T> {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  // Marks the slot of a removed child, so that probing continues past it
+  private static final MetricData<?> TOMBSTONE = new MetricData<>(null);
+
+  private volatile AtomicReferenceArray<MetricData<T>> slots = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+  private volatile int size;
+  private int tombstones;
+
+  MetricData<T> get(final String[] labelValues) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    final int mask = slots.length() - 1;
+    for (int i = hash(labelValues) & mask; ; i = (i + 1) & mask) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData == null || (metricData != TOMBSTONE && matches(metricData.getLabelValues(), labelValues))) {
+        return metricData;
+      }
+    }
+  }
+
+  MetricData<T> get(final String labelValue1) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    final int mask = slots.length() - 1;
+    for (int i = hash(labelValue1) & mask; ; i = (i + 1) & mask) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData == null || (metricData != TOMBSTONE && matches(metricData.getLabelValues(), labelValue1))) {
+        return metricData;
+      }
+    }
+  }
+
+  MetricData<T> get(final String labelValue1, final String labelValue2) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    final int mask = slots.length() - 1;
+    for (int i = hash(labelValue1, labelValue2) & mask; ; i = (i + 1) & mask) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData == null ||
+          (metricData != TOMBSTONE && matches(metricData.getLabelValues(), labelValue1, labelValue2))) {
+        return metricData;
+      }
+    }
+  }
+
+  MetricData<T> get(final String labelValue1, final String labelValue2, final String labelValue3) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    final int mask = slots.length() - 1;
+    for (int i = hash(labelValue1, labelValue2, labelValue3) & mask; ; i = (i + 1) & mask) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData == null ||
+          (metricData != TOMBSTONE && matches(metricData.getLabelValues(), labelValue1, labelValue2, labelValue3))) {
+        return metricData;
+      }
+    }
+  }
+
+  /**
+   * Returns the child of the given label values, creating it with the given function if it does not exist.
+   * The function is given a private copy of the label values.
+   *
+   * @return the child, or null if it does not exist and the table already holds <i>maxSize</i> children
+   */
+  synchronized MetricData<T> computeIfAbsent(final String[] labelValues,
+                                             final int maxSize,
+                                             final Function<String[], MetricData<T>> mappingFunction) {
+    final MetricData<T> existing = get(labelValues);
+    if (existing != null) {
+      return existing;
+    }
+    if (size >= maxSize) {
+      return null;
+    }
+
+    final MetricData<T> metricData = mappingFunction.apply(labelValues.clone());
+    if ((size + tombstones + 1) * 2 > slots.length()) {
+      slots = rehash(slots, size + 1);
+      tombstones = 0;
+    }
+    if (insert(slots, metricData, hash(labelValues))) {
+      tombstones--;
+    }
+    size++;
+    return metricData;
+  }
+
+  /**
+   * Removes the given child if it is still in the table and the given condition holds for it.
+   * The condition is tested while insertions are blocked, and a removed child is marked as such so that holders
+   * of the child can tell.
+   *
+   * @return true if the child was removed
+   */
+  synchronized boolean remove(final MetricData<T> metricData, final Predicate<MetricData<T>> condition) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    final int mask = slots.length() - 1;
+    for (int i = hash(metricData.getLabelValues()) & mask; ; i = (i + 1) & mask) {
+      final MetricData<T> existing = slots.get(i);
+      if (existing == null) {
+        return false;
+      }
+      if (existing == metricData) {
+        if (!condition.test(metricData)) {
+          return false;
+        }
+        slots.set(i, tombstone());
+        metricData.markRemoved();
+        size--;
+        tombstones++;
+        shrinkIfSparse();
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Removes all the children for which the given condition holds.
+   */
+  synchronized void removeIf(final Predicate<MetricData<T>> condition) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    for (int i = 0; i < slots.length(); i++) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData != null && metricData != TOMBSTONE && condition.test(metricData)) {
+        slots.set(i, tombstone());
+        metricData.markRemoved();
+        size--;
+        tombstones++;
+      }
+    }
+    shrinkIfSparse();
+  }
+
+  // Gives the memory of removed children back once they outnumber the remaining ones, lookups that are still
+  // probing the old slots either find a child that was not removed or miss and retry under the lock
+  private void shrinkIfSparse() {
+    if (tombstones > size && slots.length() > INITIAL_CAPACITY) {
+      slots = rehash(slots, size);
+      tombstones = 0;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  void forEach(final Consumer<MetricData<T>> consumer) {
+    final AtomicReferenceArray<MetricData<T>> slots = this.slots;
+    for (int i = 0; i < slots.length(); i++) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData != null && metricData != TOMBSTONE) {
+        consumer.accept(metricData);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> MetricData<T> tombstone() {
+    return (MetricData<T>) TOMBSTONE;
+  }
+
+  // Copies the children to a new table that is at most a quarter full, dropping the tombstones
+  private static <T> AtomicReferenceArray<MetricData<T>> rehash(final AtomicReferenceArray<MetricData<T>> slots,
+                                                                final int expectedSize) {
+    int capacity = INITIAL_CAPACITY;
+    while (capacity < expectedSize * 4) {
+      capacity <<= 1;
+    }
+    final AtomicReferenceArray<MetricData<T>> rehashed = new AtomicReferenceArray<>(capacity);
+    for (int i = 0; i < slots.length(); i++) {
+      final MetricData<T> metricData = slots.get(i);
+      if (metricData != null && metricData != TOMBSTONE) {
+        insert(rehashed, metricData, hash(metricData.getLabelValues()));
+      }
+    }
+    return rehashed;
+  }
+
+  // Returns true if the child was put in the slot of a removed child
+  private static <T> boolean insert(final AtomicReferenceArray<MetricData<T>> slots,
+                                    final MetricData<T> metricData,
+                                    final int hash) {
+    final int mask = slots.length() - 1;
+    int i = hash & mask;
+    MetricData<T> existing;
+    while ((existing = slots.get(i)) != null && existing != TOMBSTONE) {
+      i = (i + 1) & mask;
+    }
+    slots.set(i, metricData);
+    return existing == TOMBSTONE;
+  }
+
+  // Combines the cached hash codes of the strings the same way Arrays.hashCode does, then mixes the result
+  // because label values tend to differ only in their last characters, which linear probing handles poorly
+  static int hash(final String[] labelValues) {
+    int hash = 1;
+    for (final String labelValue : labelValues) {
+      hash = 31 * hash + hashCode(labelValue);
+    }
+    return spread(hash);
+  }
+
+  static int hash(final List<String> labelValues) {
+    int hash = 1;
+    for (int i = 0; i < labelValues.size(); i++) {
+      hash = 31 * hash + hashCode(labelValues.get(i));
+    }
+    return spread(hash);
+  }
+
+  // Same as hash(String[]) for arrays of one to three elements
+  static int hash(final String labelValue1) {
+    return spread(31 + hashCode(labelValue1));
+  }
+
+  static int hash(final String labelValue1, final String labelValue2) {
+    return spread(31 * (31 + hashCode(labelValue1)) + hashCode(labelValue2));
+  }
+
+  static int hash(final String labelValue1, final String labelValue2, final String labelValue3) {
+    return spread(31 * (31 * (31 + hashCode(labelValue1)) + hashCode(labelValue2)) + hashCode(labelValue3));
+  }
+
+  // The finalization step of MurmurHash3
+  private static int spread(int hash) {
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int hashCode(final String labelValue) {
+    return labelValue == null ? 0 : labelValue.hashCode();
+  }
+
+  static boolean matches(final List<String> existing, final String[] labelValues) {
+    if (existing.size() != labelValues.length) {
+      return false;
+    }
+    for (int i = 0; i < labelValues.length; i++) {
+      if (!equal(existing.get(i), labelValues[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static boolean matches(final List<String> existing, final String labelValue1) {
+    return existing.size() == 1 && equal(existing.get(0), labelValue1);
+  }
+
+  static boolean matches(final List<String> existing, final String labelValue1, final String labelValue2) {
+    return existing.size() == 2 && equal(existing.get(0), labelValue1) && equal(existing.get(1), labelValue2);
+  }
+
+  static boolean matches(final List<String> existing,
+                         final String labelValue1,
+                         final String labelValue2,
+                         final String labelValue3) {
+    return existing.size() == 3 &&
+           equal(existing.get(0), labelValue1) &&
+           equal(existing.get(1), labelValue2) &&
+           equal(existing.get(2), labelValue3);
+  }
+
+  private static boolean equal(final String existing, final String labelValue) {
+    return existing == labelValue || (existing != null && existing.equals(labelValue));
+  }
+}
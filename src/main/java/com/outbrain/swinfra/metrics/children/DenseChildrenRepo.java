@@ -0,0 +1,276 @@
+package com.outbrain.swinfra.metrics.children;
+
+import com.outbrain.swinfra.metrics.timing.Clock;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.util.Arrays.asList;
+
+/**
+ * A child metric container implementation for metrics whose labels all have a small, declared set of values.
+ * <p>
+ * Every combination of label values has a fixed slot in an array, computed from the position of each label value
+ * in its domain, so a lookup compares the label values with the few values of their domains instead of hashing
+ * them. The comparison is by reference first, which makes callers that pass the declared instances, such as the
+ * names of enum constants, the cheapest. Children are created on their first update, with the declared instances
+ * of their label values.
+ * </p>
+ * <p>
+ * Label values outside the domains are rejected. Expiry and removal behave as in {@link LabeledChildrenRepo}.
+ * </p>
+ */
+public class DenseChildrenRepo<T> implements ChildMetricRepo<T> {
+
+  /**
+   * The max number of label value combinations, beyond which the slots would take more memory than they save
+   */
+  public static final int MAX_SLOTS = 1 << 16;
+
+  private final String[][] domains;
+  private final AtomicReferenceArray<MetricData<T>> slots;
+  private final Function<List<String>, MetricData<T>> mappingFunction;
+  private final Consumer<String[]> labelsValidator;
+  private final long expiryNanos;
+  private final Clock clock;
+
+  public DenseChildrenRepo(final String[][] domains,
+                           final Function<List<String>, MetricData<T>> mappingFunction,
+                           final Consumer<String[]> labelsValidator,
+                           final LabeledChildrenOptions options) {
+    this(domains, mappingFunction, labelsValidator, options, Clock.DEFAULT_CLOCK);
+  }
+
+  DenseChildrenRepo(final String[][] domains,
+                    final Function<List<String>, MetricData<T>> mappingFunction,
+                    final Consumer<String[]> labelsValidator,
+                    final LabeledChildrenOptions options,
+                    final Clock clock) {
+    if (!canIndex(domains)) {
+      throw new IllegalArgumentException("Cannot index the label domains " + Arrays.deepToString(domains));
+    }
+    this.domains = domains;
+    this.slots = new AtomicReferenceArray<>(slotsCount(domains));
+    this.mappingFunction = mappingFunction;
+    this.labelsValidator = labelsValidator;
+    this.expiryNanos = options.getChildExpiry().toNanos();
+    this.clock = clock;
+  }
+
+  /**
+   * @return true if every label has a domain and the combinations of their values do not exceed {@link #MAX_SLOTS}
+   */
+  public static boolean canIndex(final String[][] domains) {
+    if (domains.length == 0) {
+      return false;
+    }
+    long slotsCount = 1;
+    for (final String[] domain : domains) {
+      if (domain == null || domain.length == 0) {
+        return false;
+      }
+      slotsCount *= domain.length;
+      if (slotsCount > MAX_SLOTS) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public T metricForLabels(final String... labelValues) {
+    return metricDataForLabels(labelValues).getMetric();
+  }
+
+  @Override
+  public T metricForLabels(final List<String> labelValues) {
+    return metricForLabels(labelValues.toArray(new String[0]));
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String... labelValues) {
+    final MetricData<T> metricData = existingChild(slotOf(labelValues));
+    return metricData == null ? createChild(labelValues) : metricData;
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1) {
+    final MetricData<T> metricData = existingChild(domains.length == 1 ? indexOf(domains[0], labelValue1) : -1);
+    return metricData == null ? createChild(new String[]{labelValue1}) : metricData;
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1, final String labelValue2) {
+    final MetricData<T> metricData = existingChild(slotOf(labelValue1, labelValue2));
+    return metricData == null ? createChild(new String[]{labelValue1, labelValue2}) : metricData;
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1,
+                                           final String labelValue2,
+                                           final String labelValue3) {
+    final MetricData<T> metricData = existingChild(slotOf(labelValue1, labelValue2, labelValue3));
+    return metricData == null ? createChild(new String[]{labelValue1, labelValue2, labelValue3}) : metricData;
+  }
+
+  @Override
+  public boolean remove(final String... labelValues) {
+    final int slot = slotOf(labelValues);
+    if (slot < 0) {
+      return false;
+    }
+    synchronized (this) {
+      final MetricData<T> metricData = slots.get(slot);
+      if (metricData == null) {
+        return false;
+      }
+      removeAt(slot, metricData);
+      return true;
+    }
+  }
+
+  @Override
+  public synchronized void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    for (int slot = 0; slot < slots.length(); slot++) {
+      final MetricData<T> metricData = slots.get(slot);
+      if (metricData != null && labelValuesPredicate.test(metricData.getLabelValues())) {
+        removeAt(slot, metricData);
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    removeIf(labelValues -> true);
+  }
+
+  @Override
+  public void forEachMetricData(final Consumer<MetricData<T>> consumer) {
+    if (expiryNanos > 0) {
+      removeExpiredChildren();
+    }
+    for (int slot = 0; slot < slots.length(); slot++) {
+      final MetricData<T> metricData = slots.get(slot);
+      if (metricData != null) {
+        consumer.accept(metricData);
+      }
+    }
+  }
+
+  private synchronized void removeExpiredChildren() {
+    final long now = clock.getTick(TimeUnit.NANOSECONDS);
+    for (int slot = 0; slot < slots.length(); slot++) {
+      final MetricData<T> metricData = slots.get(slot);
+      if (metricData != null && metricData.isExpired(now, expiryNanos) && metricData.tryRemoveIdle()) {
+        slots.set(slot, null);
+      }
+    }
+  }
+
+  private void removeAt(final int slot, final MetricData<T> metricData) {
+    slots.set(slot, null);
+    metricData.markRemoved();
+  }
+
+  private MetricData<T> existingChild(final int slot) {
+    if (slot < 0) {
+      return null;
+    }
+    final MetricData<T> metricData = slots.get(slot);
+    return metricData != null && metricData.markUpdated() ? metricData : null;
+  }
+
+  private MetricData<T> createChild(final String[] labelValues) {
+    final int slot = slotOf(labelValues);
+    if (slot < 0) {
+      labelsValidator.accept(labelValues);
+      throw new IllegalArgumentException("The label values " + Arrays.toString(labelValues) +
+                                         " are not in the label domains " + Arrays.deepToString(domains));
+    }
+    synchronized (this) {
+      // Children are removed under this lock, so a child found here is not removed
+      MetricData<T> metricData = slots.get(slot);
+      if (metricData == null) {
+        metricData = mappingFunction.apply(asList(domainValuesOf(slot)));
+        slots.set(slot, metricData);
+      }
+      metricData.markUpdated();
+      return metricData;
+    }
+  }
+
+  private String[] domainValuesOf(final int slot) {
+    final String[] labelValues = new String[domains.length];
+    int remainder = slot;
+    for (int i = domains.length - 1; i >= 0; i--) {
+      labelValues[i] = domains[i][remainder % domains[i].length];
+      remainder /= domains[i].length;
+    }
+    return labelValues;
+  }
+
+  private int slotOf(final String[] labelValues) {
+    if (labelValues.length != domains.length) {
+      return -1;
+    }
+    int slot = 0;
+    for (int i = 0; i < domains.length; i++) {
+      final int index = indexOf(domains[i], labelValues[i]);
+      if (index < 0) {
+        return -1;
+      }
+      slot = slot * domains[i].length + index;
+    }
+    return slot;
+  }
+
+  private int slotOf(final String labelValue1, final String labelValue2) {
+    if (domains.length != 2) {
+      return -1;
+    }
+    final int index1 = indexOf(domains[0], labelValue1);
+    final int index2 = indexOf(domains[1], labelValue2);
+    return index1 < 0 || index2 < 0 ? -1 : index1 * domains[1].length + index2;
+  }
+
+  private int slotOf(final String labelValue1, final String labelValue2, final String labelValue3) {
+    if (domains.length != 3) {
+      return -1;
+    }
+    final int index1 = indexOf(domains[0], labelValue1);
+    final int index2 = indexOf(domains[1], labelValue2);
+    final int index3 = indexOf(domains[2], labelValue3);
+    return index1 < 0 || index2 < 0 || index3 < 0 ?
+           -1 :
+           (index1 * domains[1].length + index2) * domains[2].length + index3;
+  }
+
+  private static int slotsCount(final String[][] domains) {
+    int slotsCount = 1;
+    for (final String[] domain : domains) {
+      slotsCount *= domain.length;
+    }
+    return slotsCount;
+  }
+
+  private static int indexOf(final String[] domain, final String labelValue) {
+    for (int i = 0; i < domain.length; i++) {
+      if (domain[i] == labelValue) {
+        return i;
+      }
+    }
+    if (labelValue != null) {
+      for (int i = 0; i < domain.length; i++) {
+        if (domain[i].equals(labelValue)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,254 @@
+package com.outbrain.swinfra.metrics.children;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.outbrain.swinfra.metrics.children.ChildrenTable.hash;
+import static com.outbrain.swinfra.metrics.children.ChildrenTable.matches;
+import static java.util.Arrays.asList;
+
+/**
+ * A child metric container implementation for metrics whose label value combinations are all known when the metric
+ * is created.
+ * <p>
+ * All the children are created up front and kept in an array that is never changed afterwards, so lookups neither
+ * lock nor wait for a resize. The children are laid out with a perfect hash function, which gives every child a
+ * slot of its own, so finding an existing child takes a single comparison.
+ * Label values that are not one of the combinations are rejected, and children cannot be removed.
+ * </p>
+ */
+public class FrozenChildrenRepo<T> implements ChildMetricRepo<T> {
+
+  private static final int MAX_DISPLACEMENT = 1 << 12;
+  private static final int MAX_CAPACITY_FACTOR = 8;
+
+  private final List<MetricData<T>> children;
+  private final MetricData<T>[] slots;
+  private final int mask;
+  private final int[] displacements;
+  private final int bucketMask;
+  private final Consumer<String[]> labelsValidator;
+
+  public FrozenChildrenRepo(final List<String[]> labelValues,
+                            final Function<List<String>, MetricData<T>> mappingFunction,
+                            final Consumer<String[]> labelsValidator) {
+    this.labelsValidator = labelsValidator;
+    this.children = createChildren(labelValues, mappingFunction, labelsValidator);
+
+    final int[] hashes = new int[children.size()];
+    for (int i = 0; i < hashes.length; i++) {
+      hashes[i] = hash(children.get(i).getLabelValues());
+    }
+    final int bucketsCount = powerOfTwoAtLeast(hashes.length / 2);
+    int capacity = powerOfTwoAtLeast(hashes.length * 2);
+    int[] displacements = findDisplacements(hashes, bucketsCount, capacity);
+    while (displacements == null && capacity < hashes.length * MAX_CAPACITY_FACTOR) {
+      capacity <<= 1;
+      displacements = findDisplacements(hashes, bucketsCount, capacity);
+    }
+    // Only label values whose hash codes are all equal cannot be told apart, lookups probe past them
+    this.displacements = displacements == null ? new int[bucketsCount] : displacements;
+    this.bucketMask = bucketsCount - 1;
+    this.mask = capacity - 1;
+    this.slots = newSlots(capacity);
+    for (int child = 0; child < hashes.length; child++) {
+      int i = slotOf(hashes[child]);
+      while (slots[i] != null) {
+        i = (i + 1) & mask;
+      }
+      slots[i] = children.get(child);
+    }
+  }
+
+  @Override
+  public T metricForLabels(final String... labelValues) {
+    return metricDataForLabels(labelValues).getMetric();
+  }
+
+  @Override
+  public T metricForLabels(final List<String> labelValues) {
+    return metricForLabels(labelValues.toArray(new String[0]));
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String... labelValues) {
+    for (int i = slotOf(hash(labelValues)); slots[i] != null; i = (i + 1) & mask) {
+      if (matches(slots[i].getLabelValues(), labelValues)) {
+        return slots[i];
+      }
+    }
+    return reject(labelValues);
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1) {
+    for (int i = slotOf(hash(labelValue1)); slots[i] != null; i = (i + 1) & mask) {
+      if (matches(slots[i].getLabelValues(), labelValue1)) {
+        return slots[i];
+      }
+    }
+    return reject(new String[]{labelValue1});
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1, final String labelValue2) {
+    for (int i = slotOf(hash(labelValue1, labelValue2)); slots[i] != null; i = (i + 1) & mask) {
+      if (matches(slots[i].getLabelValues(), labelValue1, labelValue2)) {
+        return slots[i];
+      }
+    }
+    return reject(new String[]{labelValue1, labelValue2});
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1,
+                                           final String labelValue2,
+                                           final String labelValue3) {
+    for (int i = slotOf(hash(labelValue1, labelValue2, labelValue3)); slots[i] != null; i = (i + 1) & mask) {
+      if (matches(slots[i].getLabelValues(), labelValue1, labelValue2, labelValue3)) {
+        return slots[i];
+      }
+    }
+    return reject(new String[]{labelValue1, labelValue2, labelValue3});
+  }
+
+  @Override
+  public boolean remove(final String... labelValues) {
+    throw new UnsupportedOperationException("The children of fixed label values cannot be removed");
+  }
+
+  @Override
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    throw new UnsupportedOperationException("The children of fixed label values cannot be removed");
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("The children of fixed label values cannot be removed");
+  }
+
+  @Override
+  public void forEachMetricData(final Consumer<MetricData<T>> consumer) {
+    children.forEach(consumer);
+  }
+
+  // Returns true if every child is in the slot its label values hash to
+  boolean isPerfect() {
+    return children.stream().allMatch(metricData -> slots[slotOf(hash(metricData.getLabelValues()))] == metricData);
+  }
+
+  private MetricData<T> reject(final String[] labelValues) {
+    labelsValidator.accept(labelValues);
+    throw new IllegalArgumentException("The label values " + Arrays.toString(labelValues) +
+                                       " are not one of the fixed label values");
+  }
+
+  private int slotOf(final int hash) {
+    return mix(hash, displacements[hash & bucketMask]) & mask;
+  }
+
+  private static <T> List<MetricData<T>> createChildren(final List<String[]> labelValues,
+                                                       final Function<List<String>, MetricData<T>> mappingFunction,
+                                                       final Consumer<String[]> labelsValidator) {
+    final Set<List<String>> distinct = new HashSet<>();
+    final List<MetricData<T>> children = new ArrayList<>(labelValues.size());
+    for (final String[] values : labelValues) {
+      labelsValidator.accept(values);
+      final List<String> valuesList = asList(values.clone());
+      if (!distinct.add(valuesList)) {
+        throw new IllegalArgumentException("The label values " + valuesList + " are given more than once");
+      }
+      children.add(mappingFunction.apply(valuesList));
+    }
+    return children;
+  }
+
+  // Hash and displace - the children are split to buckets by their hash, and each bucket, largest first, is given
+  // the first displacement that moves all of its children to free slots. Returns null if a bucket has no such
+  // displacement.
+  private static int[] findDisplacements(final int[] hashes, final int bucketsCount, final int capacity) {
+    final List<List<Integer>> buckets = new ArrayList<>(bucketsCount);
+    for (int i = 0; i < bucketsCount; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (final int hash : hashes) {
+      buckets.get(hash & (bucketsCount - 1)).add(hash);
+    }
+    final Integer[] order = new Integer[bucketsCount];
+    for (int i = 0; i < bucketsCount; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (bucket1, bucket2) -> buckets.get(bucket2).size() - buckets.get(bucket1).size());
+
+    final int[] displacements = new int[bucketsCount];
+    final boolean[] taken = new boolean[capacity];
+    for (final int bucket : order) {
+      final List<Integer> bucketHashes = buckets.get(bucket);
+      if (bucketHashes.isEmpty()) {
+        break;
+      }
+      final int displacement = findDisplacement(bucketHashes, taken);
+      if (displacement < 0) {
+        return null;
+      }
+      displacements[bucket] = displacement;
+      for (final int hash : bucketHashes) {
+        taken[mix(hash, displacement) & (capacity - 1)] = true;
+      }
+    }
+    return displacements;
+  }
+
+  private static int findDisplacement(final List<Integer> bucketHashes, final boolean[] taken) {
+    final int[] bucketSlots = new int[bucketHashes.size()];
+    for (int displacement = 0; displacement < MAX_DISPLACEMENT; displacement++) {
+      if (fits(bucketHashes, displacement, taken, bucketSlots)) {
+        return displacement;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean fits(final List<Integer> bucketHashes,
+                              final int displacement,
+                              final boolean[] taken,
+                              final int[] bucketSlots) {
+    for (int i = 0; i < bucketSlots.length; i++) {
+      bucketSlots[i] = mix(bucketHashes.get(i), displacement) & (taken.length - 1);
+      if (taken[bucketSlots[i]]) {
+        return false;
+      }
+      for (int j = 0; j < i; j++) {
+        if (bucketSlots[j] == bucketSlots[i]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  // The finalization step of MurmurHash3 over the hash and the displacement
+  private static int mix(final int hash, final int displacement) {
+    int mixed = hash ^ (displacement * 0x9e3779b9);
+    mixed *= 0x85ebca6b;
+    mixed ^= mixed >>> 13;
+    mixed *= 0xc2b2ae35;
+    return mixed ^ (mixed >>> 16);
+  }
+
+  private static int powerOfTwoAtLeast(final int n) {
+    return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+  }
+
+  // Generic arrays cannot be created, and the slots only ever hold the children of type T of this repo
+  @SuppressWarnings("unchecked")
+  private static <T> MetricData<T>[] newSlots(final int capacity) {
+    return (MetricData<T>[]) new MetricData<?>[capacity];
+  }
+}
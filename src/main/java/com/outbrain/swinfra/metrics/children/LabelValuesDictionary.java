@@ -0,0 +1,40 @@
+package com.outbrain.swinfra.metrics.children;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a single instance of every label value given to the children of a metric, so that a value shared by many
+ * children, e.g. <i>status="200"</i>, is kept in memory once rather than once per child.
+ * <p>
+ * Lookups of existing children compare label values by reference before comparing their characters, so callers
+ * that pass the same instances, like constants, also get cheaper lookups.
+ * </p>
+ * <p>
+ * Values are kept for the life of the dictionary, even after all the children using them were removed.
+ * </p>
+ */
+class LabelValuesDictionary {
+
+  private final ConcurrentMap<String, String> values = new ConcurrentHashMap<>();
+
+  /**
+   * Replaces the given label values, in place, with their instances in this dictionary
+   */
+  String[] intern(final String[] labelValues) {
+    for (int i = 0; i < labelValues.length; i++) {
+      final String labelValue = labelValues[i];
+      if (labelValue != null) {
+        final String existing = values.putIfAbsent(labelValue, labelValue);
+        if (existing != null) {
+          labelValues[i] = existing;
+        }
+      }
+    }
+    return labelValues;
+  }
+
+  void clear() {
+    values.clear();
+  }
+}
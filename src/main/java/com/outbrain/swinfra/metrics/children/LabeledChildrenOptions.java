@@ -0,0 +1,79 @@
+package com.outbrain.swinfra.metrics.children;
+
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+
+/**
+ * Options that control how a {@link LabeledChildrenRepo} manages its children.
+ * Instances are immutable, every <i>with</i> method returns a copy with the given option changed.
+ */
+public final class LabeledChildrenOptions {
+
+  public static final LabeledChildrenOptions DEFAULT =
+      new LabeledChildrenOptions(Integer.MAX_VALUE, Duration.ZERO, false, false);
+
+  private final int maxCardinality;
+  private final Duration childExpiry;
+  private final boolean internLabelValues;
+  private final boolean threadLocalCache;
+
+  private LabeledChildrenOptions(final int maxCardinality,
+                                 final Duration childExpiry,
+                                 final boolean internLabelValues,
+                                 final boolean threadLocalCache) {
+    this.maxCardinality = maxCardinality;
+    this.childExpiry = childExpiry;
+    this.internLabelValues = internLabelValues;
+    this.threadLocalCache = threadLocalCache;
+  }
+
+  /**
+   * @see LabeledChildrenRepo#OVERFLOW_LABEL_VALUE
+   */
+  public LabeledChildrenOptions withMaxCardinality(final int maxCardinality) {
+    Validate.isTrue(maxCardinality > 0, "The max cardinality must be positive but got %d", maxCardinality);
+    return new LabeledChildrenOptions(maxCardinality, childExpiry, internLabelValues, threadLocalCache);
+  }
+
+  /**
+   * @param childExpiry how long a child may go without updates before it is removed, {@link Duration#ZERO}
+   *                    to never remove children
+   */
+  public LabeledChildrenOptions withChildExpiry(final Duration childExpiry) {
+    Validate.notNull(childExpiry, "The child expiry must not be null");
+    Validate.isTrue(!childExpiry.isNegative(), "The child expiry must not be negative but got %s", childExpiry);
+    return new LabeledChildrenOptions(maxCardinality, childExpiry, internLabelValues, threadLocalCache);
+  }
+
+  /**
+   * Keeps a single instance of every label value, shared by all the children that have it.
+   * @see LabelValuesDictionary
+   */
+  public LabeledChildrenOptions withInternedLabelValues() {
+    return new LabeledChildrenOptions(maxCardinality, childExpiry, true, threadLocalCache);
+  }
+
+  /**
+   * @see ThreadLocalCachingChildRepo
+   */
+  public LabeledChildrenOptions withThreadLocalCache() {
+    return new LabeledChildrenOptions(maxCardinality, childExpiry, internLabelValues, true);
+  }
+
+  public int getMaxCardinality() {
+    return maxCardinality;
+  }
+
+  public Duration getChildExpiry() {
+    return childExpiry;
+  }
+
+  public boolean isInternLabelValues() {
+    return internLabelValues;
+  }
+
+  public boolean isThreadLocalCache() {
+    return threadLocalCache;
+  }
+}
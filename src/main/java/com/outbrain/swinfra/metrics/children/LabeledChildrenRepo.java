@@ -1,28 +1,87 @@
 package com.outbrain.swinfra.metrics.children;
 
+import com.outbrain.swinfra.metrics.timing.Clock;
+
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static java.util.Arrays.asList;
 
 /**
  * A child metric container implementation for metrics that have labels.
  * Such metrics can expect multiple children.
+ * <p>
+ * The number of children may be limited with {@link LabeledChildrenOptions#withMaxCardinality(int)}. Once the limit
+ * is reached, lookups of new label values return a single overflow child, whose label values are all
+ * {@value #OVERFLOW_LABEL_VALUE}. The overflow child is not counted against the limit. The limit is only checked when
+ * a child is missing, so it adds no work to the lookup of existing children.
+ * </p>
+ * <p>
+ * The overflow listener is notified once per distinct combination of label values that is folded into the overflow
+ * child, rather than once per lookup. The combinations are told apart by a bitmap of
+ * {@value #OVERFLOWED_HASH_BITS} bits of their hashes, which is allocated by the first overflow, so combinations
+ * whose hashes share a bit are counted once. The count is therefore a lower bound, which is close to exact while
+ * it is well below the number of bits. The bitmap is dropped along with the children when the repo is cleared.
+ * </p>
+ * <p>
+ * Children that were not updated for the time given by {@link LabeledChildrenOptions#withChildExpiry(Duration)}
+ * are removed when the children are iterated, which happens when the metric is exported. A lookup only marks
+ * the child as updated, and an update that races with the removal of its child creates a new child instead.
+ * </p>
+ * <p>
+ * Children may also be removed explicitly, with the same guarantee for racing updates.
+ * </p>
  */
 public class LabeledChildrenRepo<T> implements ChildMetricRepo<T> {
 
-  private final ConcurrentMap<StringsKey, MetricData<T>> children = new ConcurrentHashMap<>();
+  public static final String OVERFLOW_LABEL_VALUE = "__overflow__";
+
+  static final int OVERFLOWED_HASH_BITS = 1 << 16;
+
+  private final ChildrenTable<T> children = new ChildrenTable<>();
   private final Function<String[], MetricData<T>> mappingFunction;
   private final Consumer<String[]> labelsValidator;
+  private final int maxCardinality;
+  private final Runnable overflowListener;
+  private final long expiryNanos;
+  private final Clock clock;
+  private final Object expirySweepLock = new Object();
+  private final LabelValuesDictionary dictionary;
+  private volatile String[] overflowLabelValues;
+  private volatile AtomicLongArray overflowedHashes;
 
   public LabeledChildrenRepo(final Function<List<String>, MetricData<T>> mappingFunction,
                              final Consumer<String[]> labelsValidator) {
-    this.mappingFunction = labelValues -> mappingFunction.apply(asList(labelValues));
+    this(mappingFunction, labelsValidator, LabeledChildrenOptions.DEFAULT, () -> {});
+  }
+
+  public LabeledChildrenRepo(final Function<List<String>, MetricData<T>> mappingFunction,
+                             final Consumer<String[]> labelsValidator,
+                             final LabeledChildrenOptions options,
+                             final Runnable overflowListener) {
+    this(mappingFunction, labelsValidator, options, overflowListener, Clock.DEFAULT_CLOCK);
+  }
+
+  LabeledChildrenRepo(final Function<List<String>, MetricData<T>> mappingFunction,
+                      final Consumer<String[]> labelsValidator,
+                      final LabeledChildrenOptions options,
+                      final Runnable overflowListener,
+                      final Clock clock) {
+    this.dictionary = options.isInternLabelValues() ? new LabelValuesDictionary() : null;
+    this.mappingFunction = dictionary == null ?
+                           labelValues -> mappingFunction.apply(asList(labelValues)) :
+                           labelValues -> mappingFunction.apply(asList(dictionary.intern(labelValues)));
     this.labelsValidator = labelsValidator;
+    this.maxCardinality = options.getMaxCardinality();
+    this.overflowListener = overflowListener;
+    this.expiryNanos = options.getChildExpiry().toNanos();
+    this.clock = clock;
   }
 
   @Override
@@ -32,43 +91,154 @@ public class LabeledChildrenRepo<T> implements ChildMetricRepo<T> {
 
   @Override
   public T metricForLabels(final String... labelValues) {
-    final StringsKey stringsKey = new StringsKey(labelValues);
-    final MetricData<T> metricData = children.get(stringsKey);
-    // We use get and fallback to computeIfAbsent to eliminate contention
-    // in case the key is present.
-    // See https://bugs.openjdk.java.net/browse/JDK-8161372 for details.
-    if (metricData == null) {
-      return children.computeIfAbsent(stringsKey, k -> {
-        labelsValidator.accept(labelValues);
-        return mappingFunction.apply(labelValues);
-      }).getMetric();
-    } else {
-      return metricData.getMetric();
+    return metricDataForLabels(labelValues).getMetric();
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String... labelValues) {
+    // The lookup of an existing child does not allocate, only the creation of a new child is done under a lock
+    final MetricData<T> metricData = children.get(labelValues);
+    return metricData != null && metricData.markUpdated() ? metricData : createChild(labelValues);
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1) {
+    final MetricData<T> metricData = children.get(labelValue1);
+    return metricData != null && metricData.markUpdated() ? metricData : createChild(new String[]{labelValue1});
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1, final String labelValue2) {
+    final MetricData<T> metricData = children.get(labelValue1, labelValue2);
+    return metricData != null && metricData.markUpdated() ?
+           metricData :
+           createChild(new String[]{labelValue1, labelValue2});
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1,
+                                           final String labelValue2,
+                                           final String labelValue3) {
+    final MetricData<T> metricData = children.get(labelValue1, labelValue2, labelValue3);
+    return metricData != null && metricData.markUpdated() ?
+           metricData :
+           createChild(new String[]{labelValue1, labelValue2, labelValue3});
+  }
+
+  @Override
+  public boolean remove(final String... labelValues) {
+    final MetricData<T> metricData = children.get(labelValues);
+    return metricData != null && children.remove(metricData, child -> true);
+  }
+
+  @Override
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    children.removeIf(metricData -> labelValuesPredicate.test(metricData.getLabelValues()));
+  }
+
+  @Override
+  public void clear() {
+    children.removeIf(metricData -> true);
+    overflowedHashes = null;
+    if (dictionary != null) {
+      dictionary.clear();
     }
   }
 
   @Override
   public void forEachMetricData(final Consumer<MetricData<T>> consumer) {
-    children.values().forEach(consumer);
+    if (expiryNanos > 0) {
+      removeExpiredChildren();
+    }
+    children.forEach(consumer);
+  }
+
+  private void removeExpiredChildren() {
+    synchronized (expirySweepLock) {
+      final long now = clock.getTick(TimeUnit.NANOSECONDS);
+      children.forEach(metricData -> {
+        if (metricData.isExpired(now, expiryNanos)) {
+          children.remove(metricData, MetricData::tryRemoveIdle);
+        }
+      });
+    }
+  }
+
+  private MetricData<T> createChild(final String[] labelValues) {
+    labelsValidator.accept(labelValues);
+    final int maxSize = maxSize(labelValues.length);
+    while (true) {
+      // The table finds a child that was created concurrently before it checks the limit
+      final MetricData<T> metricData = children.computeIfAbsent(labelValues, maxSize, mappingFunction);
+      if (metricData == null) {
+        break;
+      }
+      // Retry if the child expired right after it was found
+      if (metricData.markUpdated()) {
+        return metricData;
+      }
+    }
+    if (markOverflowed(labelValues)) {
+      overflowListener.run();
+    }
+    return overflowChild(labelValues.length);
   }
 
-  // This proved to be faster than using Arrays.asList as the key
-  private static class StringsKey {
-    private final String[] labelValues;
+  // The max number of children in the table, where the overflow child is not counted against the limit
+  private int maxSize(final int labelsCount) {
+    if (maxCardinality == Integer.MAX_VALUE || children.get(overflowLabelValues(labelsCount)) == null) {
+      return maxCardinality;
+    }
+    return maxCardinality + 1;
+  }
 
-    private StringsKey(final String[] labelValues) {
-      this.labelValues = labelValues;
+  private MetricData<T> overflowChild(final int labelsCount) {
+    final String[] overflowLabelValues = overflowLabelValues(labelsCount);
+    while (true) {
+      final MetricData<T> metricData =
+          children.computeIfAbsent(overflowLabelValues, Integer.MAX_VALUE, mappingFunction);
+      if (metricData.markUpdated()) {
+        return metricData;
+      }
     }
+  }
 
-    @Override
-    public boolean equals(final Object obj) {
-      return Arrays.equals(labelValues, ((StringsKey) obj).labelValues);
+  private String[] overflowLabelValues(final int labelsCount) {
+    String[] overflowLabelValues = this.overflowLabelValues;
+    if (overflowLabelValues == null || overflowLabelValues.length != labelsCount) {
+      overflowLabelValues = new String[labelsCount];
+      Arrays.fill(overflowLabelValues, OVERFLOW_LABEL_VALUE);
+      this.overflowLabelValues = overflowLabelValues;
     }
+    return overflowLabelValues;
+  }
 
-    @Override
-    public int hashCode() {
-      return Arrays.hashCode(labelValues);
+  /**
+   * @return true if the given label values are the first to be folded into the overflow child with their hash bit
+   */
+  private boolean markOverflowed(final String[] labelValues) {
+    AtomicLongArray overflowedHashes = this.overflowedHashes;
+    if (overflowedHashes == null) {
+      synchronized (this) {
+        overflowedHashes = this.overflowedHashes;
+        if (overflowedHashes == null) {
+          overflowedHashes = new AtomicLongArray(OVERFLOWED_HASH_BITS / Long.SIZE);
+          this.overflowedHashes = overflowedHashes;
+        }
+      }
     }
+    // The top bits of a multiplicative hash are the best spread ones
+    final int bit = (Arrays.hashCode(labelValues) * 0x9e3779b9) >>> (Integer.SIZE - 16);
+    final int index = bit / Long.SIZE;
+    final long mask = 1L << (bit % Long.SIZE);
+    long word;
+    do {
+      word = overflowedHashes.get(index);
+      if ((word & mask) != 0) {
+        return false;
+      }
+    } while (!overflowedHashes.compareAndSet(index, word, word | mask));
+    return true;
   }
 
 }
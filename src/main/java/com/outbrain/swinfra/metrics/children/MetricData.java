@@ -1,6 +1,5 @@
 package com.outbrain.swinfra.metrics.children;
 
-import java.util.Arrays;
 import java.util.List;
 
 import static java.util.Collections.emptyList;
@@ -9,6 +8,13 @@ public class MetricData<T> {
   private final T metric;
   private final List<String> labelValues;
 
+  // Expiry state - the update path only reads these flags, and writes the updated flag at most once
+  // between two sweeps of the repo, so tracking the last update does not read a clock on every update.
+  // A new child counts as updated until the first sweep records the time.
+  private volatile boolean updated = true;
+  private volatile boolean removed;
+  private long lastUpdateNanos;
+
   public MetricData(final T metric) {
     this(metric, null);
   }
@@ -25,4 +31,49 @@ public class MetricData<T> {
   public List<String> getLabelValues() {
     return labelValues;
   }
+
+  /**
+   * Marks this child as recently updated so that it will not expire.
+   *
+   * @return false if this child was removed from its repo, in which case it should be looked up again
+   */
+  public boolean markUpdated() {
+    if (!updated) {
+      updated = true;
+    }
+    return !removed;
+  }
+
+  /**
+   * Called on every sweep of the repo, returns true if this child was not updated during the last
+   * <i>expiryNanos</i>.
+   * The idle time is measured from the sweep that first saw this child as not updated, so a child is never
+   * expired before it was really idle for the given time.
+   */
+  boolean isExpired(final long nowNanos, final long expiryNanos) {
+    if (updated) {
+      updated = false;
+      lastUpdateNanos = nowNanos;
+      return false;
+    }
+    return nowNanos - lastUpdateNanos >= expiryNanos;
+  }
+
+  void markRemoved() {
+    removed = true;
+  }
+
+  /**
+   * Removes this child unless it was updated concurrently. Since this method writes <i>removed</i> before reading
+   * <i>updated</i>, and {@link #markUpdated()} does the opposite, a concurrent update either keeps this child
+   * or learns that it was removed.
+   */
+  boolean tryRemoveIdle() {
+    removed = true;
+    if (updated) {
+      removed = false;
+      return false;
+    }
+    return true;
+  }
 }
@@ -0,0 +1,107 @@
+package com.outbrain.swinfra.metrics.children;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.outbrain.swinfra.metrics.children.ChildrenTable.matches;
+
+/**
+ * A child metric container that remembers, for every thread, the last child it returned to that thread, and returns
+ * it again without asking the wrapped container when the thread asks for the same label values.
+ * <p>
+ * This suits threads that update the same child many times in a row, e.g. the child of the tenant of the request
+ * being handled. The label values are compared by reference before they are compared by contents. A remembered
+ * child that was removed from the wrapped container is not returned.
+ * </p>
+ * <p>
+ * Every thread keeps at most one child of every container, in a {@link ThreadLocal}, so the child is released when
+ * the thread ends. This holds for virtual threads as well, though threads that are short lived, as virtual threads
+ * usually are, update too few times to gain from the cache.
+ * </p>
+ */
+public class ThreadLocalCachingChildRepo<T> implements ChildMetricRepo<T> {
+
+  private final ChildMetricRepo<T> delegate;
+  private final ThreadLocal<MetricData<T>> lastChild = new ThreadLocal<>();
+
+  public ThreadLocalCachingChildRepo(final ChildMetricRepo<T> delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public T metricForLabels(final String... labelValues) {
+    return metricDataForLabels(labelValues).getMetric();
+  }
+
+  @Override
+  public T metricForLabels(final List<String> labelValues) {
+    return metricForLabels(labelValues.toArray(new String[0]));
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String... labelValues) {
+    final MetricData<T> cached = lastChild.get();
+    if (cached != null && matches(cached.getLabelValues(), labelValues) && cached.markUpdated()) {
+      return cached;
+    }
+    return remember(delegate.metricDataForLabels(labelValues));
+  }
+
+  // The fixed arity lookups of the delegate find an existing child without creating a varargs array on a miss
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1) {
+    final MetricData<T> cached = lastChild.get();
+    if (cached != null && matches(cached.getLabelValues(), labelValue1) && cached.markUpdated()) {
+      return cached;
+    }
+    return remember(delegate.metricDataForLabels(labelValue1));
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1, final String labelValue2) {
+    final MetricData<T> cached = lastChild.get();
+    if (cached != null && matches(cached.getLabelValues(), labelValue1, labelValue2) && cached.markUpdated()) {
+      return cached;
+    }
+    return remember(delegate.metricDataForLabels(labelValue1, labelValue2));
+  }
+
+  @Override
+  public MetricData<T> metricDataForLabels(final String labelValue1,
+                                           final String labelValue2,
+                                           final String labelValue3) {
+    final MetricData<T> cached = lastChild.get();
+    if (cached != null &&
+        matches(cached.getLabelValues(), labelValue1, labelValue2, labelValue3) &&
+        cached.markUpdated()) {
+      return cached;
+    }
+    return remember(delegate.metricDataForLabels(labelValue1, labelValue2, labelValue3));
+  }
+
+  @Override
+  public boolean remove(final String... labelValues) {
+    return delegate.remove(labelValues);
+  }
+
+  @Override
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    delegate.removeIf(labelValuesPredicate);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+  }
+
+  @Override
+  public void forEachMetricData(final Consumer<MetricData<T>> consumer) {
+    delegate.forEachMetricData(consumer);
+  }
+
+  private MetricData<T> remember(final MetricData<T> metricData) {
+    lastChild.set(metricData);
+    return metricData;
+  }
+}
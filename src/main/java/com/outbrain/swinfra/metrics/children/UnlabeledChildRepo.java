@@ -5,6 +5,7 @@ import org.apache.commons.lang3.Validate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * A child metric container implementation for metrics that do not have labels.
@@ -32,6 +33,27 @@ public class UnlabeledChildRepo<T> implements ChildMetricRepo<T> {
     return metricData.getMetric();
   }
 
+  @Override
+  public MetricData<T> metricDataForLabels(final String... labelValues) {
+    Validate.isTrue(labelValues.length == 0, "%s has no labels but got %s", metricName, Arrays.toString(labelValues));
+    return metricData;
+  }
+
+  @Override
+  public boolean remove(final String... labelValues) {
+    throw new UnsupportedOperationException(metricName + " has no labels, its only child cannot be removed");
+  }
+
+  @Override
+  public void removeIf(final Predicate<List<String>> labelValuesPredicate) {
+    throw new UnsupportedOperationException(metricName + " has no labels, its only child cannot be removed");
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException(metricName + " has no labels, its only child cannot be removed");
+  }
+
   @Override
   public void forEachMetricData(final Consumer<MetricData<T>> consumer) {
     consumer.accept(metricData);
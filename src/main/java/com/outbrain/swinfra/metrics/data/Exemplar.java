@@ -0,0 +1,66 @@
+package com.outbrain.swinfra.metrics.data;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+
+/**
+ * An observation that is exported along with a counter or a bucket of a histogram, with labels that identify it,
+ * typically the id of the trace it was made in.
+ *
+ * @see <a href="https://github.com/OpenObservability/OpenMetrics/blob/main/specification/OpenMetrics.md#exemplars">OpenMetrics exemplars</a>
+ */
+public final class Exemplar {
+
+    private final String[] labels;
+    private final double value;
+    private final long timestampMillis;
+
+    /**
+     * @param labels the names and the values of the labels, one after the other, e.g. "trace_id", "abc123"
+     */
+    public Exemplar(final double value, final long timestampMillis, final String... labels) {
+        validateLabels(labels);
+        this.labels = labels.clone();
+        this.value = value;
+        this.timestampMillis = timestampMillis;
+    }
+
+    /**
+     * Validates that the given labels are pairs of names and values, none of which is null, so that observations with
+     * invalid exemplar labels fail whether or not their exemplar is sampled
+     */
+    public static void validateLabels(final String... labels) {
+        Validate.isTrue(labels.length % 2 == 0, "Exemplar labels must be pairs of names and values");
+        Validate.noNullElements(labels, "Exemplar labels may not be null");
+    }
+
+    public int getLabelsCount() {
+        return labels.length / 2;
+    }
+
+    public String getLabelName(final int index) {
+        return labels[index * 2];
+    }
+
+    public String getLabelValue(final int index) {
+        return labels[index * 2 + 1];
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Exemplar{" +
+                "labels=" + Arrays.toString(labels) +
+                ", value=" + value +
+                ", timestampMillis=" + timestampMillis +
+                '}';
+    }
+}
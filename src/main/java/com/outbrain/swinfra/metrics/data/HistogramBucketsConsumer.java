@@ -4,4 +4,20 @@ package com.outbrain.swinfra.metrics.data;
 public interface HistogramBucketsConsumer {
 
     void apply(double upperBound, long count);
+
+    /**
+     * @param exemplar the exemplar of the bucket, or null if it has none
+     */
+    default void apply(final double upperBound, final long count, final Exemplar exemplar) {
+        apply(upperBound, count);
+    }
+
+    /**
+     * @param upperBoundLabel the upper bound formatted as the value of the <i>le</i> label, which is formatted once
+     *                        per histogram rather than once per scrape
+     * @param exemplar        the exemplar of the bucket, or null if it has none
+     */
+    default void apply(final double upperBound, final String upperBoundLabel, final long count, final Exemplar exemplar) {
+        apply(upperBound, count, exemplar);
+    }
 }
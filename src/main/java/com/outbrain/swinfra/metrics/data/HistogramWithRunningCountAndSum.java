@@ -1,121 +1,231 @@
 package com.outbrain.swinfra.metrics.data;
 
+import com.outbrain.swinfra.metrics.timing.Clock;
 import org.HdrHistogram.Histogram;
 import org.HdrHistogram.HistogramIterationValue;
-import org.HdrHistogram.Recorder;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Created by ahadadi on 26/04/2018.
  */
 public class HistogramWithRunningCountAndSum {
+
+  public static final double[] DEFAULT_QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+
   private final int numberOfSignificantValueDigits;
-  private final Recorder nonNegativeRecorder;
-  private Histogram nonNegativeHistogramToRecycle;
-  private volatile Recorder negativeRecorder;
-  private Histogram negativeHistogramToRecycle;
-  private Histogram negativeAndNonNegativeSum;
-  private long count;
-  private long sum;
-  private final Object negativeLock = new Object();
+  private final double[] quantiles;
+  // Exactly one of the recorder and the window is set
+  private final SignedRecorder recorder;
+  private final RecorderWindow window;
+  // The count and the sum are added on every record, so they are exact and a summary does not need to compute them
+  // from the histogram
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
   private final Object summaryLock = new Object();
+  private volatile Refresh latestRefresh;
 
   public HistogramWithRunningCountAndSum(final int numberOfSignificantValueDigits) {
-    this.nonNegativeRecorder = new Recorder(numberOfSignificantValueDigits);
+    this(numberOfSignificantValueDigits, DEFAULT_QUANTILES);
+  }
+
+  /**
+   * @param quantiles the quantiles to extract from every summary, in ascending order
+   */
+  public HistogramWithRunningCountAndSum(final int numberOfSignificantValueDigits, final double[] quantiles) {
+    this(numberOfSignificantValueDigits, quantiles, null, 0, 0);
+  }
+
+  /**
+   * Creates a histogram whose quantiles are those of the values of a sliding window of time, rather than those of the
+   * values since the previous summary. The quantiles of the window do not depend on the number of summaries that
+   * are taken, and taking a summary does not change them.
+   *
+   * @param quantiles      the quantiles to extract from every summary, in ascending order
+   * @param clock          the clock that decides the interval of every value
+   * @param intervalNanos  the length of an interval of the window
+   * @param intervalsCount the number of intervals in the window, or 0 for no window
+   */
+  public HistogramWithRunningCountAndSum(final int numberOfSignificantValueDigits,
+                                         final double[] quantiles,
+                                         final Clock clock,
+                                         final long intervalNanos,
+                                         final int intervalsCount) {
     this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+    this.quantiles = quantiles;
+    if (intervalsCount == 0) {
+      this.recorder = new SignedRecorder(numberOfSignificantValueDigits);
+      this.window = null;
+    } else {
+      this.recorder = null;
+      this.window = new RecorderWindow(numberOfSignificantValueDigits, intervalNanos, intervalsCount, clock);
+    }
   }
 
   public void recordValue(final long value) {
-    if (value < 0) {
-      // HdrHistogram does not support recording negative values, so we flip the sign.
-      lazilyInitializedNegativeRecorder().recordValue(-value);
+    if (window == null) {
+      recorder.recordValue(value);
     } else {
-      nonNegativeRecorder.recordValue(value);
+      window.recordValue(value);
     }
+    count.increment();
+    sum.add(value);
   }
 
-  private Recorder lazilyInitializedNegativeRecorder() {
-    // Lazily initialize lazilyInitializedNegativeRecorder to avoid allocating the needed memory upfront.
-    if (negativeRecorder == null) {
-      synchronized (negativeLock) {
-        if (negativeRecorder == null) {
-          negativeAndNonNegativeSum = new Histogram(numberOfSignificantValueDigits);
-          negativeRecorder = new Recorder(numberOfSignificantValueDigits);
-        }
+  /**
+   * Records the values of the given range of the array. A run of equal values is recorded at once, with its count,
+   * so batches of repeating values enter the recorder once per run rather than once per value.
+   *
+   * @param from the index of the first value to record
+   * @param to   the index after the last value to record
+   */
+  public void recordValues(final long[] values, final int from, final int to) {
+    Validate.isTrue(0 <= from && from <= to && to <= values.length,
+                    "Invalid range [%s, %s) of %s values", from, to, values.length);
+    int i = from;
+    while (i < to) {
+      final long value = values[i];
+      final int runStart = i;
+      do {
+        i++;
+      } while (i < to && values[i] == value);
+      if (window == null) {
+        recorder.recordValueWithCount(value, i - runStart);
+      } else {
+        window.recordValueWithCount(value, i - runStart);
       }
+      sum.add(value * (i - runStart));
     }
-    return negativeRecorder;
+    count.add(to - from);
   }
 
   public SummaryData summary() {
+    return takeSummary();
+  }
+
+  private HdrSummaryData takeSummary() {
     // Read the contents of the histograms under lock to prevent another thread from swapping the
     // recyclable histograms and making them active while we extract stats from them.
     synchronized (summaryLock) {
-      // The Java Doc explaining the usage pattern involving getIntervalHistogram is explained here:
-      // https://github.com/HdrHistogram/HdrHistogram/blob/34ac23d63b496d37eab966502153789153b3e492/src/main/java/org/HdrHistogram/Recorder.java#L26
-      nonNegativeHistogramToRecycle = nonNegativeRecorder.getIntervalHistogram(nonNegativeHistogramToRecycle);
-
-      if (negativeRecorder == null) {
-        return summary(0, nonNegativeHistogramToRecycle);
+      if (window != null) {
+        window.merge();
+        return summary(window.getNonNegative(), window.getNegative());
       }
+      recorder.sampleInterval();
+      return summary(recorder.getNonNegativeInterval(), recorder.getNegativeInterval());
+    }
+  }
 
-      negativeHistogramToRecycle = negativeRecorder.getIntervalHistogram(negativeHistogramToRecycle);
-      if (negativeHistogramToRecycle.getTotalCount() == 0) {
-        return summary(0, nonNegativeHistogramToRecycle);
-      }
+  /**
+   * Takes a summary, as {@link #summary()} does, and keeps its quantiles as the latest ones
+   *
+   * @param tick the current tick of the clock of the refreshes, in nanoseconds
+   */
+  public void refreshSummary(final long tick) {
+    synchronized (summaryLock) {
+      latestRefresh = new Refresh(takeSummary().values, tick);
+    }
+  }
 
-      // We need to sum the negative and non negative histograms.
-      // For that we first need to put their values on the same scale.
-      // As we recorded -v for each recorded negative value v, we need to flip the sign again to get (-(-v)) = v.
-      // Since we cannot record negative values,
-      // we add offset = negativeHistogramToRecycle.getMaxValue() to v.
-      // That means we also have to add offset to the non negative histogram.
-      // We later correct the sum by subtracting (offset * #{recorded values})
-      // and correct the percentiles by subtracting offset.
-      final long offset = negativeHistogramToRecycle.getMaxValue();
-      negativeAndNonNegativeSum.reset();
-      negativeHistogramToRecycle.recordedValues().forEach(x -> negativeAndNonNegativeSum.recordValueWithCount(offset - x.getValueIteratedTo(), x.getCountAtValueIteratedTo()));
-      nonNegativeHistogramToRecycle.recordedValues().forEach(x -> negativeAndNonNegativeSum.recordValueWithCount(offset + x.getValueIteratedTo(), x.getCountAtValueIteratedTo()));
-      return summary(offset, negativeAndNonNegativeSum);
+  /**
+   * Returns the quantiles that were kept by the last {@link #refreshSummary(long)}, along with the current count and
+   * sum, without computing the quantiles, so it can be called by a scrape while the summaries are refreshed by
+   * another thread. If the last refresh is older than the given tick, or there was none, a summary is taken
+   * instead, so the quantiles do not freeze when the refreshes stop.
+   *
+   * @param minRefreshTick the tick of the oldest refresh whose quantiles may be returned, in nanoseconds
+   */
+  public SummaryData latestSummary(final long minRefreshTick) {
+    final Refresh latest = latestRefresh;
+    if (latest == null || latest.tick - minRefreshTick < 0) {
+      return summary();
     }
+    return new HdrSummaryData(count.sum(), sum.sum(), quantiles, latest.values);
   }
 
-  private SummaryData summary(final long offset, final Histogram histogram) {
+  private HdrSummaryData summary(final Histogram nonNegative, final Histogram negative) {
     assert Thread.holdsLock(summaryLock);
 
-    count += histogram.getTotalCount();
+    // HdrHistogram does not support negative values, so they are kept flipped in a histogram of their own. Together,
+    // the two histograms are a single histogram of signed values, whose buckets are mirrored around zero - the buckets
+    // of the flipped values in descending order, followed by the buckets of the non negative values in ascending
+    // order. The quantiles are extracted from both of them as they are, in a single pass over each, which stops at
+    // the last quantile.
+    final long negativeCount = negative == null ? 0 : negative.getTotalCount();
+    final long totalCount = negativeCount + nonNegative.getTotalCount();
 
-    HistogramIterationValue lastRecordedValue = null;
-    for (final HistogramIterationValue x : histogram.recordedValues()) {
-      lastRecordedValue = x;
+    // Every quantile is the value at which the running count reaches its rank, which is computed as in
+    // Histogram.getValueAtPercentile.
+    final long[] ranks = new long[quantiles.length];
+    int negativeQuantiles = 0;
+    for (int i = 0; i < quantiles.length; i++) {
+      final double percentile =
+          Math.min(Math.max(Math.nextAfter(quantiles[i] * 100, Double.NEGATIVE_INFINITY), 0), 100);
+      ranks[i] = Math.max((long) Math.ceil(percentile * totalCount / 100), 1);
+      if (ranks[i] <= negativeCount) {
+        negativeQuantiles++;
+      }
     }
 
-    if (lastRecordedValue != null) {
-      sum += lastRecordedValue.getTotalValueToThisValue() - offset * histogram.getTotalCount();
+    // The quantiles of an empty histogram are 0, as those of Histogram.getValueAtPercentile
+    final double[] values = new double[quantiles.length];
+    if (negativeQuantiles > 0) {
+      // The rank of a negative value is reversed among the flipped values, so the quantiles are found in reverse order
+      int quantile = negativeQuantiles - 1;
+      for (final HistogramIterationValue x : negative.recordedValues()) {
+        while (quantile >= 0 && x.getTotalCountToThisValue() >= negativeCount - ranks[quantile] + 1) {
+          values[quantile] = quantiles[quantile] == 0 ?
+                             -x.getValueIteratedTo() :
+                             -negative.lowestEquivalentValue(x.getValueIteratedTo());
+          quantile--;
+        }
+        if (quantile < 0) {
+          break;
+        }
+      }
+    }
+    if (negativeQuantiles < quantiles.length) {
+      int quantile = negativeQuantiles;
+      for (final HistogramIterationValue x : nonNegative.recordedValues()) {
+        while (quantile < quantiles.length && x.getTotalCountToThisValue() >= ranks[quantile] - negativeCount) {
+          values[quantile] = quantiles[quantile] == 0 ?
+                             nonNegative.lowestEquivalentValue(x.getValueIteratedTo()) :
+                             x.getValueIteratedTo();
+          quantile++;
+        }
+        if (quantile == quantiles.length) {
+          break;
+        }
+      }
     }
 
-    return new HdrSummaryData(histogram, count, sum, offset);
+    return new HdrSummaryData(count.sum(), sum.sum(), quantiles, values);
+  }
+
+  private static class Refresh {
+
+    private final double[] values;
+    private final long tick;
+
+    private Refresh(final double[] values, final long tick) {
+      this.values = values;
+      this.tick = tick;
+    }
   }
 
   private static class HdrSummaryData implements SummaryData {
 
     private final long count;
     private final long sum;
-    private final long p50;
-    private final long p75;
-    private final long p95;
-    private final long p98;
-    private final long p99;
-    private final long p999;
-
-    private HdrSummaryData(final Histogram histogram, final long count, final long sum, final long offset) {
+    private final double[] quantiles;
+    private final double[] values;
+
+    private HdrSummaryData(final long count, final long sum, final double[] quantiles, final double[] values) {
       this.count = count;
       this.sum = sum;
-      this.p50 = histogram.getValueAtPercentile(50) - offset;
-      this.p75 = histogram.getValueAtPercentile(75) - offset;
-      this.p95 = histogram.getValueAtPercentile(95) - offset;
-      this.p98 = histogram.getValueAtPercentile(98) - offset;
-      this.p99 = histogram.getValueAtPercentile(99) - offset;
-      this.p999 = histogram.getValueAtPercentile(99.9) - offset;
+      this.quantiles = quantiles;
+      this.values = values;
     }
 
     @Override
@@ -128,41 +238,59 @@ public class HistogramWithRunningCountAndSum {
       return sum;
     }
 
+    // The getters of the default quantiles are NaN for those that the summary does not have
     @Override
     public double getMedian() {
-      return p50;
+      return getValueAtQuantile(0.5);
     }
 
     @Override
     public double get75thPercentile() {
-      return p75;
+      return getValueAtQuantile(0.75);
     }
 
     @Override
     public double get95thPercentile() {
-      return p95;
+      return getValueAtQuantile(0.95);
     }
 
     @Override
     public double get98thPercentile() {
-      return p98;
+      return getValueAtQuantile(0.98);
     }
 
     @Override
     public double get99thPercentile() {
-      return p99;
+      return getValueAtQuantile(0.99);
     }
 
     @Override
     public double get999thPercentile() {
-      return p999;
+      return getValueAtQuantile(0.999);
+    }
+
+    @Override
+    public int getQuantilesCount() {
+      return quantiles.length;
+    }
+
+    @Override
+    public double getQuantile(final int index) {
+      return quantiles[index];
+    }
+
+    @Override
+    public double getQuantileValue(final int index) {
+      return values[index];
     }
 
     @Override
     public String toString() {
-      return String.format("count %d, sum %f, 50p %f, 75p %f, 95p %f, 98p %f, 99p %f, 99.9p %f",
-              getCount(), getSum(), getMedian(), get75thPercentile(), get95thPercentile(),
-              get98thPercentile(), get99thPercentile(), get999thPercentile());
+      final StringBuilder result = new StringBuilder(String.format("count %d, sum %f", getCount(), getSum()));
+      for (int i = 0; i < quantiles.length; i++) {
+        result.append(String.format(", %sq %f", quantiles[i], values[i]));
+      }
+      return result.toString();
     }
   }
 
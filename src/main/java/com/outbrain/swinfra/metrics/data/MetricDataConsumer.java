@@ -8,9 +8,41 @@ public interface MetricDataConsumer {
 
     void consumeCounter(Metric metric, List<String> labelValues, double value);
 
+    /**
+     * Consumes a counter that has an exemplar. Consumers that do not export exemplars consume only its value.
+     */
+    default void consumeCounter(final Metric metric, final List<String> labelValues, final double value,
+                                final Exemplar exemplar) {
+        consumeCounter(metric, labelValues, value);
+    }
+
     void consumeGauge(Metric metric, List<String> labelValues, double value);
 
     void consumeSummary(Metric metric, List<String> labelValues, SummaryData data);
 
     void consumeHistogram(Metric metric, List<String> labelValues, HistogramData data);
+
+    /**
+     * Consumes a native histogram. Consumers that do not export native buckets consume it as a classic histogram
+     * whose only bucket is the <i>+Inf</i> bucket, along with its count and sum.
+     */
+    default void consumeNativeHistogram(final Metric metric, final List<String> labelValues,
+                                        final NativeHistogramData data) {
+        consumeHistogram(metric, labelValues, new HistogramData() {
+            @Override
+            public long getCount() {
+                return data.getCount();
+            }
+
+            @Override
+            public double getSum() {
+                return data.getSum();
+            }
+
+            @Override
+            public void consumeBuckets(final HistogramBucketsConsumer consumer) {
+                consumer.apply(Double.POSITIVE_INFINITY, data.getCount());
+            }
+        });
+    }
 }
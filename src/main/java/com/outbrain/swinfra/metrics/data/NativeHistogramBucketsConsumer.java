@@ -0,0 +1,7 @@
+package com.outbrain.swinfra.metrics.data;
+
+@FunctionalInterface
+public interface NativeHistogramBucketsConsumer {
+
+    void apply(int index, long count);
+}
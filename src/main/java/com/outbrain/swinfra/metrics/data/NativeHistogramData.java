@@ -0,0 +1,31 @@
+package com.outbrain.swinfra.metrics.data;
+
+/**
+ * The data of a native histogram, whose buckets are defined by a schema rather than by explicit bounds.
+ * The upper bound of the positive bucket <i>index</i> is <i>2<sup>index * 2<sup>-schema</sup></sup></i>, and the
+ * negative buckets mirror the positive ones.
+ *
+ * @see <a href="https://prometheus.io/docs/specs/native_histograms/">Prometheus native histograms</a>
+ */
+public interface NativeHistogramData {
+
+    long getCount();
+
+    double getSum();
+
+    int getSchema();
+
+    double getZeroThreshold();
+
+    long getZeroCount();
+
+    /**
+     * Passes the non empty positive buckets to the given consumer, in ascending order of their indexes
+     */
+    void consumePositiveBuckets(NativeHistogramBucketsConsumer consumer);
+
+    /**
+     * Passes the non empty negative buckets to the given consumer, in ascending order of their indexes
+     */
+    void consumeNegativeBuckets(NativeHistogramBucketsConsumer consumer);
+}
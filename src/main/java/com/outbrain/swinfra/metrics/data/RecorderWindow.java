@@ -0,0 +1,197 @@
+package com.outbrain.swinfra.metrics.data;
+
+import com.outbrain.swinfra.metrics.timing.Clock;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the values of a summary child over a sliding window of time, in a ring of intervals that each have their own
+ * recorder.
+ * <p>
+ * There is no background thread - the interval of a value is the current tick of the clock divided by the length of
+ * an interval, and the first value of a new interval replaces the oldest interval of the ring with a new one. The
+ * replacement is a single compare and set, so values never wait for it. A value that read the clock just before the
+ * replacement may still be recorded in the replaced interval, and is then dropped with it.
+ * </p>
+ * <p>
+ * The recorder of a replaced interval is reset by the next merge, and then reused by the next replacement, so values
+ * never reset recorders, and a window that is merged regularly allocates no recorders as it moves. A value that was
+ * still being recorded in the replaced interval when its recorder was reset may be counted in the interval that
+ * reuses it.
+ * </p>
+ * <p>
+ * A merge adds the values that were recorded since the previous merge to the totals of their intervals, and then
+ * merges the totals of the intervals that are still in the window, without resetting them, so it can be done any
+ * number of times. All the histograms of a merge are reused by the next merges, so once they have grown to the range
+ * of the values, merges allocate nothing. The window covers the current interval, which is partial, and all the
+ * previous intervals of the ring.
+ * </p>
+ */
+class RecorderWindow {
+
+  private final int numberOfSignificantValueDigits;
+  private final long intervalNanos;
+  private final Clock clock;
+  private final AtomicReferenceArray<Interval> intervals;
+
+  // The recorder of the last replaced interval, which is yet to be reset, and a reset recorder for the next interval
+  private final AtomicReference<SignedRecorder> replacedRecorder = new AtomicReference<>();
+  private final AtomicReference<SignedRecorder> spareRecorder = new AtomicReference<>();
+
+  // Guarded by the lock of the reader
+  private final Totals[] totals;
+  private final Histogram nonNegative;
+  private Histogram negative;
+
+  RecorderWindow(final int numberOfSignificantValueDigits,
+                 final long intervalNanos,
+                 final int intervalsCount,
+                 final Clock clock) {
+    this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+    this.intervalNanos = intervalNanos;
+    this.clock = clock;
+    this.intervals = new AtomicReferenceArray<>(intervalsCount);
+    this.totals = new Totals[intervalsCount];
+    for (int i = 0; i < intervalsCount; i++) {
+      totals[i] = new Totals(numberOfSignificantValueDigits);
+    }
+    this.nonNegative = new Histogram(numberOfSignificantValueDigits);
+  }
+
+  void recordValue(final long value) {
+    currentRecorder().recordValue(value);
+  }
+
+  void recordValueWithCount(final long value, final long count) {
+    currentRecorder().recordValueWithCount(value, count);
+  }
+
+  /**
+   * Merges the intervals that are within the window into the histograms of the window
+   */
+  void merge() {
+    final SignedRecorder replaced = replacedRecorder.getAndSet(null);
+    if (replaced != null) {
+      replaced.reset();
+      spareRecorder.set(replaced);
+    }
+    final long epoch = currentEpoch();
+    nonNegative.reset();
+    if (negative != null) {
+      negative.reset();
+    }
+    for (int i = 0; i < intervals.length(); i++) {
+      final Interval interval = intervals.get(i);
+      if (interval != null && interval.epoch <= epoch && interval.epoch > epoch - intervals.length()) {
+        final Totals intervalTotals = totals[i];
+        intervalTotals.accumulate(interval);
+        nonNegative.add(intervalTotals.nonNegative);
+        if (intervalTotals.negative != null) {
+          lazilyInitializedNegative().add(intervalTotals.negative);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the values of the window as of the last merge
+   */
+  Histogram getNonNegative() {
+    return nonNegative;
+  }
+
+  /**
+   * @return the flipped negative values of the window as of the last merge, or null if no negative value was merged
+   * so far
+   */
+  Histogram getNegative() {
+    return negative;
+  }
+
+  private Histogram lazilyInitializedNegative() {
+    if (negative == null) {
+      negative = new Histogram(numberOfSignificantValueDigits);
+    }
+    return negative;
+  }
+
+  private SignedRecorder currentRecorder() {
+    final long epoch = currentEpoch();
+    final int index = (int) Math.floorMod(epoch, (long) intervals.length());
+    Interval interval = intervals.get(index);
+    // An interval that is newer than the clock that was read belongs to the window as well
+    while (interval == null || interval.epoch < epoch) {
+      final Interval next = new Interval(epoch, nextRecorder());
+      if (intervals.compareAndSet(index, interval, next)) {
+        if (interval != null) {
+          replacedRecorder.set(interval.recorder);
+        }
+        return next.recorder;
+      }
+      // Another value replaced the interval, so the recorder is kept, still reset, for the next replacement
+      spareRecorder.set(next.recorder);
+      interval = intervals.get(index);
+    }
+    return interval.recorder;
+  }
+
+  private SignedRecorder nextRecorder() {
+    final SignedRecorder spare = spareRecorder.getAndSet(null);
+    return spare != null ? spare : new SignedRecorder(numberOfSignificantValueDigits);
+  }
+
+  private long currentEpoch() {
+    return Math.floorDiv(clock.getTick(TimeUnit.NANOSECONDS), intervalNanos);
+  }
+
+  private static class Interval {
+
+    private final long epoch;
+    private final SignedRecorder recorder;
+
+    private Interval(final long epoch, final SignedRecorder recorder) {
+      this.epoch = epoch;
+      this.recorder = recorder;
+    }
+  }
+
+  /**
+   * The values of the interval in a position of the ring, as of the last merge
+   */
+  private static class Totals {
+
+    private final int numberOfSignificantValueDigits;
+    private long epoch = Long.MIN_VALUE;
+    private final Histogram nonNegative;
+    private Histogram negative;
+
+    private Totals(final int numberOfSignificantValueDigits) {
+      this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+      this.nonNegative = new Histogram(numberOfSignificantValueDigits);
+    }
+
+    private void accumulate(final Interval interval) {
+      if (epoch != interval.epoch) {
+        // The interval was replaced by a new one since the previous merge
+        nonNegative.reset();
+        if (negative != null) {
+          negative.reset();
+        }
+        epoch = interval.epoch;
+      }
+      final SignedRecorder recorder = interval.recorder;
+      recorder.sampleInterval();
+      nonNegative.add(recorder.getNonNegativeInterval());
+      final Histogram negativeInterval = recorder.getNegativeInterval();
+      if (negativeInterval != null) {
+        if (negative == null) {
+          negative = new Histogram(numberOfSignificantValueDigits);
+        }
+        negative.add(negativeInterval);
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.outbrain.swinfra.metrics.data;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records values into HdrHistogram recorders, which do not support negative values. Negative values are recorded with
+ * their sign flipped into a second recorder, which is allocated by the first negative value.
+ * <p>
+ * The values are read as interval histograms, that are recycled by the next read, so reads must be guarded by a
+ * single lock.
+ * </p>
+ */
+class SignedRecorder {
+
+  private final int numberOfSignificantValueDigits;
+  private final Recorder nonNegativeRecorder;
+  private volatile Recorder negativeRecorder;
+
+  // Guarded by the lock of the reader
+  private Histogram nonNegativeInterval;
+  private Histogram negativeInterval;
+
+  SignedRecorder(final int numberOfSignificantValueDigits) {
+    this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+    this.nonNegativeRecorder = new Recorder(numberOfSignificantValueDigits);
+  }
+
+  void recordValue(final long value) {
+    if (value < 0) {
+      // HdrHistogram does not support recording negative values, so we flip the sign.
+      lazilyInitializedNegativeRecorder().recordValue(-value);
+    } else {
+      nonNegativeRecorder.recordValue(value);
+    }
+  }
+
+  void recordValueWithCount(final long value, final long count) {
+    if (value < 0) {
+      lazilyInitializedNegativeRecorder().recordValueWithCount(-value, count);
+    } else {
+      nonNegativeRecorder.recordValueWithCount(value, count);
+    }
+  }
+
+  private Recorder lazilyInitializedNegativeRecorder() {
+    // Lazily initialize the negative recorder to avoid allocating the needed memory upfront.
+    if (negativeRecorder == null) {
+      synchronized (this) {
+        if (negativeRecorder == null) {
+          negativeRecorder = new Recorder(numberOfSignificantValueDigits);
+        }
+      }
+    }
+    return negativeRecorder;
+  }
+
+  /**
+   * Drops the values that were recorded so far
+   */
+  void reset() {
+    nonNegativeRecorder.reset();
+    final Recorder negativeRecorder = this.negativeRecorder;
+    if (negativeRecorder != null) {
+      negativeRecorder.reset();
+    }
+  }
+
+  /**
+   * Takes the values that were recorded since the previous interval, and makes them the current interval
+   */
+  void sampleInterval() {
+    // The Java Doc explaining the usage pattern involving getIntervalHistogram is explained here:
+    // https://github.com/HdrHistogram/HdrHistogram/blob/34ac23d63b496d37eab966502153789153b3e492/src/main/java/org/HdrHistogram/Recorder.java#L26
+    nonNegativeInterval = nonNegativeRecorder.getIntervalHistogram(nonNegativeInterval);
+    final Recorder negativeRecorder = this.negativeRecorder;
+    if (negativeRecorder != null) {
+      negativeInterval = negativeRecorder.getIntervalHistogram(negativeInterval);
+    }
+  }
+
+  Histogram getNonNegativeInterval() {
+    return nonNegativeInterval;
+  }
+
+  /**
+   * @return the flipped negative values of the current interval, or null if no negative value was recorded before it
+   */
+  Histogram getNegativeInterval() {
+    return negativeInterval;
+  }
+}
@@ -1,5 +1,7 @@
 package com.outbrain.swinfra.metrics.data;
 
+import static com.outbrain.swinfra.metrics.data.HistogramWithRunningCountAndSum.DEFAULT_QUANTILES;
+
 public interface SummaryData {
 
     long getCount();
@@ -17,4 +19,55 @@ public interface SummaryData {
     double get99thPercentile();
 
     double get999thPercentile();
+
+    /**
+     * @return the number of quantiles of the summary, by default that of
+     * {@link HistogramWithRunningCountAndSum#DEFAULT_QUANTILES}
+     */
+    default int getQuantilesCount() {
+        return DEFAULT_QUANTILES.length;
+    }
+
+    /**
+     * @return the quantile of the given index, in ascending order, e.g. 0.99, by default one of
+     * {@link HistogramWithRunningCountAndSum#DEFAULT_QUANTILES}
+     */
+    default double getQuantile(final int index) {
+        return DEFAULT_QUANTILES[index];
+    }
+
+    /**
+     * @return the value of the quantile of the given index, by default the value of the getter of the default quantile
+     * of that index
+     */
+    default double getQuantileValue(final int index) {
+        switch (index) {
+            case 0:
+                return getMedian();
+            case 1:
+                return get75thPercentile();
+            case 2:
+                return get95thPercentile();
+            case 3:
+                return get98thPercentile();
+            case 4:
+                return get99thPercentile();
+            case 5:
+                return get999thPercentile();
+            default:
+                throw new IndexOutOfBoundsException("No default quantile of index " + index);
+        }
+    }
+
+    /**
+     * @return the value of the given quantile, or NaN if the summary does not have it
+     */
+    default double getValueAtQuantile(final double quantile) {
+        for (int i = 0; i < getQuantilesCount(); i++) {
+            if (getQuantile(i) == quantile) {
+                return getQuantileValue(i);
+            }
+        }
+        return Double.NaN;
+    }
 }
@@ -4,6 +4,10 @@ import com.outbrain.swinfra.metrics.MetricCollectorRegistry;
 import com.outbrain.swinfra.metrics.exporter.protobuf.ProtobufFormatter;
 import com.outbrain.swinfra.metrics.exporter.text.TextFormatter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 public enum CollectorRegistryExporterFactory {
 
   TEXT_004 {
@@ -13,6 +17,19 @@ public enum CollectorRegistryExporterFactory {
     }
   },
 
+  OPENMETRICS_100 {
+    @Override
+    public CollectorRegistryExporter create(final MetricCollectorRegistry registry) {
+      return new CollectorRegistryExporter(registry, TextFormatter::openMetrics) {
+        @Override
+        public void export(final OutputStream outputStream) throws IOException {
+          super.export(outputStream);
+          outputStream.write(TextFormatter.OPENMETRICS_EOF.getBytes(StandardCharsets.UTF_8));
+        }
+      };
+    }
+  },
+
   PROTOBUF {
     @Override
     public CollectorRegistryExporter create(final MetricCollectorRegistry registry) {
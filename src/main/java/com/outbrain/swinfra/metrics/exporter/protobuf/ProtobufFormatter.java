@@ -2,8 +2,12 @@ package com.outbrain.swinfra.metrics.exporter.protobuf;
 
 import com.outbrain.swinfra.metrics.Metric;
 import com.outbrain.swinfra.metrics.MetricCollector;
+import com.outbrain.swinfra.metrics.data.Exemplar;
+import com.outbrain.swinfra.metrics.data.HistogramBucketsConsumer;
 import com.outbrain.swinfra.metrics.data.HistogramData;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
+import com.outbrain.swinfra.metrics.data.NativeHistogramBucketsConsumer;
+import com.outbrain.swinfra.metrics.data.NativeHistogramData;
 import com.outbrain.swinfra.metrics.data.SummaryData;
 import com.outbrain.swinfra.metrics.exporter.CollectorExporter;
 import io.prometheus.client.Metrics;
@@ -12,6 +16,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -70,10 +75,19 @@ public class ProtobufFormatter implements CollectorExporter {
 
     @Override
     public void consumeCounter(final Metric metric, final List<String> labelValues, final double value) {
+      consumeCounter(metric, labelValues, value, null);
+    }
+
+    @Override
+    public void consumeCounter(final Metric metric, final List<String> labelValues, final double value,
+                               final Exemplar exemplar) {
       familyBuilder.setType(Metrics.MetricType.COUNTER);
-      final Metrics.Counter counter = Metrics.Counter.newBuilder().setValue(value).build();
+      final Metrics.Counter.Builder counterBuilder = Metrics.Counter.newBuilder().setValue(value);
+      if (exemplar != null) {
+        counterBuilder.setExemplar(createExemplar(exemplar));
+      }
+      final Metrics.Counter counter = counterBuilder.build();
       addMetric(() -> metricBuilder.setCounter(counter).build(), metric.getLabelNames(), labelValues);
-
     }
 
     @Override
@@ -88,12 +102,10 @@ public class ProtobufFormatter implements CollectorExporter {
       familyBuilder.setType(Metrics.MetricType.SUMMARY);
       final Metrics.Summary.Builder summaryBuilder = Metrics.Summary.newBuilder().
         setSampleCount(data.getCount()).setSampleSum(data.getSum());
-      summaryBuilder.addQuantile(Metrics.Quantile.newBuilder().setQuantile(0.5d).setValue(data.getMedian()));
-      summaryBuilder.addQuantile(Metrics.Quantile.newBuilder().setQuantile(0.75d).setValue(data.get75thPercentile()));
-      summaryBuilder.addQuantile(Metrics.Quantile.newBuilder().setQuantile(0.95d).setValue(data.get95thPercentile()));
-      summaryBuilder.addQuantile(Metrics.Quantile.newBuilder().setQuantile(0.98d).setValue(data.get98thPercentile()));
-      summaryBuilder.addQuantile(Metrics.Quantile.newBuilder().setQuantile(0.99d).setValue(data.get99thPercentile()));
-      summaryBuilder.addQuantile(Metrics.Quantile.newBuilder().setQuantile(0.999d).setValue(data.get999thPercentile()));
+      for (int i = 0; i < data.getQuantilesCount(); i++) {
+        summaryBuilder.addQuantile(
+            Metrics.Quantile.newBuilder().setQuantile(data.getQuantile(i)).setValue(data.getQuantileValue(i)));
+      }
       addMetric(() -> metricBuilder.setSummary(summaryBuilder).build(), metric.getLabelNames(), labelValues);
     }
 
@@ -102,13 +114,44 @@ public class ProtobufFormatter implements CollectorExporter {
       familyBuilder.setType(Metrics.MetricType.HISTOGRAM);
       final Metrics.Histogram.Builder histogramBuilder = Metrics.Histogram.newBuilder().
           setSampleCount(data.getCount()).setSampleSum(data.getSum());
-      data.consumeBuckets((upperBound, count) -> {
-        histogramBuilder.addBucket(Metrics.Bucket.newBuilder().setCumulativeCount(count).setUpperBound(upperBound));
+      data.consumeBuckets(new HistogramBucketsConsumer() {
+        @Override
+        public void apply(final double upperBound, final long count) {
+          apply(upperBound, count, null);
+        }
+
+        @Override
+        public void apply(final double upperBound, final long count, final Exemplar exemplar) {
+          final Metrics.Bucket.Builder bucketBuilder =
+              Metrics.Bucket.newBuilder().setCumulativeCount(count).setUpperBound(upperBound);
+          if (exemplar != null) {
+            bucketBuilder.setExemplar(createExemplar(exemplar));
+          }
+          histogramBuilder.addBucket(bucketBuilder);
+        }
       });
 
       addMetric(() -> metricBuilder.setHistogram(histogramBuilder).build(), metric.getLabelNames(), labelValues);
     }
 
+    @Override
+    public void consumeNativeHistogram(final Metric metric, final List<String> labelValues, final NativeHistogramData data) {
+      familyBuilder.setType(Metrics.MetricType.HISTOGRAM);
+      final Metrics.Histogram.Builder histogramBuilder = Metrics.Histogram.newBuilder().
+          setSampleCount(data.getCount()).setSampleSum(data.getSum()).
+          setSchema(data.getSchema()).setZeroThreshold(data.getZeroThreshold()).setZeroCount(data.getZeroCount());
+      data.consumePositiveBuckets(
+          new NativeBucketsEncoder(histogramBuilder::addPositiveSpanBuilder, histogramBuilder::addPositiveDelta));
+      data.consumeNegativeBuckets(
+          new NativeBucketsEncoder(histogramBuilder::addNegativeSpanBuilder, histogramBuilder::addNegativeDelta));
+      if (histogramBuilder.getPositiveSpanCount() == 0 && histogramBuilder.getNegativeSpanCount() == 0) {
+        // An empty span tells an empty native histogram apart from a classic histogram without buckets
+        histogramBuilder.addPositiveSpan(Metrics.BucketSpan.newBuilder().setOffset(0).setLength(0));
+      }
+
+      addMetric(() -> metricBuilder.setHistogram(histogramBuilder).build(), metric.getLabelNames(), labelValues);
+    }
+
     private static Metrics.MetricFamily.Builder createMetricFamily(final Metric metric) {
       return Metrics.MetricFamily.newBuilder().
           setName(metric.getName()).
@@ -143,6 +186,49 @@ public class ProtobufFormatter implements CollectorExporter {
       }
     }
 
+    /**
+     * Encodes the buckets of a native histogram as spans of consecutive buckets, and the count of every bucket as the
+     * delta from the count of the previous bucket
+     */
+    private static class NativeBucketsEncoder implements NativeHistogramBucketsConsumer {
+
+      private final Supplier<Metrics.BucketSpan.Builder> spans;
+      private final LongConsumer deltas;
+      private Metrics.BucketSpan.Builder span;
+      private int previousIndex;
+      private long previousCount;
+
+      private NativeBucketsEncoder(final Supplier<Metrics.BucketSpan.Builder> spans, final LongConsumer deltas) {
+        this.spans = spans;
+        this.deltas = deltas;
+      }
+
+      @Override
+      public void apply(final int index, final long count) {
+        if (span == null || index != previousIndex + 1) {
+          // The offset of the first span is its first index, and the offset of the others is the gap from the previous
+          final int offset = span == null ? index : index - previousIndex - 1;
+          span = spans.get().setOffset(offset);
+        }
+        span.setLength(span.getLength() + 1);
+        deltas.accept(count - previousCount);
+        previousIndex = index;
+        previousCount = count;
+      }
+    }
+
+    private static Metrics.Exemplar createExemplar(final Exemplar exemplar) {
+      final Metrics.Exemplar.Builder exemplarBuilder = Metrics.Exemplar.newBuilder().setValue(exemplar.getValue());
+      for (int i = 0; i < exemplar.getLabelsCount(); i++) {
+        exemplarBuilder.addLabel(createLabel(exemplar.getLabelName(i), exemplar.getLabelValue(i)));
+      }
+      final long timestampMillis = exemplar.getTimestampMillis();
+      exemplarBuilder.setTimestamp(Metrics.Timestamp.newBuilder().
+          setSeconds(Math.floorDiv(timestampMillis, 1000L)).
+          setNanos((int) Math.floorMod(timestampMillis, 1000L) * 1000000));
+      return exemplarBuilder.build();
+    }
+
     private static Metrics.LabelPair createLabel(final String n, final String v) {
       return Metrics.LabelPair.newBuilder().
           setName(n).
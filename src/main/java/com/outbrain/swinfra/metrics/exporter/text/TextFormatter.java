@@ -2,10 +2,13 @@ package com.outbrain.swinfra.metrics.exporter.text;
 
 import com.outbrain.swinfra.metrics.Metric;
 import com.outbrain.swinfra.metrics.MetricCollector;
+import com.outbrain.swinfra.metrics.data.Exemplar;
+import com.outbrain.swinfra.metrics.data.HistogramBucketsConsumer;
 import com.outbrain.swinfra.metrics.data.HistogramData;
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer;
 import com.outbrain.swinfra.metrics.data.SummaryData;
 import com.outbrain.swinfra.metrics.exporter.CollectorExporter;
+import com.outbrain.swinfra.metrics.utils.MetricType;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -15,27 +18,55 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static com.outbrain.swinfra.metrics.utils.LabelUtils.doubleToGoString;
+
+/**
+ * Formats the metrics in the Prometheus text format, or in the OpenMetrics text format, which adds exemplars to it.
+ * <p>
+ * An OpenMetrics exposition must end with {@link #OPENMETRICS_EOF}, after the metrics of all the collectors.
+ * </p>
+ *
+ * @see <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus exposition formats</a>
+ * @see <a href="https://github.com/OpenObservability/OpenMetrics/blob/main/specification/OpenMetrics.md">OpenMetrics</a>
+ */
 public class TextFormatter implements CollectorExporter {
     public static final String CONTENT_TYPE_004 = "text/plain; version=0.0.4; charset=utf-8";
+    public static final String CONTENT_TYPE_OPENMETRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    public static final String OPENMETRICS_EOF = "# EOF\n";
 
     public static final String QUANTILE_LABEL = "quantile";
     public static final String COUNT_SUFFIX = "_count";
     public static final String SUM_SUFFIX = "_sum";
     public static final String BUCKET_LABEL = "le";
     public static final String SAMPLE_NAME_BUCKET_SUFFIX = "_bucket";
+    public static final String TOTAL_SUFFIX = "_total";
 
     private final MetricCollector metricCollector;
+    private final boolean openMetrics;
     private final Map<Metric, String> headerByMetric = new ConcurrentHashMap<>();
 
     public TextFormatter(final MetricCollector metricCollector) {
+        this(metricCollector, false);
+    }
+
+    private TextFormatter(final MetricCollector metricCollector, final boolean openMetrics) {
         this.metricCollector = metricCollector;
+        this.openMetrics = openMetrics;
+    }
+
+    /**
+     * Creates a formatter of the OpenMetrics text format
+     */
+    public static TextFormatter openMetrics(final MetricCollector metricCollector) {
+        return new TextFormatter(metricCollector, true);
     }
 
 
     @Override
     public void exportTo(final OutputStream outputStream) throws IOException {
         final Writer stream = new OutputStreamWriter(outputStream);
-        final TextMetricDataConsumer consumer = new TextMetricDataConsumer(metricCollector.getStaticLabels(), stream);
+        final TextMetricDataConsumer consumer =
+            new TextMetricDataConsumer(metricCollector.getStaticLabels(), stream, openMetrics);
         for (final Metric metric : metricCollector) {
             final String header = headerByMetric.computeIfAbsent(metric, this::createHeader);
             stream.append(header);
@@ -49,15 +80,30 @@ public class TextFormatter implements CollectorExporter {
 
         private final Map<String, String> staticLabels;
         private final Writer stream;
+        private final boolean openMetrics;
 
-        private TextMetricDataConsumer(final Map<String, String> staticLabels, final Writer stream) {
+        private TextMetricDataConsumer(final Map<String, String> staticLabels,
+                                       final Writer stream,
+                                       final boolean openMetrics) {
             this.staticLabels = staticLabels;
             this.stream = stream;
+            this.openMetrics = openMetrics;
         }
 
         @Override
         public void consumeCounter(final Metric metric, final List<String> labelValues, final double value) {
-            appendSample(metric.getName(), value, metric.getLabelNames(), labelValues);
+            consumeCounter(metric, labelValues, value, null);
+        }
+
+        @Override
+        public void consumeCounter(final Metric metric, final List<String> labelValues, final double value,
+                                   final Exemplar exemplar) {
+            if (openMetrics) {
+                appendSample(familyName(metric), TOTAL_SUFFIX, value, metric.getLabelNames(), labelValues, null, null,
+                             exemplar);
+            } else {
+                appendSample(metric.getName(), value, metric.getLabelNames(), labelValues);
+            }
         }
 
         @Override
@@ -69,12 +115,10 @@ public class TextFormatter implements CollectorExporter {
         public void consumeSummary(final Metric metric, final List<String> labelValues, final SummaryData data) {
             final String name = metric.getName();
             final List<String> labelNames = metric.getLabelNames();
-            appendSample(name, data.getMedian(), labelNames, labelValues, QUANTILE_LABEL, "0.5");
-            appendSample(name, data.get75thPercentile(), labelNames, labelValues, QUANTILE_LABEL, "0.75");
-            appendSample(name, data.get95thPercentile(), labelNames, labelValues, QUANTILE_LABEL, "0.95");
-            appendSample(name, data.get98thPercentile(), labelNames, labelValues, QUANTILE_LABEL, "0.98");
-            appendSample(name, data.get99thPercentile(), labelNames, labelValues, QUANTILE_LABEL, "0.99");
-            appendSample(name, data.get999thPercentile(), labelNames, labelValues, QUANTILE_LABEL, "0.999");
+            for (int i = 0; i < data.getQuantilesCount(); i++) {
+                appendSample(name, data.getQuantileValue(i), labelNames, labelValues, QUANTILE_LABEL,
+                             doubleToGoString(data.getQuantile(i)));
+            }
             appendSample(name, COUNT_SUFFIX, data.getCount(), labelNames, labelValues);
             appendSample(name, SUM_SUFFIX, data.getSum(), labelNames, labelValues);
         }
@@ -83,8 +127,25 @@ public class TextFormatter implements CollectorExporter {
         public void consumeHistogram(final Metric metric, final List<String> labelValues, final HistogramData data) {
             final String name = metric.getName();
             final List<String> labelNames = metric.getLabelNames();
-            data.consumeBuckets((upperBound, count) -> {
-                appendSample(name, SAMPLE_NAME_BUCKET_SUFFIX, count, labelNames, labelValues, BUCKET_LABEL, doubleToGoString(upperBound));
+            data.consumeBuckets(new HistogramBucketsConsumer() {
+                @Override
+                public void apply(final double upperBound, final long count) {
+                    apply(upperBound, count, null);
+                }
+
+                @Override
+                public void apply(final double upperBound, final long count, final Exemplar exemplar) {
+                    apply(upperBound, doubleToGoString(upperBound), count, exemplar);
+                }
+
+                @Override
+                public void apply(final double upperBound,
+                                  final String upperBoundLabel,
+                                  final long count,
+                                  final Exemplar exemplar) {
+                    appendSample(name, SAMPLE_NAME_BUCKET_SUFFIX, count, labelNames, labelValues, BUCKET_LABEL,
+                                 upperBoundLabel, exemplar);
+                }
             });
             appendSample(name, COUNT_SUFFIX, data.getCount(), labelNames, labelValues);
             appendSample(name, SUM_SUFFIX, data.getSum(), labelNames, labelValues);
@@ -109,39 +170,73 @@ public class TextFormatter implements CollectorExporter {
         private void appendSample(final String name, final String nameSuffix, final double value,
                                   final List<String> labelNames, final List<String> labelValues,
                                   final String sampleLevelLabelName, final String sampleLevelLabelValue) {
+            appendSample(name, nameSuffix, value, labelNames, labelValues, sampleLevelLabelName, sampleLevelLabelValue,
+                         null);
+        }
+
+        private void appendSample(final String name, final String nameSuffix, final double value,
+                                  final List<String> labelNames, final List<String> labelValues,
+                                  final String sampleLevelLabelName, final String sampleLevelLabelValue,
+                                  final Exemplar exemplar) {
             try {
                 stream.append(name);
                 if (nameSuffix != null) {
                     stream.append(nameSuffix);
                 }
                 appendLabels(labelNames, labelValues, sampleLevelLabelName, sampleLevelLabelValue);
-                stream.append(" ").append(doubleToGoString(value)).append("\n");
+                stream.append(" ").append(doubleToGoString(value));
+                if (openMetrics && exemplar != null) {
+                    appendExemplar(exemplar);
+                }
+                stream.append("\n");
             } catch (final IOException e) {
                 throw new RuntimeException("failed appending to output stream");
             }
         }
 
+        private void appendExemplar(final Exemplar exemplar) throws IOException {
+            stream.append(" # {");
+            for (int i = 0; i < exemplar.getLabelsCount(); i++) {
+                appendLabel(exemplar.getLabelName(i), exemplar.getLabelValue(i), i == 0);
+            }
+            final long timestampMillis = exemplar.getTimestampMillis();
+            final long millis = Math.floorMod(timestampMillis, 1000L);
+            stream.append("} ").append(doubleToGoString(exemplar.getValue()))
+                  .append(" ").append(Long.toString(Math.floorDiv(timestampMillis, 1000L)))
+                  .append(millis < 10 ? ".00" : millis < 100 ? ".0" : ".").append(Long.toString(millis));
+        }
+
         private void appendLabels(final List<String> labelNames, final List<String> labelValues,
                                   final String sampleLevelLabelName, final String sampleLevelLabelValue) throws IOException {
             if (containsLabels(staticLabels, labelNames, sampleLevelLabelName)) {
                 stream.append("{");
 
+                boolean first = true;
                 for (final Map.Entry<String, String> entry : staticLabels.entrySet()) {
-                    appendLabel(stream, entry.getKey(), entry.getValue());
+                    appendLabel(entry.getKey(), entry.getValue(), first);
+                    first = false;
                 }
 
                 for (int i = 0; i < labelNames.size(); ++i) {
-                    appendLabel(stream, labelNames.get(i), labelValues.get(i));
+                    appendLabel(labelNames.get(i), labelValues.get(i), first);
+                    first = false;
                 }
                 if (sampleLevelLabelName != null) {
-                    appendLabel(stream, sampleLevelLabelName, sampleLevelLabelValue);
+                    appendLabel(sampleLevelLabelName, sampleLevelLabelValue, first);
                 }
                 stream.append("}");
             }
         }
 
-        private void appendLabel(final Appendable appendable, final String name, final String value) throws IOException {
-            appendable.append(name).append("=\"").append(escapeLabelValue(value)).append("\",");
+        // The text format ends every label with a comma, while OpenMetrics only separates the labels with commas
+        private void appendLabel(final String name, final String value, final boolean first) throws IOException {
+            if (openMetrics && !first) {
+                stream.append(",");
+            }
+            stream.append(name).append("=\"").append(escapeLabelValue(value)).append("\"");
+            if (!openMetrics) {
+                stream.append(",");
+            }
         }
 
         private boolean containsLabels(final Map<String, String> staticLabels, final List<String> labelNames, final String sampleLevelLabelName) {
@@ -152,30 +247,25 @@ public class TextFormatter implements CollectorExporter {
             return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
         }
 
-        /**
-         * Convert a double to it's string representation in Go.
-         */
-        private static String doubleToGoString(final double value) {
-            if (value == Double.POSITIVE_INFINITY) {
-                return "+Inf";
-            }
-            if (value == Double.NEGATIVE_INFINITY) {
-                return "-Inf";
-            }
-            if (Double.isNaN(value)) {
-                return "NaN";
-            }
-            return Double.toString(value);
-        }
     }
 
     private String createHeader(final Metric metric) {
-        return "# HELP " + metric.getName() + " " + escapeHelp(metric.getHelp()) + "\n" +
-               "# TYPE " + metric.getName() + " " + metric.getType().getName() + "\n";
+        final String name = openMetrics ? familyName(metric) : metric.getName();
+        return "# HELP " + name + " " + escapeHelp(metric.getHelp()) + "\n" +
+               "# TYPE " + name + " " + metric.getType().getName() + "\n";
+    }
+
+    private String escapeHelp(final String help) {
+        final String escaped = help.replace("\\", "\\\\").replace("\n", "\\n");
+        return openMetrics ? escaped.replace("\"", "\\\"") : escaped;
     }
 
-    private static String escapeHelp(final String help) {
-        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    // In OpenMetrics the samples of a counter are named after its family with a _total suffix
+    private static String familyName(final Metric metric) {
+        final String name = metric.getName();
+        return metric.getType() == MetricType.COUNTER && name.endsWith(TOTAL_SUFFIX) ?
+               name.substring(0, name.length() - TOTAL_SUFFIX.length()) :
+               name;
     }
 
 }
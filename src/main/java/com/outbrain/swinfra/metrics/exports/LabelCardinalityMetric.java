@@ -0,0 +1,30 @@
+package com.outbrain.swinfra.metrics.exports;
+
+import com.outbrain.swinfra.metrics.Counter;
+import com.outbrain.swinfra.metrics.MetricRegistry;
+
+import java.util.function.Predicate;
+
+/**
+ * Exposes how many distinct combinations of label values metrics that were built with a max cardinality had to fold
+ * into their overflow child. The counter is shared by all metrics in the process and labeled with the name of the
+ * metric. Distinct combinations are told apart by a bounded bitmap of their hashes, so the count is a lower bound.
+ *
+ * @see com.outbrain.swinfra.metrics.AbstractMetricBuilder#withMaxCardinality(int)
+ */
+public class LabelCardinalityMetric extends MetricRegistrar {
+
+    private static final Counter OVERFLOWED_LABEL_VALUES = new Counter.CounterBuilder(
+        "metrics_overflowed_label_values_total",
+        "The number of distinct label value combinations that were folded into the overflow child since the metric reached its max cardinality").
+        withLabels("metric").build();
+
+    public static void recordOverflow(final String metricName) {
+        OVERFLOWED_LABEL_VALUES.inc(metricName);
+    }
+
+    @Override
+    public void registerMetricsTo(final MetricRegistry registry, final Predicate<String> nameFilter) {
+        optionallyRegister(OVERFLOWED_LABEL_VALUES, registry, nameFilter);
+    }
+}
@@ -31,4 +31,21 @@ public class LabelUtils {
     return result;
   }
 
+  /**
+   * Convert a double to it's string representation in Go, which is how Prometheus expects sample values and the
+   * bounds of histogram buckets
+   */
+  public static String doubleToGoString(final double value) {
+    if (value == Double.POSITIVE_INFINITY) {
+      return "+Inf";
+    }
+    if (value == Double.NEGATIVE_INFINITY) {
+      return "-Inf";
+    }
+    if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    return Double.toString(value);
+  }
+
 }
@@ -1160,6 +1160,19 @@ public final class Metrics {
      * <code>optional double value = 1;</code>
      */
     double getValue();
+
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+     */
+    boolean hasExemplar();
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+     */
+    io.prometheus.client.Metrics.Exemplar getExemplar();
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+     */
+    io.prometheus.client.Metrics.ExemplarOrBuilder getExemplarOrBuilder();
   }
   /**
    * Protobuf type {@code io.prometheus.client.Counter}
@@ -1218,6 +1231,19 @@ public final class Metrics {
               value_ = input.readDouble();
               break;
             }
+            case 18: {
+              io.prometheus.client.Metrics.Exemplar.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000002) == 0x00000002)) {
+                subBuilder = exemplar_.toBuilder();
+              }
+              exemplar_ = input.readMessage(io.prometheus.client.Metrics.Exemplar.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(exemplar_);
+                exemplar_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000002;
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -1273,8 +1299,30 @@ public final class Metrics {
       return value_;
     }
 
+    public static final int EXEMPLAR_FIELD_NUMBER = 2;
+    private io.prometheus.client.Metrics.Exemplar exemplar_;
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+     */
+    public boolean hasExemplar() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+     */
+    public io.prometheus.client.Metrics.Exemplar getExemplar() {
+      return exemplar_;
+    }
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+     */
+    public io.prometheus.client.Metrics.ExemplarOrBuilder getExemplarOrBuilder() {
+      return exemplar_;
+    }
+
     private void initFields() {
       value_ = 0D;
+      exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -1292,6 +1340,9 @@ public final class Metrics {
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         output.writeDouble(1, value_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeMessage(2, exemplar_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -1305,6 +1356,10 @@ public final class Metrics {
         size += com.google.protobuf.CodedOutputStream
           .computeDoubleSize(1, value_);
       }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(2, exemplar_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -1414,6 +1469,7 @@ public final class Metrics {
       }
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getExemplarFieldBuilder();
         }
       }
       private static Builder create() {
@@ -1424,6 +1480,12 @@ public final class Metrics {
         super.clear();
         value_ = 0D;
         bitField0_ = (bitField0_ & ~0x00000001);
+        if (exemplarBuilder_ == null) {
+          exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+        } else {
+          exemplarBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
 
@@ -1456,6 +1518,14 @@ public final class Metrics {
           to_bitField0_ |= 0x00000001;
         }
         result.value_ = value_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        if (exemplarBuilder_ == null) {
+          result.exemplar_ = exemplar_;
+        } else {
+          result.exemplar_ = exemplarBuilder_.build();
+        }
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -1475,6 +1545,9 @@ public final class Metrics {
         if (other.hasValue()) {
           setValue(other.getValue());
         }
+        if (other.hasExemplar()) {
+          mergeExemplar(other.getExemplar());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -1534,6 +1607,122 @@ public final class Metrics {
         return this;
       }
 
+      private io.prometheus.client.Metrics.Exemplar exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          io.prometheus.client.Metrics.Exemplar, io.prometheus.client.Metrics.Exemplar.Builder, io.prometheus.client.Metrics.ExemplarOrBuilder> exemplarBuilder_;
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public boolean hasExemplar() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public io.prometheus.client.Metrics.Exemplar getExemplar() {
+        if (exemplarBuilder_ == null) {
+          return exemplar_;
+        } else {
+          return exemplarBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public Builder setExemplar(io.prometheus.client.Metrics.Exemplar value) {
+        if (exemplarBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          exemplar_ = value;
+          onChanged();
+        } else {
+          exemplarBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public Builder setExemplar(
+          io.prometheus.client.Metrics.Exemplar.Builder builderForValue) {
+        if (exemplarBuilder_ == null) {
+          exemplar_ = builderForValue.build();
+          onChanged();
+        } else {
+          exemplarBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public Builder mergeExemplar(io.prometheus.client.Metrics.Exemplar value) {
+        if (exemplarBuilder_ == null) {
+          if (((bitField0_ & 0x00000002) == 0x00000002) &&
+              exemplar_ != io.prometheus.client.Metrics.Exemplar.getDefaultInstance()) {
+            exemplar_ =
+              io.prometheus.client.Metrics.Exemplar.newBuilder(exemplar_).mergeFrom(value).buildPartial();
+          } else {
+            exemplar_ = value;
+          }
+          onChanged();
+        } else {
+          exemplarBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000002;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public Builder clearExemplar() {
+        if (exemplarBuilder_ == null) {
+          exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+          onChanged();
+        } else {
+          exemplarBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public io.prometheus.client.Metrics.Exemplar.Builder getExemplarBuilder() {
+        bitField0_ |= 0x00000002;
+        onChanged();
+        return getExemplarFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      public io.prometheus.client.Metrics.ExemplarOrBuilder getExemplarOrBuilder() {
+        if (exemplarBuilder_ != null) {
+          return exemplarBuilder_.getMessageOrBuilder();
+        } else {
+          return exemplar_;
+        }
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 2;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          io.prometheus.client.Metrics.Exemplar, io.prometheus.client.Metrics.Exemplar.Builder, io.prometheus.client.Metrics.ExemplarOrBuilder> 
+          getExemplarFieldBuilder() {
+        if (exemplarBuilder_ == null) {
+          exemplarBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              io.prometheus.client.Metrics.Exemplar, io.prometheus.client.Metrics.Exemplar.Builder, io.prometheus.client.Metrics.ExemplarOrBuilder>(
+                  getExemplar(),
+                  getParentForChildren(),
+                  isClean());
+          exemplar_ = null;
+        }
+        return exemplarBuilder_;
+      }
+
       // @@protoc_insertion_point(builder_scope:io.prometheus.client.Counter)
     }
 
@@ -3317,6 +3506,209 @@ public final class Metrics {
      */
     io.prometheus.client.Metrics.BucketOrBuilder getBucketOrBuilder(
         int index);
+
+    /**
+     * <code>optional sint32 schema = 5;</code>
+     *
+     * <pre>
+     * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+     * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+     * then each power of two is divided into 2^n logarithmic buckets.
+     * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+     * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+     * </pre>
+     */
+    boolean hasSchema();
+    /**
+     * <code>optional sint32 schema = 5;</code>
+     *
+     * <pre>
+     * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+     * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+     * then each power of two is divided into 2^n logarithmic buckets.
+     * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+     * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+     * </pre>
+     */
+    int getSchema();
+
+    /**
+     * <code>optional double zero_threshold = 6;</code>
+     *
+     * <pre>
+     * Breadth of the zero bucket.
+     * </pre>
+     */
+    boolean hasZeroThreshold();
+    /**
+     * <code>optional double zero_threshold = 6;</code>
+     *
+     * <pre>
+     * Breadth of the zero bucket.
+     * </pre>
+     */
+    double getZeroThreshold();
+
+    /**
+     * <code>optional uint64 zero_count = 7;</code>
+     *
+     * <pre>
+     * Count in zero bucket.
+     * </pre>
+     */
+    boolean hasZeroCount();
+    /**
+     * <code>optional uint64 zero_count = 7;</code>
+     *
+     * <pre>
+     * Count in zero bucket.
+     * </pre>
+     */
+    long getZeroCount();
+
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    java.util.List<io.prometheus.client.Metrics.BucketSpan> 
+        getNegativeSpanList();
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    io.prometheus.client.Metrics.BucketSpan getNegativeSpan(int index);
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    int getNegativeSpanCount();
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    java.util.List<? extends io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+        getNegativeSpanOrBuilderList();
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    io.prometheus.client.Metrics.BucketSpanOrBuilder getNegativeSpanOrBuilder(
+        int index);
+
+    /**
+     * <code>repeated sint64 negative_delta = 10;</code>
+     *
+     * <pre>
+     * Use either "negative_delta" or "negative_count", the former for
+     * regular histograms with integer counts, the latter for float
+     * histograms.
+     * </pre>
+     */
+    java.util.List<java.lang.Long> getNegativeDeltaList();
+    /**
+     * <code>repeated sint64 negative_delta = 10;</code>
+     *
+     * <pre>
+     * Use either "negative_delta" or "negative_count", the former for
+     * regular histograms with integer counts, the latter for float
+     * histograms.
+     * </pre>
+     */
+    int getNegativeDeltaCount();
+    /**
+     * <code>repeated sint64 negative_delta = 10;</code>
+     *
+     * <pre>
+     * Use either "negative_delta" or "negative_count", the former for
+     * regular histograms with integer counts, the latter for float
+     * histograms.
+     * </pre>
+     */
+    long getNegativeDelta(int index);
+
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    java.util.List<io.prometheus.client.Metrics.BucketSpan> 
+        getPositiveSpanList();
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    io.prometheus.client.Metrics.BucketSpan getPositiveSpan(int index);
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    int getPositiveSpanCount();
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    java.util.List<? extends io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+        getPositiveSpanOrBuilderList();
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    io.prometheus.client.Metrics.BucketSpanOrBuilder getPositiveSpanOrBuilder(
+        int index);
+
+    /**
+     * <code>repeated sint64 positive_delta = 13;</code>
+     *
+     * <pre>
+     * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+     * </pre>
+     */
+    java.util.List<java.lang.Long> getPositiveDeltaList();
+    /**
+     * <code>repeated sint64 positive_delta = 13;</code>
+     *
+     * <pre>
+     * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+     * </pre>
+     */
+    int getPositiveDeltaCount();
+    /**
+     * <code>repeated sint64 positive_delta = 13;</code>
+     *
+     * <pre>
+     * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+     * </pre>
+     */
+    long getPositiveDelta(int index);
   }
   /**
    * Protobuf type {@code io.prometheus.client.Histogram}
@@ -3388,6 +3780,79 @@ public final class Metrics {
               bucket_.add(input.readMessage(io.prometheus.client.Metrics.Bucket.PARSER, extensionRegistry));
               break;
             }
+            case 40: {
+              bitField0_ |= 0x00000004;
+              schema_ = input.readSInt32();
+              break;
+            }
+            case 49: {
+              bitField0_ |= 0x00000008;
+              zeroThreshold_ = input.readDouble();
+              break;
+            }
+            case 56: {
+              bitField0_ |= 0x00000010;
+              zeroCount_ = input.readUInt64();
+              break;
+            }
+            case 74: {
+              if (!((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+                negativeSpan_ = new java.util.ArrayList<io.prometheus.client.Metrics.BucketSpan>();
+                mutable_bitField0_ |= 0x00000040;
+              }
+              negativeSpan_.add(input.readMessage(io.prometheus.client.Metrics.BucketSpan.PARSER, extensionRegistry));
+              break;
+            }
+            case 80: {
+              if (!((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
+                negativeDelta_ = new java.util.ArrayList<java.lang.Long>();
+                mutable_bitField0_ |= 0x00000080;
+              }
+              negativeDelta_.add(input.readSInt64());
+              break;
+            }
+            case 82: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000080) == 0x00000080) && input.getBytesUntilLimit() > 0) {
+                negativeDelta_ = new java.util.ArrayList<java.lang.Long>();
+                mutable_bitField0_ |= 0x00000080;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                negativeDelta_.add(input.readSInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
+            case 98: {
+              if (!((mutable_bitField0_ & 0x00000100) == 0x00000100)) {
+                positiveSpan_ = new java.util.ArrayList<io.prometheus.client.Metrics.BucketSpan>();
+                mutable_bitField0_ |= 0x00000100;
+              }
+              positiveSpan_.add(input.readMessage(io.prometheus.client.Metrics.BucketSpan.PARSER, extensionRegistry));
+              break;
+            }
+            case 104: {
+              if (!((mutable_bitField0_ & 0x00000200) == 0x00000200)) {
+                positiveDelta_ = new java.util.ArrayList<java.lang.Long>();
+                mutable_bitField0_ |= 0x00000200;
+              }
+              positiveDelta_.add(input.readSInt64());
+              break;
+            }
+            case 106: {
+              int length = input.readRawVarint32();
+              int limit = input.pushLimit(length);
+              if (!((mutable_bitField0_ & 0x00000200) == 0x00000200) && input.getBytesUntilLimit() > 0) {
+                positiveDelta_ = new java.util.ArrayList<java.lang.Long>();
+                mutable_bitField0_ |= 0x00000200;
+              }
+              while (input.getBytesUntilLimit() > 0) {
+                positiveDelta_.add(input.readSInt64());
+              }
+              input.popLimit(limit);
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -3399,8 +3864,20 @@ public final class Metrics {
         if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
           bucket_ = java.util.Collections.unmodifiableList(bucket_);
         }
-        this.unknownFields = unknownFields.build();
-        makeExtensionsImmutable();
+        if (((mutable_bitField0_ & 0x00000040) == 0x00000040)) {
+          negativeSpan_ = java.util.Collections.unmodifiableList(negativeSpan_);
+        }
+        if (((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
+          negativeDelta_ = java.util.Collections.unmodifiableList(negativeDelta_);
+        }
+        if (((mutable_bitField0_ & 0x00000100) == 0x00000100)) {
+          positiveSpan_ = java.util.Collections.unmodifiableList(positiveSpan_);
+        }
+        if (((mutable_bitField0_ & 0x00000200) == 0x00000200)) {
+          positiveDelta_ = java.util.Collections.unmodifiableList(positiveDelta_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
       }
     }
     public static final com.google.protobuf.Descriptors.Descriptor
@@ -3516,10 +3993,278 @@ public final class Metrics {
       return bucket_.get(index);
     }
 
+    public static final int SCHEMA_FIELD_NUMBER = 5;
+    private int schema_;
+    /**
+     * <code>optional sint32 schema = 5;</code>
+     *
+     * <pre>
+     * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+     * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+     * then each power of two is divided into 2^n logarithmic buckets.
+     * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+     * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+     * </pre>
+     */
+    public boolean hasSchema() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional sint32 schema = 5;</code>
+     *
+     * <pre>
+     * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+     * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+     * then each power of two is divided into 2^n logarithmic buckets.
+     * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+     * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+     * </pre>
+     */
+    public int getSchema() {
+      return schema_;
+    }
+
+    public static final int ZERO_THRESHOLD_FIELD_NUMBER = 6;
+    private double zeroThreshold_;
+    /**
+     * <code>optional double zero_threshold = 6;</code>
+     *
+     * <pre>
+     * Breadth of the zero bucket.
+     * </pre>
+     */
+    public boolean hasZeroThreshold() {
+      return ((bitField0_ & 0x00000008) == 0x00000008);
+    }
+    /**
+     * <code>optional double zero_threshold = 6;</code>
+     *
+     * <pre>
+     * Breadth of the zero bucket.
+     * </pre>
+     */
+    public double getZeroThreshold() {
+      return zeroThreshold_;
+    }
+
+    public static final int ZERO_COUNT_FIELD_NUMBER = 7;
+    private long zeroCount_;
+    /**
+     * <code>optional uint64 zero_count = 7;</code>
+     *
+     * <pre>
+     * Count in zero bucket.
+     * </pre>
+     */
+    public boolean hasZeroCount() {
+      return ((bitField0_ & 0x00000010) == 0x00000010);
+    }
+    /**
+     * <code>optional uint64 zero_count = 7;</code>
+     *
+     * <pre>
+     * Count in zero bucket.
+     * </pre>
+     */
+    public long getZeroCount() {
+      return zeroCount_;
+    }
+
+    public static final int NEGATIVE_SPAN_FIELD_NUMBER = 9;
+    private java.util.List<io.prometheus.client.Metrics.BucketSpan> negativeSpan_;
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    public java.util.List<io.prometheus.client.Metrics.BucketSpan> getNegativeSpanList() {
+      return negativeSpan_;
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    public java.util.List<? extends io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+        getNegativeSpanOrBuilderList() {
+      return negativeSpan_;
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    public int getNegativeSpanCount() {
+      return negativeSpan_.size();
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    public io.prometheus.client.Metrics.BucketSpan getNegativeSpan(int index) {
+      return negativeSpan_.get(index);
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+     *
+     * <pre>
+     * Negative buckets for the native histogram.
+     * </pre>
+     */
+    public io.prometheus.client.Metrics.BucketSpanOrBuilder getNegativeSpanOrBuilder(
+        int index) {
+      return negativeSpan_.get(index);
+    }
+
+    public static final int NEGATIVE_DELTA_FIELD_NUMBER = 10;
+    private java.util.List<java.lang.Long> negativeDelta_;
+    /**
+     * <code>repeated sint64 negative_delta = 10;</code>
+     *
+     * <pre>
+     * Use either "negative_delta" or "negative_count", the former for
+     * regular histograms with integer counts, the latter for float
+     * histograms.
+     * </pre>
+     */
+    public java.util.List<java.lang.Long>
+        getNegativeDeltaList() {
+      return negativeDelta_;
+    }
+    /**
+     * <code>repeated sint64 negative_delta = 10;</code>
+     *
+     * <pre>
+     * Use either "negative_delta" or "negative_count", the former for
+     * regular histograms with integer counts, the latter for float
+     * histograms.
+     * </pre>
+     */
+    public int getNegativeDeltaCount() {
+      return negativeDelta_.size();
+    }
+    /**
+     * <code>repeated sint64 negative_delta = 10;</code>
+     *
+     * <pre>
+     * Use either "negative_delta" or "negative_count", the former for
+     * regular histograms with integer counts, the latter for float
+     * histograms.
+     * </pre>
+     */
+    public long getNegativeDelta(int index) {
+      return negativeDelta_.get(index);
+    }
+
+    public static final int POSITIVE_SPAN_FIELD_NUMBER = 12;
+    private java.util.List<io.prometheus.client.Metrics.BucketSpan> positiveSpan_;
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    public java.util.List<io.prometheus.client.Metrics.BucketSpan> getPositiveSpanList() {
+      return positiveSpan_;
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    public java.util.List<? extends io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+        getPositiveSpanOrBuilderList() {
+      return positiveSpan_;
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    public int getPositiveSpanCount() {
+      return positiveSpan_.size();
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    public io.prometheus.client.Metrics.BucketSpan getPositiveSpan(int index) {
+      return positiveSpan_.get(index);
+    }
+    /**
+     * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+     *
+     * <pre>
+     * Positive buckets for the native histogram.
+     * </pre>
+     */
+    public io.prometheus.client.Metrics.BucketSpanOrBuilder getPositiveSpanOrBuilder(
+        int index) {
+      return positiveSpan_.get(index);
+    }
+
+    public static final int POSITIVE_DELTA_FIELD_NUMBER = 13;
+    private java.util.List<java.lang.Long> positiveDelta_;
+    /**
+     * <code>repeated sint64 positive_delta = 13;</code>
+     *
+     * <pre>
+     * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+     * </pre>
+     */
+    public java.util.List<java.lang.Long>
+        getPositiveDeltaList() {
+      return positiveDelta_;
+    }
+    /**
+     * <code>repeated sint64 positive_delta = 13;</code>
+     *
+     * <pre>
+     * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+     * </pre>
+     */
+    public int getPositiveDeltaCount() {
+      return positiveDelta_.size();
+    }
+    /**
+     * <code>repeated sint64 positive_delta = 13;</code>
+     *
+     * <pre>
+     * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+     * </pre>
+     */
+    public long getPositiveDelta(int index) {
+      return positiveDelta_.get(index);
+    }
+
     private void initFields() {
       sampleCount_ = 0L;
       sampleSum_ = 0D;
       bucket_ = java.util.Collections.emptyList();
+      schema_ = 0;
+      zeroThreshold_ = 0D;
+      zeroCount_ = 0L;
+      negativeSpan_ = java.util.Collections.emptyList();
+      negativeDelta_ = java.util.Collections.emptyList();
+      positiveSpan_ = java.util.Collections.emptyList();
+      positiveDelta_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -3543,6 +4288,27 @@ public final class Metrics {
       for (int i = 0; i < bucket_.size(); i++) {
         output.writeMessage(3, bucket_.get(i));
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeSInt32(5, schema_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        output.writeDouble(6, zeroThreshold_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        output.writeUInt64(7, zeroCount_);
+      }
+      for (int i = 0; i < negativeSpan_.size(); i++) {
+        output.writeMessage(9, negativeSpan_.get(i));
+      }
+      for (int i = 0; i < negativeDelta_.size(); i++) {
+        output.writeSInt64(10, negativeDelta_.get(i));
+      }
+      for (int i = 0; i < positiveSpan_.size(); i++) {
+        output.writeMessage(12, positiveSpan_.get(i));
+      }
+      for (int i = 0; i < positiveDelta_.size(); i++) {
+        output.writeSInt64(13, positiveDelta_.get(i));
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -3564,6 +4330,44 @@ public final class Metrics {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(3, bucket_.get(i));
       }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeSInt32Size(5, schema_);
+      }
+      if (((bitField0_ & 0x00000008) == 0x00000008)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeDoubleSize(6, zeroThreshold_);
+      }
+      if (((bitField0_ & 0x00000010) == 0x00000010)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(7, zeroCount_);
+      }
+      for (int i = 0; i < negativeSpan_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(9, negativeSpan_.get(i));
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < negativeDelta_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeSInt64SizeNoTag(negativeDelta_.get(i));
+        }
+        size += dataSize;
+        size += 1 * getNegativeDeltaList().size();
+      }
+      for (int i = 0; i < positiveSpan_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(12, positiveSpan_.get(i));
+      }
+      {
+        int dataSize = 0;
+        for (int i = 0; i < positiveDelta_.size(); i++) {
+          dataSize += com.google.protobuf.CodedOutputStream
+            .computeSInt64SizeNoTag(positiveDelta_.get(i));
+        }
+        size += dataSize;
+        size += 1 * getPositiveDeltaList().size();
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -3674,6 +4478,8 @@ public final class Metrics {
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
           getBucketFieldBuilder();
+          getNegativeSpanFieldBuilder();
+          getPositiveSpanFieldBuilder();
         }
       }
       private static Builder create() {
@@ -3692,6 +4498,28 @@ public final class Metrics {
         } else {
           bucketBuilder_.clear();
         }
+        schema_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000008);
+        zeroThreshold_ = 0D;
+        bitField0_ = (bitField0_ & ~0x00000010);
+        zeroCount_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000020);
+        if (negativeSpanBuilder_ == null) {
+          negativeSpan_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000040);
+        } else {
+          negativeSpanBuilder_.clear();
+        }
+        negativeDelta_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000080);
+        if (positiveSpanBuilder_ == null) {
+          positiveSpan_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000100);
+        } else {
+          positiveSpanBuilder_.clear();
+        }
+        positiveDelta_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000200);
         return this;
       }
 
@@ -3737,6 +4565,46 @@ public final class Metrics {
         } else {
           result.bucket_ = bucketBuilder_.build();
         }
+        if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.schema_ = schema_;
+        if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+          to_bitField0_ |= 0x00000008;
+        }
+        result.zeroThreshold_ = zeroThreshold_;
+        if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+          to_bitField0_ |= 0x00000010;
+        }
+        result.zeroCount_ = zeroCount_;
+        if (negativeSpanBuilder_ == null) {
+          if (((bitField0_ & 0x00000040) == 0x00000040)) {
+            negativeSpan_ = java.util.Collections.unmodifiableList(negativeSpan_);
+            bitField0_ = (bitField0_ & ~0x00000040);
+          }
+          result.negativeSpan_ = negativeSpan_;
+        } else {
+          result.negativeSpan_ = negativeSpanBuilder_.build();
+        }
+        if (((bitField0_ & 0x00000080) == 0x00000080)) {
+          negativeDelta_ = java.util.Collections.unmodifiableList(negativeDelta_);
+          bitField0_ = (bitField0_ & ~0x00000080);
+        }
+        result.negativeDelta_ = negativeDelta_;
+        if (positiveSpanBuilder_ == null) {
+          if (((bitField0_ & 0x00000100) == 0x00000100)) {
+            positiveSpan_ = java.util.Collections.unmodifiableList(positiveSpan_);
+            bitField0_ = (bitField0_ & ~0x00000100);
+          }
+          result.positiveSpan_ = positiveSpan_;
+        } else {
+          result.positiveSpan_ = positiveSpanBuilder_.build();
+        }
+        if (((bitField0_ & 0x00000200) == 0x00000200)) {
+          positiveDelta_ = java.util.Collections.unmodifiableList(positiveDelta_);
+          bitField0_ = (bitField0_ & ~0x00000200);
+        }
+        result.positiveDelta_ = positiveDelta_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -3785,6 +4653,87 @@ public final class Metrics {
             }
           }
         }
+        if (other.hasSchema()) {
+          setSchema(other.getSchema());
+        }
+        if (other.hasZeroThreshold()) {
+          setZeroThreshold(other.getZeroThreshold());
+        }
+        if (other.hasZeroCount()) {
+          setZeroCount(other.getZeroCount());
+        }
+        if (negativeSpanBuilder_ == null) {
+          if (!other.negativeSpan_.isEmpty()) {
+            if (negativeSpan_.isEmpty()) {
+              negativeSpan_ = other.negativeSpan_;
+              bitField0_ = (bitField0_ & ~0x00000040);
+            } else {
+              ensureNegativeSpanIsMutable();
+              negativeSpan_.addAll(other.negativeSpan_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.negativeSpan_.isEmpty()) {
+            if (negativeSpanBuilder_.isEmpty()) {
+              negativeSpanBuilder_.dispose();
+              negativeSpanBuilder_ = null;
+              negativeSpan_ = other.negativeSpan_;
+              bitField0_ = (bitField0_ & ~0x00000040);
+              negativeSpanBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getNegativeSpanFieldBuilder() : null;
+            } else {
+              negativeSpanBuilder_.addAllMessages(other.negativeSpan_);
+            }
+          }
+        }
+        if (!other.negativeDelta_.isEmpty()) {
+          if (negativeDelta_.isEmpty()) {
+            negativeDelta_ = other.negativeDelta_;
+            bitField0_ = (bitField0_ & ~0x00000080);
+          } else {
+            ensureNegativeDeltaIsMutable();
+            negativeDelta_.addAll(other.negativeDelta_);
+          }
+          onChanged();
+        }
+        if (positiveSpanBuilder_ == null) {
+          if (!other.positiveSpan_.isEmpty()) {
+            if (positiveSpan_.isEmpty()) {
+              positiveSpan_ = other.positiveSpan_;
+              bitField0_ = (bitField0_ & ~0x00000100);
+            } else {
+              ensurePositiveSpanIsMutable();
+              positiveSpan_.addAll(other.positiveSpan_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.positiveSpan_.isEmpty()) {
+            if (positiveSpanBuilder_.isEmpty()) {
+              positiveSpanBuilder_.dispose();
+              positiveSpanBuilder_ = null;
+              positiveSpan_ = other.positiveSpan_;
+              bitField0_ = (bitField0_ & ~0x00000100);
+              positiveSpanBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getPositiveSpanFieldBuilder() : null;
+            } else {
+              positiveSpanBuilder_.addAllMessages(other.positiveSpan_);
+            }
+          }
+        }
+        if (!other.positiveDelta_.isEmpty()) {
+          if (positiveDelta_.isEmpty()) {
+            positiveDelta_ = other.positiveDelta_;
+            bitField0_ = (bitField0_ & ~0x00000200);
+          } else {
+            ensurePositiveDeltaIsMutable();
+            positiveDelta_.addAll(other.positiveDelta_);
+          }
+          onChanged();
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -4125,138 +5074,3403 @@ public final class Metrics {
         }
       }
       /**
-       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       *
+       * <pre>
+       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * </pre>
+       */
+      public java.util.List<? extends io.prometheus.client.Metrics.BucketOrBuilder> 
+           getBucketOrBuilderList() {
+        if (bucketBuilder_ != null) {
+          return bucketBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(bucket_);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       *
+       * <pre>
+       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.Bucket.Builder addBucketBuilder() {
+        return getBucketFieldBuilder().addBuilder(
+            io.prometheus.client.Metrics.Bucket.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       *
+       * <pre>
+       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.Bucket.Builder addBucketBuilder(
+          int index) {
+        return getBucketFieldBuilder().addBuilder(
+            index, io.prometheus.client.Metrics.Bucket.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       *
+       * <pre>
+       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * </pre>
+       */
+      public java.util.List<io.prometheus.client.Metrics.Bucket.Builder> 
+           getBucketBuilderList() {
+        return getBucketFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.Bucket, io.prometheus.client.Metrics.Bucket.Builder, io.prometheus.client.Metrics.BucketOrBuilder> 
+          getBucketFieldBuilder() {
+        if (bucketBuilder_ == null) {
+          bucketBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              io.prometheus.client.Metrics.Bucket, io.prometheus.client.Metrics.Bucket.Builder, io.prometheus.client.Metrics.BucketOrBuilder>(
+                  bucket_,
+                  ((bitField0_ & 0x00000004) == 0x00000004),
+                  getParentForChildren(),
+                  isClean());
+          bucket_ = null;
+        }
+        return bucketBuilder_;
+      }
+
+      private int schema_ ;
+      /**
+       * <code>optional sint32 schema = 5;</code>
+       *
+       * <pre>
+       * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+       * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+       * then each power of two is divided into 2^n logarithmic buckets.
+       * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+       * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+       * </pre>
+       */
+      public boolean hasSchema() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional sint32 schema = 5;</code>
+       *
+       * <pre>
+       * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+       * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+       * then each power of two is divided into 2^n logarithmic buckets.
+       * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+       * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+       * </pre>
+       */
+      public int getSchema() {
+        return schema_;
+      }
+      /**
+       * <code>optional sint32 schema = 5;</code>
+       *
+       * <pre>
+       * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+       * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+       * then each power of two is divided into 2^n logarithmic buckets.
+       * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+       * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+       * </pre>
+       */
+      public Builder setSchema(int value) {
+        bitField0_ |= 0x00000008;
+        schema_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional sint32 schema = 5;</code>
+       *
+       * <pre>
+       * schema defines the bucket schema. Currently, valid numbers are -4 &lt;= n &lt;= 8.
+       * They are all for base-2 bucket schemas, where 1 is a bucket boundary in each case, and
+       * then each power of two is divided into 2^n logarithmic buckets.
+       * Or in other words, each bucket boundary is the previous boundary times 2^(2^-n).
+       * In the future, more bucket schemas may be added using numbers &lt; -4 or &gt; 8.
+       * </pre>
+       */
+      public Builder clearSchema() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        schema_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private double zeroThreshold_ ;
+      /**
+       * <code>optional double zero_threshold = 6;</code>
+       *
+       * <pre>
+       * Breadth of the zero bucket.
+       * </pre>
+       */
+      public boolean hasZeroThreshold() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional double zero_threshold = 6;</code>
+       *
+       * <pre>
+       * Breadth of the zero bucket.
+       * </pre>
+       */
+      public double getZeroThreshold() {
+        return zeroThreshold_;
+      }
+      /**
+       * <code>optional double zero_threshold = 6;</code>
+       *
+       * <pre>
+       * Breadth of the zero bucket.
+       * </pre>
+       */
+      public Builder setZeroThreshold(double value) {
+        bitField0_ |= 0x00000010;
+        zeroThreshold_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional double zero_threshold = 6;</code>
+       *
+       * <pre>
+       * Breadth of the zero bucket.
+       * </pre>
+       */
+      public Builder clearZeroThreshold() {
+        bitField0_ = (bitField0_ & ~0x00000010);
+        zeroThreshold_ = 0D;
+        onChanged();
+        return this;
+      }
+
+      private long zeroCount_ ;
+      /**
+       * <code>optional uint64 zero_count = 7;</code>
+       *
+       * <pre>
+       * Count in zero bucket.
+       * </pre>
+       */
+      public boolean hasZeroCount() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional uint64 zero_count = 7;</code>
+       *
+       * <pre>
+       * Count in zero bucket.
+       * </pre>
+       */
+      public long getZeroCount() {
+        return zeroCount_;
+      }
+      /**
+       * <code>optional uint64 zero_count = 7;</code>
+       *
+       * <pre>
+       * Count in zero bucket.
+       * </pre>
+       */
+      public Builder setZeroCount(long value) {
+        bitField0_ |= 0x00000020;
+        zeroCount_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint64 zero_count = 7;</code>
+       *
+       * <pre>
+       * Count in zero bucket.
+       * </pre>
+       */
+      public Builder clearZeroCount() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        zeroCount_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<io.prometheus.client.Metrics.BucketSpan> negativeSpan_ =
+        java.util.Collections.emptyList();
+      private void ensureNegativeSpanIsMutable() {
+        if (!((bitField0_ & 0x00000040) == 0x00000040)) {
+          negativeSpan_ = new java.util.ArrayList<io.prometheus.client.Metrics.BucketSpan>(negativeSpan_);
+          bitField0_ |= 0x00000040;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.BucketSpan, io.prometheus.client.Metrics.BucketSpan.Builder, io.prometheus.client.Metrics.BucketSpanOrBuilder> negativeSpanBuilder_;
+
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public java.util.List<io.prometheus.client.Metrics.BucketSpan> getNegativeSpanList() {
+        if (negativeSpanBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(negativeSpan_);
+        } else {
+          return negativeSpanBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public int getNegativeSpanCount() {
+        if (negativeSpanBuilder_ == null) {
+          return negativeSpan_.size();
+        } else {
+          return negativeSpanBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan getNegativeSpan(int index) {
+        if (negativeSpanBuilder_ == null) {
+          return negativeSpan_.get(index);
+        } else {
+          return negativeSpanBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder setNegativeSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan value) {
+        if (negativeSpanBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.set(index, value);
+          onChanged();
+        } else {
+          negativeSpanBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder setNegativeSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan.Builder builderForValue) {
+        if (negativeSpanBuilder_ == null) {
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          negativeSpanBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addNegativeSpan(io.prometheus.client.Metrics.BucketSpan value) {
+        if (negativeSpanBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.add(value);
+          onChanged();
+        } else {
+          negativeSpanBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addNegativeSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan value) {
+        if (negativeSpanBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.add(index, value);
+          onChanged();
+        } else {
+          negativeSpanBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addNegativeSpan(
+          io.prometheus.client.Metrics.BucketSpan.Builder builderForValue) {
+        if (negativeSpanBuilder_ == null) {
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.add(builderForValue.build());
+          onChanged();
+        } else {
+          negativeSpanBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addNegativeSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan.Builder builderForValue) {
+        if (negativeSpanBuilder_ == null) {
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          negativeSpanBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addAllNegativeSpan(
+          java.lang.Iterable<? extends io.prometheus.client.Metrics.BucketSpan> values) {
+        if (negativeSpanBuilder_ == null) {
+          ensureNegativeSpanIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, negativeSpan_);
+          onChanged();
+        } else {
+          negativeSpanBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder clearNegativeSpan() {
+        if (negativeSpanBuilder_ == null) {
+          negativeSpan_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000040);
+          onChanged();
+        } else {
+          negativeSpanBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public Builder removeNegativeSpan(int index) {
+        if (negativeSpanBuilder_ == null) {
+          ensureNegativeSpanIsMutable();
+          negativeSpan_.remove(index);
+          onChanged();
+        } else {
+          negativeSpanBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan.Builder getNegativeSpanBuilder(
+          int index) {
+        return getNegativeSpanFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpanOrBuilder getNegativeSpanOrBuilder(
+          int index) {
+        if (negativeSpanBuilder_ == null) {
+          return negativeSpan_.get(index);  } else {
+          return negativeSpanBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public java.util.List<? extends io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+           getNegativeSpanOrBuilderList() {
+        if (negativeSpanBuilder_ != null) {
+          return negativeSpanBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(negativeSpan_);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan.Builder addNegativeSpanBuilder() {
+        return getNegativeSpanFieldBuilder().addBuilder(
+            io.prometheus.client.Metrics.BucketSpan.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan.Builder addNegativeSpanBuilder(
+          int index) {
+        return getNegativeSpanFieldBuilder().addBuilder(
+            index, io.prometheus.client.Metrics.BucketSpan.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan negative_span = 9;</code>
+       *
+       * <pre>
+       * Negative buckets for the native histogram.
+       * </pre>
+       */
+      public java.util.List<io.prometheus.client.Metrics.BucketSpan.Builder> 
+           getNegativeSpanBuilderList() {
+        return getNegativeSpanFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.BucketSpan, io.prometheus.client.Metrics.BucketSpan.Builder, io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+          getNegativeSpanFieldBuilder() {
+        if (negativeSpanBuilder_ == null) {
+          negativeSpanBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              io.prometheus.client.Metrics.BucketSpan, io.prometheus.client.Metrics.BucketSpan.Builder, io.prometheus.client.Metrics.BucketSpanOrBuilder>(
+                  negativeSpan_,
+                  ((bitField0_ & 0x00000040) == 0x00000040),
+                  getParentForChildren(),
+                  isClean());
+          negativeSpan_ = null;
+        }
+        return negativeSpanBuilder_;
+      }
+
+      private java.util.List<java.lang.Long> negativeDelta_ = java.util.Collections.emptyList();
+      private void ensureNegativeDeltaIsMutable() {
+        if (!((bitField0_ & 0x00000080) == 0x00000080)) {
+          negativeDelta_ = new java.util.ArrayList<java.lang.Long>(negativeDelta_);
+          bitField0_ |= 0x00000080;
+         }
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public java.util.List<java.lang.Long>
+          getNegativeDeltaList() {
+        return java.util.Collections.unmodifiableList(negativeDelta_);
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public int getNegativeDeltaCount() {
+        return negativeDelta_.size();
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public long getNegativeDelta(int index) {
+        return negativeDelta_.get(index);
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public Builder setNegativeDelta(
+          int index, long value) {
+        ensureNegativeDeltaIsMutable();
+        negativeDelta_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public Builder addNegativeDelta(long value) {
+        ensureNegativeDeltaIsMutable();
+        negativeDelta_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public Builder addAllNegativeDelta(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensureNegativeDeltaIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, negativeDelta_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated sint64 negative_delta = 10;</code>
+       *
+       * <pre>
+       * Use either "negative_delta" or "negative_count", the former for
+       * regular histograms with integer counts, the latter for float
+       * histograms.
+       * </pre>
+       */
+      public Builder clearNegativeDelta() {
+        negativeDelta_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000080);
+        onChanged();
+        return this;
+      }
+
+      private java.util.List<io.prometheus.client.Metrics.BucketSpan> positiveSpan_ =
+        java.util.Collections.emptyList();
+      private void ensurePositiveSpanIsMutable() {
+        if (!((bitField0_ & 0x00000100) == 0x00000100)) {
+          positiveSpan_ = new java.util.ArrayList<io.prometheus.client.Metrics.BucketSpan>(positiveSpan_);
+          bitField0_ |= 0x00000100;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.BucketSpan, io.prometheus.client.Metrics.BucketSpan.Builder, io.prometheus.client.Metrics.BucketSpanOrBuilder> positiveSpanBuilder_;
+
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public java.util.List<io.prometheus.client.Metrics.BucketSpan> getPositiveSpanList() {
+        if (positiveSpanBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(positiveSpan_);
+        } else {
+          return positiveSpanBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public int getPositiveSpanCount() {
+        if (positiveSpanBuilder_ == null) {
+          return positiveSpan_.size();
+        } else {
+          return positiveSpanBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan getPositiveSpan(int index) {
+        if (positiveSpanBuilder_ == null) {
+          return positiveSpan_.get(index);
+        } else {
+          return positiveSpanBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder setPositiveSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan value) {
+        if (positiveSpanBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.set(index, value);
+          onChanged();
+        } else {
+          positiveSpanBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder setPositiveSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan.Builder builderForValue) {
+        if (positiveSpanBuilder_ == null) {
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          positiveSpanBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addPositiveSpan(io.prometheus.client.Metrics.BucketSpan value) {
+        if (positiveSpanBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.add(value);
+          onChanged();
+        } else {
+          positiveSpanBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addPositiveSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan value) {
+        if (positiveSpanBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.add(index, value);
+          onChanged();
+        } else {
+          positiveSpanBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addPositiveSpan(
+          io.prometheus.client.Metrics.BucketSpan.Builder builderForValue) {
+        if (positiveSpanBuilder_ == null) {
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.add(builderForValue.build());
+          onChanged();
+        } else {
+          positiveSpanBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addPositiveSpan(
+          int index, io.prometheus.client.Metrics.BucketSpan.Builder builderForValue) {
+        if (positiveSpanBuilder_ == null) {
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          positiveSpanBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder addAllPositiveSpan(
+          java.lang.Iterable<? extends io.prometheus.client.Metrics.BucketSpan> values) {
+        if (positiveSpanBuilder_ == null) {
+          ensurePositiveSpanIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, positiveSpan_);
+          onChanged();
+        } else {
+          positiveSpanBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder clearPositiveSpan() {
+        if (positiveSpanBuilder_ == null) {
+          positiveSpan_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000100);
+          onChanged();
+        } else {
+          positiveSpanBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public Builder removePositiveSpan(int index) {
+        if (positiveSpanBuilder_ == null) {
+          ensurePositiveSpanIsMutable();
+          positiveSpan_.remove(index);
+          onChanged();
+        } else {
+          positiveSpanBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan.Builder getPositiveSpanBuilder(
+          int index) {
+        return getPositiveSpanFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpanOrBuilder getPositiveSpanOrBuilder(
+          int index) {
+        if (positiveSpanBuilder_ == null) {
+          return positiveSpan_.get(index);  } else {
+          return positiveSpanBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public java.util.List<? extends io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+           getPositiveSpanOrBuilderList() {
+        if (positiveSpanBuilder_ != null) {
+          return positiveSpanBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(positiveSpan_);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan.Builder addPositiveSpanBuilder() {
+        return getPositiveSpanFieldBuilder().addBuilder(
+            io.prometheus.client.Metrics.BucketSpan.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.BucketSpan.Builder addPositiveSpanBuilder(
+          int index) {
+        return getPositiveSpanFieldBuilder().addBuilder(
+            index, io.prometheus.client.Metrics.BucketSpan.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.BucketSpan positive_span = 12;</code>
+       *
+       * <pre>
+       * Positive buckets for the native histogram.
+       * </pre>
+       */
+      public java.util.List<io.prometheus.client.Metrics.BucketSpan.Builder> 
+           getPositiveSpanBuilderList() {
+        return getPositiveSpanFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.BucketSpan, io.prometheus.client.Metrics.BucketSpan.Builder, io.prometheus.client.Metrics.BucketSpanOrBuilder> 
+          getPositiveSpanFieldBuilder() {
+        if (positiveSpanBuilder_ == null) {
+          positiveSpanBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              io.prometheus.client.Metrics.BucketSpan, io.prometheus.client.Metrics.BucketSpan.Builder, io.prometheus.client.Metrics.BucketSpanOrBuilder>(
+                  positiveSpan_,
+                  ((bitField0_ & 0x00000100) == 0x00000100),
+                  getParentForChildren(),
+                  isClean());
+          positiveSpan_ = null;
+        }
+        return positiveSpanBuilder_;
+      }
+
+      private java.util.List<java.lang.Long> positiveDelta_ = java.util.Collections.emptyList();
+      private void ensurePositiveDeltaIsMutable() {
+        if (!((bitField0_ & 0x00000200) == 0x00000200)) {
+          positiveDelta_ = new java.util.ArrayList<java.lang.Long>(positiveDelta_);
+          bitField0_ |= 0x00000200;
+         }
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public java.util.List<java.lang.Long>
+          getPositiveDeltaList() {
+        return java.util.Collections.unmodifiableList(positiveDelta_);
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public int getPositiveDeltaCount() {
+        return positiveDelta_.size();
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public long getPositiveDelta(int index) {
+        return positiveDelta_.get(index);
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public Builder setPositiveDelta(
+          int index, long value) {
+        ensurePositiveDeltaIsMutable();
+        positiveDelta_.set(index, value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public Builder addPositiveDelta(long value) {
+        ensurePositiveDeltaIsMutable();
+        positiveDelta_.add(value);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public Builder addAllPositiveDelta(
+          java.lang.Iterable<? extends java.lang.Long> values) {
+        ensurePositiveDeltaIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, positiveDelta_);
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>repeated sint64 positive_delta = 13;</code>
+       *
+       * <pre>
+       * Count delta of each bucket compared to previous one (or to zero for 1st bucket).
+       * </pre>
+       */
+      public Builder clearPositiveDelta() {
+        positiveDelta_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000200);
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:io.prometheus.client.Histogram)
+    }
+
+    static {
+      defaultInstance = new Histogram(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:io.prometheus.client.Histogram)
+  }
+
+  public interface BucketOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.prometheus.client.Bucket)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>optional uint64 cumulative_count = 1;</code>
+     *
+     * <pre>
+     * Cumulative in increasing order.
+     * </pre>
+     */
+    boolean hasCumulativeCount();
+    /**
+     * <code>optional uint64 cumulative_count = 1;</code>
+     *
+     * <pre>
+     * Cumulative in increasing order.
+     * </pre>
+     */
+    long getCumulativeCount();
+
+    /**
+     * <code>optional double upper_bound = 2;</code>
+     *
+     * <pre>
+     * Inclusive.
+     * </pre>
+     */
+    boolean hasUpperBound();
+    /**
+     * <code>optional double upper_bound = 2;</code>
+     *
+     * <pre>
+     * Inclusive.
+     * </pre>
+     */
+    double getUpperBound();
+
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+     */
+    boolean hasExemplar();
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+     */
+    io.prometheus.client.Metrics.Exemplar getExemplar();
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+     */
+    io.prometheus.client.Metrics.ExemplarOrBuilder getExemplarOrBuilder();
+  }
+  /**
+   * Protobuf type {@code io.prometheus.client.Bucket}
+   */
+  public static final class Bucket extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:io.prometheus.client.Bucket)
+      BucketOrBuilder {
+    // Use Bucket.newBuilder() to construct.
+    private Bucket(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private Bucket(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final Bucket defaultInstance;
+    public static Bucket getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public Bucket getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private Bucket(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              cumulativeCount_ = input.readUInt64();
+              break;
+            }
+            case 17: {
+              bitField0_ |= 0x00000002;
+              upperBound_ = input.readDouble();
+              break;
+            }
+            case 26: {
+              io.prometheus.client.Metrics.Exemplar.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000004) == 0x00000004)) {
+                subBuilder = exemplar_.toBuilder();
+              }
+              exemplar_ = input.readMessage(io.prometheus.client.Metrics.Exemplar.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(exemplar_);
+                exemplar_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000004;
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              io.prometheus.client.Metrics.Bucket.class, io.prometheus.client.Metrics.Bucket.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<Bucket> PARSER =
+        new com.google.protobuf.AbstractParser<Bucket>() {
+      public Bucket parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Bucket(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<Bucket> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int CUMULATIVE_COUNT_FIELD_NUMBER = 1;
+    private long cumulativeCount_;
+    /**
+     * <code>optional uint64 cumulative_count = 1;</code>
+     *
+     * <pre>
+     * Cumulative in increasing order.
+     * </pre>
+     */
+    public boolean hasCumulativeCount() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional uint64 cumulative_count = 1;</code>
+     *
+     * <pre>
+     * Cumulative in increasing order.
+     * </pre>
+     */
+    public long getCumulativeCount() {
+      return cumulativeCount_;
+    }
+
+    public static final int UPPER_BOUND_FIELD_NUMBER = 2;
+    private double upperBound_;
+    /**
+     * <code>optional double upper_bound = 2;</code>
+     *
+     * <pre>
+     * Inclusive.
+     * </pre>
+     */
+    public boolean hasUpperBound() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional double upper_bound = 2;</code>
+     *
+     * <pre>
+     * Inclusive.
+     * </pre>
+     */
+    public double getUpperBound() {
+      return upperBound_;
+    }
+
+    public static final int EXEMPLAR_FIELD_NUMBER = 3;
+    private io.prometheus.client.Metrics.Exemplar exemplar_;
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+     */
+    public boolean hasExemplar() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+     */
+    public io.prometheus.client.Metrics.Exemplar getExemplar() {
+      return exemplar_;
+    }
+    /**
+     * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+     */
+    public io.prometheus.client.Metrics.ExemplarOrBuilder getExemplarOrBuilder() {
+      return exemplar_;
+    }
+
+    private void initFields() {
+      cumulativeCount_ = 0L;
+      upperBound_ = 0D;
+      exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeUInt64(1, cumulativeCount_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeDouble(2, upperBound_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeMessage(3, exemplar_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt64Size(1, cumulativeCount_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeDoubleSize(2, upperBound_);
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(3, exemplar_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static io.prometheus.client.Metrics.Bucket parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static io.prometheus.client.Metrics.Bucket parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(io.prometheus.client.Metrics.Bucket prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code io.prometheus.client.Bucket}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:io.prometheus.client.Bucket)
+        io.prometheus.client.Metrics.BucketOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                io.prometheus.client.Metrics.Bucket.class, io.prometheus.client.Metrics.Bucket.Builder.class);
+      }
+
+      // Construct using io.prometheus.client.Metrics.Bucket.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getExemplarFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        cumulativeCount_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        upperBound_ = 0D;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        if (exemplarBuilder_ == null) {
+          exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+        } else {
+          exemplarBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_descriptor;
+      }
+
+      public io.prometheus.client.Metrics.Bucket getDefaultInstanceForType() {
+        return io.prometheus.client.Metrics.Bucket.getDefaultInstance();
+      }
+
+      public io.prometheus.client.Metrics.Bucket build() {
+        io.prometheus.client.Metrics.Bucket result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public io.prometheus.client.Metrics.Bucket buildPartial() {
+        io.prometheus.client.Metrics.Bucket result = new io.prometheus.client.Metrics.Bucket(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.cumulativeCount_ = cumulativeCount_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.upperBound_ = upperBound_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        if (exemplarBuilder_ == null) {
+          result.exemplar_ = exemplar_;
+        } else {
+          result.exemplar_ = exemplarBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof io.prometheus.client.Metrics.Bucket) {
+          return mergeFrom((io.prometheus.client.Metrics.Bucket)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(io.prometheus.client.Metrics.Bucket other) {
+        if (other == io.prometheus.client.Metrics.Bucket.getDefaultInstance()) return this;
+        if (other.hasCumulativeCount()) {
+          setCumulativeCount(other.getCumulativeCount());
+        }
+        if (other.hasUpperBound()) {
+          setUpperBound(other.getUpperBound());
+        }
+        if (other.hasExemplar()) {
+          mergeExemplar(other.getExemplar());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        io.prometheus.client.Metrics.Bucket parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (io.prometheus.client.Metrics.Bucket) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private long cumulativeCount_ ;
+      /**
+       * <code>optional uint64 cumulative_count = 1;</code>
+       *
+       * <pre>
+       * Cumulative in increasing order.
+       * </pre>
+       */
+      public boolean hasCumulativeCount() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional uint64 cumulative_count = 1;</code>
+       *
+       * <pre>
+       * Cumulative in increasing order.
+       * </pre>
+       */
+      public long getCumulativeCount() {
+        return cumulativeCount_;
+      }
+      /**
+       * <code>optional uint64 cumulative_count = 1;</code>
+       *
+       * <pre>
+       * Cumulative in increasing order.
+       * </pre>
+       */
+      public Builder setCumulativeCount(long value) {
+        bitField0_ |= 0x00000001;
+        cumulativeCount_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint64 cumulative_count = 1;</code>
+       *
+       * <pre>
+       * Cumulative in increasing order.
+       * </pre>
+       */
+      public Builder clearCumulativeCount() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        cumulativeCount_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      private double upperBound_ ;
+      /**
+       * <code>optional double upper_bound = 2;</code>
+       *
+       * <pre>
+       * Inclusive.
+       * </pre>
+       */
+      public boolean hasUpperBound() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional double upper_bound = 2;</code>
+       *
+       * <pre>
+       * Inclusive.
+       * </pre>
+       */
+      public double getUpperBound() {
+        return upperBound_;
+      }
+      /**
+       * <code>optional double upper_bound = 2;</code>
+       *
+       * <pre>
+       * Inclusive.
+       * </pre>
+       */
+      public Builder setUpperBound(double value) {
+        bitField0_ |= 0x00000002;
+        upperBound_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional double upper_bound = 2;</code>
+       *
+       * <pre>
+       * Inclusive.
+       * </pre>
+       */
+      public Builder clearUpperBound() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        upperBound_ = 0D;
+        onChanged();
+        return this;
+      }
+
+      private io.prometheus.client.Metrics.Exemplar exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          io.prometheus.client.Metrics.Exemplar, io.prometheus.client.Metrics.Exemplar.Builder, io.prometheus.client.Metrics.ExemplarOrBuilder> exemplarBuilder_;
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public boolean hasExemplar() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public io.prometheus.client.Metrics.Exemplar getExemplar() {
+        if (exemplarBuilder_ == null) {
+          return exemplar_;
+        } else {
+          return exemplarBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public Builder setExemplar(io.prometheus.client.Metrics.Exemplar value) {
+        if (exemplarBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          exemplar_ = value;
+          onChanged();
+        } else {
+          exemplarBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public Builder setExemplar(
+          io.prometheus.client.Metrics.Exemplar.Builder builderForValue) {
+        if (exemplarBuilder_ == null) {
+          exemplar_ = builderForValue.build();
+          onChanged();
+        } else {
+          exemplarBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public Builder mergeExemplar(io.prometheus.client.Metrics.Exemplar value) {
+        if (exemplarBuilder_ == null) {
+          if (((bitField0_ & 0x00000004) == 0x00000004) &&
+              exemplar_ != io.prometheus.client.Metrics.Exemplar.getDefaultInstance()) {
+            exemplar_ =
+              io.prometheus.client.Metrics.Exemplar.newBuilder(exemplar_).mergeFrom(value).buildPartial();
+          } else {
+            exemplar_ = value;
+          }
+          onChanged();
+        } else {
+          exemplarBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public Builder clearExemplar() {
+        if (exemplarBuilder_ == null) {
+          exemplar_ = io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+          onChanged();
+        } else {
+          exemplarBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public io.prometheus.client.Metrics.Exemplar.Builder getExemplarBuilder() {
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return getExemplarFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      public io.prometheus.client.Metrics.ExemplarOrBuilder getExemplarOrBuilder() {
+        if (exemplarBuilder_ != null) {
+          return exemplarBuilder_.getMessageOrBuilder();
+        } else {
+          return exemplar_;
+        }
+      }
+      /**
+       * <code>optional .io.prometheus.client.Exemplar exemplar = 3;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          io.prometheus.client.Metrics.Exemplar, io.prometheus.client.Metrics.Exemplar.Builder, io.prometheus.client.Metrics.ExemplarOrBuilder> 
+          getExemplarFieldBuilder() {
+        if (exemplarBuilder_ == null) {
+          exemplarBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              io.prometheus.client.Metrics.Exemplar, io.prometheus.client.Metrics.Exemplar.Builder, io.prometheus.client.Metrics.ExemplarOrBuilder>(
+                  getExemplar(),
+                  getParentForChildren(),
+                  isClean());
+          exemplar_ = null;
+        }
+        return exemplarBuilder_;
+      }
+
+      // @@protoc_insertion_point(builder_scope:io.prometheus.client.Bucket)
+    }
+
+    static {
+      defaultInstance = new Bucket(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:io.prometheus.client.Bucket)
+  }
+
+  public interface BucketSpanOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.prometheus.client.BucketSpan)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>optional sint32 offset = 1;</code>
+     *
+     * <pre>
+     * Gap to previous span, or starting point for 1st span (which can be negative).
+     * </pre>
+     */
+    boolean hasOffset();
+    /**
+     * <code>optional sint32 offset = 1;</code>
+     *
+     * <pre>
+     * Gap to previous span, or starting point for 1st span (which can be negative).
+     * </pre>
+     */
+    int getOffset();
+
+    /**
+     * <code>optional uint32 length = 2;</code>
+     *
+     * <pre>
+     * Length of consecutive buckets.
+     * </pre>
+     */
+    boolean hasLength();
+    /**
+     * <code>optional uint32 length = 2;</code>
+     *
+     * <pre>
+     * Length of consecutive buckets.
+     * </pre>
+     */
+    int getLength();
+  }
+  /**
+   * Protobuf type {@code io.prometheus.client.BucketSpan}
+   *
+   * <pre>
+   * A BucketSpan defines a number of consecutive buckets in a native
+   * histogram with their offset. Logically, it would be more
+   * straightforward to include the bucket counts in the Span. However,
+   * the protobuf representation is more compact in the way the data is
+   * structured here (with all the buckets in a single array separate
+   * from the Spans).
+   * </pre>
+   */
+  public static final class BucketSpan extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:io.prometheus.client.BucketSpan)
+      BucketSpanOrBuilder {
+    // Use BucketSpan.newBuilder() to construct.
+    private BucketSpan(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private BucketSpan(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final BucketSpan defaultInstance;
+    public static BucketSpan getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public BucketSpan getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private BucketSpan(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 8: {
+              bitField0_ |= 0x00000001;
+              offset_ = input.readSInt32();
+              break;
+            }
+            case 16: {
+              bitField0_ |= 0x00000002;
+              length_ = input.readUInt32();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_BucketSpan_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_BucketSpan_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              io.prometheus.client.Metrics.BucketSpan.class, io.prometheus.client.Metrics.BucketSpan.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<BucketSpan> PARSER =
+        new com.google.protobuf.AbstractParser<BucketSpan>() {
+      public BucketSpan parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new BucketSpan(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<BucketSpan> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int OFFSET_FIELD_NUMBER = 1;
+    private int offset_;
+    /**
+     * <code>optional sint32 offset = 1;</code>
+     *
+     * <pre>
+     * Gap to previous span, or starting point for 1st span (which can be negative).
+     * </pre>
+     */
+    public boolean hasOffset() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional sint32 offset = 1;</code>
+     *
+     * <pre>
+     * Gap to previous span, or starting point for 1st span (which can be negative).
+     * </pre>
+     */
+    public int getOffset() {
+      return offset_;
+    }
+
+    public static final int LENGTH_FIELD_NUMBER = 2;
+    private int length_;
+    /**
+     * <code>optional uint32 length = 2;</code>
+     *
+     * <pre>
+     * Length of consecutive buckets.
+     * </pre>
+     */
+    public boolean hasLength() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional uint32 length = 2;</code>
+     *
+     * <pre>
+     * Length of consecutive buckets.
+     * </pre>
+     */
+    public int getLength() {
+      return length_;
+    }
+
+    private void initFields() {
+      offset_ = 0;
+      length_ = 0;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeSInt32(1, offset_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeUInt32(2, length_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeSInt32Size(1, offset_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeUInt32Size(2, length_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static io.prometheus.client.Metrics.BucketSpan parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(io.prometheus.client.Metrics.BucketSpan prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code io.prometheus.client.BucketSpan}
+     *
+     * <pre>
+     * A BucketSpan defines a number of consecutive buckets in a native
+     * histogram with their offset. Logically, it would be more
+     * straightforward to include the bucket counts in the Span. However,
+     * the protobuf representation is more compact in the way the data is
+     * structured here (with all the buckets in a single array separate
+     * from the Spans).
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:io.prometheus.client.BucketSpan)
+        io.prometheus.client.Metrics.BucketSpanOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_BucketSpan_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_BucketSpan_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                io.prometheus.client.Metrics.BucketSpan.class, io.prometheus.client.Metrics.BucketSpan.Builder.class);
+      }
+
+      // Construct using io.prometheus.client.Metrics.BucketSpan.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        offset_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000001);
+        length_ = 0;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_BucketSpan_descriptor;
+      }
+
+      public io.prometheus.client.Metrics.BucketSpan getDefaultInstanceForType() {
+        return io.prometheus.client.Metrics.BucketSpan.getDefaultInstance();
+      }
+
+      public io.prometheus.client.Metrics.BucketSpan build() {
+        io.prometheus.client.Metrics.BucketSpan result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public io.prometheus.client.Metrics.BucketSpan buildPartial() {
+        io.prometheus.client.Metrics.BucketSpan result = new io.prometheus.client.Metrics.BucketSpan(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.offset_ = offset_;
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.length_ = length_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof io.prometheus.client.Metrics.BucketSpan) {
+          return mergeFrom((io.prometheus.client.Metrics.BucketSpan)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(io.prometheus.client.Metrics.BucketSpan other) {
+        if (other == io.prometheus.client.Metrics.BucketSpan.getDefaultInstance()) return this;
+        if (other.hasOffset()) {
+          setOffset(other.getOffset());
+        }
+        if (other.hasLength()) {
+          setLength(other.getLength());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        io.prometheus.client.Metrics.BucketSpan parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (io.prometheus.client.Metrics.BucketSpan) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private int offset_ ;
+      /**
+       * <code>optional sint32 offset = 1;</code>
+       *
+       * <pre>
+       * Gap to previous span, or starting point for 1st span (which can be negative).
+       * </pre>
+       */
+      public boolean hasOffset() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional sint32 offset = 1;</code>
+       *
+       * <pre>
+       * Gap to previous span, or starting point for 1st span (which can be negative).
+       * </pre>
+       */
+      public int getOffset() {
+        return offset_;
+      }
+      /**
+       * <code>optional sint32 offset = 1;</code>
+       *
+       * <pre>
+       * Gap to previous span, or starting point for 1st span (which can be negative).
+       * </pre>
+       */
+      public Builder setOffset(int value) {
+        bitField0_ |= 0x00000001;
+        offset_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional sint32 offset = 1;</code>
+       *
+       * <pre>
+       * Gap to previous span, or starting point for 1st span (which can be negative).
+       * </pre>
+       */
+      public Builder clearOffset() {
+        bitField0_ = (bitField0_ & ~0x00000001);
+        offset_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private int length_ ;
+      /**
+       * <code>optional uint32 length = 2;</code>
+       *
+       * <pre>
+       * Length of consecutive buckets.
+       * </pre>
+       */
+      public boolean hasLength() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional uint32 length = 2;</code>
+       *
+       * <pre>
+       * Length of consecutive buckets.
+       * </pre>
+       */
+      public int getLength() {
+        return length_;
+      }
+      /**
+       * <code>optional uint32 length = 2;</code>
+       *
+       * <pre>
+       * Length of consecutive buckets.
+       * </pre>
+       */
+      public Builder setLength(int value) {
+        bitField0_ |= 0x00000002;
+        length_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional uint32 length = 2;</code>
+       *
+       * <pre>
+       * Length of consecutive buckets.
+       * </pre>
+       */
+      public Builder clearLength() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        length_ = 0;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:io.prometheus.client.BucketSpan)
+    }
+
+    static {
+      defaultInstance = new BucketSpan(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:io.prometheus.client.BucketSpan)
+  }
+
+  public interface ExemplarOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.prometheus.client.Exemplar)
+      com.google.protobuf.MessageOrBuilder {
+
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    java.util.List<io.prometheus.client.Metrics.LabelPair> 
+        getLabelList();
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    io.prometheus.client.Metrics.LabelPair getLabel(int index);
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    int getLabelCount();
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    java.util.List<? extends io.prometheus.client.Metrics.LabelPairOrBuilder> 
+        getLabelOrBuilderList();
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    io.prometheus.client.Metrics.LabelPairOrBuilder getLabelOrBuilder(
+        int index);
+
+    /**
+     * <code>optional double value = 2;</code>
+     */
+    boolean hasValue();
+    /**
+     * <code>optional double value = 2;</code>
+     */
+    double getValue();
+
+    /**
+     * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+     *
+     * <pre>
+     * OpenMetrics-style.
+     * </pre>
+     */
+    boolean hasTimestamp();
+    /**
+     * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+     *
+     * <pre>
+     * OpenMetrics-style.
+     * </pre>
+     */
+    io.prometheus.client.Metrics.Timestamp getTimestamp();
+    /**
+     * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+     *
+     * <pre>
+     * OpenMetrics-style.
+     * </pre>
+     */
+    io.prometheus.client.Metrics.TimestampOrBuilder getTimestampOrBuilder();
+  }
+  /**
+   * Protobuf type {@code io.prometheus.client.Exemplar}
+   */
+  public static final class Exemplar extends
+      com.google.protobuf.GeneratedMessage implements
+      // @@protoc_insertion_point(message_implements:io.prometheus.client.Exemplar)
+      ExemplarOrBuilder {
+    // Use Exemplar.newBuilder() to construct.
+    private Exemplar(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private Exemplar(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final Exemplar defaultInstance;
+    public static Exemplar getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public Exemplar getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private Exemplar(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              if (!((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+                label_ = new java.util.ArrayList<io.prometheus.client.Metrics.LabelPair>();
+                mutable_bitField0_ |= 0x00000001;
+              }
+              label_.add(input.readMessage(io.prometheus.client.Metrics.LabelPair.PARSER, extensionRegistry));
+              break;
+            }
+            case 17: {
+              bitField0_ |= 0x00000001;
+              value_ = input.readDouble();
+              break;
+            }
+            case 26: {
+              io.prometheus.client.Metrics.Timestamp.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000002) == 0x00000002)) {
+                subBuilder = timestamp_.toBuilder();
+              }
+              timestamp_ = input.readMessage(io.prometheus.client.Metrics.Timestamp.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(timestamp_);
+                timestamp_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000002;
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        if (((mutable_bitField0_ & 0x00000001) == 0x00000001)) {
+          label_ = java.util.Collections.unmodifiableList(label_);
+        }
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Exemplar_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Exemplar_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              io.prometheus.client.Metrics.Exemplar.class, io.prometheus.client.Metrics.Exemplar.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<Exemplar> PARSER =
+        new com.google.protobuf.AbstractParser<Exemplar>() {
+      public Exemplar parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new Exemplar(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<Exemplar> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    public static final int LABEL_FIELD_NUMBER = 1;
+    private java.util.List<io.prometheus.client.Metrics.LabelPair> label_;
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    public java.util.List<io.prometheus.client.Metrics.LabelPair> getLabelList() {
+      return label_;
+    }
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    public java.util.List<? extends io.prometheus.client.Metrics.LabelPairOrBuilder> 
+        getLabelOrBuilderList() {
+      return label_;
+    }
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    public int getLabelCount() {
+      return label_.size();
+    }
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    public io.prometheus.client.Metrics.LabelPair getLabel(int index) {
+      return label_.get(index);
+    }
+    /**
+     * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+     */
+    public io.prometheus.client.Metrics.LabelPairOrBuilder getLabelOrBuilder(
+        int index) {
+      return label_.get(index);
+    }
+
+    public static final int VALUE_FIELD_NUMBER = 2;
+    private double value_;
+    /**
+     * <code>optional double value = 2;</code>
+     */
+    public boolean hasValue() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional double value = 2;</code>
+     */
+    public double getValue() {
+      return value_;
+    }
+
+    public static final int TIMESTAMP_FIELD_NUMBER = 3;
+    private io.prometheus.client.Metrics.Timestamp timestamp_;
+    /**
+     * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+     *
+     * <pre>
+     * OpenMetrics-style.
+     * </pre>
+     */
+    public boolean hasTimestamp() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+     *
+     * <pre>
+     * OpenMetrics-style.
+     * </pre>
+     */
+    public io.prometheus.client.Metrics.Timestamp getTimestamp() {
+      return timestamp_;
+    }
+    /**
+     * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+     *
+     * <pre>
+     * OpenMetrics-style.
+     * </pre>
+     */
+    public io.prometheus.client.Metrics.TimestampOrBuilder getTimestampOrBuilder() {
+      return timestamp_;
+    }
+
+    private void initFields() {
+      label_ = java.util.Collections.emptyList();
+      value_ = 0D;
+      timestamp_ = io.prometheus.client.Metrics.Timestamp.getDefaultInstance();
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized == 1) return true;
+      if (isInitialized == 0) return false;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      for (int i = 0; i < label_.size(); i++) {
+        output.writeMessage(1, label_.get(i));
+      }
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeDouble(2, value_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeMessage(3, timestamp_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      for (int i = 0; i < label_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, label_.get(i));
+      }
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeDoubleSize(2, value_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(3, timestamp_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static io.prometheus.client.Metrics.Exemplar parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(io.prometheus.client.Metrics.Exemplar prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code io.prometheus.client.Exemplar}
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder> implements
+        // @@protoc_insertion_point(builder_implements:io.prometheus.client.Exemplar)
+        io.prometheus.client.Metrics.ExemplarOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Exemplar_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Exemplar_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                io.prometheus.client.Metrics.Exemplar.class, io.prometheus.client.Metrics.Exemplar.Builder.class);
+      }
+
+      // Construct using io.prometheus.client.Metrics.Exemplar.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getLabelFieldBuilder();
+          getTimestampFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (labelBuilder_ == null) {
+          label_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+        } else {
+          labelBuilder_.clear();
+        }
+        value_ = 0D;
+        bitField0_ = (bitField0_ & ~0x00000002);
+        if (timestampBuilder_ == null) {
+          timestamp_ = io.prometheus.client.Metrics.Timestamp.getDefaultInstance();
+        } else {
+          timestampBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Exemplar_descriptor;
+      }
+
+      public io.prometheus.client.Metrics.Exemplar getDefaultInstanceForType() {
+        return io.prometheus.client.Metrics.Exemplar.getDefaultInstance();
+      }
+
+      public io.prometheus.client.Metrics.Exemplar build() {
+        io.prometheus.client.Metrics.Exemplar result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public io.prometheus.client.Metrics.Exemplar buildPartial() {
+        io.prometheus.client.Metrics.Exemplar result = new io.prometheus.client.Metrics.Exemplar(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (labelBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001)) {
+            label_ = java.util.Collections.unmodifiableList(label_);
+            bitField0_ = (bitField0_ & ~0x00000001);
+          }
+          result.label_ = label_;
+        } else {
+          result.label_ = labelBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        result.value_ = value_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        if (timestampBuilder_ == null) {
+          result.timestamp_ = timestamp_;
+        } else {
+          result.timestamp_ = timestampBuilder_.build();
+        }
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof io.prometheus.client.Metrics.Exemplar) {
+          return mergeFrom((io.prometheus.client.Metrics.Exemplar)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(io.prometheus.client.Metrics.Exemplar other) {
+        if (other == io.prometheus.client.Metrics.Exemplar.getDefaultInstance()) return this;
+        if (labelBuilder_ == null) {
+          if (!other.label_.isEmpty()) {
+            if (label_.isEmpty()) {
+              label_ = other.label_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+            } else {
+              ensureLabelIsMutable();
+              label_.addAll(other.label_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.label_.isEmpty()) {
+            if (labelBuilder_.isEmpty()) {
+              labelBuilder_.dispose();
+              labelBuilder_ = null;
+              label_ = other.label_;
+              bitField0_ = (bitField0_ & ~0x00000001);
+              labelBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getLabelFieldBuilder() : null;
+            } else {
+              labelBuilder_.addAllMessages(other.label_);
+            }
+          }
+        }
+        if (other.hasValue()) {
+          setValue(other.getValue());
+        }
+        if (other.hasTimestamp()) {
+          mergeTimestamp(other.getTimestamp());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        io.prometheus.client.Metrics.Exemplar parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (io.prometheus.client.Metrics.Exemplar) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      private java.util.List<io.prometheus.client.Metrics.LabelPair> label_ =
+        java.util.Collections.emptyList();
+      private void ensureLabelIsMutable() {
+        if (!((bitField0_ & 0x00000001) == 0x00000001)) {
+          label_ = new java.util.ArrayList<io.prometheus.client.Metrics.LabelPair>(label_);
+          bitField0_ |= 0x00000001;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.LabelPair, io.prometheus.client.Metrics.LabelPair.Builder, io.prometheus.client.Metrics.LabelPairOrBuilder> labelBuilder_;
+
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public java.util.List<io.prometheus.client.Metrics.LabelPair> getLabelList() {
+        if (labelBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(label_);
+        } else {
+          return labelBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public int getLabelCount() {
+        if (labelBuilder_ == null) {
+          return label_.size();
+        } else {
+          return labelBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public io.prometheus.client.Metrics.LabelPair getLabel(int index) {
+        if (labelBuilder_ == null) {
+          return label_.get(index);
+        } else {
+          return labelBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder setLabel(
+          int index, io.prometheus.client.Metrics.LabelPair value) {
+        if (labelBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureLabelIsMutable();
+          label_.set(index, value);
+          onChanged();
+        } else {
+          labelBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder setLabel(
+          int index, io.prometheus.client.Metrics.LabelPair.Builder builderForValue) {
+        if (labelBuilder_ == null) {
+          ensureLabelIsMutable();
+          label_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          labelBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder addLabel(io.prometheus.client.Metrics.LabelPair value) {
+        if (labelBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureLabelIsMutable();
+          label_.add(value);
+          onChanged();
+        } else {
+          labelBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder addLabel(
+          int index, io.prometheus.client.Metrics.LabelPair value) {
+        if (labelBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureLabelIsMutable();
+          label_.add(index, value);
+          onChanged();
+        } else {
+          labelBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder addLabel(
+          io.prometheus.client.Metrics.LabelPair.Builder builderForValue) {
+        if (labelBuilder_ == null) {
+          ensureLabelIsMutable();
+          label_.add(builderForValue.build());
+          onChanged();
+        } else {
+          labelBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder addLabel(
+          int index, io.prometheus.client.Metrics.LabelPair.Builder builderForValue) {
+        if (labelBuilder_ == null) {
+          ensureLabelIsMutable();
+          label_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          labelBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder addAllLabel(
+          java.lang.Iterable<? extends io.prometheus.client.Metrics.LabelPair> values) {
+        if (labelBuilder_ == null) {
+          ensureLabelIsMutable();
+          com.google.protobuf.AbstractMessageLite.Builder.addAll(
+              values, label_);
+          onChanged();
+        } else {
+          labelBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder clearLabel() {
+        if (labelBuilder_ == null) {
+          label_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000001);
+          onChanged();
+        } else {
+          labelBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public Builder removeLabel(int index) {
+        if (labelBuilder_ == null) {
+          ensureLabelIsMutable();
+          label_.remove(index);
+          onChanged();
+        } else {
+          labelBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public io.prometheus.client.Metrics.LabelPair.Builder getLabelBuilder(
+          int index) {
+        return getLabelFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public io.prometheus.client.Metrics.LabelPairOrBuilder getLabelOrBuilder(
+          int index) {
+        if (labelBuilder_ == null) {
+          return label_.get(index);  } else {
+          return labelBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public java.util.List<? extends io.prometheus.client.Metrics.LabelPairOrBuilder> 
+           getLabelOrBuilderList() {
+        if (labelBuilder_ != null) {
+          return labelBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(label_);
+        }
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public io.prometheus.client.Metrics.LabelPair.Builder addLabelBuilder() {
+        return getLabelFieldBuilder().addBuilder(
+            io.prometheus.client.Metrics.LabelPair.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public io.prometheus.client.Metrics.LabelPair.Builder addLabelBuilder(
+          int index) {
+        return getLabelFieldBuilder().addBuilder(
+            index, io.prometheus.client.Metrics.LabelPair.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .io.prometheus.client.LabelPair label = 1;</code>
+       */
+      public java.util.List<io.prometheus.client.Metrics.LabelPair.Builder> 
+           getLabelBuilderList() {
+        return getLabelFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          io.prometheus.client.Metrics.LabelPair, io.prometheus.client.Metrics.LabelPair.Builder, io.prometheus.client.Metrics.LabelPairOrBuilder> 
+          getLabelFieldBuilder() {
+        if (labelBuilder_ == null) {
+          labelBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              io.prometheus.client.Metrics.LabelPair, io.prometheus.client.Metrics.LabelPair.Builder, io.prometheus.client.Metrics.LabelPairOrBuilder>(
+                  label_,
+                  ((bitField0_ & 0x00000001) == 0x00000001),
+                  getParentForChildren(),
+                  isClean());
+          label_ = null;
+        }
+        return labelBuilder_;
+      }
+
+      private double value_ ;
+      /**
+       * <code>optional double value = 2;</code>
+       */
+      public boolean hasValue() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional double value = 2;</code>
+       */
+      public double getValue() {
+        return value_;
+      }
+      /**
+       * <code>optional double value = 2;</code>
+       */
+      public Builder setValue(double value) {
+        bitField0_ |= 0x00000002;
+        value_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional double value = 2;</code>
+       */
+      public Builder clearValue() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        value_ = 0D;
+        onChanged();
+        return this;
+      }
+
+      private io.prometheus.client.Metrics.Timestamp timestamp_ = io.prometheus.client.Metrics.Timestamp.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          io.prometheus.client.Metrics.Timestamp, io.prometheus.client.Metrics.Timestamp.Builder, io.prometheus.client.Metrics.TimestampOrBuilder> timestampBuilder_;
+      /**
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+       *
+       * <pre>
+       * OpenMetrics-style.
+       * </pre>
+       */
+      public boolean hasTimestamp() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+       *
+       * <pre>
+       * OpenMetrics-style.
+       * </pre>
+       */
+      public io.prometheus.client.Metrics.Timestamp getTimestamp() {
+        if (timestampBuilder_ == null) {
+          return timestamp_;
+        } else {
+          return timestampBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+       *
+       * <pre>
+       * OpenMetrics-style.
+       * </pre>
+       */
+      public Builder setTimestamp(io.prometheus.client.Metrics.Timestamp value) {
+        if (timestampBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          timestamp_ = value;
+          onChanged();
+        } else {
+          timestampBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+       *
+       * <pre>
+       * OpenMetrics-style.
+       * </pre>
+       */
+      public Builder setTimestamp(
+          io.prometheus.client.Metrics.Timestamp.Builder builderForValue) {
+        if (timestampBuilder_ == null) {
+          timestamp_ = builderForValue.build();
+          onChanged();
+        } else {
+          timestampBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
+       *
+       * <pre>
+       * OpenMetrics-style.
+       * </pre>
+       */
+      public Builder mergeTimestamp(io.prometheus.client.Metrics.Timestamp value) {
+        if (timestampBuilder_ == null) {
+          if (((bitField0_ & 0x00000004) == 0x00000004) &&
+              timestamp_ != io.prometheus.client.Metrics.Timestamp.getDefaultInstance()) {
+            timestamp_ =
+              io.prometheus.client.Metrics.Timestamp.newBuilder(timestamp_).mergeFrom(value).buildPartial();
+          } else {
+            timestamp_ = value;
+          }
+          onChanged();
+        } else {
+          timestampBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000004;
+        return this;
+      }
+      /**
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
        *
        * <pre>
-       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * OpenMetrics-style.
        * </pre>
        */
-      public java.util.List<? extends io.prometheus.client.Metrics.BucketOrBuilder> 
-           getBucketOrBuilderList() {
-        if (bucketBuilder_ != null) {
-          return bucketBuilder_.getMessageOrBuilderList();
+      public Builder clearTimestamp() {
+        if (timestampBuilder_ == null) {
+          timestamp_ = io.prometheus.client.Metrics.Timestamp.getDefaultInstance();
+          onChanged();
         } else {
-          return java.util.Collections.unmodifiableList(bucket_);
+          timestampBuilder_.clear();
         }
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
       }
       /**
-       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
        *
        * <pre>
-       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * OpenMetrics-style.
        * </pre>
        */
-      public io.prometheus.client.Metrics.Bucket.Builder addBucketBuilder() {
-        return getBucketFieldBuilder().addBuilder(
-            io.prometheus.client.Metrics.Bucket.getDefaultInstance());
+      public io.prometheus.client.Metrics.Timestamp.Builder getTimestampBuilder() {
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return getTimestampFieldBuilder().getBuilder();
       }
       /**
-       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
        *
        * <pre>
-       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * OpenMetrics-style.
        * </pre>
        */
-      public io.prometheus.client.Metrics.Bucket.Builder addBucketBuilder(
-          int index) {
-        return getBucketFieldBuilder().addBuilder(
-            index, io.prometheus.client.Metrics.Bucket.getDefaultInstance());
+      public io.prometheus.client.Metrics.TimestampOrBuilder getTimestampOrBuilder() {
+        if (timestampBuilder_ != null) {
+          return timestampBuilder_.getMessageOrBuilder();
+        } else {
+          return timestamp_;
+        }
       }
       /**
-       * <code>repeated .io.prometheus.client.Bucket bucket = 3;</code>
+       * <code>optional .io.prometheus.client.Timestamp timestamp = 3;</code>
        *
        * <pre>
-       * Ordered in increasing order of upper_bound, +Inf bucket is optional.
+       * OpenMetrics-style.
        * </pre>
        */
-      public java.util.List<io.prometheus.client.Metrics.Bucket.Builder> 
-           getBucketBuilderList() {
-        return getBucketFieldBuilder().getBuilderList();
-      }
-      private com.google.protobuf.RepeatedFieldBuilder<
-          io.prometheus.client.Metrics.Bucket, io.prometheus.client.Metrics.Bucket.Builder, io.prometheus.client.Metrics.BucketOrBuilder> 
-          getBucketFieldBuilder() {
-        if (bucketBuilder_ == null) {
-          bucketBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
-              io.prometheus.client.Metrics.Bucket, io.prometheus.client.Metrics.Bucket.Builder, io.prometheus.client.Metrics.BucketOrBuilder>(
-                  bucket_,
-                  ((bitField0_ & 0x00000004) == 0x00000004),
+      private com.google.protobuf.SingleFieldBuilder<
+          io.prometheus.client.Metrics.Timestamp, io.prometheus.client.Metrics.Timestamp.Builder, io.prometheus.client.Metrics.TimestampOrBuilder> 
+          getTimestampFieldBuilder() {
+        if (timestampBuilder_ == null) {
+          timestampBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              io.prometheus.client.Metrics.Timestamp, io.prometheus.client.Metrics.Timestamp.Builder, io.prometheus.client.Metrics.TimestampOrBuilder>(
+                  getTimestamp(),
                   getParentForChildren(),
                   isClean());
-          bucket_ = null;
+          timestamp_ = null;
         }
-        return bucketBuilder_;
+        return timestampBuilder_;
       }
 
-      // @@protoc_insertion_point(builder_scope:io.prometheus.client.Histogram)
+      // @@protoc_insertion_point(builder_scope:io.prometheus.client.Exemplar)
     }
 
     static {
-      defaultInstance = new Histogram(true);
+      defaultInstance = new Exemplar(true);
       defaultInstance.initFields();
     }
 
-    // @@protoc_insertion_point(class_scope:io.prometheus.client.Histogram)
+    // @@protoc_insertion_point(class_scope:io.prometheus.client.Exemplar)
   }
 
-  public interface BucketOrBuilder extends
-      // @@protoc_insertion_point(interface_extends:io.prometheus.client.Bucket)
+  public interface TimestampOrBuilder extends
+      // @@protoc_insertion_point(interface_extends:io.prometheus.client.Timestamp)
       com.google.protobuf.MessageOrBuilder {
 
     /**
-     * <code>optional uint64 cumulative_count = 1;</code>
-     *
-     * <pre>
-     * Cumulative in increasing order.
-     * </pre>
+     * <code>optional int64 seconds = 1;</code>
      */
-    boolean hasCumulativeCount();
+    boolean hasSeconds();
     /**
-     * <code>optional uint64 cumulative_count = 1;</code>
-     *
-     * <pre>
-     * Cumulative in increasing order.
-     * </pre>
+     * <code>optional int64 seconds = 1;</code>
      */
-    long getCumulativeCount();
+    long getSeconds();
 
     /**
-     * <code>optional double upper_bound = 2;</code>
-     *
-     * <pre>
-     * Inclusive.
-     * </pre>
+     * <code>optional int32 nanos = 2;</code>
      */
-    boolean hasUpperBound();
+    boolean hasNanos();
     /**
-     * <code>optional double upper_bound = 2;</code>
-     *
-     * <pre>
-     * Inclusive.
-     * </pre>
+     * <code>optional int32 nanos = 2;</code>
      */
-    double getUpperBound();
+    int getNanos();
   }
   /**
-   * Protobuf type {@code io.prometheus.client.Bucket}
+   * Protobuf type {@code io.prometheus.client.Timestamp}
+   *
+   * <pre>
+   * The same fields as google.protobuf.Timestamp, which is not available in protobuf 2.
+   * </pre>
    */
-  public static final class Bucket extends
+  public static final class Timestamp extends
       com.google.protobuf.GeneratedMessage implements
-      // @@protoc_insertion_point(message_implements:io.prometheus.client.Bucket)
-      BucketOrBuilder {
-    // Use Bucket.newBuilder() to construct.
-    private Bucket(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      // @@protoc_insertion_point(message_implements:io.prometheus.client.Timestamp)
+      TimestampOrBuilder {
+    // Use Timestamp.newBuilder() to construct.
+    private Timestamp(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
       super(builder);
       this.unknownFields = builder.getUnknownFields();
     }
-    private Bucket(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+    private Timestamp(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
 
-    private static final Bucket defaultInstance;
-    public static Bucket getDefaultInstance() {
+    private static final Timestamp defaultInstance;
+    public static Timestamp getDefaultInstance() {
       return defaultInstance;
     }
 
-    public Bucket getDefaultInstanceForType() {
+    public Timestamp getDefaultInstanceForType() {
       return defaultInstance;
     }
 
@@ -4266,7 +8480,7 @@ public final class Metrics {
         getUnknownFields() {
       return this.unknownFields;
     }
-    private Bucket(
+    private Timestamp(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
@@ -4291,12 +8505,12 @@ public final class Metrics {
             }
             case 8: {
               bitField0_ |= 0x00000001;
-              cumulativeCount_ = input.readUInt64();
+              seconds_ = input.readInt64();
               break;
             }
-            case 17: {
+            case 16: {
               bitField0_ |= 0x00000002;
-              upperBound_ = input.readDouble();
+              nanos_ = input.readInt32();
               break;
             }
           }
@@ -4313,81 +8527,65 @@ public final class Metrics {
     }
     public static final com.google.protobuf.Descriptors.Descriptor
         getDescriptor() {
-      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_descriptor;
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Timestamp_descriptor;
     }
 
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
-      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_fieldAccessorTable
+      return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Timestamp_fieldAccessorTable
           .ensureFieldAccessorsInitialized(
-              io.prometheus.client.Metrics.Bucket.class, io.prometheus.client.Metrics.Bucket.Builder.class);
+              io.prometheus.client.Metrics.Timestamp.class, io.prometheus.client.Metrics.Timestamp.Builder.class);
     }
 
-    public static com.google.protobuf.Parser<Bucket> PARSER =
-        new com.google.protobuf.AbstractParser<Bucket>() {
-      public Bucket parsePartialFrom(
+    public static com.google.protobuf.Parser<Timestamp> PARSER =
+        new com.google.protobuf.AbstractParser<Timestamp>() {
+      public Timestamp parsePartialFrom(
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws com.google.protobuf.InvalidProtocolBufferException {
-        return new Bucket(input, extensionRegistry);
+        return new Timestamp(input, extensionRegistry);
       }
     };
 
     @java.lang.Override
-    public com.google.protobuf.Parser<Bucket> getParserForType() {
+    public com.google.protobuf.Parser<Timestamp> getParserForType() {
       return PARSER;
     }
 
     private int bitField0_;
-    public static final int CUMULATIVE_COUNT_FIELD_NUMBER = 1;
-    private long cumulativeCount_;
+    public static final int SECONDS_FIELD_NUMBER = 1;
+    private long seconds_;
     /**
-     * <code>optional uint64 cumulative_count = 1;</code>
-     *
-     * <pre>
-     * Cumulative in increasing order.
-     * </pre>
+     * <code>optional int64 seconds = 1;</code>
      */
-    public boolean hasCumulativeCount() {
+    public boolean hasSeconds() {
       return ((bitField0_ & 0x00000001) == 0x00000001);
     }
     /**
-     * <code>optional uint64 cumulative_count = 1;</code>
-     *
-     * <pre>
-     * Cumulative in increasing order.
-     * </pre>
+     * <code>optional int64 seconds = 1;</code>
      */
-    public long getCumulativeCount() {
-      return cumulativeCount_;
+    public long getSeconds() {
+      return seconds_;
     }
 
-    public static final int UPPER_BOUND_FIELD_NUMBER = 2;
-    private double upperBound_;
+    public static final int NANOS_FIELD_NUMBER = 2;
+    private int nanos_;
     /**
-     * <code>optional double upper_bound = 2;</code>
-     *
-     * <pre>
-     * Inclusive.
-     * </pre>
+     * <code>optional int32 nanos = 2;</code>
      */
-    public boolean hasUpperBound() {
+    public boolean hasNanos() {
       return ((bitField0_ & 0x00000002) == 0x00000002);
     }
     /**
-     * <code>optional double upper_bound = 2;</code>
-     *
-     * <pre>
-     * Inclusive.
-     * </pre>
+     * <code>optional int32 nanos = 2;</code>
      */
-    public double getUpperBound() {
-      return upperBound_;
+    public int getNanos() {
+      return nanos_;
     }
 
     private void initFields() {
-      cumulativeCount_ = 0L;
-      upperBound_ = 0D;
+      seconds_ = 0L;
+      nanos_ = 0;
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -4403,10 +8601,10 @@ public final class Metrics {
                         throws java.io.IOException {
       getSerializedSize();
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
-        output.writeUInt64(1, cumulativeCount_);
+        output.writeInt64(1, seconds_);
       }
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
-        output.writeDouble(2, upperBound_);
+        output.writeInt32(2, nanos_);
       }
       getUnknownFields().writeTo(output);
     }
@@ -4419,11 +8617,11 @@ public final class Metrics {
       size = 0;
       if (((bitField0_ & 0x00000001) == 0x00000001)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeUInt64Size(1, cumulativeCount_);
+          .computeInt64Size(1, seconds_);
       }
       if (((bitField0_ & 0x00000002) == 0x00000002)) {
         size += com.google.protobuf.CodedOutputStream
-          .computeDoubleSize(2, upperBound_);
+          .computeInt32Size(2, nanos_);
       }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
@@ -4437,53 +8635,53 @@ public final class Metrics {
       return super.writeReplace();
     }
 
-    public static io.prometheus.client.Metrics.Bucket parseFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(
         com.google.protobuf.ByteString data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(
         com.google.protobuf.ByteString data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(byte[] data)
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(byte[] data)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(
         byte[] data,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws com.google.protobuf.InvalidProtocolBufferException {
       return PARSER.parseFrom(data, extensionRegistry);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(java.io.InputStream input)
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseFrom(input, extensionRegistry);
     }
-    public static io.prometheus.client.Metrics.Bucket parseDelimitedFrom(java.io.InputStream input)
+    public static io.prometheus.client.Metrics.Timestamp parseDelimitedFrom(java.io.InputStream input)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input);
     }
-    public static io.prometheus.client.Metrics.Bucket parseDelimitedFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseDelimitedFrom(
         java.io.InputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
       return PARSER.parseDelimitedFrom(input, extensionRegistry);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(
         com.google.protobuf.CodedInputStream input)
         throws java.io.IOException {
       return PARSER.parseFrom(input);
     }
-    public static io.prometheus.client.Metrics.Bucket parseFrom(
+    public static io.prometheus.client.Metrics.Timestamp parseFrom(
         com.google.protobuf.CodedInputStream input,
         com.google.protobuf.ExtensionRegistryLite extensionRegistry)
         throws java.io.IOException {
@@ -4492,7 +8690,7 @@ public final class Metrics {
 
     public static Builder newBuilder() { return Builder.create(); }
     public Builder newBuilderForType() { return newBuilder(); }
-    public static Builder newBuilder(io.prometheus.client.Metrics.Bucket prototype) {
+    public static Builder newBuilder(io.prometheus.client.Metrics.Timestamp prototype) {
       return newBuilder().mergeFrom(prototype);
     }
     public Builder toBuilder() { return newBuilder(this); }
@@ -4504,25 +8702,29 @@ public final class Metrics {
       return builder;
     }
     /**
-     * Protobuf type {@code io.prometheus.client.Bucket}
+     * Protobuf type {@code io.prometheus.client.Timestamp}
+     *
+     * <pre>
+     * The same fields as google.protobuf.Timestamp, which is not available in protobuf 2.
+     * </pre>
      */
     public static final class Builder extends
         com.google.protobuf.GeneratedMessage.Builder<Builder> implements
-        // @@protoc_insertion_point(builder_implements:io.prometheus.client.Bucket)
-        io.prometheus.client.Metrics.BucketOrBuilder {
+        // @@protoc_insertion_point(builder_implements:io.prometheus.client.Timestamp)
+        io.prometheus.client.Metrics.TimestampOrBuilder {
       public static final com.google.protobuf.Descriptors.Descriptor
           getDescriptor() {
-        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_descriptor;
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Timestamp_descriptor;
       }
 
       protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
           internalGetFieldAccessorTable() {
-        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_fieldAccessorTable
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Timestamp_fieldAccessorTable
             .ensureFieldAccessorsInitialized(
-                io.prometheus.client.Metrics.Bucket.class, io.prometheus.client.Metrics.Bucket.Builder.class);
+                io.prometheus.client.Metrics.Timestamp.class, io.prometheus.client.Metrics.Timestamp.Builder.class);
       }
 
-      // Construct using io.prometheus.client.Metrics.Bucket.newBuilder()
+      // Construct using io.prometheus.client.Metrics.Timestamp.newBuilder()
       private Builder() {
         maybeForceBuilderInitialization();
       }
@@ -4542,9 +8744,9 @@ public final class Metrics {
 
       public Builder clear() {
         super.clear();
-        cumulativeCount_ = 0L;
+        seconds_ = 0L;
         bitField0_ = (bitField0_ & ~0x00000001);
-        upperBound_ = 0D;
+        nanos_ = 0;
         bitField0_ = (bitField0_ & ~0x00000002);
         return this;
       }
@@ -4555,54 +8757,54 @@ public final class Metrics {
 
       public com.google.protobuf.Descriptors.Descriptor
           getDescriptorForType() {
-        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Bucket_descriptor;
+        return io.prometheus.client.Metrics.internal_static_io_prometheus_client_Timestamp_descriptor;
       }
 
-      public io.prometheus.client.Metrics.Bucket getDefaultInstanceForType() {
-        return io.prometheus.client.Metrics.Bucket.getDefaultInstance();
+      public io.prometheus.client.Metrics.Timestamp getDefaultInstanceForType() {
+        return io.prometheus.client.Metrics.Timestamp.getDefaultInstance();
       }
 
-      public io.prometheus.client.Metrics.Bucket build() {
-        io.prometheus.client.Metrics.Bucket result = buildPartial();
+      public io.prometheus.client.Metrics.Timestamp build() {
+        io.prometheus.client.Metrics.Timestamp result = buildPartial();
         if (!result.isInitialized()) {
           throw newUninitializedMessageException(result);
         }
         return result;
       }
 
-      public io.prometheus.client.Metrics.Bucket buildPartial() {
-        io.prometheus.client.Metrics.Bucket result = new io.prometheus.client.Metrics.Bucket(this);
+      public io.prometheus.client.Metrics.Timestamp buildPartial() {
+        io.prometheus.client.Metrics.Timestamp result = new io.prometheus.client.Metrics.Timestamp(this);
         int from_bitField0_ = bitField0_;
         int to_bitField0_ = 0;
         if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
           to_bitField0_ |= 0x00000001;
         }
-        result.cumulativeCount_ = cumulativeCount_;
+        result.seconds_ = seconds_;
         if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
           to_bitField0_ |= 0x00000002;
         }
-        result.upperBound_ = upperBound_;
+        result.nanos_ = nanos_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
       }
 
       public Builder mergeFrom(com.google.protobuf.Message other) {
-        if (other instanceof io.prometheus.client.Metrics.Bucket) {
-          return mergeFrom((io.prometheus.client.Metrics.Bucket)other);
+        if (other instanceof io.prometheus.client.Metrics.Timestamp) {
+          return mergeFrom((io.prometheus.client.Metrics.Timestamp)other);
         } else {
           super.mergeFrom(other);
           return this;
         }
       }
 
-      public Builder mergeFrom(io.prometheus.client.Metrics.Bucket other) {
-        if (other == io.prometheus.client.Metrics.Bucket.getDefaultInstance()) return this;
-        if (other.hasCumulativeCount()) {
-          setCumulativeCount(other.getCumulativeCount());
+      public Builder mergeFrom(io.prometheus.client.Metrics.Timestamp other) {
+        if (other == io.prometheus.client.Metrics.Timestamp.getDefaultInstance()) return this;
+        if (other.hasSeconds()) {
+          setSeconds(other.getSeconds());
         }
-        if (other.hasUpperBound()) {
-          setUpperBound(other.getUpperBound());
+        if (other.hasNanos()) {
+          setNanos(other.getNanos());
         }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
@@ -4616,11 +8818,11 @@ public final class Metrics {
           com.google.protobuf.CodedInputStream input,
           com.google.protobuf.ExtensionRegistryLite extensionRegistry)
           throws java.io.IOException {
-        io.prometheus.client.Metrics.Bucket parsedMessage = null;
+        io.prometheus.client.Metrics.Timestamp parsedMessage = null;
         try {
           parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
         } catch (com.google.protobuf.InvalidProtocolBufferException e) {
-          parsedMessage = (io.prometheus.client.Metrics.Bucket) e.getUnfinishedMessage();
+          parsedMessage = (io.prometheus.client.Metrics.Timestamp) e.getUnfinishedMessage();
           throw e;
         } finally {
           if (parsedMessage != null) {
@@ -4631,111 +8833,79 @@ public final class Metrics {
       }
       private int bitField0_;
 
-      private long cumulativeCount_ ;
+      private long seconds_ ;
       /**
-       * <code>optional uint64 cumulative_count = 1;</code>
-       *
-       * <pre>
-       * Cumulative in increasing order.
-       * </pre>
+       * <code>optional int64 seconds = 1;</code>
        */
-      public boolean hasCumulativeCount() {
+      public boolean hasSeconds() {
         return ((bitField0_ & 0x00000001) == 0x00000001);
       }
       /**
-       * <code>optional uint64 cumulative_count = 1;</code>
-       *
-       * <pre>
-       * Cumulative in increasing order.
-       * </pre>
+       * <code>optional int64 seconds = 1;</code>
        */
-      public long getCumulativeCount() {
-        return cumulativeCount_;
+      public long getSeconds() {
+        return seconds_;
       }
       /**
-       * <code>optional uint64 cumulative_count = 1;</code>
-       *
-       * <pre>
-       * Cumulative in increasing order.
-       * </pre>
+       * <code>optional int64 seconds = 1;</code>
        */
-      public Builder setCumulativeCount(long value) {
+      public Builder setSeconds(long value) {
         bitField0_ |= 0x00000001;
-        cumulativeCount_ = value;
+        seconds_ = value;
         onChanged();
         return this;
       }
       /**
-       * <code>optional uint64 cumulative_count = 1;</code>
-       *
-       * <pre>
-       * Cumulative in increasing order.
-       * </pre>
+       * <code>optional int64 seconds = 1;</code>
        */
-      public Builder clearCumulativeCount() {
+      public Builder clearSeconds() {
         bitField0_ = (bitField0_ & ~0x00000001);
-        cumulativeCount_ = 0L;
+        seconds_ = 0L;
         onChanged();
         return this;
       }
 
-      private double upperBound_ ;
+      private int nanos_ ;
       /**
-       * <code>optional double upper_bound = 2;</code>
-       *
-       * <pre>
-       * Inclusive.
-       * </pre>
+       * <code>optional int32 nanos = 2;</code>
        */
-      public boolean hasUpperBound() {
+      public boolean hasNanos() {
         return ((bitField0_ & 0x00000002) == 0x00000002);
       }
       /**
-       * <code>optional double upper_bound = 2;</code>
-       *
-       * <pre>
-       * Inclusive.
-       * </pre>
+       * <code>optional int32 nanos = 2;</code>
        */
-      public double getUpperBound() {
-        return upperBound_;
+      public int getNanos() {
+        return nanos_;
       }
       /**
-       * <code>optional double upper_bound = 2;</code>
-       *
-       * <pre>
-       * Inclusive.
-       * </pre>
+       * <code>optional int32 nanos = 2;</code>
        */
-      public Builder setUpperBound(double value) {
+      public Builder setNanos(int value) {
         bitField0_ |= 0x00000002;
-        upperBound_ = value;
+        nanos_ = value;
         onChanged();
         return this;
       }
       /**
-       * <code>optional double upper_bound = 2;</code>
-       *
-       * <pre>
-       * Inclusive.
-       * </pre>
+       * <code>optional int32 nanos = 2;</code>
        */
-      public Builder clearUpperBound() {
+      public Builder clearNanos() {
         bitField0_ = (bitField0_ & ~0x00000002);
-        upperBound_ = 0D;
+        nanos_ = 0;
         onChanged();
         return this;
       }
 
-      // @@protoc_insertion_point(builder_scope:io.prometheus.client.Bucket)
+      // @@protoc_insertion_point(builder_scope:io.prometheus.client.Timestamp)
     }
 
     static {
-      defaultInstance = new Bucket(true);
+      defaultInstance = new Timestamp(true);
       defaultInstance.initFields();
     }
 
-    // @@protoc_insertion_point(class_scope:io.prometheus.client.Bucket)
+    // @@protoc_insertion_point(class_scope:io.prometheus.client.Timestamp)
   }
 
   public interface MetricOrBuilder extends
@@ -7560,6 +11730,21 @@ public final class Metrics {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_io_prometheus_client_Bucket_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_io_prometheus_client_BucketSpan_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_io_prometheus_client_BucketSpan_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_io_prometheus_client_Exemplar_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_io_prometheus_client_Exemplar_fieldAccessorTable;
+  private static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_io_prometheus_client_Timestamp_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_io_prometheus_client_Timestamp_fieldAccessorTable;
   private static final com.google.protobuf.Descriptors.Descriptor
     internal_static_io_prometheus_client_Metric_descriptor;
   private static
@@ -7581,30 +11766,44 @@ public final class Metrics {
     java.lang.String[] descriptorData = {
       "\n\rmetrics.proto\022\024io.prometheus.client\"(\n" +
       "\tLabelPair\022\014\n\004name\030\001 \001(\t\022\r\n\005value\030\002 \001(\t\"" +
-      "\026\n\005Gauge\022\r\n\005value\030\001 \001(\001\"\030\n\007Counter\022\r\n\005va" +
-      "lue\030\001 \001(\001\"+\n\010Quantile\022\020\n\010quantile\030\001 \001(\001\022" +
-      "\r\n\005value\030\002 \001(\001\"e\n\007Summary\022\024\n\014sample_coun" +
-      "t\030\001 \001(\004\022\022\n\nsample_sum\030\002 \001(\001\0220\n\010quantile\030" +
-      "\003 \003(\0132\036.io.prometheus.client.Quantile\"\030\n" +
-      "\007Untyped\022\r\n\005value\030\001 \001(\001\"c\n\tHistogram\022\024\n\014" +
-      "sample_count\030\001 \001(\004\022\022\n\nsample_sum\030\002 \001(\001\022," +
-      "\n\006bucket\030\003 \003(\0132\034.io.prometheus.client.Bu",
-      "cket\"7\n\006Bucket\022\030\n\020cumulative_count\030\001 \001(\004" +
-      "\022\023\n\013upper_bound\030\002 \001(\001\"\276\002\n\006Metric\022.\n\005labe" +
-      "l\030\001 \003(\0132\037.io.prometheus.client.LabelPair" +
-      "\022*\n\005gauge\030\002 \001(\0132\033.io.prometheus.client.G" +
-      "auge\022.\n\007counter\030\003 \001(\0132\035.io.prometheus.cl" +
-      "ient.Counter\022.\n\007summary\030\004 \001(\0132\035.io.prome" +
-      "theus.client.Summary\022.\n\007untyped\030\005 \001(\0132\035." +
-      "io.prometheus.client.Untyped\0222\n\thistogra" +
-      "m\030\007 \001(\0132\037.io.prometheus.client.Histogram" +
-      "\022\024\n\014timestamp_ms\030\006 \001(\003\"\210\001\n\014MetricFamily\022",
-      "\014\n\004name\030\001 \001(\t\022\014\n\004help\030\002 \001(\t\022.\n\004type\030\003 \001(" +
-      "\0162 .io.prometheus.client.MetricType\022,\n\006m" +
-      "etric\030\004 \003(\0132\034.io.prometheus.client.Metri" +
-      "c*M\n\nMetricType\022\013\n\007COUNTER\020\000\022\t\n\005GAUGE\020\001\022" +
-      "\013\n\007SUMMARY\020\002\022\013\n\007UNTYPED\020\003\022\r\n\tHISTOGRAM\020\004" +
-      "B\026\n\024io.prometheus.client"
+      "\026\n\005Gauge\022\r\n\005value\030\001 \001(\001\"J\n\007Counter\022\r\n\005va" +
+      "lue\030\001 \001(\001\0220\n\010exemplar\030\002 \001(\0132\036.io.prometh" +
+      "eus.client.Exemplar\"+\n\010Quantile\022\020\n\010quant" +
+      "ile\030\001 \001(\001\022\r\n\005value\030\002 \001(\001\"e\n\007Summary\022\024\n\014s" +
+      "ample_count\030\001 \001(\004\022\022\n\nsample_sum\030\002 \001(\001\0220\n" +
+      "\010quantile\030\003 \003(\0132\036.io.prometheus.client.Q" +
+      "uantile\"\030\n\007Untyped\022\r\n\005value\030\001 \001(\001\"\301\002\n\tHi" +
+      "stogram\022\024\n\014sample_count\030\001 \001(\004\022\022\n\nsample_",
+      "sum\030\002 \001(\001\022,\n\006bucket\030\003 \003(\0132\034.io.prometheu" +
+      "s.client.Bucket\022\016\n\006schema\030\005 \001(\021\022\026\n\016zero_" +
+      "threshold\030\006 \001(\001\022\022\n\nzero_count\030\007 \001(\004\0227\n\rn" +
+      "egative_span\030\t \003(\0132 .io.prometheus.clien" +
+      "t.BucketSpan\022\026\n\016negative_delta\030\n \003(\022\0227\n\r" +
+      "positive_span\030\014 \003(\0132 .io.prometheus.clie" +
+      "nt.BucketSpan\022\026\n\016positive_delta\030\r \003(\022\"i\n" +
+      "\006Bucket\022\030\n\020cumulative_count\030\001 \001(\004\022\023\n\013upp" +
+      "er_bound\030\002 \001(\001\0220\n\010exemplar\030\003 \001(\0132\036.io.pr" +
+      "ometheus.client.Exemplar\",\n\nBucketSpan\022\016",
+      "\n\006offset\030\001 \001(\021\022\016\n\006length\030\002 \001(\r\"}\n\010Exempl" +
+      "ar\022.\n\005label\030\001 \003(\0132\037.io.prometheus.client" +
+      ".LabelPair\022\r\n\005value\030\002 \001(\001\0222\n\ttimestamp\030\003" +
+      " \001(\0132\037.io.prometheus.client.Timestamp\"+\n" +
+      "\tTimestamp\022\017\n\007seconds\030\001 \001(\003\022\r\n\005nanos\030\002 \001" +
+      "(\005\"\276\002\n\006Metric\022.\n\005label\030\001 \003(\0132\037.io.promet" +
+      "heus.client.LabelPair\022*\n\005gauge\030\002 \001(\0132\033.i" +
+      "o.prometheus.client.Gauge\022.\n\007counter\030\003 \001" +
+      "(\0132\035.io.prometheus.client.Counter\022.\n\007sum" +
+      "mary\030\004 \001(\0132\035.io.prometheus.client.Summar",
+      "y\022.\n\007untyped\030\005 \001(\0132\035.io.prometheus.clien" +
+      "t.Untyped\0222\n\thistogram\030\007 \001(\0132\037.io.promet" +
+      "heus.client.Histogram\022\024\n\014timestamp_ms\030\006 " +
+      "\001(\003\"\210\001\n\014MetricFamily\022\014\n\004name\030\001 \001(\t\022\014\n\004he" +
+      "lp\030\002 \001(\t\022.\n\004type\030\003 \001(\0162 .io.prometheus.c" +
+      "lient.MetricType\022,\n\006metric\030\004 \003(\0132\034.io.pr" +
+      "ometheus.client.Metric*M\n\nMetricType\022\013\n\007" +
+      "COUNTER\020\000\022\t\n\005GAUGE\020\001\022\013\n\007SUMMARY\020\002\022\013\n\007UNT" +
+      "YPED\020\003\022\r\n\tHISTOGRAM\020\004B\026\n\024io.prometheus.c" +
+      "lient"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -7635,7 +11834,7 @@ public final class Metrics {
     internal_static_io_prometheus_client_Counter_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_io_prometheus_client_Counter_descriptor,
-        new java.lang.String[] { "Value", });
+        new java.lang.String[] { "Value", "Exemplar", });
     internal_static_io_prometheus_client_Quantile_descriptor =
       getDescriptor().getMessageTypes().get(3);
     internal_static_io_prometheus_client_Quantile_fieldAccessorTable = new
@@ -7659,21 +11858,39 @@ public final class Metrics {
     internal_static_io_prometheus_client_Histogram_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_io_prometheus_client_Histogram_descriptor,
-        new java.lang.String[] { "SampleCount", "SampleSum", "Bucket", });
+        new java.lang.String[] { "SampleCount", "SampleSum", "Bucket", "Schema", "ZeroThreshold", "ZeroCount", "NegativeSpan", "NegativeDelta", "PositiveSpan", "PositiveDelta", });
     internal_static_io_prometheus_client_Bucket_descriptor =
       getDescriptor().getMessageTypes().get(7);
     internal_static_io_prometheus_client_Bucket_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_io_prometheus_client_Bucket_descriptor,
-        new java.lang.String[] { "CumulativeCount", "UpperBound", });
-    internal_static_io_prometheus_client_Metric_descriptor =
+        new java.lang.String[] { "CumulativeCount", "UpperBound", "Exemplar", });
+    internal_static_io_prometheus_client_BucketSpan_descriptor =
       getDescriptor().getMessageTypes().get(8);
+    internal_static_io_prometheus_client_BucketSpan_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_io_prometheus_client_BucketSpan_descriptor,
+        new java.lang.String[] { "Offset", "Length", });
+    internal_static_io_prometheus_client_Exemplar_descriptor =
+      getDescriptor().getMessageTypes().get(9);
+    internal_static_io_prometheus_client_Exemplar_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_io_prometheus_client_Exemplar_descriptor,
+        new java.lang.String[] { "Label", "Value", "Timestamp", });
+    internal_static_io_prometheus_client_Timestamp_descriptor =
+      getDescriptor().getMessageTypes().get(10);
+    internal_static_io_prometheus_client_Timestamp_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+        internal_static_io_prometheus_client_Timestamp_descriptor,
+        new java.lang.String[] { "Seconds", "Nanos", });
+    internal_static_io_prometheus_client_Metric_descriptor =
+      getDescriptor().getMessageTypes().get(11);
     internal_static_io_prometheus_client_Metric_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_io_prometheus_client_Metric_descriptor,
         new java.lang.String[] { "Label", "Gauge", "Counter", "Summary", "Untyped", "Histogram", "TimestampMs", });
     internal_static_io_prometheus_client_MetricFamily_descriptor =
-      getDescriptor().getMessageTypes().get(9);
+      getDescriptor().getMessageTypes().get(12);
     internal_static_io_prometheus_client_MetricFamily_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessage.FieldAccessorTable(
         internal_static_io_prometheus_client_MetricFamily_descriptor,
@@ -0,0 +1,75 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.Histogram.HistogramBuilder;
+import com.outbrain.swinfra.metrics.Summary.SummaryBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares observing a batch of values one at a time with observing it with a single call to observeAll
+ */
+@Threads(4)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchObserveThroughputTest {
+
+  @State(Scope.Benchmark)
+  public static class BatchState {
+
+    @Param({"16", "256", "4096"})
+    private int batchSize;
+
+    private Histogram histogram;
+    private Summary summary;
+    private double[] doubleValues;
+    private long[] longValues;
+
+    @Setup
+    public void setup() {
+      histogram = new HistogramBuilder("histogram", "help").withLabels("label").build();
+      summary = new SummaryBuilder("summary", "help").withLabels("label").build();
+      final Random random = new Random(0);
+      doubleValues = new double[batchSize];
+      longValues = new long[batchSize];
+      for (int i = 0; i < batchSize; i++) {
+        doubleValues[i] = random.nextDouble() * 10;
+        // Latencies in milliseconds
+        longValues[i] = random.nextInt(100);
+      }
+    }
+  }
+
+  @Benchmark
+  public void observeHistogramValues(final BatchState state) {
+    for (final double value : state.doubleValues) {
+      state.histogram.observe(value, "value");
+    }
+  }
+
+  @Benchmark
+  public void observeAllHistogramValues(final BatchState state) {
+    state.histogram.observeAll(state.doubleValues, 0, state.doubleValues.length, "value");
+  }
+
+  @Benchmark
+  public void observeSummaryValues(final BatchState state) {
+    for (final long value : state.longValues) {
+      state.summary.observe(value, "value");
+    }
+  }
+
+  @Benchmark
+  public void observeAllSummaryValues(final BatchState state) {
+    state.summary.observeAll(state.longValues, 0, state.longValues.length, "value");
+  }
+}
@@ -72,4 +72,29 @@ public class CounterLatencyTest {
     }
     actualIterations = counter.getValue(LABEL_VALUES);
   }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void measureCounterLatencyWithFixedArityLabels() {
+    counter = new CounterBuilder("name", "help").withLabels("label1", "label2").build();
+    for (int i = 0; i < NUM_OF_ITERATIONS; i++) {
+      counter.inc(LABEL_VALUES[0], LABEL_VALUES[1]);
+    }
+    actualIterations = counter.getValue(LABEL_VALUES);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void measureCounterLatencyWithLabelDomains() {
+    counter = new CounterBuilder("name", "help").withLabels("label1", "label2")
+                                                .withLabelDomain("label1", LABEL_VALUES[0], "other1")
+                                                .withLabelDomain("label2", LABEL_VALUES[1], "other2")
+                                                .build();
+    for (int i = 0; i < NUM_OF_ITERATIONS; i++) {
+      counter.inc(LABEL_VALUES[0], LABEL_VALUES[1]);
+    }
+    actualIterations = counter.getValue(LABEL_VALUES);
+  }
 }
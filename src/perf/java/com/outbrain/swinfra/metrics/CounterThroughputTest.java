@@ -84,4 +84,16 @@ public class CounterThroughputTest {
     actualIterations = LABEL_VALUES.stream().mapToDouble(labelValues -> counter.getValue(labelValues)).sum();
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void measureCounterThroughputWithBoundLabels() {
+    counter = new CounterBuilder("name", "help").withLabels("label1", "label2").build();
+    final Counter.Child[] children = LABEL_VALUES.stream().map(labelValues -> counter.labels(labelValues)).toArray(Counter.Child[]::new);
+    for (int i = 0; i < NUM_OF_ITERATIONS; i++) {
+      children[i % children.length].inc();
+    }
+    actualIterations = LABEL_VALUES.stream().mapToDouble(labelValues -> counter.getValue(labelValues)).sum();
+  }
+
 }
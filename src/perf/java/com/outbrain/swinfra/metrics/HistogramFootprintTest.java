@@ -0,0 +1,79 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.Histogram.HistogramBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures concurrent observations of a histogram with many children, and prints the heap taken by every child
+ * once the observations are done, when the counters of the buckets have been striped by the contention.
+ * <p>
+ * On Java 9 and later the heap is measured by reflection into the JDK, which has to be allowed with
+ * <i>-PjvmArgs="--add-opens java.base/java.util.concurrent.atomic=ALL-UNNAMED"</i>
+ * </p>
+ */
+@Threads(4)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HistogramFootprintTest {
+
+  private static final int CHILDREN_COUNT = 10000;
+  private static final int BUCKETS_COUNT = 20;
+
+  @State(Scope.Benchmark)
+  public static class ChildrenState {
+
+    @Param({"default", "compact"})
+    private String counters;
+
+    private Histogram histogram;
+    private String[] labelValues;
+
+    @Setup
+    public void setup() {
+      final HistogramBuilder builder = new HistogramBuilder("name", "help").withLabels("label")
+                                                                           .withEqualWidthBuckets(0, 1, BUCKETS_COUNT);
+      if ("compact".equals(counters)) {
+        builder.withCompactBuckets();
+      }
+      histogram = builder.build();
+      labelValues = new String[CHILDREN_COUNT];
+      for (int i = 0; i < CHILDREN_COUNT; i++) {
+        labelValues[i] = "value" + i;
+        histogram.observe(i, labelValues[i]);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void printFootprint() {
+      final Object[] children = new Object[CHILDREN_COUNT];
+      for (int i = 0; i < CHILDREN_COUNT; i++) {
+        children[i] = histogram.metricForLabels(labelValues[i]);
+      }
+      final long bytes = GraphLayout.parseInstance(children).totalSize();
+      System.out.printf("%nHeap per child with %s counters of %d buckets: %d bytes%n",
+                        counters, BUCKETS_COUNT + 1, bytes / CHILDREN_COUNT);
+    }
+  }
+
+  @Benchmark
+  public void measureObservationsOfManyChildren(final ChildrenState state) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    // A few children are observed by most of the threads, so their counters are contended
+    final int child = random.nextInt(random.nextBoolean() ? 16 : CHILDREN_COUNT);
+    state.histogram.observe(random.nextDouble(BUCKETS_COUNT + 1), state.labelValues[child]);
+  }
+}
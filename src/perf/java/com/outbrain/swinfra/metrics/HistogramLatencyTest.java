@@ -5,9 +5,12 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Benchmark)
@@ -62,4 +65,90 @@ public class HistogramLatencyTest {
       histogram.observe(i, LABEL_VALUES);
     }
   }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void measureHistogramLatencyWithBoundLabels() {
+    histogram = new HistogramBuilder("name", "help").withLabels("label1", "label2").build();
+    final Histogram.Child child = histogram.labels(LABEL_VALUES);
+    for (int i = 0; i < NUM_OF_ITERATIONS; i++) {
+      child.observe(i);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void measureHistogramLatencyWithBucketLayouts(final BucketLayoutState state) {
+    histogram = state.histogramBuilder().build();
+    final double[] values = state.values;
+    for (int i = 0; i < NUM_OF_ITERATIONS; i++) {
+      histogram.observe(values[i & (values.length - 1)]);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void measureNativeHistogramLatency(final BucketLayoutState state) {
+    final NativeHistogram nativeHistogram = new NativeHistogram.NativeHistogramBuilder("name", "help").build();
+    final double[] values = state.values;
+    for (int i = 0; i < NUM_OF_ITERATIONS; i++) {
+      nativeHistogram.observe(values[i & (values.length - 1)]);
+    }
+  }
+
+  /**
+   * Histograms of the bucket layouts the builder supports, with 1-1000ms latencies observed in them
+   */
+  @State(Scope.Benchmark)
+  public static class BucketLayoutState {
+
+    private static final double MIN_LATENCY = 0.001;
+    private static final double MAX_LATENCY = 1;
+
+    @Param({"explicit", "equalWidth", "exponential", "logLinear"})
+    String layout;
+
+    @Param({"10", "30", "60"})
+    int bucketsCount;
+
+    @Param({"uniform", "logNormal"})
+    String distribution;
+
+    double[] values;
+
+    @Setup
+    public void setup() {
+      final Random random = new Random(17);
+      values = new double[1 << 16];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = "uniform".equals(distribution) ?
+                    MIN_LATENCY + random.nextDouble() * (MAX_LATENCY - MIN_LATENCY) :
+                    Math.min(MAX_LATENCY, 0.02 * Math.exp(random.nextGaussian()));
+      }
+    }
+
+    HistogramBuilder histogramBuilder() {
+      final double factor = Math.pow(MAX_LATENCY / MIN_LATENCY, 1.0 / (bucketsCount - 1));
+      final double width = (MAX_LATENCY - MIN_LATENCY) / (bucketsCount - 1);
+      final HistogramBuilder builder = new HistogramBuilder("name", "help");
+      switch (layout) {
+        case "equalWidth":
+          return builder.withEqualWidthBuckets(MIN_LATENCY, width, bucketsCount);
+        case "exponential":
+          return builder.withExponentialBuckets(MIN_LATENCY, factor, bucketsCount);
+        case "logLinear":
+          // The range spans 10 powers of two, so this is the closest number of buckets
+          return builder.withLogLinearBuckets(MIN_LATENCY, MAX_LATENCY, Integer.highestOneBit(bucketsCount / 10));
+        default:
+          final double[] buckets = new double[bucketsCount];
+          for (int i = 0; i < bucketsCount; i++) {
+            buckets[i] = MIN_LATENCY * Math.pow(factor, i);
+          }
+          return builder.withBuckets(buckets);
+      }
+    }
+  }
 }
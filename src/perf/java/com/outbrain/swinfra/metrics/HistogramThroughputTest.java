@@ -0,0 +1,56 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.Histogram.HistogramBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the observations of a histogram while its values are scraped by another thread
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HistogramThroughputTest {
+
+  @State(Scope.Group)
+  public static class ScrapedHistogramState {
+
+    @Param({"fast", "consistent"})
+    private String snapshots;
+
+    private Histogram histogram;
+
+    @Setup
+    public void setup() {
+      final HistogramBuilder builder = new HistogramBuilder("name", "help");
+      if ("consistent".equals(snapshots)) {
+        builder.withConsistentSnapshots();
+      }
+      histogram = builder.build();
+    }
+  }
+
+  @Benchmark
+  @Group("scraped")
+  @GroupThreads(3)
+  public void observe(final ScrapedHistogramState state) {
+    state.histogram.observe(ThreadLocalRandom.current().nextDouble(10));
+  }
+
+  @Benchmark
+  @Group("scraped")
+  @GroupThreads(1)
+  public Object scrape(final ScrapedHistogramState state) {
+    return state.histogram.metricForLabels().getValues();
+  }
+}
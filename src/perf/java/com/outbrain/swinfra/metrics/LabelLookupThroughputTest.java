@@ -0,0 +1,93 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.Counter.CounterBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the lookup of labeled children with and without the thread local cache, and with fixed label values,
+ * for sequences of label values in which the previous label values repeat at the given rate.
+ */
+@State(Scope.Benchmark)
+public class LabelLookupThroughputTest {
+
+  private static final int SEQUENCE_LENGTH = 1024;
+  private static final int NUM_OF_COMBINATIONS = 1000;
+
+  @Param({"0", "50", "90", "99"})
+  private int repeatPercent;
+
+  private String[][] sequence;
+  private Counter counter;
+  private Counter cachingCounter;
+  private Counter fixedCounter;
+
+  @Setup
+  public void setup() {
+    final Random random = new Random(1);
+    final String[][] combinations = new String[NUM_OF_COMBINATIONS][];
+    for (int i = 0; i < NUM_OF_COMBINATIONS; i++) {
+      combinations[i] = new String[]{"tenant-" + (10000 + i), "/api/v1/endpoint/" + (i % 37)};
+    }
+    sequence = new String[SEQUENCE_LENGTH][];
+    sequence[0] = combinations[0];
+    for (int i = 1; i < SEQUENCE_LENGTH; i++) {
+      sequence[i] = random.nextInt(100) < repeatPercent ?
+                    sequence[i - 1] :
+                    combinations[random.nextInt(NUM_OF_COMBINATIONS)];
+    }
+
+    counter = new CounterBuilder("name", "help").withLabels("tenant", "endpoint").build();
+    cachingCounter = new CounterBuilder("name", "help").withLabels("tenant", "endpoint")
+                                                       .withThreadLocalChildCache()
+                                                       .build();
+    fixedCounter = new CounterBuilder("name", "help").withLabels("tenant", "endpoint")
+                                                     .withFixedLabelValues(Arrays.asList(combinations))
+                                                     .build();
+    for (final String[] labelValues : combinations) {
+      counter.inc(labelValues);
+      cachingCounter.inc(labelValues);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @OperationsPerInvocation(SEQUENCE_LENGTH)
+  public void measureLookupThroughput() {
+    for (final String[] labelValues : sequence) {
+      counter.inc(labelValues[0], labelValues[1]);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @OperationsPerInvocation(SEQUENCE_LENGTH)
+  public void measureLookupThroughputWithThreadLocalCache() {
+    for (final String[] labelValues : sequence) {
+      cachingCounter.inc(labelValues[0], labelValues[1]);
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @OperationsPerInvocation(SEQUENCE_LENGTH)
+  public void measureLookupThroughputWithFixedLabelValues() {
+    for (final String[] labelValues : sequence) {
+      fixedCounter.inc(labelValues[0], labelValues[1]);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.outbrain.swinfra.metrics;
+
+import com.outbrain.swinfra.metrics.Summary.SummaryBuilder;
+import com.outbrain.swinfra.metrics.exporter.text.TextFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the text export of a summary with many children, whose quantiles are either computed by the export itself,
+ * or by background snapshots that the export only reads
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SummaryScrapeLatencyTest {
+
+  @Param({"100", "1000", "10000"})
+  private int childrenCount;
+
+  @Param({"inline", "background"})
+  private String snapshots;
+
+  private ScheduledExecutorService snapshotExecutor;
+  private TextFormatter formatter;
+  private ByteArrayOutputStream buffer;
+
+  @Setup
+  public void setup() {
+    final SummaryBuilder builder = new SummaryBuilder("name", "help").withLabels("label");
+    if ("background".equals(snapshots)) {
+      snapshotExecutor = Executors.newScheduledThreadPool(2);
+      builder.withBackgroundSnapshots(snapshotExecutor, Duration.ofSeconds(1));
+    }
+    final Summary summary = builder.build();
+    final Random random = new Random(0);
+    for (int child = 0; child < childrenCount; child++) {
+      for (int i = 0; i < 100; i++) {
+        summary.observe(random.nextInt(100_000), String.valueOf(child));
+      }
+    }
+    final MetricRegistry registry = new MetricRegistry();
+    registry.getOrRegister(summary);
+    formatter = new TextFormatter(new MetricCollector(registry));
+    buffer = new ByteArrayOutputStream(childrenCount * 1024);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (snapshotExecutor != null) {
+      snapshotExecutor.shutdownNow();
+    }
+  }
+
+  @Benchmark
+  public int scrape() throws IOException {
+    buffer.reset();
+    formatter.exportTo(buffer);
+    return buffer.size();
+  }
+}
@@ -0,0 +1,84 @@
+package com.outbrain.swinfra.metrics
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static com.outbrain.swinfra.metrics.Histogram.Buckets.withInfinity
+
+class BucketIndexTest extends Specification {
+
+    private static final double[] FEW_BOUNDS = withInfinity([1, 10, 100] as double[])
+    private static final double[] MANY_BOUNDS = withInfinity((1..50).collect { it * it / 7d } as double[])
+    private static final double[] EQUAL_WIDTH_BOUNDS = withInfinity((0..<40).collect { 0.5 + it * 0.1d } as double[])
+    private static final double[] EXPONENTIAL_BOUNDS = withInfinity((0..<40).collect { 0.001 * Math.pow(1.5, it) } as double[])
+    private static final double[] FINE_EXPONENTIAL_BOUNDS = withInfinity((0..<1000).collect { 0.001 * Math.pow(1.01, it) } as double[])
+    private static final double[] LOG_LINEAR_BOUNDS = new Histogram.HistogramBuilder('name', 'help')
+        .withLogLinearBuckets(0.001, 60, 8).build().metricForLabels().values.bucketUpperBounds
+
+    @Unroll
+    def 'The #strategy index should find the same bucket as a scan over the bounds'() {
+        given:
+            final BucketIndex scan = new BucketIndex.LinearScan(bounds)
+            final Random random = new Random(17)
+            final List<Double> values = bounds.collect { [it, Math.nextDown(it), Math.nextUp(it)] }.flatten() +
+                (1..10000).collect { random.nextDouble() * bounds[bounds.length - 2] * 1.2 } +
+                [0d, -1d, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MAX_VALUE, Double.MIN_VALUE]
+
+        expect:
+            values.every { index.indexOf(it) == scan.indexOf(it) }
+            index.indexOf(Double.NaN) == -1
+
+        where:
+            strategy       | bounds             | index
+            'scan'         | FEW_BOUNDS         | BucketIndex.search(FEW_BOUNDS)
+            'binary'       | MANY_BOUNDS        | BucketIndex.search(MANY_BOUNDS)
+            'equal width'  | EQUAL_WIDTH_BOUNDS | BucketIndex.equalWidth(EQUAL_WIDTH_BOUNDS, 0.5, 0.1)
+            'exponential'  | EXPONENTIAL_BOUNDS | BucketIndex.exponential(EXPONENTIAL_BOUNDS, 0.001, 1.5)
+            'fine exponential' | FINE_EXPONENTIAL_BOUNDS | BucketIndex.exponential(FINE_EXPONENTIAL_BOUNDS, 0.001, 1.01)
+            'log-linear'   | LOG_LINEAR_BOUNDS  | BucketIndex.logLinear(LOG_LINEAR_BOUNDS, Math.getExponent(0.001), 3)
+    }
+
+    @Unroll
+    def 'The long index should find the same bucket as a scan over the bounds in the unit #unit'() {
+        given:
+            final BucketIndex scan = new BucketIndex.LinearScan(bounds)
+            final LongBucketIndex index = new LongBucketIndex(bounds, unit)
+            final List<Long> values = bounds[0..-2].collect { it / unit as long }.collectMany { (it - 2..it + 2) as List } +
+                [0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE]
+
+        expect:
+            values.every { index.indexOf(it) == scan.indexOf(it * unit) }
+
+        where:
+            bounds             | unit
+            FEW_BOUNDS         | 1d
+            MANY_BOUNDS        | 0.01d
+            EQUAL_WIDTH_BOUNDS | 0.1d
+            EXPONENTIAL_BOUNDS | 1e-9d
+            LOG_LINEAR_BOUNDS  | 1e-6d
+    }
+
+    def 'A search over many sorted bounds should be a binary search'() {
+        expect:
+            BucketIndex.search(MANY_BOUNDS) instanceof BucketIndex.BinarySearch
+            BucketIndex.search(FEW_BOUNDS) instanceof BucketIndex.LinearScan
+    }
+
+    def 'A search over unsorted bounds should scan them'() {
+        given:
+            final double[] bounds = withInfinity((1..20).collect { (it * 7) % 20 } as double[])
+
+        expect:
+            BucketIndex.search(bounds) instanceof BucketIndex.LinearScan
+    }
+
+    def 'The approximate logarithm should be close to the logarithm'() {
+        given:
+            final Random random = new Random(17)
+
+        expect:
+            (1..10000).collect { Math.exp(random.nextDouble() * 100 - 50) }.every {
+                Math.abs(BucketIndex.Exponential.approximateLog2(it) - Math.log(it) / Math.log(2)) < 0.008
+            }
+    }
+}
@@ -74,4 +74,86 @@ class BucketsTest extends Specification {
             [1, 50, 50, 5, 5, 70, 80]  | [1, 3, 7, 7] //One event in bucket "1", two more in bucket "5", three more in "100"
             [100, 110, 110, 110, 1100] | [0, 0, 1, 5] //No events in buckets "1" and "5", one event in "100" and 4 more in the infinity bucket
     }
+
+    @Unroll
+    def 'Buckets with consistent snapshots should count observations #observations in buckets #bucketEvents'() {
+        given:
+            final double[] bounds = Buckets.withInfinity([1, 10, 100] as double[])
+            final Buckets buckets = new Buckets(cummulative, bounds, null, new BucketCounters.Phased(bounds.length))
+
+        when:
+            observations.each {buckets.add(it)}
+            buckets.values
+            observations.each {buckets.add(it)}
+
+        then:
+            buckets.values.sum == 2 * observations.sum() as double
+            buckets.values.buckets == bucketEvents.collect { 2 * it as long } as long[]
+
+        where:
+            cummulative | observations               | bucketEvents
+            true        | [1, 50, 50, 5, 5, 70, 80]  | [1, 3, 7, 7]
+            false       | [1, 50, 50, 5, 5, 70, 80]  | [1, 2, 4, 0]
+            true        | [100, 110, Double.NaN]     | [0, 0, 1, 2]
+    }
+
+    def 'Buckets with consistent snapshots should never export an observation in the buckets but not in the sum'() {
+        given:
+            final double[] bounds = Buckets.withInfinity([0.5, 2] as double[])
+            final Buckets buckets = new Buckets(true, bounds, null, new BucketCounters.Phased(bounds.length))
+            final List<Thread> threads = (1..4).collect {
+                new Thread({ 100000.times { buckets.add(1) } })
+            }
+
+        when:
+            threads*.start()
+            final List<BucketValues> snapshots = []
+            while (threads.any { it.alive }) {
+                snapshots << buckets.values
+            }
+            threads*.join()
+            snapshots << buckets.values
+
+        then:
+            snapshots.every { it.sum == it.buckets[2] && it.buckets[0] == 0 && it.buckets[1] == it.buckets[2] }
+            snapshots.last().buckets[2] == 400000
+    }
+
+    @Unroll
+    def 'Buckets with compact counters should count observations #observations in buckets #bucketEvents'() {
+        given:
+            final double[] bounds = Buckets.withInfinity([1, 10, 100] as double[])
+            final Buckets buckets = new Buckets(cummulative, bounds, null, new BucketCounters.Striped(bounds.length))
+
+        when:
+            observations.each {buckets.add(it)}
+
+        then:
+            buckets.values.sum == observations.sum() as double
+            buckets.values.buckets == bucketEvents as long[]
+
+        where:
+            cummulative | observations               | bucketEvents
+            true        | [1, 50, 50, 5, 5, 70, 80]  | [1, 3, 7, 7]
+            false       | [1, 50, 50, 5, 5, 70, 80]  | [1, 2, 4, 0]
+            true        | [100, 110, Double.NaN]     | [0, 0, 1, 2]
+    }
+
+    def 'Buckets with compact counters should count concurrent observations'() {
+        given:
+            final double[] bounds = Buckets.withInfinity([0.5, 2] as double[])
+            final Buckets buckets = new Buckets(false, bounds, null, new BucketCounters.Striped(bounds.length))
+            final List<Thread> threads = (1..8).collect { thread ->
+                new Thread({ 100000.times { buckets.add(thread % 2 == 0 ? 0.25 : 1) } })
+            }
+
+        when:
+            threads*.start()
+            threads*.join()
+            final BucketValues values = buckets.values
+
+        then:
+            values.buckets == [400000, 400000, 0] as long[]
+            values.sum == 500000
+    }
 }
@@ -2,9 +2,12 @@ package com.outbrain.swinfra.metrics
 
 import com.outbrain.swinfra.metrics.children.MetricData
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer
+import com.outbrain.swinfra.metrics.exports.LabelCardinalityMetric
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.time.Duration
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.LongAdder
 import java.util.function.Consumer
 
@@ -34,6 +37,44 @@ class CounterTest extends Specification {
             0 * metricDataConsumer._
     }
 
+    @Unroll
+    def 'A counter with an exemplar sample interval of #interval should keep the #expected exemplar'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels('a').withExemplarSampleInterval(interval).build()
+        when:
+            counter.incWithExemplar(1, ['trace_id', 'first'] as String[], 'A')
+            counter.labels('A').incWithExemplar(2, 'trace_id', 'second')
+            counter.inc(3, 'B')
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['A'], 3, {
+                it.labelsCount == 1 && it.getLabelName(0) == 'trace_id' && it.getLabelValue(0) == expected })
+            1 * metricDataConsumer.consumeCounter(counter, ['B'], 3)
+            0 * metricDataConsumer._
+        where:
+            interval            | expected
+            Duration.ofHours(1) | 'first'
+            Duration.ZERO       | 'second'
+    }
+
+    @Unroll
+    def 'A counter should reject the exemplar labels #exemplarLabels even when it keeps its exemplar'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withExemplarSampleInterval(Duration.ofHours(1)).build()
+            counter.labels().incWithExemplar(1, 'trace_id', 'first')
+        when:
+            counter.labels().incWithExemplar(1, exemplarLabels as String[])
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            counter.incWithExemplar(1, exemplarLabels as String[])
+        then:
+            thrown(IllegalArgumentException)
+            counter.getValue() == 1
+        where:
+            exemplarLabels << [['trace_id'], ['trace_id', null]]
+    }
+
     @Unroll
     def 'Counter should return #expectedValue after incrementing #increment times'() {
         given:
@@ -194,4 +235,255 @@ class CounterTest extends Specification {
         where:
             labels << [[], ["v1", ""], ["v1", "v2", "v3"]]
     }
+
+    def 'Counter child handle should increment the same child as the labeled inc'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels("l1", "l2").build()
+            final Counter.Child child = counter.labels("v1", "v2")
+
+        when:
+            child.inc()
+            child.inc(5)
+            counter.inc(2, "v1", "v2")
+
+        then:
+            child.getValue() == 8
+            counter.getValue("v1", "v2") == 8
+            counter.labels("v1", "v2").getValue() == 8
+    }
+
+    def 'Counter should validate the label values when creating a child handle'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels("l1", "l2").build()
+
+        when:
+            counter.labels("v1")
+
+        then:
+            thrown(IllegalArgumentException.class)
+    }
+
+    def 'Fixed arity inc should update the same child as the varargs inc'() {
+        given:
+            final Counter oneLabel = new CounterBuilder(NAME, HELP).withLabels("l1").build()
+            final Counter twoLabels = new CounterBuilder(NAME, HELP).withLabels("l1", "l2").build()
+            final Counter threeLabels = new CounterBuilder(NAME, HELP).withLabels("l1", "l2", "l3").build()
+
+        when:
+            oneLabel.inc("v1")
+            oneLabel.inc(2, "v1")
+            twoLabels.inc("v1", "v2")
+            twoLabels.inc(2, "v1", "v2")
+            threeLabels.inc("v1", "v2", "v3")
+            threeLabels.inc(2, "v1", "v2", "v3")
+
+        then:
+            oneLabel.getValue(["v1"] as String[]) == 3
+            twoLabels.getValue(["v1", "v2"] as String[]) == 3
+            threeLabels.getValue(["v1", "v2", "v3"] as String[]) == 3
+    }
+
+    @Unroll
+    def 'Fixed arity inc should validate the label values #labels'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels("l1", "l2").build()
+
+        when:
+            if (labels.size() == 1) counter.inc(labels[0] as String)
+            if (labels.size() == 2) counter.inc(labels[0] as String, labels[1] as String)
+            if (labels.size() == 3) counter.inc(labels[0] as String, labels[1] as String, labels[2] as String)
+
+        then:
+            thrown(IllegalArgumentException.class)
+
+        where:
+            labels << [["v1"], ["v1", ""], ["v1", "v2", "v3"]]
+    }
+
+    def 'Counter with max cardinality should fold new label values into the overflow child'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels("l1", "l2").withMaxCardinality(2).build()
+            final MetricRegistry registry = new MetricRegistry()
+            new LabelCardinalityMetric().registerMetricsTo(registry)
+            final Counter overflowed = registry.all().find { it.name == 'metrics_overflowed_label_values_total' } as Counter
+            final long overflowedBefore = overflowed.getValue(NAME)
+
+        when:
+            counter.inc("a", "b")
+            counter.inc("c", "d")
+            counter.inc("e", "f")
+            counter.inc(2, "g", "h")
+            counter.inc("a", "b")
+            counter.forEachMetricData(metricDataConsumer)
+
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['a', 'b'], 2)
+            1 * metricDataConsumer.consumeCounter(counter, ['c', 'd'], 1)
+            1 * metricDataConsumer.consumeCounter(counter, ['__overflow__', '__overflow__'], 3)
+            0 * metricDataConsumer._
+            overflowed.getValue(NAME) == overflowedBefore + 2
+    }
+
+    def 'Counter with max cardinality should still validate the label values of new children'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels("l1", "l2").withMaxCardinality(1).build()
+            counter.inc("a", "b")
+
+        when:
+            counter.inc("c")
+
+        then:
+            thrown(IllegalArgumentException.class)
+    }
+
+    def 'Counter child handle should keep counting after its child expired'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).
+                    withLabels('a').
+                    withChildExpiry(Duration.ofMillis(1)).
+                    build()
+            final Counter.Child child = counter.labels('A')
+            child.inc(3)
+        when:
+            counter.forEachMetricData(metricDataConsumer)
+            sleep(20)
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['A'], 3)
+            0 * metricDataConsumer._
+        when:
+            child.inc()
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            child.getValue() == 1
+            counter.getValue('A') == 1
+            1 * metricDataConsumer.consumeCounter(counter, ['A'], 1)
+    }
+
+    def 'Counter should stop exporting removed children and count their label values from zero'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).withLabels('tenant', 'op').build()
+            counter.inc(1, 'A', 'read')
+            counter.inc(2, 'A', 'write')
+            counter.inc(3, 'B', 'read')
+        when:
+            counter.remove('A', 'write')
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['A', 'read'], 1)
+            1 * metricDataConsumer.consumeCounter(counter, ['B', 'read'], 3)
+            0 * metricDataConsumer._
+        when:
+            counter.removeIf { it[0] == 'A' }
+            counter.inc('A', 'write')
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['A', 'write'], 1)
+            1 * metricDataConsumer.consumeCounter(counter, ['B', 'read'], 3)
+            0 * metricDataConsumer._
+        when:
+            counter.clear()
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            0 * metricDataConsumer._
+    }
+
+    def 'Counter without labels should not allow removing its child'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).build()
+        when:
+            counter.clear()
+        then:
+            thrown(UnsupportedOperationException)
+    }
+
+    def 'Counter with label domains should count each combination of the declared values'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).
+                    withLabels('method', 'cached').
+                    withLabelDomain('method', TimeUnit).
+                    withLabelDomain('cached', 'true', 'false').
+                    build()
+        when:
+            counter.inc(TimeUnit.SECONDS.name(), 'true')
+            counter.inc(2, 'SECONDS', 'true')
+            counter.inc(TimeUnit.DAYS.name(), 'false')
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['SECONDS', 'true'], 3)
+            1 * metricDataConsumer.consumeCounter(counter, ['DAYS', 'false'], 1)
+            0 * metricDataConsumer._
+    }
+
+    @Unroll
+    def 'Counter with label domains should reject the label values #labels'() {
+        given:
+            final def builder = new CounterBuilder(NAME, HELP).
+                    withLabels('method', 'status').
+                    withLabelDomain('method', 'GET', 'POST')
+            if (statusDomain) {
+                builder.withLabelDomain('status', statusDomain as String[])
+            }
+            final Counter counter = builder.build()
+        when:
+            counter.inc(labels as String[])
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            labels         | statusDomain
+            ['PUT', '200'] | ['200']
+            ['GET', '500'] | ['200']
+            ['GET']        | ['200']
+            ['PUT', '200'] | null
+            ['GET']        | null
+    }
+
+    def 'Label domains must be declared for existing labels and have distinct values'() {
+        when:
+            new CounterBuilder(NAME, HELP).withLabels('a').withLabelDomain(label, values as String[]).build()
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            label | values
+            'b'   | ['x']
+            'a'   | []
+            'a'   | ['x', 'x']
+            'a'   | ['x', ' ']
+    }
+
+    def 'Counter with fixed label values should export all of its children from the start'() {
+        given:
+            final Counter counter = new CounterBuilder(NAME, HELP).
+                    withLabels('region', 'tier').
+                    withFixedLabelValues([['us', 'web'] as String[], ['eu', 'web'] as String[]]).
+                    build()
+        when:
+            counter.inc('eu', 'web')
+            counter.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeCounter(counter, ['us', 'web'], 0)
+            1 * metricDataConsumer.consumeCounter(counter, ['eu', 'web'], 1)
+            0 * metricDataConsumer._
+        when:
+            counter.inc('ap', 'web')
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def 'Fixed label values should be validated when the counter is built'() {
+        when:
+            new CounterBuilder(NAME, HELP).withLabels('a', 'b').withFixedLabelValues(labelValues).build()
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            labelValues << [[], [['x'] as String[]], [['x', ' '] as String[]]]
+    }
+
+    def 'Max cardinality must be positive'() {
+        when:
+            new CounterBuilder(NAME, HELP).withLabels("l1").withMaxCardinality(0)
+
+        then:
+            thrown(IllegalArgumentException.class)
+    }
 }
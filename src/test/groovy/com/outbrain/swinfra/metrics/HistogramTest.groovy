@@ -1,12 +1,15 @@
 package com.outbrain.swinfra.metrics
 
 import com.outbrain.swinfra.metrics.children.MetricData
+import com.outbrain.swinfra.metrics.data.Exemplar
+import com.outbrain.swinfra.metrics.data.HistogramBucketsConsumer
 import com.outbrain.swinfra.metrics.data.HistogramData
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer
 import com.outbrain.swinfra.metrics.timing.Timer
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.time.Duration
 import java.util.function.Consumer
 
 import static com.outbrain.swinfra.metrics.Histogram.Buckets
@@ -163,6 +166,122 @@ class HistogramTest extends Specification {
             0 * consumer.accept(_)
     }
 
+    def "A Histogram with exponential buckets should return the correct buckets"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withExponentialBuckets(0.5, 2, 4).build()
+            [0.5, 0.6, 1.5, 4, 5].each { histogram.observe(it) }
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                it.metric.values.sum == 11.6 &&
+                        it.metric.values.buckets == [1, 2, 3, 4, 5] &&
+                        it.metric.values.bucketUpperBounds == [0.5d, 1d, 2d, 4d, Double.POSITIVE_INFINITY] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    def "A Histogram with consistent snapshots should return the correct buckets"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withBuckets(1, 2)
+                                                                        .withConsistentSnapshots()
+                                                                        .build()
+            [0.5, 1.5, 1.5, 3].each { histogram.observe(it) }
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                it.metric.values.sum == 6.5 &&
+                        it.metric.values.buckets == [1, 3, 4] &&
+                        it.metric.values.bucketUpperBounds == [1d, 2d, Double.POSITIVE_INFINITY] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    def "A Histogram with compact buckets should return the correct buckets"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withBuckets(1, 2)
+                                                                        .withCompactBuckets()
+                                                                        .build()
+            [0.5, 1.5, 1.5, 3].each { histogram.observe(it) }
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                it.metric.values.sum == 6.5 &&
+                        it.metric.values.buckets == [1, 3, 4] &&
+                        it.metric.values.bucketUpperBounds == [1d, 2d, Double.POSITIVE_INFINITY] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    @Unroll
+    def "An attempt to create a Histogram with exponential buckets from #start by #factor should throw an exception"() {
+        when:
+            new HistogramBuilder(NAME, HELP).withExponentialBuckets(start, factor, 4)
+
+        then:
+            thrown IllegalArgumentException
+
+        where:
+            start | factor
+            0     | 2
+            -1    | 2
+            1     | 1
+            1     | 0.5
+    }
+
+    def "A Histogram with log-linear buckets should return the correct buckets"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withLogLinearBuckets(1, 4, 2).build()
+            [0.5, 1, 1.2, 2, 2.5, 3.5, 5].each { histogram.observe(it) }
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                it.metric.values.sum == 15.7 &&
+                        it.metric.values.buckets == [2, 3, 4, 5, 6, 7] &&
+                        it.metric.values.bucketUpperBounds == [1d, 1.5d, 2d, 3d, 4d, Double.POSITIVE_INFINITY] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    def "Log-linear buckets should be rounded to powers of two"() {
+        when:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withLogLinearBuckets(0.3, 1.1, 1).build()
+        then:
+            histogram.metricForLabels().values.bucketUpperBounds == [0.25d, 0.5d, 1d, 2d, Double.POSITIVE_INFINITY]
+    }
+
+    @Unroll
+    def "An attempt to create a Histogram with log-linear buckets from #lowest to #highest by #subBuckets should throw an exception"() {
+        when:
+            new HistogramBuilder(NAME, HELP).withLogLinearBuckets(lowest, highest, subBuckets)
+
+        then:
+            thrown IllegalArgumentException
+
+        where:
+            lowest | highest                  | subBuckets
+            0      | 1                        | 4
+            1      | 1                        | 4
+            1      | Double.POSITIVE_INFINITY | 4
+            1      | 2                        | 3
+            1      | 2                        | 0
+            1e-300 | 1e300                    | 1024
+    }
+
+    def "Equal width buckets should be overwritten by explicit buckets"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withEqualWidthBuckets(0.5, 1, 4)
+                                                                        .withBuckets(1, 10, 100)
+                                                                        .build()
+            [0.5, 5, 50, 500].each { histogram.observe(it) }
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                it.metric.values.buckets == [1, 2, 3, 4] &&
+                        it.metric.values.bucketUpperBounds == [1d, 10d, 100d, Double.POSITIVE_INFINITY] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
     def "A timer should add the measured samples to the histogram"() {
         final TestClock clock = new TestClock()
         given:
@@ -183,6 +302,190 @@ class HistogramTest extends Specification {
             0 * consumer.accept(_)
     }
 
+    def "A timer should add the measured ticks to the histogram in the unit of long observations"() {
+        final TestClock clock = new TestClock()
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withClock(clock)
+                                                                        .withBuckets(0.0015, 0.0025)
+                                                                        .withLongObservationUnit(0.001)
+                                                                        .build()
+            [1, 2, 3].each {
+                clock.setTick(0)
+                final Timer timer = histogram.startTimer()
+                clock.setTick(it)
+                timer.stop()
+            }
+            histogram.observe(0.0025d)
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                Math.abs(it.metric.values.sum - 0.0085) < 1e-12 &&
+                        it.metric.values.buckets == [1, 3, 4] &&
+                        it.metric.values.bucketUpperBounds == [0.0015d, 0.0025d, Double.POSITIVE_INFINITY] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    def "Long observations should keep their precision beyond 2^53"() {
+        given:
+            final long large = (1L << 60) + 1
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withBuckets((1L << 60) as double).build()
+            histogram.observe(large)
+            histogram.observe(-large)
+        when:
+            histogram.forEachChild(consumer)
+        then:
+            1 * consumer.accept({
+                it.metric.values.sum == 0 && it.metric.values.buckets == [1, 2] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    def "An attempt to create a Histogram with a long observation unit #unit should throw an exception"() {
+        when:
+            new HistogramBuilder(NAME, HELP).withLongObservationUnit(unit)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            unit << [0, -1, Double.NaN, Double.POSITIVE_INFINITY]
+    }
+
+    def "A Histogram with a sliding window should return the observations within the window"() {
+        final TestClock clock = new TestClock()
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withClock(clock)
+                                                                        .withBuckets(1, 2)
+                                                                        .withSlidingWindow(Duration.ofNanos(30), 3)
+                                                                        .build()
+            [0: 0.5, 10: 1.5, 20: 3, 35: 1.5].each { tick, value ->
+                clock.setTick(tick)
+                histogram.observe(value as double)
+            }
+        when:
+            final HistogramData window = histogram.getWindowSnapshot()
+            final HistogramData again = histogram.getWindowSnapshot()
+            clock.setTick(50)
+            final HistogramData later = histogram.getWindowSnapshot()
+            clock.setTick(90)
+            final HistogramData empty = histogram.getWindowSnapshot()
+            histogram.forEachChild(consumer)
+        then:
+            window.sum == 6 && window.buckets == [0, 2, 3]
+            again.sum == 6 && again.buckets == [0, 2, 3]
+            later.sum == 1.5 && later.buckets == [0, 1, 1]
+            empty.sum == 0 && empty.buckets == [0, 0, 0]
+            1 * consumer.accept({
+                it.metric.values.sum == 6.5 && it.metric.values.buckets == [1, 3, 4] } as MetricData<Buckets>)
+            0 * consumer.accept(_)
+    }
+
+    def "A Histogram with a sliding window should reset the interval it takes over"() {
+        final TestClock clock = new TestClock()
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withClock(clock)
+                                                                        .withBuckets(1, 2)
+                                                                        .withSlidingWindow(Duration.ofNanos(30), 3)
+                                                                        .build()
+            [0: 0.5, 10: 1.5, 30: 3, 31: 1.5].each { tick, value ->
+                clock.setTick(tick)
+                histogram.observe(value as double)
+            }
+        when:
+            final HistogramData window = histogram.getWindowSnapshot()
+        then:
+            window.sum == 6 && window.buckets == [0, 2, 3]
+        when:
+            clock.setTick(60)
+            histogram.observe(0.5)
+        then:
+            histogram.getWindowSnapshot().with { it.sum == 0.5 && it.buckets == [1, 1, 1] }
+    }
+
+    def "A Histogram without a sliding window should throw an exception when asked for a window snapshot"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).build()
+        when:
+            histogram.getWindowSnapshot()
+        then:
+            thrown(IllegalStateException)
+    }
+
+    @Unroll
+    def "A Histogram with an exemplar sample interval of #interval should keep the #expected exemplar of a bucket"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withBuckets(1, 2)
+                                                                        .withExemplarSampleInterval(interval)
+                                                                        .build()
+            final List<Exemplar> exemplars = []
+        when:
+            histogram.observeWithExemplar(1.5, ['trace_id', 'first'] as String[])
+            histogram.labels().observeWithExemplar(1.25, 'trace_id', 'second')
+            histogram.observe(0.5)
+            histogram.metricForLabels().values.consumeBuckets(new HistogramBucketsConsumer() {
+                void apply(double upperBound, long count) {
+                }
+
+                void apply(double upperBound, long count, Exemplar exemplar) {
+                    exemplars << exemplar
+                }
+            })
+        then:
+            exemplars[0] == null
+            exemplars[1].getLabelValue(0) == expected
+            exemplars[1].value == expectedValue
+            exemplars[2] == null
+        where:
+            interval            | expected | expectedValue
+            Duration.ofHours(1) | 'first'  | 1.5
+            Duration.ZERO       | 'second' | 1.25
+    }
+
+    @Unroll
+    def "A Histogram should reject the exemplar labels #exemplarLabels even when it keeps the exemplar of the bucket"() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withBuckets(1, 2)
+                                                                        .withExemplarSampleInterval(Duration.ofHours(1))
+                                                                        .build()
+            histogram.observeWithExemplar(1.5, ['trace_id', 'first'] as String[])
+        when:
+            histogram.labels().observeWithExemplar(1.5, exemplarLabels as String[])
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            histogram.observeWithExemplar(1.5, exemplarLabels as String[])
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            exemplarLabels << [['trace_id'], ['trace_id', null]]
+    }
+
+    def 'Histogram children should share the formatted upper bounds of the buckets'() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withLabels('label')
+                                                                        .withBuckets(0.5, 1)
+                                                                        .build()
+            final List<String> first = []
+            final List<String> second = []
+        when:
+            histogram.observe(0.7, 'a')
+            histogram.observe(2, 'b')
+            histogram.metricForLabels('a').values.consumeBuckets(bucketLabelsCollector(first))
+            histogram.metricForLabels('b').values.consumeBuckets(bucketLabelsCollector(second))
+        then:
+            first == ['0.5', '1.0', '+Inf']
+            (0..2).every { first[it].is(second[it]) }
+    }
+
+    private static HistogramBucketsConsumer bucketLabelsCollector(final List<String> labels) {
+        return new HistogramBucketsConsumer() {
+            void apply(double upperBound, long count) {
+            }
+
+            void apply(double upperBound, String upperBoundLabel, long count, Exemplar exemplar) {
+                labels << upperBoundLabel
+            }
+        }
+    }
+
     def 'Histogram without labels should throw an exception when attempting to observe a value with labels'() {
         given:
             final Histogram histogram = new HistogramBuilder(NAME, HELP).build()
@@ -234,4 +537,56 @@ class HistogramTest extends Specification {
         where:
             labels << [[], ["v1", ""], ["v1", "v2", "v3"]]
     }
+
+    def 'Histogram child handle should observe values into its child'() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).withLabels("l1").withBuckets(1, 10, 100).build()
+            final Histogram.Child child = histogram.labels("v1")
+            [1, 5, 5, 50, 50, 150].each { child.observe(it) }
+        when:
+            histogram.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeHistogram(histogram, ['v1'], {
+                it.count == 6 &&
+                        it.sum == 1 + 5 + 5 + 50 + 50 + 150 &&
+                        it.buckets == [1, 3, 5, 6]
+            } as HistogramData)
+            0 * metricDataConsumer._
+    }
+
+    @Unroll
+    def 'Histogram should observe all the values of a range with #counters counters'() {
+        given:
+            final HistogramBuilder builder = new HistogramBuilder(NAME, HELP).withLabels("l1").withBuckets(1, 10, 100)
+            if (counters == 'compact') {
+                builder.withCompactBuckets()
+            } else if (counters == 'consistent') {
+                builder.withConsistentSnapshots()
+            }
+            final Histogram histogram = builder.build()
+            final double[] values = [1000, 1, 5, 5, 50, 50, 150, 1000] as double[]
+        when:
+            histogram.observeAll(values, 1, 4, "v1")
+            histogram.labels("v1").observeAll(values, 4, 7)
+        then:
+            histogram.metricForLabels("v1").values.buckets == [1, 3, 5, 6] as long[]
+            histogram.metricForLabels("v1").values.sum == 1 + 5 + 5 + 50 + 50 + 150
+        where:
+            counters << ['default', 'compact', 'consistent']
+    }
+
+    @Unroll
+    def 'Histogram should throw an exception when attempting to observe the invalid range [#from, #to)'() {
+        given:
+            final Histogram histogram = new HistogramBuilder(NAME, HELP).build()
+        when:
+            histogram.observeAll([1, 2, 3] as double[], from, to)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            from | to
+            -1   | 2
+            2    | 1
+            0    | 4
+    }
 }
@@ -0,0 +1,237 @@
+package com.outbrain.swinfra.metrics
+
+import com.outbrain.swinfra.metrics.data.MetricDataConsumer
+import com.outbrain.swinfra.metrics.data.NativeHistogramData
+import com.outbrain.swinfra.metrics.timing.Timer
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static com.outbrain.swinfra.metrics.NativeHistogram.Buckets
+import static com.outbrain.swinfra.metrics.NativeHistogram.NativeHistogramBuilder
+import static com.outbrain.swinfra.metrics.utils.MetricType.HISTOGRAM
+
+class NativeHistogramTest extends Specification {
+
+    private static final String NAME = 'myNativeHisto'
+    private static final String HELP = 'HELP'
+
+    private final MetricDataConsumer metricDataConsumer = Mock(MetricDataConsumer)
+
+    def 'NativeHistogram should return the correct type'() {
+        expect:
+            new NativeHistogramBuilder(NAME, HELP).build().getType() == HISTOGRAM
+    }
+
+    @Unroll
+    def 'The bucket of a value in schema #schema should be the bucket whose bounds contain the value'() {
+        given:
+            final Random random = new Random(schema)
+            final double base = Math.pow(2, Math.pow(2, -schema))
+
+        expect:
+            (1..10000).collect { Math.exp(random.nextDouble() * 200 - 100) }.every {
+                final int index = Buckets.indexOf(it, schema)
+                // The bounds are computed with rounding errors, so they are not compared to values right next to them
+                Math.pow(base, index - 1) < it * (1 + 1e-12) && it <= Math.pow(base, index) * (1 + 1e-12)
+            }
+
+        where:
+            schema << (NativeHistogram.MIN_SCHEMA..NativeHistogram.MAX_SCHEMA)
+    }
+
+    @Unroll
+    def 'The bucket of the power of two #value in schema #schema should be #index'() {
+        expect:
+            Buckets.indexOf(value, schema) == index
+
+        where:
+            value               | schema | index
+            1                   | 0      | 0
+            1                   | 3      | 0
+            1                   | -2     | 0
+            2                   | 0      | 1
+            2                   | 3      | 8
+            2                   | -2     | 1
+            Math.nextUp(2d)     | 0      | 2
+            Math.nextUp(2d)     | 3      | 9
+            0.5                 | 3      | -8
+            0.5                 | -2     | 0
+            0.25                | -1     | -1
+            Double.MIN_VALUE    | 0      | -1074
+            Double.MIN_NORMAL   | 1      | -2044
+    }
+
+    def 'NativeHistogram should count values in their buckets'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withSchema(0).build()
+            [0, 1e-40, 0.75, 1, 1, 3, 100, -1, -5, Double.NaN].each { histogram.observe(it) }
+
+        when:
+            final NativeHistogramData values = histogram.metricForLabels().values
+
+        then:
+            values.schema == 0
+            values.count == 10
+            Double.isNaN(values.sum)
+            values.zeroCount == 2
+            positiveBuckets(values) == [0: 3L, 2: 1L, 7: 1L]
+            negativeBuckets(values) == [0: 1L, 3: 1L]
+    }
+
+    def 'NativeHistogram without NaN should sum its values'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).build()
+            [0.5, 2, -1].each { histogram.observe(it) }
+
+        expect:
+            histogram.metricForLabels().values.sum == 1.5
+    }
+
+    def 'NativeHistogram should count values up to its zero threshold in the zero bucket'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withSchema(0)
+                                                                                  .withZeroThreshold(0.5)
+                                                                                  .build()
+            [0.5, -0.5, 0.25, 0.6].each { histogram.observe(it) }
+
+        when:
+            final NativeHistogramData values = histogram.metricForLabels().values
+
+        then:
+            values.zeroThreshold == 0.5
+            values.zeroCount == 3
+            positiveBuckets(values) == [0: 1L]
+    }
+
+    def 'NativeHistogram should count infinite values in the bucket past the largest value'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withSchema(0).build()
+            [Double.POSITIVE_INFINITY, Double.MAX_VALUE, Double.NEGATIVE_INFINITY].each { histogram.observe(it) }
+
+        when:
+            final NativeHistogramData values = histogram.metricForLabels().values
+
+        then:
+            positiveBuckets(values) == [1024: 1L, 1025: 1L]
+            negativeBuckets(values) == [1025: 1L]
+    }
+
+    def 'NativeHistogram should reduce its schema when it has more buckets than the max'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withSchema(3)
+                                                                                  .withMaxBucketsCount(10)
+                                                                                  .build()
+            (1..1000).each { histogram.observe(it) }
+            (1..10).each { histogram.observe(-it) }
+
+        when:
+            final NativeHistogramData values = histogram.metricForLabels().values
+            final Map<Integer, Long> positive = positiveBuckets(values)
+            final Map<Integer, Long> negative = negativeBuckets(values)
+
+        then:
+            values.schema == -1
+            positive.size() + negative.size() <= 10
+            positive.values().sum() == 1000
+            negative.values().sum() == 10
+            positive == (1..1000).countBy { Buckets.indexOf(it, -1) }
+            negative == (1..10).countBy { Buckets.indexOf(it, -1) }
+    }
+
+    def 'NativeHistogram should reduce its schema when its values span too many buckets'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withSchema(8)
+                                                                                  .withMaxBucketsCount(10)
+                                                                                  .build()
+            [1e-10, 1e10].each { histogram.observe(it) }
+
+        when:
+            final NativeHistogramData values = histogram.metricForLabels().values
+
+        then:
+            values.schema < 8
+            positiveBuckets(values) == [(Buckets.indexOf(1e-10, values.schema)): 1L,
+                                        (Buckets.indexOf(1e10, values.schema)): 1L]
+    }
+
+    def 'NativeHistogram should count concurrent observations'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withMaxBucketsCount(20).build()
+            final List<Thread> threads = (1..4).collect { thread ->
+                new Thread({
+                    final Random random = new Random(thread)
+                    10000.times { histogram.observe(Math.exp(random.nextGaussian() * 5)) }
+                })
+            }
+
+        when:
+            threads*.start()
+            threads*.join()
+            final NativeHistogramData values = histogram.metricForLabels().values
+
+        then:
+            values.count == 40000
+            positiveBuckets(values).values().sum() == 40000
+    }
+
+    def 'NativeHistogram should pass the data of every child to the consumer'() {
+        given:
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withLabels('label').build()
+            histogram.observe(1, 'a')
+            histogram.labels('b').observe(2)
+
+        when:
+            histogram.forEachMetricData(metricDataConsumer)
+
+        then:
+            1 * metricDataConsumer.consumeNativeHistogram(histogram, ['a'], { it.count == 1 && it.sum == 1 })
+            1 * metricDataConsumer.consumeNativeHistogram(histogram, ['b'], { it.count == 1 && it.sum == 2 })
+            0 * metricDataConsumer._
+    }
+
+    def 'A timer should add the measured samples to the native histogram'() {
+        given:
+            final TestClock clock = new TestClock()
+            final NativeHistogram histogram = new NativeHistogramBuilder(NAME, HELP).withClock(clock).withSchema(0).build()
+            clock.setTick(0)
+            final Timer timer = histogram.startTimer()
+            clock.setTick(4)
+            timer.stop()
+
+        expect:
+            positiveBuckets(histogram.metricForLabels().values) == [2: 1L]
+    }
+
+    @Unroll
+    def 'An attempt to create a NativeHistogram with schema #schema, zero threshold #zeroThreshold and max buckets #maxBuckets should throw an exception'() {
+        when:
+            new NativeHistogramBuilder(NAME, HELP).withSchema(schema)
+                                                  .withZeroThreshold(zeroThreshold)
+                                                  .withMaxBucketsCount(maxBuckets)
+                                                  .build()
+
+        then:
+            thrown IllegalArgumentException
+
+        where:
+            schema | zeroThreshold            | maxBuckets
+            -5     | 0                        | 10
+            9      | 0                        | 10
+            0      | -1                       | 10
+            0      | Double.NaN               | 10
+            0      | Double.POSITIVE_INFINITY | 10
+            0      | 0                        | 0
+    }
+
+    private static Map<Integer, Long> positiveBuckets(final NativeHistogramData values) {
+        final Map<Integer, Long> buckets = [:]
+        values.consumePositiveBuckets { index, count -> buckets[index] = count }
+        return buckets
+    }
+
+    private static Map<Integer, Long> negativeBuckets(final NativeHistogramData values) {
+        final Map<Integer, Long> buckets = [:]
+        values.consumeNegativeBuckets { index, count -> buckets[index] = count }
+        return buckets
+    }
+}
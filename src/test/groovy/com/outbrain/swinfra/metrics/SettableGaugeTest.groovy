@@ -129,4 +129,17 @@ class SettableGaugeTest extends Specification {
         thrown(IllegalArgumentException.class)
     }
 
+    def 'SettableGauge child handle should set the value of its child'() {
+        given:
+            final SettableGauge settableGauge = new SettableGaugeBuilder(NAME, HELP).withLabels("label1").build()
+            final SettableGauge.Child child = settableGauge.labels("value1")
+
+        when:
+            child.set(17)
+
+        then:
+            child.getValue() == 17
+            settableGauge.getValue("value1") == 17
+            settableGauge.getValue("value2") == 0
+    }
 }
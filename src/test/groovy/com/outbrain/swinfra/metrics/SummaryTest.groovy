@@ -1,9 +1,15 @@
 package com.outbrain.swinfra.metrics
 
 import com.outbrain.swinfra.metrics.data.MetricDataConsumer
+import com.outbrain.swinfra.metrics.data.SummaryData
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.time.Duration
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
 import java.util.function.Consumer
 
 import static com.outbrain.swinfra.metrics.Summary.SummaryBuilder
@@ -188,4 +194,247 @@ class SummaryTest extends Specification {
         then:
             thrown(IllegalArgumentException.class)
     }
+
+    def 'Summary child handle should record samples into its child'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withClock(clock).withLabels("l1").build()
+            final Summary.Child child = summary.labels("v1")
+            1.upto(10, {
+                clock.tick = 0
+                final com.outbrain.swinfra.metrics.timing.Timer timer = child.startTimer()
+                clock.tick = it
+                timer.stop()
+            })
+            child.observe(45)
+        when:
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, ['v1'], { it.count == 11 && it.sum == 100 })
+            0 * metricDataConsumer._
+    }
+
+    def 'Summary should observe all the values of a range'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withLabels("l1").build()
+            final long[] values = [1000, 5, 5, 5, -3, -3, 7, 1000] as long[]
+        when:
+            summary.observeAll(values, 1, 4, "v1")
+            summary.labels("v1").observeAll(values, 4, 7)
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, ['v1'], {
+                it.count == 6 && it.sum == 5 + 5 + 5 - 3 - 3 + 7 && it.median == 5
+            })
+            0 * metricDataConsumer._
+    }
+
+    def 'Summary with custom quantiles should export only those quantiles, in ascending order'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withNumberOfSignificantValueDigits(3)
+                                                                  .withQuantiles(0.999, 0, 0.9, 0.9)
+                                                                  .build()
+            1.upto(1000, { summary.observe(it) })
+        when:
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, [], {
+                it.quantilesCount == 3 &&
+                        (0..2).collect { i -> it.getQuantile(i) } == [0, 0.9, 0.999] &&
+                        (0..2).collect { i -> it.getQuantileValue(i) } == [1, 900, 999] &&
+                        it.getValueAtQuantile(0.9) == 900 &&
+                        Double.isNaN(it.median)
+            })
+            0 * metricDataConsumer._
+    }
+
+    @Unroll
+    def 'An attempt to create a Summary with the quantile #quantile should throw an exception'() {
+        when:
+            new SummaryBuilder(NAME, HELP).withQuantiles(quantile)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            quantile << [-0.1, 1.1, Double.NaN]
+    }
+
+    def 'Summary should report the exact sum of values beyond the precision of its quantiles'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withNumberOfSignificantValueDigits(2).build()
+        when:
+            summary.observe(1_000_003)
+            summary.observe(-2_000_005)
+            summary.observeAll([123_457, 123_457] as long[], 0, 2)
+            summary.forEachMetricData(metricDataConsumer)
+            summary.observe(7)
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, [], { it.count == 4 && it.sum == -753_088 })
+            1 * metricDataConsumer.consumeSummary(summary, [], { it.count == 5 && it.sum == -753_081 })
+            0 * metricDataConsumer._
+    }
+
+    def 'Summary with a max age should return the quantiles of the values within the window'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withClock(clock)
+                                                                  .withQuantiles(0.5, 0.999)
+                                                                  .withMaxAge(Duration.ofNanos(30), 3)
+                                                                  .build()
+            [0: 10, 10: 20, 20: -30, 35: 40].each { tick, value ->
+                clock.tick = tick
+                summary.observe(value)
+            }
+        when:
+            final SummaryData window = summary.metricForLabels().summary()
+            final SummaryData again = summary.metricForLabels().summary()
+            clock.tick = 50
+            final SummaryData later = summary.metricForLabels().summary()
+            clock.tick = 90
+            final SummaryData empty = summary.metricForLabels().summary()
+        then:
+            [window, again].every { it.getValueAtQuantile(0.5) == 20 && it.getValueAtQuantile(0.999) == 40 }
+            later.getValueAtQuantile(0.5) == 40 && later.getValueAtQuantile(0.999) == 40
+            empty.getValueAtQuantile(0.5) == 0 && empty.getValueAtQuantile(0.999) == 0
+            [window, again, later, empty].every { it.count == 4 && it.sum == 40 }
+    }
+
+    def 'Summary with a max age should reset the intervals it replaces and reuse their recorders'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withClock(clock)
+                                                                  .withQuantiles(0.5, 0.999)
+                                                                  .withMaxAge(Duration.ofNanos(30), 3)
+                                                                  .build()
+            clock.tick = 0
+            summary.observe(10)
+            summary.metricForLabels().summary()
+            clock.tick = 30
+            summary.observe(30)
+            summary.metricForLabels().summary()
+        when:
+            clock.tick = 60
+            summary.observe(50)
+            summary.observe(50)
+            final SummaryData window = summary.metricForLabels().summary()
+        then:
+            window.getValueAtQuantile(0.5) == 50 && window.getValueAtQuantile(0.999) == 50
+            window.count == 4 && window.sum == 140
+    }
+
+    @Unroll
+    def 'An attempt to create a Summary with a max age of #maxAge and #ageBuckets age buckets should throw an exception'() {
+        when:
+            new SummaryBuilder(NAME, HELP).withMaxAge(maxAge, ageBuckets)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            maxAge                | ageBuckets
+            Duration.ofMinutes(1) | 0
+            Duration.ofNanos(2)   | 3
+    }
+
+    def 'Summary with background snapshots should export the latest snapshot of every child'() {
+        given:
+            final ScheduledExecutorService executor = Mock(ScheduledExecutorService)
+            Runnable snapshots = null
+            1 * executor.scheduleAtFixedRate(_, 1_000_000_000, 1_000_000_000, TimeUnit.NANOSECONDS) >> { args ->
+                snapshots = args[0]
+                return null
+            }
+            executor.execute(_) >> { Runnable task -> task.run() }
+            final Summary summary = new SummaryBuilder(NAME, HELP).withLabels('l1')
+                                                                  .withClock(clock)
+                                                                  .withBackgroundSnapshots(executor, Duration.ofSeconds(1))
+                                                                  .build()
+            clock.tick = 0
+        when:
+            summary.observe(10, 'v1')
+            snapshots.run()
+            summary.forEachMetricData(metricDataConsumer)
+            summary.observe(20, 'v1')
+            summary.forEachMetricData(metricDataConsumer)
+            snapshots.run()
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, ['v1'], { it.count == 1 && it.median == 10 })
+            1 * metricDataConsumer.consumeSummary(summary, ['v1'], { it.count == 2 && it.sum == 30 && it.median == 10 })
+            1 * metricDataConsumer.consumeSummary(summary, ['v1'], { it.count == 2 && it.median == 20 })
+            0 * metricDataConsumer._
+    }
+
+    def 'Summary with background snapshots should compute the quantiles of a child that was not snapshotted lately'() {
+        given:
+            final ScheduledExecutorService executor = Mock(ScheduledExecutorService)
+            Runnable snapshots = null
+            executor.scheduleAtFixedRate(*_) >> { args ->
+                snapshots = args[0]
+                return null
+            }
+            executor.execute(_) >> { Runnable task -> task.run() }
+            final Summary summary = new SummaryBuilder(NAME, HELP).withClock(clock)
+                                                                  .withBackgroundSnapshots(executor, Duration.ofNanos(10))
+                                                                  .build()
+            clock.tick = 0
+            summary.observe(10)
+            snapshots.run()
+            summary.observe(30)
+        when:
+            clock.tick = 20
+            summary.forEachMetricData(metricDataConsumer)
+            clock.tick = 21
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, [], { it.count == 2 && it.median == 10 })
+            1 * metricDataConsumer.consumeSummary(summary, [], { it.count == 2 && it.median == 30 })
+            0 * metricDataConsumer._
+    }
+
+    def 'Summary background snapshots should skip busy periods, survive rejections and stop when asked'() {
+        given:
+            final ScheduledExecutorService executor = Mock(ScheduledExecutorService)
+            final ScheduledFuture future = Mock(ScheduledFuture)
+            Runnable snapshots = null
+            executor.scheduleAtFixedRate(*_) >> { args ->
+                snapshots = args[0]
+                return future
+            }
+            final List<Runnable> tasks = []
+            final Summary summary = new SummaryBuilder(NAME, HELP).withLabels('l1')
+                                                                  .withBackgroundSnapshots(executor, Duration.ofSeconds(1))
+                                                                  .build()
+            summary.observe(10, 'v1')
+        when:
+            snapshots.run()
+            snapshots.run()
+        then:
+            1 * executor.execute(_) >> { Runnable task -> tasks << task }
+        when:
+            tasks.each { it.run() }
+            snapshots.run()
+        then:
+            1 * executor.execute(_) >> { throw new RejectedExecutionException() }
+            noExceptionThrown()
+        when:
+            snapshots.run()
+            summary.observe(20, 'v1')
+            summary.stopBackgroundSnapshots()
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * executor.execute(_)
+            1 * future.cancel(false)
+            1 * metricDataConsumer.consumeSummary(summary, ['v1'], { it.count == 2 && it.median == 20 })
+    }
+
+    def 'Summary should return the quantiles of negative and non negative values'() {
+        given:
+            final Summary summary = new SummaryBuilder(NAME, HELP).withNumberOfSignificantValueDigits(3)
+                                                                  .withQuantiles(0, 0.1, 0.5, 0.6, 1)
+                                                                  .build()
+            (-100).upto(99, { summary.observe(it) })
+        when:
+            summary.forEachMetricData(metricDataConsumer)
+        then:
+            1 * metricDataConsumer.consumeSummary(summary, [], {
+                (0..4).collect { i -> it.getQuantileValue(i) } == [-100, -81, -1, 19, 99]
+            })
+            0 * metricDataConsumer._
+    }
 }
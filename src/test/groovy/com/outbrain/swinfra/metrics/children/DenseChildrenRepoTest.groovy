@@ -0,0 +1,100 @@
+package com.outbrain.swinfra.metrics.children
+
+import com.outbrain.swinfra.metrics.timing.Clock
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.Consumer
+
+class DenseChildrenRepoTest extends Specification {
+
+    private static final String[][] DOMAINS = [['GET', 'POST', 'PUT'], ['2xx', '4xx', '5xx'], ['true', 'false']]
+
+    private final AtomicInteger created = new AtomicInteger()
+    private final Consumer<String[]> validator = Mock(Consumer)
+
+    private final DenseChildrenRepo<LongAdder> repo = new DenseChildrenRepo<>(
+            DOMAINS,
+            { labelValues -> created.incrementAndGet(); new MetricData<>(new LongAdder(), labelValues) },
+            validator,
+            LabeledChildrenOptions.DEFAULT)
+
+    def 'every combination of label values should have its own child'() {
+        given:
+            final List<List<String>> combinations = [DOMAINS[0] as List, DOMAINS[1] as List, DOMAINS[2] as List].combinations()
+        when:
+            combinations.eachWithIndex { labelValues, i -> repo.metricForLabels(labelValues as String[]).add(i) }
+        then:
+            created.get() == 18
+            combinations.withIndex().every { labelValues, i ->
+                repo.metricForLabels(labelValues as String[]).sum() == i &&
+                repo.metricForLabels(labelValues[0], labelValues[1], labelValues[2]).sum() == i &&
+                repo.metricForLabels(labelValues).sum() == i
+            }
+            labelValuesOf(repo) == combinations as Set
+    }
+
+    def 'children should be created lazily with the declared label value instances'() {
+        when:
+            repo.metricForLabels(new String('GET'), new String('4xx'), new String('true')).add(1)
+            final List<MetricData<LongAdder>> children = []
+            repo.forEachMetricData { children.add(it) }
+        then:
+            children.size() == 1
+            children[0].labelValues == ['GET', '4xx', 'true']
+            children[0].labelValues[0].is(DOMAINS[0][0])
+            0 * validator.accept(_)
+    }
+
+    def 'label values outside of the domains should be rejected'() {
+        when:
+            repo.metricForLabels('DELETE', '2xx', 'true')
+        then:
+            1 * validator.accept(['DELETE', '2xx', 'true'] as String[])
+            thrown(IllegalArgumentException)
+            created.get() == 0
+    }
+
+    def 'removed and expired children should be created again from zero'() {
+        given:
+            final AtomicLong now = new AtomicLong()
+            final Clock clock = Stub(Clock) {
+                getTick(_) >> { now.get() }
+            }
+            final DenseChildrenRepo<LongAdder> expiring = new DenseChildrenRepo<>(
+                    [['a', 'b'], ['c']] as String[][],
+                    { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                    validator,
+                    LabeledChildrenOptions.DEFAULT.withChildExpiry(Duration.ofNanos(10)),
+                    clock)
+            final MetricData<LongAdder> ac = expiring.metricDataForLabels('a', 'c')
+            ac.metric.add(1)
+            expiring.metricForLabels('b', 'c').add(1)
+        when:
+            expiring.remove('b', 'c')
+            labelValuesOf(expiring)
+            now.set(10)
+        then:
+            labelValuesOf(expiring).empty
+            !ac.markUpdated()
+            expiring.metricForLabels('a', 'c').sum() == 0
+            expiring.metricForLabels('b', 'c').sum() == 0
+    }
+
+    def 'domains that are missing or too large should not be indexed'() {
+        expect:
+            DenseChildrenRepo.canIndex([['a']] as String[][])
+            !DenseChildrenRepo.canIndex([['a'], null] as String[][])
+            !DenseChildrenRepo.canIndex([] as String[][])
+            !DenseChildrenRepo.canIndex([(0..<300).collect { 'v' + it }, (0..<300).collect { 'w' + it }] as String[][])
+    }
+
+    private static Set<List<String>> labelValuesOf(final ChildMetricRepo<?> repo) {
+        final Set<List<String>> result = []
+        repo.forEachMetricData { result.add(it.labelValues) }
+        return result
+    }
+}
@@ -0,0 +1,85 @@
+package com.outbrain.swinfra.metrics.children
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.Consumer
+
+class FrozenChildrenRepoTest extends Specification {
+
+    private final Consumer<String[]> validator = Mock(Consumer)
+
+    @Unroll
+    def 'every child of #size fixed label values should be found in its own slot'() {
+        given:
+            final List<String[]> labelValues = (0..<size).collect { ['tenant' + it, 'op' + (it % 5)] as String[] }
+        when:
+            final FrozenChildrenRepo<LongAdder> repo = newRepo(labelValues)
+            labelValues.eachWithIndex { values, i -> repo.metricForLabels(values).add(i) }
+        then:
+            repo.isPerfect()
+            labelValues.withIndex().every { values, i ->
+                repo.metricForLabels(values[0], values[1]).sum() == i && repo.metricForLabels(values as List).sum() == i
+            }
+            labelValuesOf(repo) == labelValues.collect { it as List }
+        where:
+            size << [1, 2, 7, 100, 10000]
+    }
+
+    def 'fixed arity lookups should find the children of one to three label values'() {
+        given:
+            final FrozenChildrenRepo<LongAdder> one = newRepo([['a'] as String[], ['b'] as String[]])
+            final FrozenChildrenRepo<LongAdder> three = newRepo([['a', 'b', 'c'] as String[], ['a', 'b', 'd'] as String[]])
+        expect:
+            one.metricForLabels('a').is(one.metricForLabels(['a'] as String[]))
+            !one.metricForLabels('a').is(one.metricForLabels('b'))
+            three.metricForLabels('a', 'b', 'd').is(three.metricForLabels(['a', 'b', 'd'] as String[]))
+    }
+
+    def 'label values with equal hash codes should still be told apart'() {
+        given:
+            final FrozenChildrenRepo<LongAdder> repo = newRepo([['Aa'] as String[], ['BB'] as String[]])
+        when:
+            repo.metricForLabels('Aa').add(1)
+        then:
+            repo.metricForLabels('Aa').sum() == 1
+            repo.metricForLabels('BB').sum() == 0
+    }
+
+    def 'label values that are not fixed should be rejected'() {
+        given:
+            final FrozenChildrenRepo<LongAdder> repo = newRepo([['a', 'b'] as String[]])
+        when:
+            repo.metricForLabels('a', 'c')
+        then:
+            1 * validator.accept(['a', 'c'] as String[])
+            thrown(IllegalArgumentException)
+    }
+
+    def 'fixed label values given more than once should be rejected'() {
+        when:
+            newRepo([['a', 'b'] as String[], ['a', 'b'] as String[]])
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def 'children of fixed label values should not be removed'() {
+        given:
+            final FrozenChildrenRepo<LongAdder> repo = newRepo([['a'] as String[]])
+        when:
+            repo.remove('a')
+        then:
+            thrown(UnsupportedOperationException)
+    }
+
+    private FrozenChildrenRepo<LongAdder> newRepo(final List<String[]> labelValues) {
+        return new FrozenChildrenRepo<>(labelValues, { values -> new MetricData<>(new LongAdder(), values) }, validator)
+    }
+
+    private static List<List<String>> labelValuesOf(final ChildMetricRepo<?> repo) {
+        final List<List<String>> result = []
+        repo.forEachMetricData { result.add(it.labelValues) }
+        return result
+    }
+}
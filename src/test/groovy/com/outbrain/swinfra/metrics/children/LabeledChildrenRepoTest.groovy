@@ -0,0 +1,392 @@
+package com.outbrain.swinfra.metrics.children
+
+import com.outbrain.swinfra.metrics.timing.Clock
+import spock.lang.Specification
+
+import java.time.Duration
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.LongAdder
+import java.util.function.Consumer
+
+class LabeledChildrenRepoTest extends Specification {
+
+    private final AtomicInteger created = new AtomicInteger()
+    private final Consumer<String[]> validator = Mock(Consumer)
+
+    private final LabeledChildrenRepo<LongAdder> repo = new LabeledChildrenRepo<>(
+            { labelValues -> created.incrementAndGet(); new MetricData<>(new LongAdder(), labelValues) },
+            validator)
+
+    def 'metricForLabels should return the same child for equal label values'() {
+        when:
+            final LongAdder first = repo.metricForLabels('a', 'b')
+            final LongAdder second = repo.metricForLabels(new String('a'), new String('b'))
+            final LongAdder third = repo.metricForLabels(['a', 'b'])
+        then:
+            first.is(second)
+            first.is(third)
+            created.get() == 1
+            1 * validator.accept(['a', 'b'] as String[])
+    }
+
+    def 'metricForLabels should return different children for different label values'() {
+        expect:
+            !repo.metricForLabels('a', 'b').is(repo.metricForLabels('b', 'a'))
+            !repo.metricForLabels('a', 'b').is(repo.metricForLabels('a', 'c'))
+            created.get() == 3
+    }
+
+    def 'fixed arity lookups should find the children created with an array and vice versa'() {
+        when:
+            final LongAdder one = repo.metricForLabels('a')
+            final LongAdder two = repo.metricForLabels(['a', 'b'] as String[])
+            final LongAdder three = repo.metricForLabels('a', 'b', 'c')
+        then:
+            one.is(repo.metricForLabels(['a'] as String[]))
+            two.is(repo.metricForLabels('a', 'b'))
+            three.is(repo.metricForLabels(['a', 'b', 'c'] as String[]))
+            !one.is(two) && !two.is(three)
+            created.get() == 3
+    }
+
+    def 'the repo should keep its children when the caller reuses its label values array'() {
+        given:
+            final String[] labelValues = ['a', 'b']
+            repo.metricForLabels(labelValues).add(1)
+        when:
+            labelValues[0] = 'c'
+            repo.metricForLabels(labelValues).add(2)
+        then:
+            repo.metricForLabels('a', 'b').sum() == 1
+            repo.metricForLabels('c', 'b').sum() == 2
+            labelValuesOf(repo) == [['a', 'b'], ['c', 'b']] as Set
+    }
+
+    def 'the repo should find all of its children after growing'() {
+        given:
+            final List<List<String>> labelValues = (0..<1000).collect { ['v' + it, 'w' + (it % 7)] }
+        when:
+            labelValues.each { repo.metricForLabels(it as String[]).add(1) }
+            labelValues.each { repo.metricForLabels(it as String[]).add(1) }
+        then:
+            created.get() == 1000
+            labelValues.every { repo.metricForLabels(it as String[]).sum() == 2 }
+            labelValuesOf(repo) == labelValues as Set
+    }
+
+    def 'a child should not be created when the label values are invalid'() {
+        given:
+            validator.accept(_) >> { throw new IllegalArgumentException() }
+        when:
+            repo.metricForLabels('a')
+        then:
+            thrown(IllegalArgumentException)
+            created.get() == 0
+            labelValuesOf(repo).empty
+    }
+
+    def 'concurrent lookups of the same label values should create a single child'() {
+        given:
+            final int threads = 8
+            final CountDownLatch start = new CountDownLatch(1)
+            final def executor = Executors.newFixedThreadPool(threads)
+        when:
+            final def futures = (0..<threads).collect {
+                executor.submit {
+                    start.await()
+                    (0..<1000).each { repo.metricForLabels('v' + (it % 100)).increment() }
+                }
+            }
+            start.countDown()
+            futures.each { it.get() }
+            executor.shutdown()
+        then:
+            created.get() == 100
+            (0..<100).every { repo.metricForLabels('v' + it).sum() == threads * 10 }
+    }
+
+    def 'a repo with max cardinality should return the overflow child for new label values once it is full'() {
+        given:
+            final Runnable overflowListener = Mock(Runnable)
+            final LabeledChildrenRepo<LongAdder> limited = new LabeledChildrenRepo<>(
+                    { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                    validator,
+                    LabeledChildrenOptions.DEFAULT.withMaxCardinality(2),
+                    overflowListener)
+        when:
+            final LongAdder a = limited.metricForLabels('a', 'x')
+            final LongAdder b = limited.metricForLabels('b', 'x')
+            final LongAdder c = limited.metricForLabels('c', 'x')
+            final LongAdder d = limited.metricForLabels('d')
+        then:
+            !a.is(b)
+            c.is(limited.metricForLabels('__overflow__', '__overflow__'))
+            c.is(limited.metricForLabels('e', 'x'))
+            !d.is(c)
+            limited.metricForLabels('a', 'x').is(a)
+            2 * overflowListener.run()
+            labelValuesOf(limited) == [['a', 'x'], ['b', 'x'], ['__overflow__', '__overflow__'], ['__overflow__']] as Set
+    }
+
+    def 'the overflow listener should be notified once per distinct overflowed combination of label values'() {
+        given:
+            final Runnable overflowListener = Mock(Runnable)
+            final LabeledChildrenRepo<LongAdder> limited = new LabeledChildrenRepo<>(
+                    { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                    validator,
+                    LabeledChildrenOptions.DEFAULT.withMaxCardinality(1),
+                    overflowListener)
+            limited.metricForLabels('a', 'x')
+        when:
+            (0..<10).each {
+                limited.metricForLabels('b', 'x').increment()
+                limited.metricForLabels('c', 'x').increment()
+            }
+        then:
+            2 * overflowListener.run()
+            limited.metricForLabels('__overflow__', '__overflow__').sum() == 20
+    }
+
+    def 'the overflowed combinations of label values should be forgotten when the repo is cleared'() {
+        given:
+            final Runnable overflowListener = Mock(Runnable)
+            final LabeledChildrenRepo<LongAdder> limited = new LabeledChildrenRepo<>(
+                    { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                    validator,
+                    LabeledChildrenOptions.DEFAULT.withMaxCardinality(1),
+                    overflowListener)
+        when:
+            limited.metricForLabels('a', 'x')
+            limited.metricForLabels('b', 'x')
+            limited.clear()
+            limited.metricForLabels('a', 'x')
+            limited.metricForLabels('b', 'x')
+        then:
+            2 * overflowListener.run()
+    }
+
+    def 'threads that create the last child concurrently should all get it rather than the overflow child'() {
+        given:
+            final AtomicInteger overflows = new AtomicInteger()
+            final int threads = 4
+            final def executor = Executors.newFixedThreadPool(threads)
+        when:
+            final boolean allSame = (0..<200).every {
+                final LabeledChildrenRepo<LongAdder> limited = new LabeledChildrenRepo<>(
+                        { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                        validator,
+                        LabeledChildrenOptions.DEFAULT.withMaxCardinality(1),
+                        { overflows.incrementAndGet() })
+                final CountDownLatch start = new CountDownLatch(1)
+                final def futures = (0..<threads).collect {
+                    executor.submit({ start.await(); limited.metricForLabels('a', 'x') } as Callable<LongAdder>)
+                }
+                start.countDown()
+                futures.collect { it.get() }.unique { a, b -> a.is(b) ? 0 : 1 }.size() == 1
+            }
+            executor.shutdown()
+        then:
+            allSame
+            overflows.get() == 0
+    }
+
+    def 'the overflow child should not be counted against the max cardinality'() {
+        given:
+            final LabeledChildrenRepo<LongAdder> limited = new LabeledChildrenRepo<>(
+                    { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                    validator,
+                    LabeledChildrenOptions.DEFAULT.withMaxCardinality(2),
+                    {})
+            limited.metricForLabels('a', 'x')
+            limited.metricForLabels('b', 'x')
+            limited.metricForLabels('c', 'x')
+        when:
+            limited.remove('a', 'x')
+            final LongAdder d = limited.metricForLabels('d', 'x')
+        then:
+            !d.is(limited.metricForLabels('__overflow__', '__overflow__'))
+            limited.metricForLabels('e', 'x').is(limited.metricForLabels('__overflow__', '__overflow__'))
+            labelValuesOf(limited) == [['b', 'x'], ['d', 'x'], ['__overflow__', '__overflow__']] as Set
+    }
+
+    def 'children that were not updated for the expiry time should be removed when iterated'() {
+        given:
+            final AtomicLong now = new AtomicLong()
+            final LabeledChildrenRepo<LongAdder> expiring = expiringRepo(now, Duration.ofNanos(10))
+            expiring.metricForLabels('a').add(1)
+            expiring.metricForLabels('b').add(1)
+        expect:
+            labelValuesOf(expiring) == [['a'], ['b']] as Set
+        when:
+            now.set(5)
+            expiring.metricForLabels('a').add(1)
+            now.set(10)
+        then:
+            labelValuesOf(expiring) == [['a']] as Set
+        when:
+            now.set(19)
+        then:
+            labelValuesOf(expiring) == [['a']] as Set
+        when:
+            now.set(20)
+        then:
+            labelValuesOf(expiring).empty
+    }
+
+    def 'an expired child should be created again from zero and its removal should be visible to its holders'() {
+        given:
+            final AtomicLong now = new AtomicLong()
+            final LabeledChildrenRepo<LongAdder> expiring = expiringRepo(now, Duration.ofNanos(10))
+            final MetricData<LongAdder> metricData = expiring.metricDataForLabels('a', 'b')
+            metricData.metric.add(5)
+            labelValuesOf(expiring)
+        when:
+            now.set(10)
+            labelValuesOf(expiring)
+        then:
+            !metricData.markUpdated()
+        when:
+            final MetricData<LongAdder> recreated = expiring.metricDataForLabels('a', 'b')
+        then:
+            !recreated.is(metricData)
+            recreated.metric.sum() == 0
+            expiring.metricForLabels(['a', 'b'] as String[]).is(recreated.metric)
+            labelValuesOf(expiring) == [['a', 'b']] as Set
+    }
+
+    def 'children should be found after many of them expired and were replaced'() {
+        given:
+            final AtomicLong now = new AtomicLong()
+            final LabeledChildrenRepo<LongAdder> expiring = expiringRepo(now, Duration.ofNanos(1))
+        when:
+            (0..<20).each { round ->
+                (0..<50).each { expiring.metricForLabels('r' + round, 'v' + it).add(round) }
+                labelValuesOf(expiring)
+                now.incrementAndGet()
+            }
+        then:
+            (0..<50).every { expiring.metricForLabels('r19', 'v' + it).sum() == 19 }
+            labelValuesOf(expiring).size() == 50
+    }
+
+    def 'child expiry must not be negative'() {
+        when:
+            LabeledChildrenOptions.DEFAULT.withChildExpiry(Duration.ofSeconds(-1))
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def 'remove should remove only the child of the given label values'() {
+        given:
+            final MetricData<LongAdder> ab = repo.metricDataForLabels('a', 'b')
+            repo.metricForLabels('a', 'c').add(1)
+        expect:
+            repo.remove('a', 'b')
+            !repo.remove('a', 'b')
+            !repo.remove('x', 'y')
+            !ab.markUpdated()
+            labelValuesOf(repo) == [['a', 'c']] as Set
+            repo.metricForLabels('a', 'c').sum() == 1
+            repo.metricForLabels('a', 'b').sum() == 0
+            created.get() == 3
+    }
+
+    def 'removeIf should remove the children whose label values match'() {
+        given:
+            (0..<100).each { repo.metricForLabels('v' + it, it % 2 == 0 ? 'even' : 'odd').add(it) }
+        when:
+            repo.removeIf { it[1] == 'odd' }
+        then:
+            labelValuesOf(repo) == (0..<100).findAll { it % 2 == 0 }.collect { ['v' + it, 'even'] } as Set
+            (0..<100).findAll { it % 2 == 0 }.every { repo.metricForLabels('v' + it, 'even').sum() == it }
+    }
+
+    def 'clear should remove all the children and the repo should be usable afterwards'() {
+        given:
+            (0..<1000).each { repo.metricForLabels('v' + it).add(1) }
+        when:
+            repo.clear()
+        then:
+            labelValuesOf(repo).empty
+        when:
+            (0..<10).each { repo.metricForLabels('w' + it).add(1) }
+        then:
+            labelValuesOf(repo) == (0..<10).collect { ['w' + it] } as Set
+            repo.metricForLabels('v0').sum() == 0
+    }
+
+    def 'updates racing with removals should never be lost'() {
+        given:
+            final List<LongAdder> allChildren = [].asSynchronized()
+            final LabeledChildrenRepo<LongAdder> tracking = new LabeledChildrenRepo<>(
+                    { labelValues ->
+                        final LongAdder adder = new LongAdder()
+                        allChildren.add(adder)
+                        new MetricData<>(adder, labelValues)
+                    },
+                    validator)
+            final int threads = 4
+            final CountDownLatch start = new CountDownLatch(1)
+            final def executor = Executors.newFixedThreadPool(threads + 1)
+        when:
+            final def futures = (0..<threads).collect {
+                executor.submit {
+                    start.await()
+                    (0..<10000).each { tracking.metricForLabels('v' + (it % 10)).increment() }
+                }
+            }
+            final def remover = executor.submit {
+                start.await()
+                (0..<1000).each { tracking.remove('v' + (it % 10)) }
+            }
+            start.countDown()
+            futures.each { it.get() }
+            remover.get()
+            executor.shutdown()
+        then:
+            allChildren.sum { it.sum() } == threads * 10000
+    }
+
+    def 'a repo with interned label values should share the label value instances between its children'() {
+        given:
+            final LabeledChildrenRepo<LongAdder> interning = new LabeledChildrenRepo<>(
+                    { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                    validator,
+                    LabeledChildrenOptions.DEFAULT.withInternedLabelValues(),
+                    {})
+            final String status = '200'
+        when:
+            interning.metricForLabels('GET', new String(status)).add(1)
+            interning.metricForLabels('POST', new String(status)).add(2)
+            final List<MetricData<LongAdder>> children = []
+            interning.forEachMetricData { children.add(it) }
+        then:
+            children.size() == 2
+            children[0].labelValues[1].is(children[1].labelValues[1])
+            interning.metricForLabels('GET', new String(status)).sum() == 1
+            interning.metricForLabels('POST', status).sum() == 2
+    }
+
+    private LabeledChildrenRepo<LongAdder> expiringRepo(final AtomicLong now, final Duration expiry) {
+        final Clock clock = Stub(Clock) {
+            getTick(_) >> { now.get() }
+        }
+        return new LabeledChildrenRepo<>(
+                { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+                validator,
+                LabeledChildrenOptions.DEFAULT.withChildExpiry(expiry),
+                {},
+                clock)
+    }
+
+    private static Set<List<String>> labelValuesOf(final ChildMetricRepo<?> repo) {
+        final Set<List<String>> result = []
+        repo.forEachMetricData { result.add(it.labelValues) }
+        return result
+    }
+}
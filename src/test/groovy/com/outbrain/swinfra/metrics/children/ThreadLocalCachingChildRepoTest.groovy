@@ -0,0 +1,66 @@
+package com.outbrain.swinfra.metrics.children
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.LongAdder
+
+class ThreadLocalCachingChildRepoTest extends Specification {
+
+    private final LabeledChildrenRepo<LongAdder> delegate = Spy(LabeledChildrenRepo, constructorArgs: [
+            { labelValues -> new MetricData<>(new LongAdder(), labelValues) },
+            { labelValues -> }])
+
+    private final ThreadLocalCachingChildRepo<LongAdder> repo = new ThreadLocalCachingChildRepo<>(delegate)
+
+    def 'repeated lookups of the same label values should not reach the wrapped repo'() {
+        when:
+            final LongAdder first = repo.metricForLabels('a', 'b')
+            final LongAdder second = repo.metricForLabels(new String('a'), new String('b'))
+            final LongAdder third = repo.metricForLabels(['a', 'b'] as String[])
+        then:
+            first.is(second)
+            first.is(third)
+            1 * delegate.metricDataForLabels(*_)
+    }
+
+    def 'lookups of other label values should return their own children'() {
+        when:
+            final LongAdder ab = repo.metricForLabels('a', 'b')
+            final LongAdder ac = repo.metricForLabels('a', 'c')
+            final LongAdder a = repo.metricForLabels('a')
+            final LongAdder abAgain = repo.metricForLabels('a', 'b')
+        then:
+            ab.is(abAgain)
+            !ab.is(ac)
+            !a.is(ab) && !a.is(ac)
+            4 * delegate.metricDataForLabels(*_)
+            0 * delegate.metricDataForLabels(_ as String[])
+    }
+
+    def 'a removed child should not be returned from the cache'() {
+        given:
+            final LongAdder removed = repo.metricForLabels('a', 'b')
+        when:
+            repo.remove('a', 'b')
+            final LongAdder recreated = repo.metricForLabels('a', 'b')
+        then:
+            !recreated.is(removed)
+            recreated.is(delegate.metricForLabels('a', 'b'))
+    }
+
+    def 'every thread should keep its own last child'() {
+        given:
+            final def executor = Executors.newSingleThreadExecutor()
+            repo.metricForLabels('a')
+        when:
+            final LongAdder otherThreadChild = executor.submit({ repo.metricForLabels('b') } as Callable).get()
+            executor.shutdown()
+            final LongAdder thisThreadChild = repo.metricForLabels('a')
+        then:
+            !otherThreadChild.is(thisThreadChild)
+            thisThreadChild.is(delegate.metricForLabels('a'))
+            otherThreadChild.is(delegate.metricForLabels('b'))
+    }
+}
@@ -199,6 +199,71 @@ class ProtobufFormatterTest extends Specification {
              bucketOf(17d, 0), bucketOf(POSITIVE_INFINITY, 1)] as Set == families.find { it.name == 'Histogram2'}.metricList.find { it.histogram.sampleSum == 19 }.histogram.bucketList as Set
     }
 
+    def 'appends the exemplars of counters and histogram buckets in protobuf format to given output buffer'() {
+        given:
+            final long before = System.currentTimeMillis()
+            Counter counter = new Counter.CounterBuilder('Counter1', 'help').build()
+            counter.labels().incWithExemplar(3, 'trace_id', 'abc')
+            Histogram histogram = new Histogram.HistogramBuilder('Histogram1', 'help').withBuckets(1, 10).build()
+            histogram.observeWithExemplar(5, ['trace_id', 'def'] as String[])
+
+            collector.iterator() >> [counter, histogram].iterator()
+            collector.staticLabels >> [:]
+
+        when:
+            formatter.exportTo(output)
+
+            List<MetricFamily> families = deserialize(output)
+            Metrics.Exemplar counterExemplar = families.find { it.name == 'Counter1' }.metricList.first().counter.exemplar
+            List<Metrics.Bucket> buckets = families.find { it.name == 'Histogram1' }.metricList.first().histogram.bucketList
+
+        then:
+            3d == counterExemplar.value
+            ['trace_id': 'abc'] == counterExemplar.labelList.collectEntries { [(it.name): it.value] }
+            counterExemplar.timestamp.seconds * 1000 + counterExemplar.timestamp.nanos / 1000000 >= before
+
+            [false, true, false] == buckets.collect { it.hasExemplar() }
+            5d == buckets[1].exemplar.value
+            ['trace_id': 'def'] == buckets[1].exemplar.labelList.collectEntries { [(it.name): it.value] }
+    }
+
+    def 'appends a collector native histogram metric samples in protobuf format to given output buffer'() {
+        given:
+            NativeHistogram histogram1 = new NativeHistogram.NativeHistogramBuilder('NativeHistogram1', 'help').withSchema(0).build()
+            [0, 1, 1, 2, 7, 8, 100, -0.5].each { histogram1.observe(it) }
+            NativeHistogram histogram2 = new NativeHistogram.NativeHistogramBuilder('NativeHistogram2', 'help').build()
+
+            collector.iterator() >> [histogram1, histogram2].iterator()
+            collector.staticLabels >> [:]
+
+        when:
+            formatter.exportTo(output)
+
+            List<MetricFamily> families = deserialize(output)
+            Metrics.Histogram histogram = families.find { it.name == 'NativeHistogram1' }.metricList.first().histogram
+            Metrics.Histogram emptyHistogram = families.find { it.name == 'NativeHistogram2' }.metricList.first().histogram
+
+        then:
+            [HISTOGRAM] as Set == families.collect() { it.type } as Set
+
+            8L == histogram.sampleCount
+            118.5d == histogram.sampleSum
+            0 == histogram.schema
+            1L == histogram.zeroCount
+            NativeHistogram.NativeHistogramBuilder.DEFAULT_ZERO_THRESHOLD == histogram.zeroThreshold
+            // The buckets 0 and 1, 3 and 7, each span starting after the gap from the previous one
+            [spanOf(0, 2), spanOf(1, 1), spanOf(3, 1)] == histogram.positiveSpanList
+            [2L, -1L, 1L, -1L] == histogram.positiveDeltaList
+            [spanOf(-1, 1)] == histogram.negativeSpanList
+            [1L] == histogram.negativeDeltaList
+            histogram.bucketList.empty
+
+            0L == emptyHistogram.sampleCount
+            5 == emptyHistogram.schema
+            [spanOf(0, 0)] == emptyHistogram.positiveSpanList
+            emptyHistogram.positiveDeltaList.empty
+    }
+
     def 'appends a collector various metric samples in protobuf format to given output buffer'() {
         given:
             Counter counter = new Counter.CounterBuilder('Counter', 'helpCounter').withLabels('mytype').build()
@@ -246,6 +311,10 @@ class ProtobufFormatterTest extends Specification {
         Metrics.Bucket.newBuilder().setCumulativeCount(count).setUpperBound(upperBound).build()
     }
 
+    private static Metrics.BucketSpan spanOf(int offset, int length) {
+        Metrics.BucketSpan.newBuilder().setOffset(offset).setLength(length).build()
+    }
+
     private static List<MetricFamily> deserialize(ByteArrayOutputStream output) {
         ByteArrayInputStream serialized = new ByteArrayInputStream(output.toByteArray())
         List<MetricFamily> families = []
@@ -150,6 +150,77 @@ Histogram2_bucket{a="b",label="labelValue",le="100.0",} 2.0
 Histogram2_bucket{a="b",label="labelValue",le="+Inf",} 2.0
 Histogram2_count{a="b",label="labelValue",} 2.0
 Histogram2_sum{a="b",label="labelValue",} 19.19
+'''
+    }
+
+    def 'appends counter and histogram samples with exemplars in OpenMetrics format to given output buffer'() {
+        given:
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            MetricCollector collector = Mock(MetricCollector)
+            Counter counter = new Counter.CounterBuilder('requests_total', 'help "quoted"').withLabels('label').build()
+            counter.incWithExemplar(17, ['trace_id', 'abc'] as String[], 'labelValue')
+            Histogram histogram = new Histogram.HistogramBuilder('Histogram1', 'help').withBuckets(1, 10).build()
+            histogram.labels().observeWithExemplar(0.5, 'trace_id', 'def', 'span_id', '1')
+            histogram.observe(5)
+            collector.iterator() >> [counter, histogram].iterator()
+            collector.staticLabels >> ['a':'b']
+
+            formatter = TextFormatter.openMetrics(collector)
+        when:
+            formatter.exportTo(output)
+        then:
+            output.toString().replaceAll(/ \d+\.\d{3}\n/, ' <timestamp>\n') == '''# HELP requests help \\"quoted\\"
+# TYPE requests counter
+requests_total{a="b",label="labelValue"} 17.0 # {trace_id="abc"} 17.0 <timestamp>
+# HELP Histogram1 help
+# TYPE Histogram1 histogram
+Histogram1_bucket{a="b",le="1.0"} 1.0 # {trace_id="def",span_id="1"} 0.5 <timestamp>
+Histogram1_bucket{a="b",le="10.0"} 2.0
+Histogram1_bucket{a="b",le="+Inf"} 2.0
+Histogram1_count{a="b"} 2.0
+Histogram1_sum{a="b"} 5.5
+'''
+    }
+
+    def 'ignores exemplars in text format'() {
+        given:
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            MetricCollector collector = Mock(MetricCollector)
+            Counter counter = new Counter.CounterBuilder('Counter1', 'help').build()
+            counter.incWithExemplar(17, ['trace_id', 'abc'] as String[])
+            collector.iterator() >> [counter].iterator()
+            collector.staticLabels >> [:]
+
+            formatter = new TextFormatter(collector)
+        when:
+            formatter.exportTo(output)
+        then:
+            output.toString() == '''# HELP Counter1 help
+# TYPE Counter1 counter
+Counter1 17.0
+'''
+    }
+
+    def 'appends native histogram samples in text format to given output buffer'() {
+        given:
+            ByteArrayOutputStream output = new ByteArrayOutputStream()
+            MetricCollector collector = Mock(MetricCollector)
+            NativeHistogram histogram = new NativeHistogram.NativeHistogramBuilder('NativeHistogram1', 'help').
+                    withLabels('label').build()
+            histogram.observe(0.19, 'labelValue')
+            histogram.observe(19, 'labelValue')
+            collector.iterator() >> [histogram].iterator()
+            collector.staticLabels >> ['a':'b']
+
+            formatter = new TextFormatter(collector)
+        when:
+            formatter.exportTo(output)
+        then:
+            output.toString() == '''# HELP NativeHistogram1 help
+# TYPE NativeHistogram1 histogram
+NativeHistogram1_bucket{a="b",label="labelValue",le="+Inf",} 2.0
+NativeHistogram1_count{a="b",label="labelValue",} 2.0
+NativeHistogram1_sum{a="b",label="labelValue",} 19.19
 '''
     }
 }